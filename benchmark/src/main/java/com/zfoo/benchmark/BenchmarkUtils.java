@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark;
+
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public abstract class BenchmarkUtils {
+
+    public static final String NET_CONFIG_LOCATION = "benchmark_net_config.xml";
+
+    private static ClassPathXmlApplicationContext netContext;
+
+    /**
+     * net模块的TaskBus，PacketService之类的组件都依赖NetContext，所以需要先启动一个只有net配置的spring容器。
+     * <p>
+     * jmh默认每个benchmark都会fork一个新的jvm，所以这个容器在每个jvm中只会启动一次
+     */
+    public static synchronized void startNetContext() {
+        if (netContext != null) {
+            return;
+        }
+        netContext = new ClassPathXmlApplicationContext(NET_CONFIG_LOCATION);
+        netContext.registerShutdownHook();
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.event;
+
+import com.zfoo.event.model.event.IEvent;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class BenchmarkEvent implements IEvent {
+
+    private int threadId;
+
+    public static BenchmarkEvent valueOf(int threadId) {
+        var event = new BenchmarkEvent();
+        event.threadId = threadId;
+        return event;
+    }
+
+    @Override
+    public int threadId() {
+        return threadId;
+    }
+
+}
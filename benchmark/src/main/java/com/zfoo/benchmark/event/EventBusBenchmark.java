@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.event;
+
+import com.zfoo.event.manager.EventBus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventBus.asyncSubmit的基准测试，每次调用抛出BATCH_SIZE个异步事件到所有的event线程，并且等待全部执行完成
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventBusBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final AtomicLong RECEIVED_COUNT = new AtomicLong(0);
+
+    private BenchmarkEvent[] events;
+
+    @Setup
+    public void setup() {
+        EventBus.registerEventReceiver(BenchmarkEvent.class, event -> RECEIVED_COUNT.incrementAndGet());
+
+        events = new BenchmarkEvent[BATCH_SIZE];
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            events[i] = BenchmarkEvent.valueOf(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long asyncSubmit() {
+        var target = RECEIVED_COUNT.get() + BATCH_SIZE;
+        for (var event : events) {
+            EventBus.asyncSubmit(event);
+        }
+        long count;
+        while ((count = RECEIVED_COUNT.get()) < target) {
+            Thread.onSpinWait();
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.net;
+
+import com.zfoo.benchmark.packet.SimpleObject;
+import com.zfoo.net.router.receiver.PacketReceiver;
+import com.zfoo.net.session.model.Session;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TaskBusBenchmark的消息接收者，只统计处理过的消息数量
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@Component
+public class BenchmarkController {
+
+    public static final AtomicLong RECEIVED_COUNT = new AtomicLong(0);
+
+    @PacketReceiver
+    public void atSimpleObject(Session session, SimpleObject packet) {
+        RECEIVED_COUNT.incrementAndGet();
+    }
+
+}
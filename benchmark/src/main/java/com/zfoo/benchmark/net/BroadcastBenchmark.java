@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.net;
+
+import com.zfoo.benchmark.BenchmarkUtils;
+import com.zfoo.benchmark.packet.BenchmarkPackets;
+import com.zfoo.benchmark.packet.NormalObject;
+import com.zfoo.net.NetContext;
+import com.zfoo.net.handler.codec.tcp.TcpCodecHandler;
+import com.zfoo.net.session.model.Session;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同一个消息推送给sessionSize个session，比较逐个send和只编码一次的broadcast
+ * <p>
+ * 一次操作是推送给所有的session，EmbeddedChannel不涉及真实的网络io，所以只反映编码和pipeline的开销
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastBenchmark {
+
+    @Param({"16", "1024"})
+    public int sessionSize;
+
+    private final NormalObject normalObject = BenchmarkPackets.normalObject();
+
+    private List<Session> sessions;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.startNetContext();
+
+        sessions = new ArrayList<>(sessionSize);
+        for (var i = 0; i < sessionSize; i++) {
+            sessions.add(new Session(new EmbeddedChannel(new TcpCodecHandler())));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessions.forEach(it -> ((EmbeddedChannel) it.getChannel()).finishAndReleaseAll());
+    }
+
+    @Benchmark
+    public void sendEach() {
+        var router = NetContext.getRouter();
+        for (var session : sessions) {
+            router.send(session, normalObject, null);
+        }
+        releaseOutbound();
+    }
+
+    @Benchmark
+    public void broadcast() {
+        NetContext.getRouter().broadcast(sessions, normalObject);
+        releaseOutbound();
+    }
+
+    private void releaseOutbound() {
+        for (var session : sessions) {
+            ((EmbeddedChannel) session.getChannel()).releaseOutbound();
+        }
+    }
+
+}
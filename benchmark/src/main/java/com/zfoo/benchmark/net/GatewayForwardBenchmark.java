@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.net;
+
+import com.zfoo.benchmark.BenchmarkUtils;
+import com.zfoo.benchmark.packet.BenchmarkPackets;
+import com.zfoo.net.NetContext;
+import com.zfoo.net.router.attachment.SignalAttachment;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关转发一个包的开销：完整的反序列化再序列化，和只解析附加包的透传
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GatewayForwardBenchmark {
+
+    private final SignalAttachment signalAttachment = new SignalAttachment();
+
+    private ByteBuf body;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.startNetContext();
+        var packetService = NetContext.getPacketService();
+        var frame = ByteBufAllocator.DEFAULT.heapBuffer();
+        packetService.write(frame, BenchmarkPackets.normalObject(), signalAttachment);
+        body = frame.skipBytes(4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        body.release();
+    }
+
+    @Benchmark
+    public int decodeAndEncode() {
+        var packetService = NetContext.getPacketService();
+        var packetInfo = packetService.read(body.duplicate());
+        var out = ByteBufAllocator.DEFAULT.ioBuffer(packetService.estimateSize(packetInfo.getPacket(), signalAttachment));
+        packetService.write(out, packetInfo.getPacket(), signalAttachment);
+        var length = out.readableBytes();
+        out.release();
+        return length;
+    }
+
+    @Benchmark
+    public int passThrough() {
+        var packetService = NetContext.getPacketService();
+        var packetInfo = packetService.readPassThrough(body.duplicate());
+        var packetByteBuf = packetInfo.getPacketByteBuf();
+        try {
+            var out = ByteBufAllocator.DEFAULT.ioBuffer(4 + packetByteBuf.readableBytes() + 64);
+            packetService.writePassThrough(out, packetByteBuf, signalAttachment);
+            var length = out.readableBytes();
+            out.release();
+            return length;
+        } finally {
+            ReferenceCountUtil.release(packetByteBuf);
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.net;
+
+import com.zfoo.net.session.model.Session;
+import com.zfoo.net.session.model.SessionTable;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionTable和ConcurrentHashMap<Long, Session>的查找和遍历基准测试，模拟网关上sessionSize个连接
+ * <p>
+ * 多线程查找的情况可以加上-t参数，如：java -jar benchmarks.jar SessionTableBenchmark -t 8
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionTableBenchmark {
+
+    @Param({"100000"})
+    private int sessionSize;
+
+    private final Map<Long, Session> sessionMap = new ConcurrentHashMap<>();
+
+    private final SessionTable sessionTable = new SessionTable();
+
+    private long minSid;
+
+    /**
+     * 每个线程用不同的步长随机访问，避免顺序访问sid带来的缓存局部性
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private long index = 0;
+
+        private long next(int sessionSize) {
+            index = (index + 7919) % sessionSize;
+            return index;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        var channel = new EmbeddedChannel();
+        for (var i = 0; i < sessionSize; i++) {
+            var session = new Session(channel);
+            if (i == 0) {
+                minSid = session.getSid();
+            }
+            sessionMap.put(session.getSid(), session);
+            sessionTable.add(session);
+        }
+    }
+
+    @Benchmark
+    public Session concurrentHashMapGet(Cursor cursor) {
+        return sessionMap.get(minSid + cursor.next(sessionSize));
+    }
+
+    @Benchmark
+    public Session sessionTableGet(Cursor cursor) {
+        return sessionTable.get(minSid + cursor.next(sessionSize));
+    }
+
+    @Benchmark
+    public void concurrentHashMapForEach(Blackhole blackhole) {
+        sessionMap.values().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void sessionTableForEach(Blackhole blackhole) {
+        sessionTable.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void sessionTableParallelForEach(Blackhole blackhole) {
+        sessionTable.parallelForEach(blackhole::consume);
+    }
+
+}
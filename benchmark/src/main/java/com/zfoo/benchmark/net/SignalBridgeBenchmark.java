@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.net;
+
+import com.zfoo.net.router.attachment.SignalAttachment;
+import com.zfoo.net.router.route.SignalBridge;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SignalBridge的add/remove基准测试，inFlight表示每条线程同时在等待应答的请求数量
+ * <p>
+ * 多线程的情况可以加上-t参数，如：java -jar benchmarks.jar SignalBridgeBenchmark -t 8
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SignalBridgeBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    private int inFlight;
+
+    private SignalAttachment[] attachments;
+
+    @Setup
+    public void setup() {
+        attachments = new SignalAttachment[inFlight];
+        for (var i = 0; i < inFlight; i++) {
+            attachments[i] = new SignalAttachment();
+        }
+    }
+
+    /**
+     * 每次调用会先add再remove全部inFlight个附加包，吞吐量需要乘以inFlight才是add/remove的次数
+     */
+    @Benchmark
+    public int addAndRemove() {
+        for (var attachment : attachments) {
+            SignalBridge.addSignalAttachment(attachment);
+        }
+        var count = 0;
+        for (var attachment : attachments) {
+            if (SignalBridge.removeSignalAttachment(attachment) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
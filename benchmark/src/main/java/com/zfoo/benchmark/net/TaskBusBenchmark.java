@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.net;
+
+import com.zfoo.benchmark.BenchmarkUtils;
+import com.zfoo.benchmark.packet.BenchmarkPackets;
+import com.zfoo.benchmark.packet.SimpleObject;
+import com.zfoo.net.session.model.Session;
+import com.zfoo.net.task.TaskBus;
+import com.zfoo.net.task.model.PacketReceiverTask;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskBus.submit的基准测试，每次调用提交BATCH_SIZE个任务到所有的task线程，并且等待全部执行完成，测试的是端到端的派发吞吐量
+ * <p>
+ * jmh会为每个taskDispatch参数fork一个新的jvm，所以可以在setup中通过系统属性切换TaskBus的派发模式
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskBusBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    @Param({"consistent-hash", "work-stealing"})
+    public String taskDispatch;
+
+    private final SimpleObject simpleObject = BenchmarkPackets.simpleObject();
+
+    private Session[] sessions;
+
+    @Setup
+    public void setup() {
+        System.setProperty("benchmark.task-dispatch", taskDispatch);
+        BenchmarkUtils.startNetContext();
+
+        // 没有附加包和uid的时候通过sid派发，每个task线程对应一个session
+        sessions = new Session[TaskBus.EXECUTOR_SIZE];
+        for (var i = 0; i < sessions.length; i++) {
+            sessions[i] = new Session(new EmbeddedChannel());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long submit() {
+        var target = BenchmarkController.RECEIVED_COUNT.get() + BATCH_SIZE;
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            TaskBus.submit(new PacketReceiverTask(sessions[i % sessions.length], simpleObject, null));
+        }
+        long count;
+        while ((count = BenchmarkController.RECEIVED_COUNT.get()) < target) {
+            Thread.onSpinWait();
+        }
+        return count;
+    }
+
+}
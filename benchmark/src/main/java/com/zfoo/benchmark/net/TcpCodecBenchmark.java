@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.net;
+
+import com.zfoo.benchmark.BenchmarkUtils;
+import com.zfoo.benchmark.packet.BenchmarkPackets;
+import com.zfoo.benchmark.packet.NormalObject;
+import com.zfoo.benchmark.packet.SimpleObject;
+import com.zfoo.net.handler.codec.tcp.TcpCodecHandler;
+import com.zfoo.net.packet.model.EncodedPacketInfo;
+import com.zfoo.net.router.attachment.SignalAttachment;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TcpCodecHandler编解码的基准测试，使用EmbeddedChannel走完整的netty pipeline，不涉及真实的网络io
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TcpCodecBenchmark {
+
+    private final SimpleObject simpleObject = BenchmarkPackets.simpleObject();
+    private final NormalObject normalObject = BenchmarkPackets.normalObject();
+    private final SignalAttachment signalAttachment = new SignalAttachment();
+
+    private EmbeddedChannel channel;
+
+    private ByteBuf encodedSimpleObject;
+    private ByteBuf encodedNormalObject;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.startNetContext();
+
+        channel = new EmbeddedChannel(new TcpCodecHandler());
+
+        channel.writeOutbound(EncodedPacketInfo.valueOf(simpleObject, null));
+        encodedSimpleObject = channel.readOutbound();
+
+        channel.writeOutbound(EncodedPacketInfo.valueOf(normalObject, signalAttachment));
+        encodedNormalObject = channel.readOutbound();
+    }
+
+    @TearDown
+    public void tearDown() {
+        encodedSimpleObject.release();
+        encodedNormalObject.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encodeSimpleObject() {
+        return encode(EncodedPacketInfo.valueOf(simpleObject, null));
+    }
+
+    @Benchmark
+    public int encodeNormalObject() {
+        return encode(EncodedPacketInfo.valueOf(normalObject, signalAttachment));
+    }
+
+    @Benchmark
+    public Object decodeSimpleObject() {
+        return decode(encodedSimpleObject);
+    }
+
+    @Benchmark
+    public Object decodeNormalObject() {
+        return decode(encodedNormalObject);
+    }
+
+    private int encode(EncodedPacketInfo packetInfo) {
+        channel.writeOutbound(packetInfo);
+        ByteBuf out = channel.readOutbound();
+        var length = out.readableBytes();
+        out.release();
+        return length;
+    }
+
+    private Object decode(ByteBuf encoded) {
+        channel.writeInbound(encoded.retainedDuplicate());
+        return channel.readInbound();
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.orm;
+
+import com.zfoo.orm.model.anno.Id;
+import com.zfoo.orm.model.entity.IEntity;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class BenchmarkEntity implements IEntity<Long> {
+
+    @Id
+    private long id;
+
+    private int level;
+
+    private String name;
+
+    public static BenchmarkEntity valueOf(long id, int level, String name) {
+        var entity = new BenchmarkEntity();
+        entity.id = id;
+        entity.level = level;
+        entity.name = name;
+        return entity;
+    }
+
+    @Override
+    public Long id() {
+        return id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
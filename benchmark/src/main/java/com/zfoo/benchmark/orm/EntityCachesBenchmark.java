@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.orm;
+
+import com.zfoo.orm.OrmContext;
+import com.zfoo.orm.manager.IOrmManager;
+import com.zfoo.orm.model.accessor.IAccessor;
+import com.zfoo.orm.model.cache.EntityCaches;
+import com.zfoo.orm.model.config.PersisterStrategy;
+import com.zfoo.orm.model.query.IQuery;
+import com.zfoo.orm.model.vo.EntityDef;
+import com.zfoo.protocol.util.ReflectionUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EntityCaches的load，update和persistAll的开销，mongodb由StubOrmManager代替，只测试缓存和批量组装的开销
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityCachesBenchmark {
+
+    @Param({"1024", "65536"})
+    public int entitySize;
+
+    private GenericApplicationContext context;
+
+    private EntityCaches<Long, BenchmarkEntity> entityCaches;
+
+    private long index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var accessor = new StubAccessor();
+        for (long i = 0; i < entitySize; i++) {
+            accessor.insert(BenchmarkEntity.valueOf(i, 1, "benchmark" + i));
+        }
+
+        context = new GenericApplicationContext();
+        context.registerBean(IAccessor.class, () -> accessor);
+        context.registerBean(IQuery.class, StubQuery::new);
+        context.registerBean(IOrmManager.class, StubOrmManager::new);
+        context.registerBean(OrmContext.class, OrmContext::new);
+        context.refresh();
+
+        // 持久化间隔设置为一个小时，保证基准测试过程中只有手动调用的persistAll
+        var idField = ReflectionUtils.getFieldByNameInPOJOClass(BenchmarkEntity.class, "id");
+        var entityDef = EntityDef.valueOf(idField, BenchmarkEntity.class, entitySize * 2, TimeUnit.HOURS.toMillis(1)
+                , new PersisterStrategy("benchmark", "time", String.valueOf(TimeUnit.HOURS.toMillis(1)))
+                , Collections.emptyMap(), Collections.emptyMap());
+        entityCaches = new EntityCaches<>(entityDef);
+
+        for (long i = 0; i < entitySize; i++) {
+            entityCaches.load(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * persistAll之前把所有实体标记为已修改，单独的State保证只有persistAll会在每次调用前执行这个准备动作
+     */
+    @State(Scope.Thread)
+    public static class DirtyState {
+        @Setup(Level.Invocation)
+        public void markDirty(EntityCachesBenchmark benchmark) {
+            for (long i = 0; i < benchmark.entitySize; i++) {
+                benchmark.entityCaches.update(benchmark.entityCaches.load(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public BenchmarkEntity loadHit() {
+        return entityCaches.load(index++ % entitySize);
+    }
+
+    @Benchmark
+    public void update() {
+        var entity = entityCaches.load(index++ % entitySize);
+        entity.setLevel(entity.getLevel() + 1);
+        entityCaches.update(entity);
+    }
+
+    /**
+     * 一次操作是把entitySize个脏实体组装成批量更新并写入StubOrmManager
+     */
+    @Benchmark
+    public void persistAll(DirtyState dirtyState) {
+        entityCaches.persistAll();
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.orm;
+
+import com.zfoo.orm.model.accessor.IAccessor;
+import com.zfoo.orm.model.entity.IEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存的IAccessor，不连接mongodb，只用来测试EntityCaches本身的开销
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class StubAccessor implements IAccessor {
+
+    private final Map<Object, IEntity<?>> entityMap = new ConcurrentHashMap<>();
+
+    @Override
+    public <E extends IEntity<?>> boolean insert(E entity) {
+        return entityMap.putIfAbsent(entity.id(), entity) == null;
+    }
+
+    @Override
+    public <E extends IEntity<?>> void batchInsert(List<E> entities) {
+        entities.forEach(it -> insert(it));
+    }
+
+    @Override
+    public <E extends IEntity<?>> boolean update(E entity) {
+        entityMap.put(entity.id(), entity);
+        return true;
+    }
+
+    @Override
+    public <E extends IEntity<?>> void batchUpdate(List<E> entities) {
+        entities.forEach(it -> update(it));
+    }
+
+    @Override
+    public <E extends IEntity<?>> boolean delete(E entity) {
+        return entityMap.remove(entity.id()) != null;
+    }
+
+    @Override
+    public <E extends IEntity<?>> boolean delete(Object pk, Class<E> entityClazz) {
+        return entityMap.remove(pk) != null;
+    }
+
+    @Override
+    public <E extends IEntity<?>> void batchDelete(List<E> entities) {
+        entities.forEach(it -> delete(it));
+    }
+
+    @Override
+    public <E extends IEntity<?>> void batchDelete(List<?> pks, Class<E> entityClazz) {
+        pks.forEach(it -> delete(it, entityClazz));
+    }
+
+    @Override
+    public <E extends IEntity<?>> E load(Object pk, Class<E> entityClazz) {
+        return entityClazz.cast(entityMap.get(pk));
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.orm;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.UpdateResult;
+import com.zfoo.orm.model.cache.IEntityCaches;
+import com.zfoo.orm.model.entity.IEntity;
+import com.zfoo.protocol.util.StringUtils;
+import org.bson.Document;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 不连接mongodb的IOrmManager，getCollection返回的MongoCollection只实现了EntityCaches持久化时用到的方法
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class StubOrmManager implements com.zfoo.orm.manager.IOrmManager {
+
+    private final MongoCollection<?> collection = (MongoCollection<?>) Proxy.newProxyInstance(
+            MongoCollection.class.getClassLoader(), new Class<?>[]{MongoCollection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "withWriteConcern":
+                        return proxy;
+                    case "bulkWrite":
+                        var size = ((List<?>) args[0]).size();
+                        return BulkWriteResult.acknowledged(0, size, 0, size, Collections.emptyList(), Collections.emptyList());
+                    case "replaceOne":
+                        return UpdateResult.acknowledged(1, 1L, null);
+                    case "toString":
+                        return StubOrmManager.class.getSimpleName();
+                    default:
+                        throw new UnsupportedOperationException(StringUtils.format("stub collection does not support [method:{}]", method.getName()));
+                }
+            });
+
+    @Override
+    public void initBefore() {
+    }
+
+    @Override
+    public void inject() {
+    }
+
+    @Override
+    public void initAfter() {
+    }
+
+    @Override
+    public <E extends IEntity<?>> IEntityCaches<?, E> getEntityCaches(Class<E> clazz) {
+        return null;
+    }
+
+    @Override
+    public Collection<IEntityCaches<?, ?>> getAllEntityCaches() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public ClientSession getClientSession() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <E extends IEntity<?>> MongoCollection<E> getCollection(Class<E> entityClazz) {
+        return stubCollection();
+    }
+
+    @Override
+    public MongoCollection<Document> getCollection(String collection) {
+        return stubCollection();
+    }
+
+    /**
+     * 代理对象不关心文档类型，所有集合共用同一个代理
+     */
+    @SuppressWarnings("unchecked")
+    private <T> MongoCollection<T> stubCollection() {
+        return (MongoCollection<T>) collection;
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.orm;
+
+import com.zfoo.orm.model.entity.IEntity;
+import com.zfoo.orm.model.query.IQuery;
+import com.zfoo.orm.model.query.IQueryBuilder;
+
+/**
+ * 基准测试不会走到容错查询的逻辑，所以直接抛出异常
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class StubQuery implements IQuery {
+
+    @Override
+    public <E extends IEntity<?>> IQueryBuilder<E> builder(Class<E> entityClazz) {
+        throw new UnsupportedOperationException();
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.packet;
+
+import java.util.*;
+
+/**
+ * 基准测试用到的协议对象，数据和protocol模块的SpeedTest保持一致，方便对比前后的结果
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public abstract class BenchmarkPackets {
+
+    public static final Set<Class<?>> PROTOCOLS = Set.of(SimpleObject.class, NormalObject.class, ObjectA.class);
+
+    public static SimpleObject simpleObject() {
+        return SimpleObject.valueOf(Integer.MAX_VALUE, true);
+    }
+
+    public static NormalObject normalObject() {
+        var mapWithString = new HashMap<Integer, String>();
+        var listWithInteger = new ArrayList<Integer>();
+        var listWithLong = new ArrayList<Long>();
+        var listWithString = new ArrayList<String>();
+        for (var i = 0; i < 10; i++) {
+            mapWithString.put(i, "test" + i);
+            listWithInteger.add(i);
+            listWithLong.add((long) i);
+            listWithString.add("test" + i);
+        }
+
+        var objectA = new ObjectA();
+        objectA.setA(Integer.MAX_VALUE);
+        objectA.setM(mapWithString);
+
+        var normalObject = new NormalObject();
+        normalObject.setA(Byte.MAX_VALUE);
+        normalObject.setAaa(new byte[]{Byte.MIN_VALUE, -99, 0, 99, Byte.MAX_VALUE});
+        normalObject.setB(Short.MAX_VALUE);
+        normalObject.setC(Integer.MAX_VALUE);
+        normalObject.setD(Long.MAX_VALUE);
+        normalObject.setE(Float.MAX_VALUE);
+        normalObject.setF(Double.MAX_VALUE);
+        normalObject.setG(true);
+        normalObject.setJj("hello world!你好，世界！");
+        normalObject.setKk(objectA);
+        normalObject.setL(listWithInteger);
+        normalObject.setLl(listWithLong);
+        normalObject.setLll(List.of(objectA, objectA, objectA));
+        normalObject.setLlll(listWithString);
+        normalObject.setM(mapWithString);
+        normalObject.setMm(Map.of(1, objectA, 2, objectA, 3, objectA));
+        normalObject.setS(new HashSet<>(listWithInteger));
+        normalObject.setSsss(new HashSet<>(listWithString));
+        return normalObject;
+    }
+
+}
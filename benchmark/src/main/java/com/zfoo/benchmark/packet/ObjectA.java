@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.packet;
+
+import com.zfoo.protocol.IPacket;
+
+import java.util.Map;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class ObjectA implements IPacket {
+
+    public static final transient short PROTOCOL_ID = 1002;
+
+    private int a;
+
+    private Map<Integer, String> m;
+
+    @Override
+    public short protocolId() {
+        return PROTOCOL_ID;
+    }
+
+    public int getA() {
+        return a;
+    }
+
+    public void setA(int a) {
+        this.a = a;
+    }
+
+    public Map<Integer, String> getM() {
+        return m;
+    }
+
+    public void setM(Map<Integer, String> m) {
+        this.m = m;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.protocol;
+
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基础类型数组编解码的基准测试，对比逐个writeInt/readInt，批量的writeIntArray/readIntArray和位压缩的packed格式
+ * <p>
+ * 数据模拟地图格子和背包，ARRAY_LENGTH个取值范围很小的int
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ArrayCodecBenchmark {
+
+    private static final int ARRAY_LENGTH = 4096;
+
+    @Param({"heap", "direct"})
+    private String bufferType;
+
+    private final int[] ints = new int[ARRAY_LENGTH];
+    private final long[] longs = new long[ARRAY_LENGTH];
+
+    private ByteBuf writeBuffer;
+
+    private ByteBuf intBuffer;
+    private ByteBuf longBuffer;
+    private ByteBuf packedBuffer;
+
+    @Setup
+    public void setup() {
+        var random = new Random(0);
+        for (var i = 0; i < ARRAY_LENGTH; i++) {
+            ints[i] = random.nextInt(1024);
+            longs[i] = random.nextLong() >> random.nextInt(64);
+        }
+
+        writeBuffer = newBuffer(ARRAY_LENGTH * 16);
+        intBuffer = newBuffer(ARRAY_LENGTH * 5);
+        longBuffer = newBuffer(ARRAY_LENGTH * 9);
+        packedBuffer = newBuffer(ARRAY_LENGTH * 5);
+        ByteBufUtils.writeIntArray(intBuffer, ints);
+        ByteBufUtils.writeLongArray(longBuffer, longs);
+        ByteBufUtils.writePackedIntArray(packedBuffer, ints);
+    }
+
+    private ByteBuf newBuffer(int initialCapacity) {
+        return "heap".equals(bufferType)
+                ? ByteBufAllocator.DEFAULT.heapBuffer(initialCapacity)
+                : ByteBufAllocator.DEFAULT.directBuffer(initialCapacity);
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeBuffer.release();
+        intBuffer.release();
+        longBuffer.release();
+        packedBuffer.release();
+    }
+
+    /**
+     * 逐个写入，优化之前writeIntArray的实现
+     */
+    @Benchmark
+    public ByteBuf writeIntOneByOne() {
+        writeBuffer.clear();
+        ByteBufUtils.writeInt(writeBuffer, ints.length);
+        for (var value : ints) {
+            ByteBufUtils.writeInt(writeBuffer, value);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public ByteBuf writeIntArray() {
+        writeBuffer.clear();
+        ByteBufUtils.writeIntArray(writeBuffer, ints);
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public ByteBuf writePackedIntArray() {
+        writeBuffer.clear();
+        ByteBufUtils.writePackedIntArray(writeBuffer, ints);
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public int[] readIntOneByOne() {
+        intBuffer.readerIndex(0);
+        var array = new int[ByteBufUtils.readInt(intBuffer)];
+        for (var i = 0; i < array.length; i++) {
+            array[i] = ByteBufUtils.readInt(intBuffer);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public int[] readIntArray() {
+        intBuffer.readerIndex(0);
+        return ByteBufUtils.readIntArray(intBuffer);
+    }
+
+    @Benchmark
+    public int[] readPackedIntArray() {
+        packedBuffer.readerIndex(0);
+        return ByteBufUtils.readPackedIntArray(packedBuffer);
+    }
+
+    @Benchmark
+    public ByteBuf writeLongOneByOne() {
+        writeBuffer.clear();
+        ByteBufUtils.writeInt(writeBuffer, longs.length);
+        for (var value : longs) {
+            ByteBufUtils.writeLong(writeBuffer, value);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public ByteBuf writeLongArray() {
+        writeBuffer.clear();
+        ByteBufUtils.writeLongArray(writeBuffer, longs);
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public long[] readLongOneByOne() {
+        longBuffer.readerIndex(0);
+        var array = new long[ByteBufUtils.readInt(longBuffer)];
+        for (var i = 0; i < array.length; i++) {
+            array[i] = ByteBufUtils.readLong(longBuffer);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public long[] readLongArray() {
+        longBuffer.readerIndex(0);
+        return ByteBufUtils.readLongArray(longBuffer);
+    }
+
+}
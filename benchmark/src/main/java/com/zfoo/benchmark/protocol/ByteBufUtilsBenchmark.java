@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.protocol;
+
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ByteBufUtils中可变长int，long和String编解码的基准测试，每次调用会编解码BATCH_SIZE个值
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteBufUtilsBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final String ASCII_STRING = "hello world! this is an ascii string used by zfoo benchmark";
+    private static final String UTF8_STRING = "hello world!你好，世界！这是一个用于zfoo基准测试的字符串";
+
+    private final int[] ints = new int[BATCH_SIZE];
+    private final long[] longs = new long[BATCH_SIZE];
+
+    private ByteBuf writeBuffer;
+
+    private ByteBuf intBuffer;
+    private ByteBuf longBuffer;
+    private ByteBuf stringBuffer;
+
+    @Setup
+    public void setup() {
+        // 固定随机种子，让每次运行的数据分布一致，数值跨越可变长编码的1到5（9）个字节
+        var random = new Random(0);
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            ints[i] = random.nextInt() >> random.nextInt(32);
+            longs[i] = random.nextLong() >> random.nextInt(64);
+        }
+
+        writeBuffer = ByteBufAllocator.DEFAULT.heapBuffer(BATCH_SIZE * 128);
+
+        intBuffer = ByteBufAllocator.DEFAULT.heapBuffer(BATCH_SIZE * 5);
+        longBuffer = ByteBufAllocator.DEFAULT.heapBuffer(BATCH_SIZE * 9);
+        stringBuffer = ByteBufAllocator.DEFAULT.heapBuffer(BATCH_SIZE * 128);
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            ByteBufUtils.writeInt(intBuffer, ints[i]);
+            ByteBufUtils.writeLong(longBuffer, longs[i]);
+            ByteBufUtils.writeString(stringBuffer, (i & 1) == 0 ? ASCII_STRING : UTF8_STRING);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeBuffer.release();
+        intBuffer.release();
+        longBuffer.release();
+        stringBuffer.release();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ByteBuf writeInt() {
+        writeBuffer.clear();
+        for (var value : ints) {
+            ByteBufUtils.writeInt(writeBuffer, value);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void readInt(Blackhole blackhole) {
+        intBuffer.readerIndex(0);
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(ByteBufUtils.readInt(intBuffer));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ByteBuf writeLong() {
+        writeBuffer.clear();
+        for (var value : longs) {
+            ByteBufUtils.writeLong(writeBuffer, value);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void readLong(Blackhole blackhole) {
+        longBuffer.readerIndex(0);
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(ByteBufUtils.readLong(longBuffer));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ByteBuf writeAsciiString() {
+        writeBuffer.clear();
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            ByteBufUtils.writeString(writeBuffer, ASCII_STRING);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ByteBuf writeUtf8String() {
+        writeBuffer.clear();
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            ByteBufUtils.writeString(writeBuffer, UTF8_STRING);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void readString(Blackhole blackhole) {
+        stringBuffer.readerIndex(0);
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            blackhole.consume(ByteBufUtils.readString(stringBuffer));
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.protocol;
+
+import com.zfoo.benchmark.packet.BenchmarkPackets;
+import com.zfoo.benchmark.packet.NormalObject;
+import com.zfoo.benchmark.packet.SimpleObject;
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.registration.ProtocolAnalysis;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProtocolManager.write/read的基准测试，替代protocol模块中SpeedTest的循环计时
+ * <p>
+ * 运行方式：java -jar benchmark/target/benchmarks.jar ProtocolBenchmark -prof gc
+ * <p>
+ * 只比较某一种实现：java -jar benchmark/target/benchmarks.jar ProtocolBenchmark -p enhance=method-handle
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtocolBenchmark {
+
+    /**
+     * 协议序列化的实现方式，见ProtocolAnalysis.ENHANCE_PROPERTY，每个参数都在单独的JVM中运行
+     */
+    @Param({"javassist", "method-handle", "reflect"})
+    private String enhance;
+
+    private static boolean initialized = false;
+
+    private final SimpleObject simpleObject = BenchmarkPackets.simpleObject();
+    private final NormalObject normalObject = BenchmarkPackets.normalObject();
+
+    private ByteBuf writeBuffer;
+
+    private ByteBuf simpleBuffer;
+    private ByteBuf normalBuffer;
+
+    @Setup
+    public void setup() {
+        synchronized (ProtocolBenchmark.class) {
+            if (!initialized) {
+                System.setProperty(ProtocolAnalysis.ENHANCE_PROPERTY, enhance);
+                ProtocolManager.initProtocol(BenchmarkPackets.PROTOCOLS);
+                initialized = true;
+            }
+        }
+
+        writeBuffer = ByteBufAllocator.DEFAULT.heapBuffer(1024);
+
+        simpleBuffer = ByteBufAllocator.DEFAULT.heapBuffer(1024);
+        ProtocolManager.write(simpleBuffer, simpleObject);
+
+        normalBuffer = ByteBufAllocator.DEFAULT.heapBuffer(1024);
+        ProtocolManager.write(normalBuffer, normalObject);
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeBuffer.release();
+        simpleBuffer.release();
+        normalBuffer.release();
+    }
+
+    @Benchmark
+    public ByteBuf writeSimpleObject() {
+        writeBuffer.clear();
+        ProtocolManager.write(writeBuffer, simpleObject);
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public IPacket readSimpleObject() {
+        simpleBuffer.readerIndex(0);
+        return ProtocolManager.read(simpleBuffer);
+    }
+
+    @Benchmark
+    public ByteBuf writeNormalObject() {
+        writeBuffer.clear();
+        ProtocolManager.write(writeBuffer, normalObject);
+        return writeBuffer;
+    }
+
+    @Benchmark
+    public IPacket readNormalObject() {
+        normalBuffer.readerIndex(0);
+        return ProtocolManager.read(normalBuffer);
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.benchmark.protocol;
+
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.buffer.StringInternTable;
+import com.zfoo.protocol.util.StringUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字符串编解码的基准测试，legacy是以前先预留utf8MaxBytes长度再移动的写法，每次调用会编解码BATCH_SIZE个字符串
+ * <p>
+ * readIntern读取的是重复出现的字符串，对比StringInternTable和直接创建字符串
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StringCodecBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    @Param({"ascii", "utf8"})
+    private String charset;
+
+    @Param({"16", "48", "128", "1024"})
+    private int length;
+
+    private String value;
+
+    private ByteBuf writeBuffer;
+
+    private ByteBuf readBuffer;
+
+    @Setup
+    public void setup() {
+        var unit = "ascii".equals(charset) ? "zfoo" : "中文";
+        value = unit.repeat(length / unit.length());
+
+        writeBuffer = ByteBufAllocator.DEFAULT.heapBuffer(BATCH_SIZE * (ByteBufUtils.estimateString(value)));
+        readBuffer = ByteBufAllocator.DEFAULT.heapBuffer(BATCH_SIZE * (ByteBufUtils.estimateString(value)));
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            ByteBufUtils.writeString(readBuffer, value);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeBuffer.release();
+        readBuffer.release();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ByteBuf writeLegacy() {
+        writeBuffer.clear();
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            legacyWriteString(writeBuffer, value);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public ByteBuf write() {
+        writeBuffer.clear();
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            ByteBufUtils.writeString(writeBuffer, value);
+        }
+        return writeBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void read(Blackhole blackhole) {
+        readBuffer.readerIndex(0);
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            var length = ByteBufUtils.readInt(readBuffer);
+            blackhole.consume(readBuffer.readCharSequence(length, StringUtils.DEFAULT_CHARSET));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void readIntern(Blackhole blackhole) {
+        readBuffer.readerIndex(0);
+        for (var i = 0; i < BATCH_SIZE; i++) {
+            var length = ByteBufUtils.readInt(readBuffer);
+            blackhole.consume(length <= StringInternTable.MAX_LENGTH
+                    ? StringInternTable.readString(readBuffer, length)
+                    : readBuffer.readCharSequence(length, StringUtils.DEFAULT_CHARSET));
+        }
+    }
+
+    private static void legacyWriteString(ByteBuf byteBuf, String value) {
+        var maxLength = ByteBufUtil.utf8MaxBytes(value);
+        var writeIntCountByte = ByteBufUtils.writeInt(byteBuf, maxLength);
+
+        var length = byteBuf.writeCharSequence(value, StringUtils.DEFAULT_CHARSET);
+
+        var currentWriteIndex = byteBuf.writerIndex();
+
+        var padding = writeIntCountByte - varIntCount(length);
+        if (padding == 0) {
+            byteBuf.writerIndex(currentWriteIndex - length - writeIntCountByte);
+            ByteBufUtils.writeInt(byteBuf, length);
+            byteBuf.writerIndex(currentWriteIndex);
+        } else {
+            var retainedByteBuf = byteBuf.retainedSlice(currentWriteIndex - length, length);
+            byteBuf.writerIndex(currentWriteIndex - length - writeIntCountByte);
+            ByteBufUtils.writeInt(byteBuf, length);
+            byteBuf.writeBytes(retainedByteBuf);
+            ReferenceCountUtil.release(retainedByteBuf);
+        }
+    }
+
+    private static int varIntCount(int value) {
+        value = (value << 1) ^ (value >> 31);
+        if (value >>> 7 == 0) {
+            return 1;
+        }
+        if (value >>> 14 == 0) {
+            return 2;
+        }
+        if (value >>> 21 == 0) {
+            return 3;
+        }
+        return value >>> 28 == 0 ? 4 : 5;
+    }
+
+}
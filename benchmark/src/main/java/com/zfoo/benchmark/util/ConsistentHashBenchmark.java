@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.benchmark.util;
+
+import com.zfoo.protocol.model.Pair;
+import com.zfoo.util.math.ConsistentHash;
+import com.zfoo.util.math.ConsistentHashRing;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一致性hash的基准测试，对比TreeMap实现的ConsistentHash和有序int[]实现的ConsistentHashRing
+ * <p>
+ * 路由参数是用户的uid，服务提供者变化的时候，ConsistentHash需要全部重建，ConsistentHashRing只需要增加一个节点
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsistentHashBenchmark {
+
+    private static final int VIRTUAL_NODE_NUMS = 200;
+
+    @Param({"4", "32"})
+    private int providers;
+
+    private List<Pair<String, Long>> nodes;
+
+    private ConsistentHash<String, Long> consistentHash;
+    private ConsistentHashRing<String, Long> consistentHashRing;
+
+    private long uid = 0;
+
+    @Setup
+    public void setup() {
+        nodes = new ArrayList<>();
+        for (var i = 0; i < providers; i++) {
+            nodes.add(new Pair<>("192.168.0." + i + ":12400", (long) i));
+        }
+        consistentHash = new ConsistentHash<>(nodes, VIRTUAL_NODE_NUMS);
+        consistentHashRing = ConsistentHashRing.valueOf(nodes, VIRTUAL_NODE_NUMS);
+    }
+
+    @Benchmark
+    public Long consistentHashLookup() {
+        return consistentHash.getRealNode(uid++).getValue();
+    }
+
+    @Benchmark
+    public Long consistentHashRingLookup() {
+        return consistentHashRing.getRealNode(uid++);
+    }
+
+    /**
+     * 一个服务提供者上线，ConsistentHash需要重建所有的虚拟节点
+     */
+    @Benchmark
+    public ConsistentHash<String, Long> consistentHashRebuild() {
+        var newNodes = new ArrayList<>(nodes);
+        newNodes.add(new Pair<>("192.168.1.0:12400", -1L));
+        return new ConsistentHash<>(newNodes, VIRTUAL_NODE_NUMS);
+    }
+
+    @Benchmark
+    public ConsistentHashRing<String, Long> consistentHashRingAddNode() {
+        return consistentHashRing.addNode("192.168.1.0:12400", -1L);
+    }
+
+}
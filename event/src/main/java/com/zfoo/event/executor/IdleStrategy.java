@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.event.executor;
+
+import com.zfoo.protocol.util.StringUtils;
+
+/**
+ * MpscSingleThreadExecutor的队列为空的时候，消费线程的等待策略
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public enum IdleStrategy {
+
+    /**
+     * 一直自旋，延迟最低，但是会一直占用一个cpu核心
+     */
+    SPIN {
+        @Override
+        public void idle(MpscSingleThreadExecutor executor, int idleCount) {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * 一直让出cpu，延迟较低，cpu占用比自旋少
+     */
+    YIELD {
+        @Override
+        public void idle(MpscSingleThreadExecutor executor, int idleCount) {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * 先自旋，再让出cpu，最后挂起线程等待生产者唤醒，空闲的时候不占用cpu
+     */
+    PARK {
+        @Override
+        public void idle(MpscSingleThreadExecutor executor, int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                executor.park();
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final int YIELD_TRIES = 100;
+
+    /**
+     * @param executor  正在等待的执行器
+     * @param idleCount 连续空闲的次数，执行了任务之后重置为0
+     */
+    public abstract void idle(MpscSingleThreadExecutor executor, int idleCount);
+
+    public static IdleStrategy getIdleStrategy(String idleStrategy) {
+        for (var strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(idleStrategy)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException(StringUtils.format("无效的等待策略[idleStrategy:{}]", idleStrategy));
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.event.executor;
+
+import com.zfoo.util.metrics.ExecutorMetrics;
+import org.jctools.queues.MessagePassingQueue;
+import org.jctools.queues.MpscArrayQueue;
+import org.jctools.queues.MpscUnboundedXaddArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单线程的执行器，用来代替Executors.newSingleThreadExecutor
+ * <p>
+ * Executors.newSingleThreadExecutor使用LinkedBlockingQueue，每个任务都会创建一个节点，并且offer和poll都需要加锁；
+ * 这里使用jctools的无锁多生产者单消费者数组队列，消费线程每次批量取出任务执行，队列为空的时候按照IdleStrategy等待
+ * <p>
+ * 线程在第一次提交任务的时候才通过ThreadFactory创建，和ThreadPoolExecutor一样，所以ThreadFactory中可以拿到这个执行器
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class MpscSingleThreadExecutor extends AbstractExecutorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MpscSingleThreadExecutor.class);
+
+    /**
+     * 无界队列每个数组块的大小
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * 一次最多批量取出的任务数量
+     */
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    /**
+     * state的最高位表示已经shutdown，低位为正在提交任务的线程数量
+     */
+    private static final long SHUTDOWN_BIT = Long.MIN_VALUE;
+
+    private final MessagePassingQueue<Runnable> queue;
+
+    private final ThreadFactory threadFactory;
+
+    private final IdleStrategy idleStrategy;
+
+    /**
+     * 运行指标，为null的时候不统计
+     */
+    private final ExecutorMetrics metrics;
+
+    private final MessagePassingQueue.Consumer<Runnable> taskConsumer = this::runTask;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    private final CountDownLatch terminationLatch = new CountDownLatch(1);
+
+    private volatile Thread thread;
+
+    /**
+     * 消费线程是否已经挂起，生产者只在挂起的时候才需要唤醒消费线程
+     */
+    private volatile boolean parked = false;
+
+    /**
+     * 提交任务的线程先把计数加一再检查shutdown，消费线程只有在shutdown并且没有正在提交的任务的时候才会退出，
+     * 这样不会出现检查shutdown之后，offer之前消费线程已经退出，任务被接受了却永远不会执行的情况
+     */
+    private final AtomicLong state = new AtomicLong(0);
+
+    /**
+     * @param threadFactory 创建消费线程的工厂
+     * @param capacity      队列的容量，小于等于0为无界队列，有界队列满了之后提交任务会抛出RejectedExecutionException
+     * @param idleStrategy  队列为空的时候的等待策略
+     * @param metrics       运行指标，为null的时候不统计
+     */
+    public MpscSingleThreadExecutor(ThreadFactory threadFactory, int capacity, IdleStrategy idleStrategy, ExecutorMetrics metrics) {
+        this.threadFactory = threadFactory;
+        this.idleStrategy = idleStrategy;
+        this.metrics = metrics;
+        this.queue = capacity <= 0 ? new MpscUnboundedXaddArrayQueue<>(CHUNK_SIZE) : new MpscArrayQueue<>(capacity);
+    }
+
+    public MpscSingleThreadExecutor(ThreadFactory threadFactory, int capacity, IdleStrategy idleStrategy) {
+        this(threadFactory, capacity, idleStrategy, null);
+    }
+
+    public MpscSingleThreadExecutor(ThreadFactory threadFactory) {
+        this(threadFactory, 0, IdleStrategy.PARK, null);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if ((state.getAndIncrement() & SHUTDOWN_BIT) != 0) {
+            state.decrementAndGet();
+            throw new RejectedExecutionException("MpscSingleThreadExecutor has been shutdown");
+        }
+        try {
+            if (metrics != null) {
+                task = metrics.wrap(task);
+            }
+            if (!queue.offer(task)) {
+                if (metrics != null) {
+                    metrics.recordReject();
+                }
+                throw new RejectedExecutionException("MpscSingleThreadExecutor queue is full");
+            }
+        } finally {
+            state.decrementAndGet();
+        }
+
+        if (!started.get()) {
+            startThread();
+        }
+
+        // 先写入队列再检查parked，消费线程先设置parked再检查队列，保证不会错过唤醒
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void startThread() {
+        if (started.compareAndSet(false, true)) {
+            var newThread = threadFactory.newThread(this::loop);
+            thread = newThread;
+            newThread.start();
+        }
+    }
+
+    private void loop() {
+        var idleCount = 0;
+        try {
+            while (true) {
+                if (queue.drain(taskConsumer, DRAIN_BATCH_SIZE) > 0) {
+                    idleCount = 0;
+                    continue;
+                }
+
+                // 先确认没有正在提交的任务，再检查队列，正在提交的任务offer完成之后才会减少计数
+                if (state.get() == SHUTDOWN_BIT && queue.isEmpty()) {
+                    break;
+                }
+
+                idleStrategy.idle(this, idleCount++);
+            }
+        } finally {
+            terminationLatch.countDown();
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            logger.error("MpscSingleThreadExecutor unknown error", t);
+        }
+    }
+
+    /**
+     * 只能在消费线程中调用
+     */
+    void park() {
+        parked = true;
+        try {
+            if (queue.isEmpty() && !isShutdown()) {
+                LockSupport.park(this);
+            }
+        } finally {
+            parked = false;
+        }
+    }
+
+    /**
+     * 队列中等待执行的任务数量
+     */
+    public int queueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void shutdown() {
+        while (true) {
+            var current = state.get();
+            if ((current & SHUTDOWN_BIT) != 0 || state.compareAndSet(current, current | SHUTDOWN_BIT)) {
+                break;
+            }
+        }
+        // 没有启动过的线程也需要启动，shutdown之前可能有正在提交的任务，由消费线程执行完之后再退出
+        if (!started.get()) {
+            startThread();
+        }
+        var currentThread = thread;
+        if (currentThread != null) {
+            LockSupport.unpark(currentThread);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        var tasks = new ArrayList<Runnable>();
+        queue.drain(it -> tasks.add(it));
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return (state.get() & SHUTDOWN_BIT) != 0;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminationLatch.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationLatch.await(timeout, unit);
+    }
+
+}
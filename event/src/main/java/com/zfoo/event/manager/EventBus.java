@@ -13,6 +13,8 @@
 
 package com.zfoo.event.manager;
 
+import com.zfoo.event.executor.IdleStrategy;
+import com.zfoo.event.executor.MpscSingleThreadExecutor;
 import com.zfoo.event.model.event.IEvent;
 import com.zfoo.event.model.vo.IEventReceiver;
 import com.zfoo.protocol.collection.CollectionUtils;
@@ -21,16 +23,21 @@ import com.zfoo.protocol.util.StringUtils;
 import com.zfoo.util.SafeRunnable;
 import com.zfoo.util.ThreadUtils;
 import com.zfoo.util.math.RandomUtils;
+import com.zfoo.util.metrics.ExecutorMetrics;
+import com.zfoo.util.metrics.ExecutorMetricsMBean;
+import com.zfoo.util.metrics.ExecutorMetricsVO;
 import io.netty.util.concurrent.FastThreadLocalThread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * @author godotg
@@ -49,14 +56,23 @@ public abstract class EventBus {
 
     private static final Map<Long, ExecutorService> threadMap = new ConcurrentHashMap<>();
 
+    /**
+     * 每个线程池的运行指标，下标和executors一一对应
+     */
+    private static final ExecutorMetrics[] executorMetrics = new ExecutorMetrics[EXECUTORS_SIZE];
+
     private static final Map<Class<? extends IEvent>, List<IEventReceiver>> receiverMap = new HashMap<>();
 
     static {
         for (int i = 0; i < executors.length; i++) {
             var namedThreadFactory = new EventThreadFactory(i);
-            var executor = Executors.newSingleThreadExecutor(namedThreadFactory);
+            executorMetrics[i] = ExecutorMetrics.valueOf(StringUtils.format("event-p{}", i + 1));
+            var executor = new MpscSingleThreadExecutor(namedThreadFactory, 0, IdleStrategy.PARK, ExecutorMetrics.ENABLE ? executorMetrics[i] : null);
             executors[i] = executor;
         }
+        if (ExecutorMetrics.ENABLE) {
+            ExecutorMetricsMBean.register("event", () -> List.of(executorMetrics));
+        }
     }
 
     public static class EventThreadFactory implements ThreadFactory {
@@ -153,6 +169,13 @@ public abstract class EventBus {
     public static Executor threadExecutor(long currentThreadId) {
         return threadMap.get(currentThreadId);
     }
+
+    /**
+     * 每个event线程的队列深度，等待时间，执行时间和每秒执行的任务数量
+     */
+    public static List<ExecutorMetricsVO> executorMetrics() {
+        return Arrays.stream(executorMetrics).map(it -> it.snapshot()).collect(Collectors.toList());
+    }
 }
 
 
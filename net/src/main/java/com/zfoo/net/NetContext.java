@@ -19,16 +19,15 @@ import com.zfoo.net.core.AbstractClient;
 import com.zfoo.net.core.AbstractServer;
 import com.zfoo.net.packet.service.IPacketService;
 import com.zfoo.net.router.IRouter;
+import com.zfoo.net.router.route.SignalBridge;
 import com.zfoo.net.session.manager.ISessionManager;
 import com.zfoo.net.session.model.Session;
 import com.zfoo.net.task.TaskBus;
 import com.zfoo.protocol.collection.ArrayUtils;
 import com.zfoo.protocol.exception.ExceptionUtils;
 import com.zfoo.protocol.util.IOUtils;
-import com.zfoo.protocol.util.ReflectionUtils;
 import com.zfoo.scheduler.SchedulerContext;
 import com.zfoo.scheduler.model.StopWatch;
-import com.zfoo.util.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
@@ -38,9 +37,6 @@ import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.Ordered;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.concurrent.ExecutorService;
 
 /**
  * @author jaysunxiao
@@ -134,22 +130,19 @@ public class NetContext implements ApplicationListener<ApplicationContextEvent>,
         configManager.getRegistry().shutdown();
 
         // 先关闭所有session
-        IOUtils.closeIO(ArrayUtils.listToArray(new ArrayList<>(sessionManager.getClientSessionMap().values()), Session.class));
-        IOUtils.closeIO(ArrayUtils.listToArray(new ArrayList<>(sessionManager.getServerSessionMap().values()), Session.class));
+        IOUtils.closeIO(ArrayUtils.listToArray(sessionManager.getClientSessionTable().toList(), Session.class));
+        IOUtils.closeIO(ArrayUtils.listToArray(sessionManager.getServerSessionTable().toList(), Session.class));
 
         // 关闭客户端和服务器
         AbstractClient.shutdown();
         AbstractServer.shutdownAllServers();
 
+        // 关闭同步和异步请求的超时扫描，还没有返回的请求以超时完成，回调还需要TaskBus执行，所以在TaskBus之前关闭
+        SignalBridge.shutdown();
+
         // 关闭TaskBus
         try {
-            Field field = TaskBus.class.getDeclaredField("executors");
-            ReflectionUtils.makeAccessible(field);
-
-            var executors = (ExecutorService[]) ReflectionUtils.getField(field, null);
-            for (ExecutorService executor : executors) {
-                ThreadUtils.shutdown(executor);
-            }
+            TaskBus.shutdown();
         } catch (Throwable e) {
             logger.error("Net thread pool failed shutdown: " + ExceptionUtils.getMessage(e));
             return;
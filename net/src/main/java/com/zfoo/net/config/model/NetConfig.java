@@ -45,6 +45,29 @@ public class NetConfig {
     private boolean goProtocol;
     private boolean protobufProtocol;
 
+    /**
+     * 合并flush，连续多少次flush之后才真正的flush一次，小于等于0则不合并，对应于FlushConsolidationHandler的explicitFlushAfterFlushes
+     */
+    private int flushConsolidation;
+
+    /**
+     * 编码后超过这个长度的包会被拆成多个分片发送，每个分片最多这么长，小于等于0则不分片
+     * <p>
+     * 小于等于0的时候也不接收分片的包，通信的双方需要同时开启
+     */
+    private int chunkSize;
+
+    /**
+     * 一个包的最大长度，分片的包为所有分片加起来的长度，超过则断开连接，
+     * 小于等于0则不分片的包不限制，分片的包最大为TcpCodecHandler.DEFAULT_MAX_CHUNKED_FRAME_LENGTH
+     */
+    private int maxFrameLength;
+
+    /**
+     * 网络传输层的配置，没有配置的时候使用默认值
+     */
+    private TransportConfig transport = new TransportConfig();
+
     /**
      * 注册中心
      */
@@ -134,6 +157,38 @@ public class NetConfig {
         this.luaProtocol = luaProtocol;
     }
 
+    public int getFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public void setFlushConsolidation(int flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public void setMaxFrameLength(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public TransportConfig getTransport() {
+        return transport;
+    }
+
+    public void setTransport(TransportConfig transport) {
+        this.transport = transport;
+    }
+
     public RegistryConfig getRegistry() {
         return registry;
     }
@@ -33,8 +33,23 @@ public class ProviderConfig {
      */
     private String taskDispatch;
 
+    /**
+     * 对应于IdleStrategy，任务线程队列为空的时候的等待策略
+     */
+    private String idleStrategy;
+
     private String thread;
 
+    /**
+     * 每个task线程最多排队的消息数量，0为不限制
+     */
+    private String queueCapacity;
+
+    /**
+     * 对应于OverloadPolicy，排队的消息数量超过queueCapacity的时候的处理策略
+     */
+    private String overloadPolicy;
+
     private String address;
 
     private List<ProviderModule> providers;
@@ -63,6 +78,14 @@ public class ProviderConfig {
         this.taskDispatch = taskDispatch;
     }
 
+    public String getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    public void setIdleStrategy(String idleStrategy) {
+        this.idleStrategy = idleStrategy;
+    }
+
     public String getThread() {
         return thread;
     }
@@ -71,6 +94,22 @@ public class ProviderConfig {
         this.thread = thread;
     }
 
+    public String getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(String queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    public void setOverloadPolicy(String overloadPolicy) {
+        this.overloadPolicy = overloadPolicy;
+    }
+
     public String getAddress() {
         return address;
     }
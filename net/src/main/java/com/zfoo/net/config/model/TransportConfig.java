@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.config.model;
+
+import com.zfoo.protocol.util.IOUtils;
+
+import java.util.Objects;
+
+/**
+ * 网络传输层的配置，服务器，客户端，udp和网关都使用这一份配置，没有配置transport标签的时候使用默认值
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class TransportConfig {
+
+    /**
+     * 是否优先使用io_uring，需要classpath中有netty-incubator-transport-native-io_uring并且内核支持，否则退回到epoll或者nio
+     */
+    private boolean ioUring = false;
+
+    /**
+     * 开启SO_REUSEPORT之后同一个端口绑定的监听channel数量，每个channel在不同的boss线程上accept，由内核做负载均衡
+     * <p>
+     * 小于等于1则不开启，只有epoll和io_uring支持，nio会忽略这个配置
+     */
+    private int reusePort = 0;
+
+    private boolean tcpNodelay = true;
+
+    /**
+     * 只有epoll和io_uring支持
+     */
+    private boolean tcpQuickack = false;
+
+    /**
+     * socket的接收和发送缓冲区大小，小于等于0则使用操作系统的默认值
+     */
+    private int soRcvbuf = 0;
+    private int soSndbuf = 0;
+
+    /**
+     * 服务器accept队列的长度，小于等于0则使用netty的默认值
+     */
+    private int soBacklog = 0;
+
+    /**
+     * channel待发送的数据超过高水位之后isWritable()变为false，低于低水位之后恢复
+     */
+    private int writeBufferLowWaterMark = 16 * IOUtils.BYTES_PER_KB;
+    private int writeBufferHighWaterMark = 16 * IOUtils.BYTES_PER_MB;
+
+    /**
+     * 线程数量，小于等于0则根据cpu核数计算，boss为cpu/8，worker为cpu*2，client为cpu+1
+     */
+    private int bossThread = 0;
+    private int workerThread = 0;
+    private int clientThread = 0;
+
+
+    public int bossThreadOrDefault() {
+        var thread = bossThread > 0 ? bossThread : Math.max(1, Runtime.getRuntime().availableProcessors() / 8);
+        // 每一个SO_REUSEPORT的监听channel都需要一个独立的boss线程
+        return Math.max(thread, reusePort);
+    }
+
+    public int workerThreadOrDefault() {
+        return workerThread > 0 ? workerThread : Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    public int clientThreadOrDefault() {
+        return clientThread > 0 ? clientThread : Runtime.getRuntime().availableProcessors() + 1;
+    }
+
+    public boolean isIoUring() {
+        return ioUring;
+    }
+
+    public void setIoUring(boolean ioUring) {
+        this.ioUring = ioUring;
+    }
+
+    public int getReusePort() {
+        return reusePort;
+    }
+
+    public void setReusePort(int reusePort) {
+        this.reusePort = reusePort;
+    }
+
+    public boolean isTcpNodelay() {
+        return tcpNodelay;
+    }
+
+    public void setTcpNodelay(boolean tcpNodelay) {
+        this.tcpNodelay = tcpNodelay;
+    }
+
+    public boolean isTcpQuickack() {
+        return tcpQuickack;
+    }
+
+    public void setTcpQuickack(boolean tcpQuickack) {
+        this.tcpQuickack = tcpQuickack;
+    }
+
+    public int getSoRcvbuf() {
+        return soRcvbuf;
+    }
+
+    public void setSoRcvbuf(int soRcvbuf) {
+        this.soRcvbuf = soRcvbuf;
+    }
+
+    public int getSoSndbuf() {
+        return soSndbuf;
+    }
+
+    public void setSoSndbuf(int soSndbuf) {
+        this.soSndbuf = soSndbuf;
+    }
+
+    public int getSoBacklog() {
+        return soBacklog;
+    }
+
+    public void setSoBacklog(int soBacklog) {
+        this.soBacklog = soBacklog;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    public int getBossThread() {
+        return bossThread;
+    }
+
+    public void setBossThread(int bossThread) {
+        this.bossThread = bossThread;
+    }
+
+    public int getWorkerThread() {
+        return workerThread;
+    }
+
+    public void setWorkerThread(int workerThread) {
+        this.workerThread = workerThread;
+    }
+
+    public int getClientThread() {
+        return clientThread;
+    }
+
+    public void setClientThread(int clientThread) {
+        this.clientThread = clientThread;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TransportConfig that = (TransportConfig) o;
+        return ioUring == that.ioUring && reusePort == that.reusePort && tcpNodelay == that.tcpNodelay
+                && tcpQuickack == that.tcpQuickack && soRcvbuf == that.soRcvbuf && soSndbuf == that.soSndbuf
+                && soBacklog == that.soBacklog && writeBufferLowWaterMark == that.writeBufferLowWaterMark
+                && writeBufferHighWaterMark == that.writeBufferHighWaterMark && bossThread == that.bossThread
+                && workerThread == that.workerThread && clientThread == that.clientThread;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ioUring, reusePort, tcpNodelay, tcpQuickack, soRcvbuf, soSndbuf, soBacklog
+                , writeBufferLowWaterMark, writeBufferHighWaterMark, bossThread, workerThread, clientThread);
+    }
+}
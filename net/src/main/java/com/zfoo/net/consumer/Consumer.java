@@ -106,6 +106,11 @@ public class Consumer implements IConsumer {
 
             IPacket responsePacket = clientSignalAttachment.getResponseFuture().get(Router.DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
 
+            // SignalBridge的时间轮超时会以null完成
+            if (responsePacket == null) {
+                throw new TimeoutException();
+            }
+
             if (responsePacket.protocolId() == Error.errorProtocolId()) {
                 throw new ErrorResponseException((Error) responsePacket);
             }
@@ -113,15 +118,13 @@ public class Consumer implements IConsumer {
                 throw new UnexpectedProtocolException(StringUtils.format("client expect protocol:[{}], but found protocol:[{}]"
                         , answerClass, responsePacket.getClass().getName()));
             }
-            var syncAnswer = new SyncAnswer<>((T) responsePacket, clientSignalAttachment);
-
-            // load balancer之后调用
-            loadBalancer.afterLoadBalancer(session, packet, clientSignalAttachment);
-            return syncAnswer;
+            return new SyncAnswer<>((T) responsePacket, clientSignalAttachment);
         } catch (TimeoutException e) {
             throw new NetTimeOutException(StringUtils.format("syncAsk timeout exception, ask:[{}], attachment:[{}]"
                     , JsonUtils.object2String(packet), JsonUtils.object2String(clientSignalAttachment)));
         } finally {
+            // load balancer之后调用，超时和错误也要调用，负载均衡器需要统计慢的服务提供者和释放正在等待应答的请求数量
+            loadBalancer.afterLoadBalancer(session, packet, clientSignalAttachment);
             SignalBridge.removeSignalAttachment(clientSignalAttachment);
         }
     }
@@ -132,11 +135,16 @@ public class Consumer implements IConsumer {
         var session = loadBalancer.loadBalancer(packet, argument);
         var asyncAnswer = NetContext.getRouter().asyncAsk(session, packet, answerClass, argument);
 
-        // load balancer之前调用
-        loadBalancer.beforeLoadBalancer(session, packet, asyncAnswer.getSignalAttachment());
+        var signalAttachment = asyncAnswer.getSignalAttachment();
+        var askCallback = asyncAnswer.getAskCallback();
+        asyncAnswer.setAskCallback(() -> {
+            // load balancer之前调用，在真正发送消息的时候才调用
+            loadBalancer.beforeLoadBalancer(session, packet, signalAttachment);
+            askCallback.run();
+        });
 
-        // load balancer之后调用
-        asyncAnswer.thenAccept(responsePacket -> loadBalancer.afterLoadBalancer(session, packet, asyncAnswer.getSignalAttachment()));
+        // load balancer之后调用，responseFuture超时的时候以null完成，出错的时候也会完成，所以每个请求都会调用一次，没有真正发送出去的请求负载均衡器自己忽略
+        signalAttachment.getResponseFuture().whenComplete((responsePacket, throwable) -> loadBalancer.afterLoadBalancer(session, packet, signalAttachment));
         return asyncAnswer;
     }
 
@@ -14,7 +14,6 @@
 package com.zfoo.net.consumer.balancer;
 
 import com.zfoo.net.NetContext;
-import com.zfoo.net.consumer.registry.RegisterVO;
 import com.zfoo.net.session.model.AttributeType;
 import com.zfoo.net.session.model.Session;
 import com.zfoo.protocol.IPacket;
@@ -26,7 +25,6 @@ import com.zfoo.protocol.util.StringUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * @author jaysunxiao
@@ -46,6 +44,9 @@ public abstract class AbstractConsumerLoadBalancer implements IConsumerLoadBalan
             case "shortest-time":
                 balancer = ShortestTimeConsumerLoadBalancer.getInstance();
                 break;
+            case "least-latency":
+                balancer = LeastLatencyConsumerLoadBalancer.getInstance();
+                break;
             default:
                 throw new RuntimeException(StringUtils.format("无法识别负载均衡器[{}]", loadBalancer));
         }
@@ -57,52 +58,45 @@ public abstract class AbstractConsumerLoadBalancer implements IConsumerLoadBalan
     }
 
     public List<Session> getSessionsByModule(ProtocolModule module) {
-        var clientSessionMap = NetContext.getSessionManager().getClientSessionMap();
-        var sessions = clientSessionMap.values().stream()
-                .filter(it -> {
-                    var attribute = it.getAttribute(AttributeType.CONSUMER);
-                    if (Objects.nonNull(attribute)) {
-                        var registerVO = (RegisterVO) attribute;
-                        return Objects.nonNull(registerVO.getProviderConfig()) && registerVO.getProviderConfig().getProviders().stream().anyMatch(provider -> provider.getProtocolModule().equals(module));
-                    } else {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        var sessions = new ArrayList<Session>();
+        // 只遍历有CONSUMER属性的session
+        NetContext.getSessionManager().getClientSessionTable().forEach(AttributeType.CONSUMER, session -> {
+            var registerVO = session.getConsumer();
+            if (Objects.nonNull(registerVO) && Objects.nonNull(registerVO.getProviderConfig()) && registerVO.getProviderConfig().getProviders().stream().anyMatch(provider -> provider.getProtocolModule().equals(module))) {
+                sessions.add(session);
+            }
+        });
         return sessions;
     }
 
     public List<Session> sessionsByModule(ProtocolModule module) {
-        var clientSessionMap = NetContext.getSessionManager().getClientSessionMap();
         var sessions = new ArrayList<Session>();
-        for(var clientSession : clientSessionMap.values()) {
-            var attribute = clientSession.getAttribute(AttributeType.CONSUMER);
-            if (attribute == null) {
-                continue;
+        NetContext.getSessionManager().getClientSessionTable().forEach(AttributeType.CONSUMER, clientSession -> {
+            var registerVO = clientSession.getConsumer();
+            if (registerVO == null) {
+                return;
             }
 
-            var registerVO = (RegisterVO) attribute;
             var providerConfig = registerVO.getProviderConfig();
             if (providerConfig == null) {
-                continue;
+                return;
             }
 
             if (providerConfig.getProviders().stream().anyMatch(it -> it.getProtocolModule().getId() == module.getId())) {
                 sessions.add(clientSession);
             }
-        }
+        });
         return sessions;
     }
 
 
     public boolean sessionHasModule(Session session, IPacket packet) {
 
-        var attribute = session.getAttribute(AttributeType.CONSUMER);
-        if (Objects.isNull(attribute)) {
+        var registerVO = session.getConsumer();
+        if (Objects.isNull(registerVO)) {
             return false;
         }
 
-        var registerVO = (RegisterVO) attribute;
         if (Objects.isNull(registerVO.getProviderConfig())) {
             return false;
         }
@@ -14,21 +14,18 @@
 package com.zfoo.net.consumer.balancer;
 
 import com.zfoo.net.NetContext;
-import com.zfoo.net.session.model.AttributeType;
 import com.zfoo.net.session.model.Session;
 import com.zfoo.protocol.IPacket;
 import com.zfoo.protocol.ProtocolManager;
-import com.zfoo.protocol.collection.CollectionUtils;
 import com.zfoo.protocol.exception.RunException;
-import com.zfoo.protocol.model.Pair;
 import com.zfoo.protocol.registration.ProtocolModule;
-import com.zfoo.util.math.ConsistentHash;
+import com.zfoo.util.math.ConsistentHashRing;
 import org.springframework.lang.Nullable;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
  * 一致性hash负载均衡器，同一个session总是发到同一提供者
@@ -43,7 +40,10 @@ public class ConsistentHashConsumerLoadBalancer extends AbstractConsumerLoadBala
     public static final ConsistentHashConsumerLoadBalancer INSTANCE = new ConsistentHashConsumerLoadBalancer();
 
     private volatile int lastClientSessionChangeId = 0;
-    private static final Map<ProtocolModule, ConsistentHash<String, Long>> consistentHashMap = new ConcurrentHashMap<>();
+    /**
+     * 每个模块一个不可变的一致性hash环，服务提供者变化的时候增量更新后替换，读线程不需要加锁
+     */
+    private static final Map<ProtocolModule, ConsistentHashRing<String, Session>> consistentHashMap = new ConcurrentHashMap<>();
     private static final int VIRTUAL_NODE_NUMS = 200;
 
     private ConsistentHashConsumerLoadBalancer() {
@@ -66,46 +66,76 @@ public class ConsistentHashConsumerLoadBalancer extends AbstractConsumerLoadBala
             return RandomConsumerLoadBalancer.getInstance().loadBalancer(packet, argument);
         }
 
-        // 如果更新时间不匹配，则更新到最新的服务提供者
-        var currentClientSessionChangeId = NetContext.getSessionManager().getClientSessionChangeId();
-        if (currentClientSessionChangeId != lastClientSessionChangeId) {
-            var modules = new HashSet<>(consistentHashMap.keySet());
-
-            for (var module : modules) {
-                updateModuleToConsistentHash(module);
-            }
+        return loadBalancer(packet.protocolId(), argument);
+    }
 
-            lastClientSessionChangeId = currentClientSessionChangeId;
+    /**
+     * 只需要协议号就可以选择服务提供者，网关透传的时候没有反序列化包体，只有协议号
+     *
+     * @param protocolId 请求包的协议号
+     * @param argument   参数，不能为null
+     * @return 调用的session
+     */
+    public Session loadBalancer(short protocolId, Object argument) {
+        // 如果更新时间不匹配，则更新到最新的服务提供者
+        if (NetContext.getSessionManager().getClientSessionChangeId() != lastClientSessionChangeId) {
+            updateConsistentHash();
         }
 
-        var module = ProtocolManager.moduleByProtocolId(packet.protocolId());
+        var module = ProtocolManager.moduleByProtocolId(protocolId);
         var consistentHash = consistentHashMap.get(module);
         if (consistentHash == null) {
             consistentHash = updateModuleToConsistentHash(module);
         }
         if (consistentHash == null) {
-            throw new RunException("一致性hash负载均衡[protocolId:{}]参数[argument:{}],没有服务提供者提供服务[module:{}]", packet.protocolId(), argument, module);
+            throw new RunException("一致性hash负载均衡[protocolId:{}]参数[argument:{}],没有服务提供者提供服务[module:{}]", protocolId, argument, module);
         }
-        var sid = consistentHash.getRealNode(argument).getValue();
-        return NetContext.getSessionManager().getClientSession(sid);
-
+        return consistentHash.getRealNode(argument);
     }
 
+    private synchronized void updateConsistentHash() {
+        var currentClientSessionChangeId = NetContext.getSessionManager().getClientSessionChangeId();
+        if (currentClientSessionChangeId == lastClientSessionChangeId) {
+            return;
+        }
 
+        for (var module : new ArrayList<>(consistentHashMap.keySet())) {
+            updateModuleToConsistentHash(module);
+        }
+
+        lastClientSessionChangeId = currentClientSessionChangeId;
+    }
+
+    /**
+     * 只把新增和断开的服务提供者增量更新到一致性hash环上，其它服务提供者的虚拟节点不需要重新计算
+     */
     @Nullable
-    private ConsistentHash<String, Long> updateModuleToConsistentHash(ProtocolModule module) {
-        var sessionStringList = getSessionsByModule(module)
-                .stream()
-                .map(session -> new Pair<>(session.getAttribute(AttributeType.CONSUMER).toString(), session.getSid()))
-                .sorted((a, b) -> a.getKey().compareTo(b.getKey()))
-                .collect(Collectors.toList());
-
-        if (CollectionUtils.isEmpty(sessionStringList) && !consistentHashMap.containsKey(module)) {
+    private synchronized ConsistentHashRing<String, Session> updateModuleToConsistentHash(ProtocolModule module) {
+        var sessionMap = new TreeMap<String, Session>();
+        for (var session : getSessionsByModule(module)) {
+            sessionMap.put(session.getConsumer().toString(), session);
+        }
+
+        if (sessionMap.isEmpty()) {
             consistentHashMap.remove(module);
             return null;
         }
 
-        var consistentHash = new ConsistentHash<>(sessionStringList, VIRTUAL_NODE_NUMS);
+        var consistentHash = consistentHashMap.get(module);
+        if (consistentHash == null) {
+            consistentHash = ConsistentHashRing.valueOf(new ArrayList<>(), VIRTUAL_NODE_NUMS);
+        }
+        for (var realNode : consistentHash.getRealNodes()) {
+            if (!sessionMap.containsKey(realNode.getKey())) {
+                consistentHash = consistentHash.removeNode(realNode.getKey());
+            }
+        }
+        for (var entry : sessionMap.entrySet()) {
+            if (consistentHash.getNode(entry.getKey()) != entry.getValue()) {
+                consistentHash = consistentHash.addNode(entry.getKey(), entry.getValue());
+            }
+        }
+
         consistentHashMap.put(module, consistentHash);
         return consistentHash;
     }
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.consumer.balancer;
+
+import com.zfoo.net.NetContext;
+import com.zfoo.net.router.attachment.SignalAttachment;
+import com.zfoo.net.session.model.AttributeType;
+import com.zfoo.net.session.model.Session;
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.exception.RunException;
+import com.zfoo.protocol.registration.ProtocolModule;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 最小延迟负载均衡器，每个服务提供者的session记录一个随时间衰减的EWMA延迟和正在等待应答的请求数量
+ * <p>
+ * 每次随机选择两个服务提供者，选择 延迟 * (等待应答数量 + 1) 更小的那个（power of two choices），时间复杂度O(1)
+ * <p>
+ * 统计数据保存在按照slot下标访问的基础类型数组中，slot在服务提供者变化的时候分配和回收
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class LeastLatencyConsumerLoadBalancer extends AbstractConsumerLoadBalancer {
+
+    private static final LeastLatencyConsumerLoadBalancer INSTANCE = new LeastLatencyConsumerLoadBalancer();
+
+    /**
+     * EWMA的衰减时间常数，一个服务提供者超过这个时间没有被调用，之前的延迟权重衰减到1/e，慢的服务提供者也有机会重新被选中
+     */
+    private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final int INITIAL_SLOT_CAPACITY = 16;
+
+    private volatile int lastClientSessionChangeId = 0;
+
+    private final Map<ProtocolModule, Providers> providersMap = new ConcurrentHashMap<>();
+
+    volatile Stats stats = new Stats(INITIAL_SLOT_CAPACITY);
+
+    /**
+     * 下面的属性只在synchronized的refresh中访问
+     */
+    private final Map<Long, Session> slotSessionMap = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot = 0;
+
+    /**
+     * 一个模块的服务提供者快照，sessions和slots一一对应
+     */
+    private static class Providers {
+        private final Session[] sessions;
+        private final int[] slots;
+
+        private Providers(Session[] sessions, int[] slots) {
+            this.sessions = sessions;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * ewmas保存的是double的bits，lastNanoTimes为0表示还没有统计过
+     */
+    static class Stats {
+        final AtomicLongArray ewmas;
+        final AtomicLongArray lastNanoTimes;
+        final AtomicIntegerArray inFlights;
+
+        Stats(int capacity) {
+            this.ewmas = new AtomicLongArray(capacity);
+            this.lastNanoTimes = new AtomicLongArray(capacity);
+            this.inFlights = new AtomicIntegerArray(capacity);
+        }
+
+        private int capacity() {
+            return inFlights.length();
+        }
+
+        private Stats grow(int capacity) {
+            var newStats = new Stats(capacity);
+            for (var i = 0; i < capacity(); i++) {
+                newStats.ewmas.set(i, ewmas.get(i));
+                newStats.lastNanoTimes.set(i, lastNanoTimes.get(i));
+                newStats.inFlights.set(i, inFlights.get(i));
+            }
+            return newStats;
+        }
+
+        private void reset(int slot) {
+            ewmas.set(slot, 0L);
+            lastNanoTimes.set(slot, 0L);
+            inFlights.set(slot, 0);
+        }
+
+        double ewma(int slot) {
+            return Double.longBitsToDouble(ewmas.get(slot));
+        }
+
+        double cost(int slot, long nanoTime) {
+            var lastNanoTime = lastNanoTimes.get(slot);
+            // 没有统计过的服务提供者先试探一个请求，拿到延迟数据之前不再继续分配
+            if (lastNanoTime == 0) {
+                return inFlights.get(slot) == 0 ? 0 : Double.MAX_VALUE;
+            }
+            var ewma = Double.longBitsToDouble(ewmas.get(slot)) * Math.exp(-(double) Math.max(nanoTime - lastNanoTime, 0) / DECAY_NANOS);
+            return ewma * (inFlights.get(slot) + 1);
+        }
+
+        void update(int slot, long latency, long nanoTime) {
+            while (true) {
+                var lastNanoTime = lastNanoTimes.get(slot);
+                var bits = ewmas.get(slot);
+                double ewma;
+                if (lastNanoTime == 0) {
+                    ewma = latency;
+                } else {
+                    // 距离上一次统计的时间越长，之前的延迟权重越小
+                    var weight = Math.exp(-(double) Math.max(nanoTime - lastNanoTime, 0) / DECAY_NANOS);
+                    ewma = Double.longBitsToDouble(bits) * weight + latency * (1 - weight);
+                }
+                if (ewmas.compareAndSet(slot, bits, Double.doubleToRawLongBits(ewma))) {
+                    lastNanoTimes.set(slot, nanoTime);
+                    return;
+                }
+            }
+        }
+    }
+
+    private LeastLatencyConsumerLoadBalancer() {
+    }
+
+    public static LeastLatencyConsumerLoadBalancer getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Session loadBalancer(IPacket packet, Object argument) {
+        var module = ProtocolManager.moduleByProtocolId(packet.protocolId());
+        var providers = providers(module);
+        var sessions = providers.sessions;
+
+        if (sessions.length == 0) {
+            throw new RunException("最小延迟负载均衡[protocolId:{}]参数[argument:{}],没有服务提供者提供服务[module:{}]", packet.protocolId(), argument, module);
+        }
+        if (sessions.length == 1) {
+            return sessions[0];
+        }
+
+        var random = ThreadLocalRandom.current();
+        var a = random.nextInt(sessions.length);
+        var b = random.nextInt(sessions.length - 1);
+        if (b >= a) {
+            b++;
+        }
+
+        var currentStats = stats;
+        var nanoTime = System.nanoTime();
+        return currentStats.cost(providers.slots[a], nanoTime) <= currentStats.cost(providers.slots[b], nanoTime) ? sessions[a] : sessions[b];
+    }
+
+    @Override
+    public void beforeLoadBalancer(Session session, IPacket packet, SignalAttachment attachment) {
+        Integer slot = session.getAttribute(AttributeType.LOAD_BALANCER_SLOT);
+        if (slot == null) {
+            return;
+        }
+        // 使用单调递增的纳秒时间计算延迟，不受系统时间调整的影响，记录在附加包上，不修改附加包原来的发送时间
+        attachment.setLoadBalancerNanoTime(System.nanoTime());
+        attachment.setLoadBalancerSlot(slot);
+        stats.inFlights.incrementAndGet(slot);
+    }
+
+    @Override
+    public void afterLoadBalancer(Session session, IPacket packet, SignalAttachment attachment) {
+        // 没有经过beforeLoadBalancer的请求（发送之前就失败了，或者异步请求没有真正发送）没有增加等待应答的数量，也没有开始计时
+        var slot = attachment.getLoadBalancerSlot();
+        if (slot < 0) {
+            return;
+        }
+        attachment.setLoadBalancerSlot(-1);
+        var currentStats = stats;
+        var nanoTime = System.nanoTime();
+        // 服务提供者断开之后slot会被重置再分配，请求期间被重置的slot不能减到负数
+        currentStats.inFlights.getAndUpdate(slot, it -> Math.max(it - 1, 0));
+        currentStats.update(slot, nanoTime - attachment.getLoadBalancerNanoTime(), nanoTime);
+    }
+
+    private Providers providers(ProtocolModule module) {
+        // 如果更新时间不匹配，则更新到最新的服务提供者
+        if (NetContext.getSessionManager().getClientSessionChangeId() != lastClientSessionChangeId) {
+            refresh();
+        }
+
+        var providers = providersMap.get(module);
+        if (providers == null) {
+            providers = refreshModule(module);
+        }
+        return providers;
+    }
+
+    private synchronized void refresh() {
+        var currentClientSessionChangeId = NetContext.getSessionManager().getClientSessionChangeId();
+        if (currentClientSessionChangeId == lastClientSessionChangeId) {
+            return;
+        }
+
+        for (var module : providersMap.keySet()) {
+            refreshModule(module);
+        }
+
+        // 回收已经断开的服务提供者的slot
+        var iterator = slotSessionMap.values().iterator();
+        while (iterator.hasNext()) {
+            var session = iterator.next();
+            if (NetContext.getSessionManager().getClientSession(session.getSid()) == null) {
+                Integer slot = session.getAttribute(AttributeType.LOAD_BALANCER_SLOT);
+                session.removeAttribute(AttributeType.LOAD_BALANCER_SLOT);
+                freeSlots.add(slot);
+                iterator.remove();
+            }
+        }
+
+        lastClientSessionChangeId = currentClientSessionChangeId;
+    }
+
+    private synchronized Providers refreshModule(ProtocolModule module) {
+        var sessionList = getSessionsByModule(module);
+        var sessions = sessionList.toArray(new Session[0]);
+        var slots = new int[sessions.length];
+        for (var i = 0; i < sessions.length; i++) {
+            slots[i] = slotOf(sessions[i]);
+        }
+        var providers = new Providers(sessions, slots);
+        providersMap.put(module, providers);
+        return providers;
+    }
+
+    private int slotOf(Session session) {
+        Integer slot = session.getAttribute(AttributeType.LOAD_BALANCER_SLOT);
+        if (slot != null) {
+            return slot;
+        }
+
+        slot = freeSlots.poll();
+        if (slot == null) {
+            slot = nextSlot++;
+            if (slot >= stats.capacity()) {
+                stats = stats.grow(stats.capacity() << 1);
+            }
+        }
+        stats.reset(slot);
+        session.putAttribute(AttributeType.LOAD_BALANCER_SLOT, slot);
+        slotSessionMap.put(session.getSid(), session);
+        return slot;
+    }
+
+}
@@ -453,17 +453,16 @@ public class ZookeeperRegistry implements IRegistry {
             return;
         }
 
-        logger.info("开始通过providerHashConsumerSet:{}检查[consumer:{}]", providerHashConsumerSet, NetContext.getSessionManager().getClientSessionMap().size());
+        logger.info("开始通过providerHashConsumerSet:{}检查[consumer:{}]", providerHashConsumerSet, NetContext.getSessionManager().getClientSessionTable().size());
 
         var recheckFlag = false;
 
         for (var providerCache : providerHashConsumerSet) {
             // 先排除已经启动的consumer
-            // getClientSessionMap
-            var consumerClientList = NetContext.getSessionManager().getClientSessionMap().values().stream()
+            var consumerClientList = NetContext.getSessionManager().getClientSessionTable().toList(AttributeType.CONSUMER).stream()
                     .filter(it -> {
-                        var attribute = it.getAttribute(AttributeType.CONSUMER);
-                        return Objects.nonNull(attribute) && attribute.equals(providerCache);
+                        var registerVO = it.getConsumer();
+                        return Objects.nonNull(registerVO) && registerVO.equals(providerCache);
                     })
                     .collect(Collectors.toList());
 
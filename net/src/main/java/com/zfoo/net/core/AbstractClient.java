@@ -15,18 +15,15 @@ package com.zfoo.net.core;
 
 import com.zfoo.net.NetContext;
 import com.zfoo.net.handler.BaseRouteHandler;
+import com.zfoo.net.handler.flush.FlushConsolidationInitializer;
 import com.zfoo.net.session.model.Session;
 import com.zfoo.protocol.exception.ExceptionUtils;
-import com.zfoo.protocol.util.IOUtils;
 import com.zfoo.util.ThreadUtils;
 import com.zfoo.util.net.HostAndPort;
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.*;
-import io.netty.channel.epoll.Epoll;
-import io.netty.channel.epoll.EpollEventLoopGroup;
-import io.netty.channel.epoll.EpollSocketChannel;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,9 +36,10 @@ public abstract class AbstractClient implements IClient {
 
     protected static final Logger logger = LoggerFactory.getLogger(AbstractClient.class);
 
-    protected static final EventLoopGroup nioEventLoopGroup = Epoll.isAvailable()
-            ? new EpollEventLoopGroup(Runtime.getRuntime().availableProcessors() + 1, new DefaultThreadFactory("netty-client", true))
-            : new NioEventLoopGroup(Runtime.getRuntime().availableProcessors() + 1, new DefaultThreadFactory("netty-client", true));
+    /**
+     * 所有客户端共用的线程组，第一次启动客户端的时候根据TransportConfig创建
+     */
+    private static EventLoopGroup eventLoopGroup;
 
     protected String hostAddress;
     protected int port;
@@ -62,11 +60,10 @@ public abstract class AbstractClient implements IClient {
 
     private synchronized Session doStart(ChannelInitializer<? extends Channel> channelChannelInitializer) {
         this.bootstrap = new Bootstrap();
-        this.bootstrap.group(nioEventLoopGroup)
-                .channel(Epoll.isAvailable() ? EpollSocketChannel.class : NioSocketChannel.class)
-                .option(ChannelOption.TCP_NODELAY, true)
-                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(16 * IOUtils.BYTES_PER_KB, 16 * IOUtils.BYTES_PER_MB))
-                .handler(channelChannelInitializer());
+        this.bootstrap.group(eventLoopGroup())
+                .channel(TransportType.transportType().socketChannelClass())
+                .handler(FlushConsolidationInitializer.wrap(channelChannelInitializer));
+        TransportType.clientOptions(bootstrap);
         var channelFuture = bootstrap.connect(hostAddress, port);
         channelFuture.syncUninterruptibly();
 
@@ -87,8 +84,16 @@ public abstract class AbstractClient implements IClient {
     }
 
 
+    protected synchronized static EventLoopGroup eventLoopGroup() {
+        if (eventLoopGroup == null) {
+            var threadFactory = new DefaultThreadFactory("netty-client", true);
+            eventLoopGroup = TransportType.transportType().newEventLoopGroup(TransportType.transportConfig().clientThreadOrDefault(), threadFactory);
+        }
+        return eventLoopGroup;
+    }
+
     public synchronized static void shutdown() {
-        ThreadUtils.shutdownEventLoopGracefully("netty-client", nioEventLoopGroup);
+        ThreadUtils.shutdownEventLoopGracefully("netty-client", eventLoopGroup);
     }
 
 }
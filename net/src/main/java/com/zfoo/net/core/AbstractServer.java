@@ -13,16 +13,12 @@
 
 package com.zfoo.net.core;
 
-import com.zfoo.protocol.util.IOUtils;
+import com.zfoo.net.handler.flush.FlushConsolidationInitializer;
 import com.zfoo.util.ThreadUtils;
 import com.zfoo.util.net.HostAndPort;
+import io.netty.bootstrap.AbstractBootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.epoll.Epoll;
-import io.netty.channel.epoll.EpollEventLoopGroup;
-import io.netty.channel.epoll.EpollServerSocketChannel;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.EventExecutorGroup;
 import org.slf4j.Logger;
@@ -55,6 +51,11 @@ public abstract class AbstractServer implements IServer {
 
     protected Channel channel;
 
+    /**
+     * 开启SO_REUSEPORT之后同一个端口会绑定多个channel，channel为其中的第一个
+     */
+    protected List<Channel> channels = new ArrayList<>(1);
+
     public AbstractServer(HostAndPort host) {
         this.hostAddress = host.getHost();
         this.port = host.getPort();
@@ -68,37 +69,44 @@ public abstract class AbstractServer implements IServer {
     }
 
     protected synchronized void doStart(ChannelInitializer<? extends Channel> channelChannelInitializer) {
-        var cpuNum = Runtime.getRuntime().availableProcessors();
+        var transportConfig = TransportType.transportConfig();
+        var transportType = TransportType.transportType();
         // 一条线程持有一个端口对应的selector，如果我们启动不仅仅是一个服务器端口的话，为了更好的性能需要修改对应的bossGroup数量
-        bossGroup = Epoll.isAvailable()
-                ? new EpollEventLoopGroup(Math.max(1, cpuNum / 8), new DefaultThreadFactory("netty-boss", true))
-                : new NioEventLoopGroup(Math.max(1, cpuNum / 8), new DefaultThreadFactory("netty-boss", true));
-
-        workerGroup = Epoll.isAvailable()
-                ? new EpollEventLoopGroup(cpuNum * 2, new DefaultThreadFactory("netty-worker", true))
-                : new NioEventLoopGroup(cpuNum * 2, new DefaultThreadFactory("netty-worker", true));
+        bossGroup = transportType.newEventLoopGroup(transportConfig.bossThreadOrDefault(), new DefaultThreadFactory("netty-boss", true));
+        workerGroup = transportType.newEventLoopGroup(transportConfig.workerThreadOrDefault(), new DefaultThreadFactory("netty-worker", true));
 
         ServerBootstrap bootstrap = new ServerBootstrap();
         bootstrap.group(bossGroup, workerGroup)
-                .channel(Epoll.isAvailable() ? EpollServerSocketChannel.class : NioServerSocketChannel.class)
+                .channel(transportType.serverChannelClass())
                 .option(ChannelOption.SO_REUSEADDR, true)
-                .childOption(ChannelOption.TCP_NODELAY, true)
-                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(16 * IOUtils.BYTES_PER_KB, 16 * IOUtils.BYTES_PER_MB))
-                .childHandler(channelChannelInitializer);
+                .childHandler(FlushConsolidationInitializer.wrap(channelChannelInitializer));
+        TransportType.serverOptions(bootstrap);
         // 绑定端口，同步等待成功
         // channelFuture = bootstrap.bind(hostAddress, port).sync();
         // 等待服务端监听端口关闭
         // channelFuture.channel().closeFuture().sync();
 
+        bind(bootstrap, TransportType.bindCount());
+    }
 
-        // 异步
-        channelFuture = bootstrap.bind(hostAddress, port);
-        channelFuture.syncUninterruptibly();
-        channel = channelFuture.channel();
+    /**
+     * 同一个端口绑定bindCount个channel，每次bind都会注册到group中的下一个EventLoop，开启SO_REUSEPORT之后由内核把连接均衡到各个channel
+     */
+    protected void bind(AbstractBootstrap<?, ?> bootstrap, int bindCount) {
+        for (var i = 0; i < bindCount; i++) {
+            // 异步
+            var future = bootstrap.bind(hostAddress, port);
+            future.syncUninterruptibly();
+            channels.add(future.channel());
+            if (i == 0) {
+                channelFuture = future;
+                channel = future.channel();
+            }
+        }
 
         allServers.add(this);
 
-        logger.info("{} started at [{}:{}]", this.getClass().getSimpleName(), hostAddress, port);
+        logger.info("{} started at [{}:{}] [transport:{}] [channels:{}]", this.getClass().getSimpleName(), hostAddress, port, TransportType.transportType(), bindCount);
     }
 
 
@@ -115,9 +123,9 @@ public abstract class AbstractServer implements IServer {
             }
         }
 
-        if (channel != null) {
+        for (var reusePortChannel : channels) {
             try {
-                channel.close();
+                reusePortChannel.close();
             } catch (Exception e) {
                 logger.warn(e.getMessage(), e);
             }
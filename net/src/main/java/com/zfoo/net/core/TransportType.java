@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.core;
+
+import com.zfoo.net.NetContext;
+import com.zfoo.net.config.model.TransportConfig;
+import com.zfoo.protocol.exception.RunException;
+import io.netty.bootstrap.AbstractBootstrap;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.epoll.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 网络传输层的实现，优先级为io_uring > epoll > nio，根据TransportConfig和当前系统的支持情况选择
+ * <p>
+ * io_uring在netty的incubator项目中，默认不依赖，需要使用的话在classpath中加上netty-incubator-transport-native-io_uring，这里通过反射加载
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public enum TransportType {
+
+    IO_URING {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int thread, ThreadFactory threadFactory) {
+            try {
+                return (EventLoopGroup) IOUringHolder.eventLoopGroupClass.getConstructor(int.class, ThreadFactory.class).newInstance(thread, threadFactory);
+            } catch (Exception e) {
+                throw new RunException(e, "io_uring的EventLoopGroup创建异常");
+            }
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return IOUringHolder.serverSocketChannelClass;
+        }
+
+        @Override
+        public Class<? extends Channel> socketChannelClass() {
+            return IOUringHolder.socketChannelClass;
+        }
+
+        @Override
+        public Class<? extends Channel> datagramChannelClass() {
+            return IOUringHolder.datagramChannelClass;
+        }
+
+        @Override
+        public <T> ChannelOption<T> nativeOption(String name) {
+            return IOUringHolder.option(name);
+        }
+    },
+
+    EPOLL {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int thread, ThreadFactory threadFactory) {
+            return new EpollEventLoopGroup(thread, threadFactory);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> socketChannelClass() {
+            return EpollSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> datagramChannelClass() {
+            return EpollDatagramChannel.class;
+        }
+
+        @Override
+        public <T> ChannelOption<T> nativeOption(String name) {
+            ChannelOption<?> option;
+            switch (name) {
+                case SO_REUSEPORT:
+                    option = EpollChannelOption.SO_REUSEPORT;
+                    break;
+                case TCP_QUICKACK:
+                    option = EpollChannelOption.TCP_QUICKACK;
+                    break;
+                default:
+                    return null;
+            }
+            // 调用者按照名称知道option的类型
+            @SuppressWarnings("unchecked")
+            var result = (ChannelOption<T>) option;
+            return result;
+        }
+    },
+
+    NIO {
+        @Override
+        public EventLoopGroup newEventLoopGroup(int thread, ThreadFactory threadFactory) {
+            return new NioEventLoopGroup(thread, threadFactory);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> socketChannelClass() {
+            return NioSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> datagramChannelClass() {
+            return NioDatagramChannel.class;
+        }
+
+        @Override
+        public <T> ChannelOption<T> nativeOption(String name) {
+            return null;
+        }
+    };
+
+    private static final Logger logger = LoggerFactory.getLogger(TransportType.class);
+
+    private static final String SO_REUSEPORT = "SO_REUSEPORT";
+    private static final String TCP_QUICKACK = "TCP_QUICKACK";
+
+    public abstract EventLoopGroup newEventLoopGroup(int thread, ThreadFactory threadFactory);
+
+    public abstract Class<? extends ServerChannel> serverChannelClass();
+
+    public abstract Class<? extends Channel> socketChannelClass();
+
+    public abstract Class<? extends Channel> datagramChannelClass();
+
+    /**
+     * epoll和io_uring特有的ChannelOption，不支持则返回null
+     */
+    public abstract <T> ChannelOption<T> nativeOption(String name);
+
+    public boolean supportReusePort() {
+        return nativeOption(SO_REUSEPORT) != null;
+    }
+
+
+    public static TransportConfig transportConfig() {
+        return NetContext.getConfigManager().getLocalConfig().getTransport();
+    }
+
+    public static TransportType transportType() {
+        return TransportTypeHolder.transportType;
+    }
+
+    /**
+     * 开启SO_REUSEPORT之后同一个端口需要绑定的channel数量，不支持SO_REUSEPORT的时候只绑定一个
+     */
+    public static int bindCount() {
+        var reusePort = transportConfig().getReusePort();
+        if (reusePort <= 1) {
+            return 1;
+        }
+        if (!transportType().supportReusePort()) {
+            logger.warn("[{}] does not support SO_REUSEPORT, ignore [reuse-port:{}]", transportType(), reusePort);
+            return 1;
+        }
+        return reusePort;
+    }
+
+    public static void serverOptions(ServerBootstrap bootstrap) {
+        var config = transportConfig();
+        var type = transportType();
+        if (config.getSoBacklog() > 0) {
+            bootstrap.option(ChannelOption.SO_BACKLOG, config.getSoBacklog());
+        }
+        if (bindCount() > 1) {
+            bootstrap.option(type.nativeOption(SO_REUSEPORT), true);
+        }
+        bootstrap.childOption(ChannelOption.TCP_NODELAY, config.isTcpNodelay())
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark(config));
+        if (config.getSoRcvbuf() > 0) {
+            // 接收缓冲区需要在listen之前设置到监听socket上，accept的socket才能继承到大于64K的窗口
+            bootstrap.option(ChannelOption.SO_RCVBUF, config.getSoRcvbuf());
+            bootstrap.childOption(ChannelOption.SO_RCVBUF, config.getSoRcvbuf());
+        }
+        if (config.getSoSndbuf() > 0) {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, config.getSoSndbuf());
+        }
+        if (config.isTcpQuickack() && type.nativeOption(TCP_QUICKACK) != null) {
+            bootstrap.childOption(type.nativeOption(TCP_QUICKACK), true);
+        }
+    }
+
+    public static void clientOptions(Bootstrap bootstrap) {
+        var config = transportConfig();
+        var type = transportType();
+        bootstrap.option(ChannelOption.TCP_NODELAY, config.isTcpNodelay())
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark(config));
+        bufferOptions(bootstrap, config);
+        if (config.isTcpQuickack() && type.nativeOption(TCP_QUICKACK) != null) {
+            bootstrap.option(type.nativeOption(TCP_QUICKACK), true);
+        }
+    }
+
+    /**
+     * udp没有连接，服务端多个channel绑定同一个端口的时候，内核按照四元组把数据报分发到不同的channel上
+     */
+    public static void datagramOptions(Bootstrap bootstrap, boolean reusePort) {
+        var config = transportConfig();
+        bufferOptions(bootstrap, config);
+        if (reusePort) {
+            bootstrap.option(transportType().nativeOption(SO_REUSEPORT), true);
+        }
+    }
+
+    private static void bufferOptions(AbstractBootstrap<?, ?> bootstrap, TransportConfig config) {
+        if (config.getSoRcvbuf() > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, config.getSoRcvbuf());
+        }
+        if (config.getSoSndbuf() > 0) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, config.getSoSndbuf());
+        }
+    }
+
+    private static WriteBufferWaterMark writeBufferWaterMark(TransportConfig config) {
+        return new WriteBufferWaterMark(config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark());
+    }
+
+
+    /**
+     * 第一次使用的时候才根据配置选择，NetContext初始化之前不会读取配置
+     */
+    private static class TransportTypeHolder {
+        private static final TransportType transportType = select();
+
+        private static TransportType select() {
+            if (transportConfig().isIoUring()) {
+                if (IOUringHolder.isAvailable()) {
+                    logger.info("netty transport use io_uring");
+                    return IO_URING;
+                }
+                logger.warn("io_uring is not available, fallback to {}", Epoll.isAvailable() ? "epoll" : "nio");
+            }
+            return Epoll.isAvailable() ? EPOLL : NIO;
+        }
+    }
+
+    private static class IOUringHolder {
+        private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+        private static Class<?> eventLoopGroupClass;
+        private static Class<? extends ServerChannel> serverSocketChannelClass;
+        private static Class<? extends Channel> socketChannelClass;
+        private static Class<? extends Channel> datagramChannelClass;
+        private static Class<?> channelOptionClass;
+
+        private static boolean available = false;
+
+        static {
+            try {
+                var ioUringClass = Class.forName(PACKAGE + "IOUring");
+                if ((boolean) ioUringClass.getMethod("isAvailable").invoke(null)) {
+                    eventLoopGroupClass = Class.forName(PACKAGE + "IOUringEventLoopGroup");
+                    serverSocketChannelClass = Class.forName(PACKAGE + "IOUringServerSocketChannel").asSubclass(ServerChannel.class);
+                    socketChannelClass = Class.forName(PACKAGE + "IOUringSocketChannel").asSubclass(Channel.class);
+                    datagramChannelClass = Class.forName(PACKAGE + "IOUringDatagramChannel").asSubclass(Channel.class);
+                    channelOptionClass = Class.forName(PACKAGE + "IOUringChannelOption");
+                    available = true;
+                }
+            } catch (Throwable t) {
+                // classpath中没有io_uring或者版本不匹配，不使用io_uring
+                logger.debug("io_uring is not available", t);
+            }
+        }
+
+        private static boolean isAvailable() {
+            return available;
+        }
+
+        private static <T> ChannelOption<T> option(String name) {
+            try {
+                // IOUringChannelOption中的静态属性都是ChannelOption，调用者按照名称知道option的类型
+                @SuppressWarnings("unchecked")
+                var option = (ChannelOption<T>) channelOptionClass.getField(name).get(null);
+                return option;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+}
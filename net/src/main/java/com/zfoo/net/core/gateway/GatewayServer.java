@@ -13,8 +13,10 @@
 
 package com.zfoo.net.core.gateway;
 
+import com.zfoo.net.NetContext;
 import com.zfoo.net.core.AbstractServer;
 import com.zfoo.net.handler.GatewayRouteHandler;
+import com.zfoo.net.handler.codec.tcp.GatewayTcpCodecHandler;
 import com.zfoo.net.handler.codec.tcp.TcpCodecHandler;
 import com.zfoo.net.handler.idle.ServerIdleHandler;
 import com.zfoo.net.session.model.Session;
@@ -58,7 +60,11 @@ public class GatewayServer extends AbstractServer {
         protected void initChannel(SocketChannel channel) {
             channel.pipeline().addLast(new IdleStateHandler(0, 0, 180));
             channel.pipeline().addLast(new ServerIdleHandler());
-            channel.pipeline().addLast(new TcpCodecHandler());
+            var netConfig = NetContext.getConfigManager().getLocalConfig();
+            // 没有过滤器的时候包体透传，过滤器需要完整的packet
+            channel.pipeline().addLast(packetFilter == null
+                    ? new GatewayTcpCodecHandler(netConfig.getChunkSize(), netConfig.getMaxFrameLength())
+                    : new TcpCodecHandler(netConfig.getChunkSize(), netConfig.getMaxFrameLength()));
             channel.pipeline().addLast(new GatewayRouteHandler(packetFilter));
         }
     }
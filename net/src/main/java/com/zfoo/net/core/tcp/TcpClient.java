@@ -13,6 +13,7 @@
 
 package com.zfoo.net.core.tcp;
 
+import com.zfoo.net.NetContext;
 import com.zfoo.net.core.AbstractClient;
 import com.zfoo.net.handler.ClientRouteHandler;
 import com.zfoo.net.handler.codec.tcp.TcpCodecHandler;
@@ -46,7 +47,8 @@ public class TcpClient extends AbstractClient {
             // 服务器端则是180s，相对长一点，一旦检测到空闲，则把客户端踢掉。
             channel.pipeline().addLast(new IdleStateHandler(0, 0, 60));
             channel.pipeline().addLast(new ClientIdleHandler());
-            channel.pipeline().addLast(new TcpCodecHandler());
+            var netConfig = NetContext.getConfigManager().getLocalConfig();
+            channel.pipeline().addLast(new TcpCodecHandler(netConfig.getChunkSize(), netConfig.getMaxFrameLength()));
             channel.pipeline().addLast(new ClientRouteHandler());
         }
     }
@@ -13,6 +13,7 @@
 
 package com.zfoo.net.core.tcp;
 
+import com.zfoo.net.NetContext;
 import com.zfoo.net.core.AbstractServer;
 import com.zfoo.net.handler.ServerRouteHandler;
 import com.zfoo.net.handler.codec.tcp.TcpCodecHandler;
@@ -43,7 +44,8 @@ public class TcpServer extends AbstractServer {
         protected void initChannel(SocketChannel channel) {
             channel.pipeline().addLast(new IdleStateHandler(0, 0, 180));
             channel.pipeline().addLast(new ServerIdleHandler());
-            channel.pipeline().addLast(new TcpCodecHandler());
+            var netConfig = NetContext.getConfigManager().getLocalConfig();
+            channel.pipeline().addLast(new TcpCodecHandler(netConfig.getChunkSize(), netConfig.getMaxFrameLength()));
             channel.pipeline().addLast(new ServerRouteHandler());
         }
     }
@@ -15,6 +15,7 @@ package com.zfoo.net.core.udp;
 
 import com.zfoo.net.NetContext;
 import com.zfoo.net.core.AbstractClient;
+import com.zfoo.net.core.TransportType;
 import com.zfoo.net.handler.BaseRouteHandler;
 import com.zfoo.net.handler.ClientRouteHandler;
 import com.zfoo.net.handler.codec.udp.UdpCodecHandler;
@@ -25,9 +26,6 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.epoll.Epoll;
-import io.netty.channel.epoll.EpollDatagramChannel;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 
 /**
  * @author jaysunxiao
@@ -43,10 +41,11 @@ public class UdpClient extends AbstractClient {
     public synchronized Session start() {
         try {
             this.bootstrap = new Bootstrap();
-            this.bootstrap.group(nioEventLoopGroup)
-                    .channel(Epoll.isAvailable() ? EpollDatagramChannel.class : NioDatagramChannel.class)
+            this.bootstrap.group(eventLoopGroup())
+                    .channel(TransportType.transportType().datagramChannelClass())
                     .option(ChannelOption.SO_BROADCAST, true)
                     .handler(new ChannelHandlerInitializer());
+            TransportType.datagramOptions(bootstrap, false);
 
             // bind(0)随机选择一个端口
             var channelFuture = bootstrap.bind(0).sync();
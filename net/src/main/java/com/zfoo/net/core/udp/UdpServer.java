@@ -13,6 +13,7 @@
 package com.zfoo.net.core.udp;
 
 import com.zfoo.net.core.AbstractServer;
+import com.zfoo.net.core.TransportType;
 import com.zfoo.net.handler.ServerRouteHandler;
 import com.zfoo.net.handler.codec.udp.UdpCodecHandler;
 import com.zfoo.util.net.HostAndPort;
@@ -20,14 +21,7 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.epoll.Epoll;
-import io.netty.channel.epoll.EpollDatagramChannel;
-import io.netty.channel.epoll.EpollEventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.util.concurrent.DefaultThreadFactory;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * @author jaysunxiao
@@ -35,35 +29,27 @@ import org.slf4j.LoggerFactory;
  */
 public class UdpServer extends AbstractServer {
 
-    private static final Logger logger = LoggerFactory.getLogger(UdpServer.class);
-
     public UdpServer(HostAndPort host) {
         super(host);
     }
 
     @Override
     public void start() {
-        var cpuNum = Runtime.getRuntime().availableProcessors();
+        var transportConfig = TransportType.transportConfig();
+        var transportType = TransportType.transportType();
+        var bindCount = TransportType.bindCount();
 
-        // 配置服务端nio线程组
-        workerGroup = Epoll.isAvailable()
-                ? new EpollEventLoopGroup(cpuNum * 2, new DefaultThreadFactory("netty-worker", true))
-                : new NioEventLoopGroup(cpuNum * 2, new DefaultThreadFactory("netty-worker", true));
+        // 配置服务端nio线程组，udp的一个channel只会在一个线程上读，开启SO_REUSEPORT之后多个channel才能用上多个线程
+        workerGroup = transportType.newEventLoopGroup(Math.max(transportConfig.workerThreadOrDefault(), bindCount), new DefaultThreadFactory("netty-worker", true));
 
         Bootstrap bootstrap = new Bootstrap();
         bootstrap.group(workerGroup)
-                .channel(Epoll.isAvailable() ? EpollDatagramChannel.class : NioDatagramChannel.class)
+                .channel(transportType.datagramChannelClass())
                 .option(ChannelOption.SO_BROADCAST, true)
                 .handler(channelChannelInitializer());
+        TransportType.datagramOptions(bootstrap, bindCount > 1);
 
-        // 异步
-        channelFuture = bootstrap.bind(hostAddress, port);
-        channelFuture.syncUninterruptibly();
-        channel = channelFuture.channel();
-
-        allServers.add(this);
-
-        logger.info("{} started at [{}:{}]", this.getClass().getSimpleName(), hostAddress, port);
+        bind(bootstrap, bindCount);
     }
 
     @Override
@@ -16,7 +16,6 @@ package com.zfoo.net.handler;
 import com.zfoo.event.manager.EventBus;
 import com.zfoo.net.NetContext;
 import com.zfoo.net.core.tcp.model.ClientSessionInactiveEvent;
-import com.zfoo.net.session.model.AttributeType;
 import com.zfoo.net.util.SessionUtils;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -48,7 +47,7 @@ public class ClientRouteHandler extends BaseRouteHandler {
             return;
         }
 
-        var consumeAttribute = session.getAttribute(AttributeType.CONSUMER);
+        var consumeAttribute = session.getConsumer();
         NetContext.getSessionManager().removeClientSession(session);
         EventBus.asyncSubmit(ClientSessionInactiveEvent.valueOf(session));
 
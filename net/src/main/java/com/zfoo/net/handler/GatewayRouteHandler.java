@@ -22,18 +22,20 @@ import com.zfoo.net.packet.common.Heartbeat;
 import com.zfoo.net.packet.common.Ping;
 import com.zfoo.net.packet.common.Pong;
 import com.zfoo.net.packet.model.DecodedPacketInfo;
+import com.zfoo.net.packet.service.PacketService;
 import com.zfoo.net.router.attachment.GatewayAttachment;
 import com.zfoo.net.router.attachment.IAttachment;
 import com.zfoo.net.router.attachment.SignalAttachment;
-import com.zfoo.net.session.model.AttributeType;
 import com.zfoo.net.session.model.Session;
 import com.zfoo.net.util.SessionUtils;
 import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.ProtocolManager;
 import com.zfoo.protocol.util.JsonUtils;
 import com.zfoo.protocol.util.StringUtils;
 import com.zfoo.scheduler.util.TimeUtils;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,22 +58,34 @@ public class GatewayRouteHandler extends ServerRouteHandler {
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        var decodedPacketInfo = (DecodedPacketInfo) msg;
+        try {
+            route(ctx, decodedPacketInfo);
+        } finally {
+            // 透传的包体在转发的时候已经拷贝到了新的buffer中
+            ReferenceCountUtil.release(decodedPacketInfo.getPacketByteBuf());
+        }
+    }
+
+    private void route(ChannelHandlerContext ctx, DecodedPacketInfo decodedPacketInfo) {
         // 请求者的session，一般是serverSession
         var session = SessionUtils.getSession(ctx);
         if (session == null) {
             return;
         }
 
-        var decodedPacketInfo = (DecodedPacketInfo) msg;
-        var packet = decodedPacketInfo.getPacket();
-        if (packet.protocolId() == Heartbeat.PROTOCOL_ID) {
+        var protocolId = decodedPacketInfo.getProtocolId();
+        if (protocolId == Heartbeat.PROTOCOL_ID) {
             return;
         }
-        if (packet.protocolId() == Ping.PROTOCOL_ID) {
+        if (protocolId == Ping.PROTOCOL_ID) {
             NetContext.getRouter().send(session, Pong.valueOf(TimeUtils.now()), null);
             return;
         }
 
+        // 透传的包packet为null，有过滤器的网关不会透传
+        var packet = decodedPacketInfo.getPacket();
+
         // 过滤非法包
         if (packetFilter != null && packetFilter.apply(session, packet)) {
             throw new IllegalArgumentException(StringUtils.format("[session:{}]发送了一个非法包[{}]"
@@ -88,13 +102,13 @@ public class GatewayRouteHandler extends ServerRouteHandler {
         if (packet instanceof IGatewayLoadBalancer) {
             var loadBalancerConsistentHashObject = ((IGatewayLoadBalancer) packet).loadBalancerConsistentHashObject();
             gatewayAttachment.useExecutorConsistentHash(loadBalancerConsistentHashObject);
-            forwardingPacket(packet, gatewayAttachment, loadBalancerConsistentHashObject);
+            forwardingPacket(decodedPacketInfo, gatewayAttachment, loadBalancerConsistentHashObject);
             return;
         } else {
             // 使用用户的uid做一致性hash
-            var uid = (Long) session.getAttribute(AttributeType.UID);
-            if (uid != null) {
-                forwardingPacket(packet, gatewayAttachment, uid);
+            var uid = session.getUid();
+            if (uid != 0) {
+                forwardingPacket(decodedPacketInfo, gatewayAttachment, uid);
                 return;
             }
         }
@@ -102,16 +116,33 @@ public class GatewayRouteHandler extends ServerRouteHandler {
         // 如果有特殊需求的话，可以考虑去重写网关的转发策略
         // 拿着玩家的sid做一致性hash，那肯定是：一旦重连sid就会一直变化。所以：一般情况下除非自己创建TcpClient，否则逻辑不应该走到这里。 而是走上面的通过UID做一致性hash
         var sid = session.getSid();
-        forwardingPacket(packet, gatewayAttachment, sid);
+        forwardingPacket(decodedPacketInfo, gatewayAttachment, sid);
     }
 
     /**
-     * 转发网关收到的包到Provider
+     * 转发网关收到的包到Provider，透传的包直接写入原始的包体字节，不会再次序列化
      */
-    private void forwardingPacket(IPacket packet, IAttachment attachment, Object argument) {
+    private void forwardingPacket(DecodedPacketInfo decodedPacketInfo, IAttachment attachment, Object argument) {
         try {
-            var consumerSession = ConsistentHashConsumerLoadBalancer.getInstance().loadBalancer(packet, argument);
-            NetContext.getRouter().send(consumerSession, packet, attachment);
+            var packet = decodedPacketInfo.getPacket();
+            if (packet != null) {
+                var consumerSession = ConsistentHashConsumerLoadBalancer.getInstance().loadBalancer(packet, argument);
+                NetContext.getRouter().send(consumerSession, packet, attachment);
+                return;
+            }
+
+            var consumerSession = ConsistentHashConsumerLoadBalancer.getInstance().loadBalancer(decodedPacketInfo.getProtocolId(), argument);
+            var packetByteBuf = decodedPacketInfo.getPacketByteBuf();
+            var channel = consumerSession.getChannel();
+            var buffer = channel.alloc().ioBuffer(PacketService.PACKET_HEAD_LENGTH + packetByteBuf.readableBytes() + 1 + ProtocolManager.estimateSize(attachment));
+            try {
+                NetContext.getPacketService().writePassThrough(buffer, packetByteBuf, attachment);
+            } catch (Throwable t) {
+                buffer.release();
+                throw t;
+            }
+            // 已经编码好的ByteBuf不会经过编码器的encode，直接写入channel
+            channel.writeAndFlush(buffer);
         } catch (Exception e) {
             logger.error("网关发生异常", e);
         } catch (Throwable t) {
@@ -127,10 +158,10 @@ public class GatewayRouteHandler extends ServerRouteHandler {
         }
 
         var sid = session.getSid();
-        var uid = (Long) session.getAttribute(AttributeType.UID);
+        var uid = session.getUid();
 
         // 连接到网关的客户端断开了连接
-        EventBus.asyncSubmit(GatewaySessionInactiveEvent.valueOf(sid, uid == null ? 0 : uid.longValue()));
+        EventBus.asyncSubmit(GatewaySessionInactiveEvent.valueOf(sid, uid));
 
         super.channelInactive(ctx);
     }
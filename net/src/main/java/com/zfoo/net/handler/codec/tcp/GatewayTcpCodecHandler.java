@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.handler.codec.tcp;
+
+import com.zfoo.net.NetContext;
+import com.zfoo.net.packet.model.DecodedPacketInfo;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 网关透传的编解码器，只反序列化附加包，包体保留原始的字节直接转发给服务提供者，省去了反序列化再序列化的开销
+ * <p>
+ * 解码出来的DecodedPacketInfo的packet为null，packetByteBuf由GatewayRouteHandler负责释放
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class GatewayTcpCodecHandler extends TcpCodecHandler {
+
+    public GatewayTcpCodecHandler(int chunkSize, int maxFrameLength) {
+        super(chunkSize, maxFrameLength);
+    }
+
+    @Override
+    protected DecodedPacketInfo read(ByteBuf buffer) {
+        return NetContext.getPacketService().readPassThrough(buffer);
+    }
+
+}
@@ -18,11 +18,15 @@ import com.zfoo.net.packet.model.DecodedPacketInfo;
 import com.zfoo.net.packet.model.EncodedPacketInfo;
 import com.zfoo.net.packet.service.PacketService;
 import com.zfoo.net.util.SessionUtils;
+import com.zfoo.protocol.util.IOUtils;
 import com.zfoo.protocol.util.StringUtils;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.ByteToMessageCodec;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.PromiseCombiner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +35,9 @@ import java.util.List;
 /**
  * header(4byte) + protocolId(2byte) + packet
  * header = body(bytes.length) + protocolId.length(2byte)
+ * <p>
+ * 配置了chunkSize之后，编码后超过chunkSize的包会被拆成多个分片帧：header(4byte) + chunkIndex(4byte) + chunk
+ * header的最高位为分片标志，次高位为最后一个分片的标志，低30位为chunkIndex和chunk的长度，接收方把分片依次拼到CompositeByteBuf中，收到最后一个分片后再解码
  *
  * @author jaysunxiao
  * @version 3.0
@@ -39,6 +46,44 @@ public class TcpCodecHandler extends ByteToMessageCodec<EncodedPacketInfo> {
 
     private static final Logger logger = LoggerFactory.getLogger(TcpCodecHandler.class);
 
+    public static final int CHUNK_FLAG = 0x80000000;
+    public static final int LAST_CHUNK_FLAG = 0x40000000;
+    public static final int CHUNK_LENGTH_MASK = 0x3FFFFFFF;
+    public static final int CHUNK_INDEX_LENGTH = 4;
+
+    /**
+     * 没有配置maxFrameLength的时候，分片重组的包的最大长度，避免对方不停的发送分片耗尽内存
+     */
+    public static final int DEFAULT_MAX_CHUNKED_FRAME_LENGTH = 64 * IOUtils.BYTES_PER_MB;
+
+    /**
+     * 编码后超过这个长度的包会被拆成多个分片发送，小于等于0则不分片
+     */
+    private final int chunkSize;
+
+    /**
+     * 一个包的最大长度，分片的包为所有分片加起来的长度，小于等于0则不分片的包不限制，分片的包最大为DEFAULT_MAX_CHUNKED_FRAME_LENGTH
+     */
+    private final int maxFrameLength;
+
+    /**
+     * 正在接收的分片，只会在这个channel的EventLoop中访问
+     */
+    private CompositeByteBuf chunks;
+    private int nextChunkIndex;
+
+    public TcpCodecHandler() {
+        this(0, 0);
+    }
+
+    public TcpCodecHandler(int chunkSize, int maxFrameLength) {
+        if (chunkSize > CHUNK_LENGTH_MASK - CHUNK_INDEX_LENGTH) {
+            throw new IllegalArgumentException(StringUtils.format("分片长度[chunkSize:{}]不能超过[{}]", chunkSize, CHUNK_LENGTH_MASK - CHUNK_INDEX_LENGTH));
+        }
+        this.chunkSize = chunkSize;
+        this.maxFrameLength = maxFrameLength;
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
         // 不够读一个int
@@ -48,10 +93,16 @@ public class TcpCodecHandler extends ByteToMessageCodec<EncodedPacketInfo> {
         in.markReaderIndex();
         var length = in.readInt();
 
+        if ((length & CHUNK_FLAG) != 0) {
+            decodeChunk(ctx, in, length, out);
+            return;
+        }
+
         // 如果长度非法，则抛出异常断开连接
-        if (length < 0) {
-            throw new IllegalArgumentException(StringUtils.format("[session:{}]的包头长度[length:{}]非法"
-                    , SessionUtils.sessionInfo(ctx), length));
+        checkFrameLength(ctx, length);
+        if (chunks != null) {
+            throw new IllegalArgumentException(StringUtils.format("[session:{}]的分片[chunkIndex:{}]还没有接收完，又收到了一个不分片的包"
+                    , SessionUtils.sessionInfo(ctx), nextChunkIndex));
         }
 
         // ByteBuf里的数据太小
@@ -60,11 +111,74 @@ public class TcpCodecHandler extends ByteToMessageCodec<EncodedPacketInfo> {
             return;
         }
 
-        ByteBuf tmpByteBuf = null;
+        // readRetainedSlice和byte[]数组相比，readRetainedSlice减少了垃圾回收
+        decodePacket(ctx, in.readRetainedSlice(length), out);
+    }
+
+    private void decodeChunk(ChannelHandlerContext ctx, ByteBuf in, int header, List<Object> out) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(StringUtils.format("[session:{}]没有开启分片[chunkSize:{}]，不能接收分片的包"
+                    , SessionUtils.sessionInfo(ctx), chunkSize));
+        }
+
+        var length = header & CHUNK_LENGTH_MASK;
+        if (length <= CHUNK_INDEX_LENGTH) {
+            throw new IllegalArgumentException(StringUtils.format("[session:{}]的分片长度[length:{}]非法"
+                    , SessionUtils.sessionInfo(ctx), length));
+        }
+
+        // 读到包头就检查重组之后的长度，不用等到分片的数据全部到达
+        var chunkLength = length - CHUNK_INDEX_LENGTH;
+        var maxChunkedFrameLength = maxChunkedFrameLength();
+        var totalLength = (long) chunkLength + (chunks == null ? 0 : chunks.readableBytes());
+        if (totalLength > maxChunkedFrameLength) {
+            throw new IllegalArgumentException(StringUtils.format("[session:{}]的分片重组之后的长度[length:{}]非法，最大长度为[{}]"
+                    , SessionUtils.sessionInfo(ctx), totalLength, maxChunkedFrameLength));
+        }
+
+        if (in.readableBytes() < length) {
+            in.resetReaderIndex();
+            return;
+        }
+
+        var chunkIndex = in.readInt();
+        if (chunkIndex != nextChunkIndex) {
+            throw new IllegalArgumentException(StringUtils.format("[session:{}]的分片序号[chunkIndex:{}]非法，期望的序号为[{}]"
+                    , SessionUtils.sessionInfo(ctx), chunkIndex, nextChunkIndex));
+        }
+
+        if (chunks == null) {
+            // 正常的分片都是chunkSize大小，组件数量超过上限的时候CompositeByteBuf会合并组件，对方发送很多很小的分片也不会无限增长
+            chunks = ctx.alloc().compositeBuffer(maxChunkedFrameLength / chunkSize + 1);
+        }
+        // 分片直接作为CompositeByteBuf的组件，不会拷贝
+        chunks.addComponent(true, in.readRetainedSlice(chunkLength));
+        nextChunkIndex++;
+
+        if ((header & LAST_CHUNK_FLAG) == 0) {
+            return;
+        }
+
+        var buffer = chunks;
+        chunks = null;
+        nextChunkIndex = 0;
+        decodePacket(ctx, buffer, out);
+    }
+
+    private int maxChunkedFrameLength() {
+        return maxFrameLength > 0 ? maxFrameLength : DEFAULT_MAX_CHUNKED_FRAME_LENGTH;
+    }
+
+    private void checkFrameLength(ChannelHandlerContext ctx, long length) {
+        if (length < 0 || (maxFrameLength > 0 && length > maxFrameLength)) {
+            throw new IllegalArgumentException(StringUtils.format("[session:{}]的包头长度[length:{}]非法，最大长度为[maxFrameLength:{}]"
+                    , SessionUtils.sessionInfo(ctx), length, maxFrameLength));
+        }
+    }
+
+    private void decodePacket(ChannelHandlerContext ctx, ByteBuf tmpByteBuf, List<Object> out) {
         try {
-            // readRetainedSlice和byte[]数组相比，readRetainedSlice减少了垃圾回收
-            tmpByteBuf = in.readRetainedSlice(length);
-            DecodedPacketInfo packetInfo = NetContext.getPacketService().read(tmpByteBuf);
+            DecodedPacketInfo packetInfo = read(tmpByteBuf);
             out.add(packetInfo);
         } catch (Exception e) {
             logger.error("[session:{}]解码exception异常", SessionUtils.sessionInfo(ctx), e);
@@ -77,6 +191,71 @@ public class TcpCodecHandler extends ByteToMessageCodec<EncodedPacketInfo> {
         }
     }
 
+    /**
+     * 反序列化一个完整的包，子类可以重写，比如网关只反序列化附加包，包体透传
+     */
+    protected DecodedPacketInfo read(ByteBuf buffer) {
+        return NetContext.getPacketService().read(buffer);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof EncodedPacketInfo) {
+            var packetInfo = (EncodedPacketInfo) msg;
+            var estimateSize = NetContext.getPacketService().estimateSize(packetInfo.getPacket(), packetInfo.getAttachment());
+            // 估算的大包编码到CompositeByteBuf中，扩容只会追加新的组件，不会分配一整块连续的大内存；其它的包按照估算的大小一次分配好buffer
+            var buffer = (chunkSize > 0 && estimateSize > chunkSize)
+                    ? ctx.alloc().compositeBuffer(Integer.MAX_VALUE)
+                    : ctx.alloc().ioBuffer(estimateSize);
+            try {
+                encode(ctx, packetInfo, buffer);
+            } catch (Throwable t) {
+                ReferenceCountUtil.release(buffer);
+                throw t;
+            }
+
+            // 估算的长度是自适应的，不一定是上限，按照实际编码后的长度决定是否分片
+            if (chunkSize > 0 && buffer.readableBytes() - PacketService.PACKET_HEAD_LENGTH > chunkSize) {
+                writeChunks(ctx, buffer, promise);
+                return;
+            }
+            ctx.write(buffer, promise);
+            return;
+        }
+        // 广播和网关透传已经编码好的ByteBuf不是EncodedPacketInfo，不会再拷贝一次，超过分片长度的时候同样需要分片
+        if (msg instanceof ByteBuf) {
+            var buffer = (ByteBuf) msg;
+            if (chunkSize > 0 && buffer.readableBytes() - PacketService.PACKET_HEAD_LENGTH > chunkSize) {
+                writeChunks(ctx, buffer, promise);
+                return;
+            }
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    /**
+     * 按照chunkSize切片发送编码好的大包，切片不会拷贝
+     */
+    private void writeChunks(ChannelHandlerContext ctx, ByteBuf buffer, ChannelPromise promise) {
+        try {
+            // 去掉原来的包头，每一个分片有自己的包头
+            buffer.skipBytes(PacketService.PACKET_HEAD_LENGTH);
+            var combiner = new PromiseCombiner(ctx.executor());
+            for (var chunkIndex = 0; buffer.isReadable(); chunkIndex++) {
+                var length = Math.min(chunkSize, buffer.readableBytes());
+                var flag = length == buffer.readableBytes() ? CHUNK_FLAG | LAST_CHUNK_FLAG : CHUNK_FLAG;
+                var header = ctx.alloc().ioBuffer(PacketService.PACKET_HEAD_LENGTH + CHUNK_INDEX_LENGTH);
+                header.writeInt(flag | (length + CHUNK_INDEX_LENGTH));
+                header.writeInt(chunkIndex);
+                combiner.add(ctx.write(header));
+                combiner.add(ctx.write(buffer.readRetainedSlice(length)));
+            }
+            combiner.finish(promise);
+        } finally {
+            buffer.release();
+        }
+    }
+
     @Override
     protected void encode(ChannelHandlerContext ctx, EncodedPacketInfo packetInfo, ByteBuf out) {
         try {
@@ -90,4 +269,30 @@ public class TcpCodecHandler extends ByteToMessageCodec<EncodedPacketInfo> {
         }
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.channelInactive(ctx);
+        } finally {
+            releaseChunks();
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.handlerRemoved(ctx);
+        } finally {
+            releaseChunks();
+        }
+    }
+
+    private void releaseChunks() {
+        if (chunks != null) {
+            chunks.release();
+            chunks = null;
+            nextChunkIndex = 0;
+        }
+    }
+
 }
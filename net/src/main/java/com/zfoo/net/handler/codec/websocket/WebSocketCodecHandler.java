@@ -85,9 +85,10 @@ public class WebSocketCodecHandler extends MessageToMessageCodec<WebSocketFrame,
     @Override
     protected void encode(ChannelHandlerContext channelHandlerContext, EncodedPacketInfo out, List<Object> list) {
         try {
-            var byteBuf = channelHandlerContext.alloc().ioBuffer();
+            var packetService = NetContext.getPacketService();
+            var byteBuf = channelHandlerContext.alloc().ioBuffer(packetService.estimateSize(out.getPacket(), out.getAttachment()));
 
-            NetContext.getPacketService().write(byteBuf, out.getPacket(), out.getAttachment());
+            packetService.write(byteBuf, out.getPacket(), out.getAttachment());
             list.add(new BinaryWebSocketFrame(byteBuf));
         } catch (Exception e) {
             logger.error("[{}]编码exception异常", JsonUtils.object2String(out), e);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.handler.flush;
+
+import com.zfoo.net.NetContext;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * 合并flush，在pipeline的最前面加上FlushConsolidationHandler，然后再执行原来的ChannelInitializer
+ * <p>
+ * TaskBus线程调用writeAndFlush的时候，write和flush都会被提交到channel的EventLoop中执行，
+ * 这个handler会把同一个EventLoop周期内的多次flush合并成一次，减少系统调用writev的次数
+ *
+ * @author jaysunxiao
+ * @version 3.0
+ */
+@ChannelHandler.Sharable
+public class FlushConsolidationInitializer extends ChannelInitializer<Channel> {
+
+    private final int explicitFlushAfterFlushes;
+
+    private final ChannelInitializer<? extends Channel> channelInitializer;
+
+    public FlushConsolidationInitializer(int explicitFlushAfterFlushes, ChannelInitializer<? extends Channel> channelInitializer) {
+        this.explicitFlushAfterFlushes = explicitFlushAfterFlushes;
+        this.channelInitializer = channelInitializer;
+    }
+
+    /**
+     * 如果NetConfig中配置了flush-consolidation，则包装原来的ChannelInitializer，否则直接返回原来的ChannelInitializer
+     */
+    public static ChannelInitializer<? extends Channel> wrap(ChannelInitializer<? extends Channel> channelInitializer) {
+        var flushConsolidation = NetContext.getConfigManager().getLocalConfig().getFlushConsolidation();
+        if (flushConsolidation <= 0) {
+            return channelInitializer;
+        }
+        return new FlushConsolidationInitializer(flushConsolidation, channelInitializer);
+    }
+
+    @Override
+    protected void initChannel(Channel channel) {
+        // consolidateWhenNoReadInProgress为true，不在channelRead中调用的flush（如TaskBus线程中调用的flush）也会被合并
+        channel.pipeline().addLast(new FlushConsolidationHandler(explicitFlushAfterFlushes, true));
+        channel.pipeline().addLast(channelInitializer);
+    }
+
+}
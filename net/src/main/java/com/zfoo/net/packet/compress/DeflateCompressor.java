@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.packet.compress;
+
+import com.zfoo.protocol.exception.RunException;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.springframework.lang.Nullable;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * jdk自带的Deflate压缩，不写zlib的头和校验码（nowrap），可以设置一个预先训练好的字典，小包的压缩率会高很多
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class DeflateCompressor implements ICompressor {
+
+    private static final int MIN_WRITABLE_BYTES = 64;
+
+    private final int level;
+
+    @Nullable
+    private final byte[] dictionary;
+
+    /**
+     * Deflater和Inflater都不是线程安全的，而且创建的时候会分配native内存，每个线程缓存一个重复使用
+     */
+    private final FastThreadLocal<Deflater> deflaters = new FastThreadLocal<>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater(level, true);
+        }
+
+        @Override
+        protected void onRemoval(Deflater deflater) {
+            deflater.end();
+        }
+    };
+
+    private final FastThreadLocal<Inflater> inflaters = new FastThreadLocal<>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+
+        @Override
+        protected void onRemoval(Inflater inflater) {
+            inflater.end();
+        }
+    };
+
+    private DeflateCompressor(int level, @Nullable byte[] dictionary) {
+        this.level = level;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @param level      压缩等级，对应于Deflater.BEST_SPEED到Deflater.BEST_COMPRESSION
+     * @param dictionary 预先训练好的字典，可以通过DictionaryTrainer训练，为null则不使用字典
+     */
+    public static DeflateCompressor valueOf(int level, @Nullable byte[] dictionary) {
+        return new DeflateCompressor(level, dictionary);
+    }
+
+    public static DeflateCompressor valueOf(@Nullable byte[] dictionary) {
+        return new DeflateCompressor(Deflater.BEST_SPEED, dictionary);
+    }
+
+    @Override
+    public void compress(ByteBuf src, ByteBuf dst) {
+        var deflater = deflaters.get();
+        deflater.reset();
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(src.nioBuffer());
+        deflater.finish();
+        while (!deflater.finished()) {
+            dst.ensureWritable(MIN_WRITABLE_BYTES);
+            var length = deflater.deflate(dst.nioBuffer(dst.writerIndex(), dst.writableBytes()));
+            dst.writerIndex(dst.writerIndex() + length);
+        }
+        src.skipBytes(src.readableBytes());
+    }
+
+    @Override
+    public void decompress(ByteBuf src, ByteBuf dst, int rawLength) {
+        var inflater = inflaters.get();
+        inflater.reset();
+        if (dictionary != null) {
+            inflater.setDictionary(dictionary);
+        }
+        inflater.setInput(src.nioBuffer());
+        dst.ensureWritable(rawLength);
+        var out = dst.nioBuffer(dst.writerIndex(), rawLength);
+        try {
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new RunException(e, "Deflate解压失败");
+        }
+        if (out.hasRemaining()) {
+            throw new RunException("Deflate解压后的长度[{}]和压缩前的长度[{}]不一致", out.position(), rawLength);
+        }
+        dst.writerIndex(dst.writerIndex() + rawLength);
+        src.skipBytes(src.readableBytes());
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.packet.compress;
+
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.util.AssertionUtils;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 从同一个协议号的样本包中训练压缩字典，思路和zstd的COVER算法类似：
+ * 统计每一个固定长度的片段在多少个样本中出现过，按照出现的样本数从高到低选择片段，并向后合并同样高频的相邻片段，直到填满字典。
+ * <p>
+ * Deflate匹配的距离越近越好，出现频率最高的片段放在字典的最后面
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public abstract class DictionaryTrainer {
+
+    /**
+     * 片段的长度，刚好可以放到一个long里面作为key，不会有hash冲突
+     */
+    private static final int SEGMENT_LENGTH = 8;
+
+    private static class Segment {
+        private final int sampleIndex;
+        private final int offset;
+        private int sampleCount = 1;
+        private int lastSampleIndex;
+        private boolean used;
+
+        private Segment(int sampleIndex, int offset) {
+            this.sampleIndex = sampleIndex;
+            this.offset = offset;
+            this.lastSampleIndex = sampleIndex;
+        }
+    }
+
+    /**
+     * 把样本包序列化成字节再训练，样本包应该是同一个协议号的包，协议号本身不会参与训练
+     */
+    public static byte[] trainPackets(List<? extends IPacket> packets, int dictionarySize) {
+        var samples = new ArrayList<byte[]>(packets.size());
+        for (var packet : packets) {
+            var buffer = ByteBufAllocator.DEFAULT.heapBuffer(ProtocolManager.estimateSize(packet));
+            try {
+                ProtocolManager.write(buffer, packet);
+                // 跳过2个字节的协议号
+                buffer.skipBytes(2);
+                samples.add(ByteBufUtil.getBytes(buffer));
+            } finally {
+                buffer.release();
+            }
+        }
+        return train(samples, dictionarySize);
+    }
+
+    public static byte[] train(List<byte[]> samples, int dictionarySize) {
+        AssertionUtils.isTrue(dictionarySize > 0, "字典的长度[{}]必须大于0", dictionarySize);
+
+        // 统计每个片段出现在多少个样本中，同一个样本中重复出现只算一次
+        var segmentMap = new HashMap<Long, Segment>();
+        for (var i = 0; i < samples.size(); i++) {
+            var sample = samples.get(i);
+            for (var offset = 0; offset + SEGMENT_LENGTH <= sample.length; offset++) {
+                var key = segmentKey(sample, offset);
+                var segment = segmentMap.get(key);
+                if (segment == null) {
+                    segmentMap.put(key, new Segment(i, offset));
+                } else if (segment.lastSampleIndex != i) {
+                    segment.sampleCount++;
+                    segment.lastSampleIndex = i;
+                }
+            }
+        }
+
+        // 只出现在一个样本中的片段对其它包没有帮助
+        var candidates = segmentMap.values().stream()
+                .filter(it -> it.sampleCount > 1)
+                .sorted(Comparator.comparingInt((Segment it) -> it.sampleCount).reversed())
+                .collect(Collectors.toList());
+
+        var pieces = new ArrayList<byte[]>();
+        var totalLength = 0;
+        for (var segment : candidates) {
+            if (totalLength >= dictionarySize) {
+                break;
+            }
+            if (segment.used) {
+                continue;
+            }
+            segment.used = true;
+
+            // 向后合并出现频率不低于当前片段一半的相邻片段，避免重叠的片段重复占用字典的空间
+            var sample = samples.get(segment.sampleIndex);
+            var end = segment.offset + SEGMENT_LENGTH;
+            while (end < sample.length) {
+                var next = segmentMap.get(segmentKey(sample, end - SEGMENT_LENGTH + 1));
+                if (next == null || next.used || next.sampleCount * 2 < segment.sampleCount) {
+                    break;
+                }
+                next.used = true;
+                end++;
+            }
+
+            var length = Math.min(end - segment.offset, dictionarySize - totalLength);
+            var piece = new byte[length];
+            System.arraycopy(sample, segment.offset, piece, 0, length);
+            pieces.add(piece);
+            totalLength += length;
+        }
+
+        // 频率最高的片段放在字典的最后面
+        var dictionary = new byte[totalLength];
+        var index = totalLength;
+        for (var piece : pieces) {
+            index -= piece.length;
+            System.arraycopy(piece, 0, dictionary, index, piece.length);
+        }
+        return dictionary;
+    }
+
+    private static long segmentKey(byte[] sample, int offset) {
+        var key = 0L;
+        for (var i = 0; i < SEGMENT_LENGTH; i++) {
+            key = (key << 8) | (sample[offset + i] & 0xFF);
+        }
+        return key;
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.packet.compress;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 包体的压缩算法，实现类需要是线程安全的，同一个协议号的发送方和接收方必须注册相同的压缩算法和字典
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public interface ICompressor {
+
+    /**
+     * 把src中可读的字节压缩后写入dst
+     */
+    void compress(ByteBuf src, ByteBuf dst);
+
+    /**
+     * 把src中可读的字节解压后写入dst，rawLength为压缩前的长度
+     */
+    void decompress(ByteBuf src, ByteBuf dst, int rawLength);
+
+}
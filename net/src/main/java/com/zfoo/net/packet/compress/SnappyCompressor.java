@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.packet.compress;
+
+import com.zfoo.protocol.exception.RunException;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.compression.Snappy;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * netty自带的纯java的Snappy压缩，和LZ4一样属于LZ77系列的快速压缩算法，压缩率比Deflate低，但是速度快很多，不支持字典
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class SnappyCompressor implements ICompressor {
+
+    public static final SnappyCompressor INSTANCE = new SnappyCompressor();
+
+    /**
+     * Snappy解码的时候有状态，不是线程安全的
+     */
+    private final FastThreadLocal<Snappy> snappies = new FastThreadLocal<>() {
+        @Override
+        protected Snappy initialValue() {
+            return new Snappy();
+        }
+    };
+
+    private SnappyCompressor() {
+    }
+
+    @Override
+    public void compress(ByteBuf src, ByteBuf dst) {
+        var snappy = snappies.get();
+        snappy.reset();
+        snappy.encode(src, dst, src.readableBytes());
+    }
+
+    @Override
+    public void decompress(ByteBuf src, ByteBuf dst, int rawLength) {
+        var snappy = snappies.get();
+        snappy.reset();
+        var startIndex = dst.writerIndex();
+        snappy.decode(src, dst);
+        if (dst.writerIndex() - startIndex != rawLength) {
+            throw new RunException("Snappy解压后的长度[{}]和压缩前的长度[{}]不一致", dst.writerIndex() - startIndex, rawLength);
+        }
+    }
+
+}
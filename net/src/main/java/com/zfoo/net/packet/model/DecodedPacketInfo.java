@@ -15,6 +15,7 @@ package com.zfoo.net.packet.model;
 
 import com.zfoo.net.router.attachment.IAttachment;
 import com.zfoo.protocol.IPacket;
+import io.netty.buffer.ByteBuf;
 
 /**
  * @author jaysunxiao
@@ -27,6 +28,13 @@ public class DecodedPacketInfo {
      */
     private IPacket packet;
 
+    private short protocolId;
+
+    /**
+     * 网关透传的时候不反序列化包体，packet为null，这里是包体原始的字节（包括协议号），使用者负责释放
+     */
+    private ByteBuf packetByteBuf;
+
     /**
      * 解码后的包的附加包
      */
@@ -36,6 +44,15 @@ public class DecodedPacketInfo {
     public static DecodedPacketInfo valueOf(IPacket packet, IAttachment attachment) {
         DecodedPacketInfo packetInfo = new DecodedPacketInfo();
         packetInfo.packet = packet;
+        packetInfo.protocolId = packet.protocolId();
+        packetInfo.attachment = attachment;
+        return packetInfo;
+    }
+
+    public static DecodedPacketInfo valueOfPassThrough(short protocolId, ByteBuf packetByteBuf, IAttachment attachment) {
+        DecodedPacketInfo packetInfo = new DecodedPacketInfo();
+        packetInfo.protocolId = protocolId;
+        packetInfo.packetByteBuf = packetByteBuf;
         packetInfo.attachment = attachment;
         return packetInfo;
     }
@@ -49,6 +66,14 @@ public class DecodedPacketInfo {
         this.packet = packet;
     }
 
+    public short getProtocolId() {
+        return protocolId;
+    }
+
+    public ByteBuf getPacketByteBuf() {
+        return packetByteBuf;
+    }
+
     public IAttachment getAttachment() {
         return attachment;
     }
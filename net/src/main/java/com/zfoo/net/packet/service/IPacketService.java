@@ -13,6 +13,7 @@
 
 package com.zfoo.net.packet.service;
 
+import com.zfoo.net.packet.compress.ICompressor;
 import com.zfoo.net.packet.model.DecodedPacketInfo;
 import com.zfoo.net.router.attachment.IAttachment;
 import com.zfoo.protocol.IPacket;
@@ -31,4 +32,24 @@ public interface IPacketService {
 
     void write(ByteBuf buffer, IPacket packet, @Nullable IAttachment attachment);
 
+    /**
+     * 网关透传，只反序列化附加包，包体保留原始的字节；实现了IGatewayLoadBalancer的包需要计算一致性hash，还是会完整的反序列化
+     */
+    DecodedPacketInfo readPassThrough(ByteBuf buffer);
+
+    /**
+     * 网关透传，直接写入readPassThrough保留的包体原始字节，不会再次序列化
+     */
+    void writePassThrough(ByteBuf buffer, ByteBuf packetByteBuf, @Nullable IAttachment attachment);
+
+    /**
+     * write大概写入的字节数，用来提前分配buffer，估算得偏小的时候buffer会自动扩容
+     */
+    int estimateSize(IPacket packet, @Nullable IAttachment attachment);
+
+    /**
+     * 给协议注册压缩算法，包体序列化后超过threshold个字节才压缩，发送方和接收方需要注册相同的压缩算法
+     */
+    void registerCompressor(short protocolId, int threshold, ICompressor compressor);
+
 }
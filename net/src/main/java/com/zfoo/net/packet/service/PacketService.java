@@ -14,6 +14,8 @@
 package com.zfoo.net.packet.service;
 
 import com.zfoo.net.NetContext;
+import com.zfoo.net.core.gateway.IGatewayLoadBalancer;
+import com.zfoo.net.packet.compress.ICompressor;
 import com.zfoo.net.packet.model.DecodedPacketInfo;
 import com.zfoo.net.router.attachment.IAttachment;
 import com.zfoo.net.router.route.PacketBus;
@@ -25,7 +27,10 @@ import com.zfoo.protocol.generate.GenerateOperation;
 import com.zfoo.protocol.generate.GenerateProtocolFile;
 import com.zfoo.protocol.registration.IProtocolRegistration;
 import com.zfoo.protocol.serializer.CodeLanguage;
+import com.zfoo.protocol.util.AssertionUtils;
 import com.zfoo.protocol.util.DomUtils;
+import com.zfoo.protocol.util.IOUtils;
+import com.zfoo.protocol.util.StringUtils;
 import com.zfoo.protocol.xml.XmlProtocols;
 import io.netty.buffer.ByteBuf;
 import org.slf4j.Logger;
@@ -66,6 +71,27 @@ public class PacketService implements IPacketService {
 
     public static final String NET_COMMON_MODULE = "common";
 
+    /**
+     * 协议号占用的字节数
+     */
+    private static final int PROTOCOL_ID_LENGTH = 2;
+
+    /**
+     * 每个协议的压缩算法和压缩的阈值，没有注册的协议不压缩。
+     * <p>
+     * 压缩后的包体：~protocolId(2byte，小于0表示压缩过) + 压缩前的长度(varint) + 压缩后的长度(varint) + 压缩后的包体，
+     * 没有压缩的包和原来的格式完全一样
+     */
+    private final ICompressor[] compressors = new ICompressor[ProtocolManager.MAX_PROTOCOL_NUM];
+    private final int[] compressThresholds = new int[ProtocolManager.MAX_PROTOCOL_NUM];
+
+    /**
+     * 没有配置maxFrameLength的时候，解压后包体的最大长度，压缩包头里的长度是对方写的，不校验的话一个很小的包就能让服务器分配很大的内存
+     */
+    public static final int DEFAULT_MAX_RAW_LENGTH = 64 * IOUtils.BYTES_PER_MB;
+
+    private int maxRawLength = DEFAULT_MAX_RAW_LENGTH;
+
     private final Predicate<IProtocolRegistration> netGenerateProtocolFilter = registration
             -> ProtocolManager.moduleByModuleId(registration.module()).getName().matches(NET_COMMON_MODULE)
             || registration.protocolConstructor().getDeclaringClass().getSimpleName().endsWith(NET_REQUEST_SUFFIX)
@@ -82,6 +108,7 @@ public class PacketService implements IPacketService {
 
         var netConfig = NetContext.getConfigManager().getLocalConfig();
         var protocolLocation = netConfig.getProtocolLocation();
+        maxRawLength = netConfig.getMaxFrameLength() > 0 ? netConfig.getMaxFrameLength() : DEFAULT_MAX_RAW_LENGTH;
 
         var generateOperation = new GenerateOperation();
         generateOperation.setFoldProtocol(netConfig.isFoldProtocol());
@@ -138,13 +165,73 @@ public class PacketService implements IPacketService {
         // 包的长度在上一层已经解析过
 
         // 解析包体
-        var packet = ProtocolManager.read(buffer);
+        var packet = readPacket(buffer);
         // 解析包的附加包
         var hasAttachment = ByteBufUtils.tryReadBoolean(buffer);
         var attachment = hasAttachment ? ((IAttachment) ProtocolManager.read(buffer)) : null;
         return DecodedPacketInfo.valueOf(packet, attachment);
     }
 
+    @Override
+    public DecodedPacketInfo readPassThrough(ByteBuf buffer) {
+        var startIndex = buffer.readerIndex();
+        var protocolId = buffer.getShort(startIndex);
+        var compressed = protocolId < 0;
+        if (compressed) {
+            protocolId = (short) ~protocolId;
+        }
+        if (IGatewayLoadBalancer.class.isAssignableFrom(ProtocolManager.getProtocol(protocolId).protocolConstructor().getDeclaringClass())) {
+            return read(buffer);
+        }
+
+        // 跳过包体，找到附加包的位置，压缩过的包体有长度可以直接跳过
+        if (compressed) {
+            buffer.skipBytes(PROTOCOL_ID_LENGTH);
+            ByteBufUtils.readInt(buffer);
+            buffer.skipBytes(ByteBufUtils.readInt(buffer));
+        } else {
+            ProtocolManager.skip(buffer);
+        }
+        var packetByteBuf = buffer.retainedSlice(startIndex, buffer.readerIndex() - startIndex);
+
+        try {
+            var hasAttachment = ByteBufUtils.tryReadBoolean(buffer);
+            var attachment = hasAttachment ? ((IAttachment) ProtocolManager.read(buffer)) : null;
+            return DecodedPacketInfo.valueOfPassThrough(protocolId, packetByteBuf, attachment);
+        } catch (Throwable t) {
+            packetByteBuf.release();
+            throw t;
+        }
+    }
+
+    @Override
+    public void writePassThrough(ByteBuf buffer, ByteBuf packetByteBuf, IAttachment attachment) {
+        var startIndex = buffer.writerIndex();
+        buffer.writeInt(PACKET_HEAD_LENGTH);
+
+        // 包体原样写入，压缩过的包体也不会解压
+        buffer.writeBytes(packetByteBuf, packetByteBuf.readerIndex(), packetByteBuf.readableBytes());
+
+        if (attachment == null) {
+            ByteBufUtils.writeBoolean(buffer, false);
+        } else {
+            ByteBufUtils.writeBoolean(buffer, true);
+            ProtocolManager.write(buffer, attachment);
+        }
+
+        buffer.setInt(startIndex, buffer.writerIndex() - startIndex - PACKET_HEAD_LENGTH);
+    }
+
+    @Override
+    public int estimateSize(IPacket packet, IAttachment attachment) {
+        if (packet == null) {
+            return PACKET_HEAD_LENGTH;
+        }
+        // 包头 + 包体 + 附加包的boolean标识 + 附加包
+        var size = PACKET_HEAD_LENGTH + ProtocolManager.estimateSize(packet) + 1;
+        return attachment == null ? size : size + ProtocolManager.estimateSize(attachment);
+    }
+
     @Override
     public void write(ByteBuf buffer, IPacket packet, IAttachment attachment) {
 
@@ -157,7 +244,7 @@ public class PacketService implements IPacketService {
         buffer.writeInt(PACKET_HEAD_LENGTH);
 
         // 写入包packet
-        ProtocolManager.write(buffer, packet);
+        writePacket(buffer, packet);
 
         // 写入包的附加包attachment
         if (attachment == null) {
@@ -178,4 +265,77 @@ public class PacketService implements IPacketService {
 
         buffer.writerIndex(length);
     }
+
+    @Override
+    public void registerCompressor(short protocolId, int threshold, ICompressor compressor) {
+        AssertionUtils.notNull(ProtocolManager.getProtocol(protocolId), "协议[{}]不存在，不能注册压缩算法", protocolId);
+        compressThresholds[protocolId] = threshold;
+        compressors[protocolId] = compressor;
+    }
+
+    private void writePacket(ByteBuf buffer, IPacket packet) {
+        var protocolId = packet.protocolId();
+        var compressor = compressors[protocolId];
+        if (compressor == null) {
+            ProtocolManager.write(buffer, packet);
+            return;
+        }
+
+        var startIndex = buffer.writerIndex();
+        ProtocolManager.write(buffer, packet);
+        var rawLength = buffer.writerIndex() - startIndex - PROTOCOL_ID_LENGTH;
+        if (rawLength < compressThresholds[protocolId]) {
+            return;
+        }
+
+        var compressed = buffer.alloc().ioBuffer(rawLength);
+        try {
+            compressor.compress(buffer.slice(startIndex + PROTOCOL_ID_LENGTH, rawLength), compressed);
+            var compressedLength = compressed.readableBytes();
+            // 压缩后没有变小则直接发送原来的包体，两个varint最多10个字节
+            if (compressedLength + 10 >= rawLength) {
+                return;
+            }
+            buffer.writerIndex(startIndex);
+            ByteBufUtils.writeShort(buffer, (short) ~protocolId);
+            ByteBufUtils.writeInt(buffer, rawLength);
+            ByteBufUtils.writeInt(buffer, compressedLength);
+            buffer.writeBytes(compressed);
+        } finally {
+            compressed.release();
+        }
+    }
+
+    private IPacket readPacket(ByteBuf buffer) {
+        var protocolId = buffer.getShort(buffer.readerIndex());
+        if (protocolId >= 0) {
+            return ProtocolManager.read(buffer);
+        }
+
+        buffer.skipBytes(PROTOCOL_ID_LENGTH);
+        protocolId = (short) ~protocolId;
+        var rawLength = ByteBufUtils.readInt(buffer);
+        var compressedLength = ByteBufUtils.readInt(buffer);
+        var compressor = compressors[protocolId];
+        if (compressor == null) {
+            throw new IllegalArgumentException(StringUtils.format("协议[{}]是压缩过的，但是没有注册压缩算法", protocolId));
+        }
+        if (rawLength <= 0 || rawLength > maxRawLength) {
+            throw new IllegalArgumentException(StringUtils.format("协议[{}]压缩前的长度[rawLength:{}]非法，最大长度为[{}]", protocolId, rawLength, maxRawLength));
+        }
+        if (compressedLength <= 0 || compressedLength > buffer.readableBytes()) {
+            throw new IllegalArgumentException(StringUtils.format("协议[{}]压缩后的长度[compressedLength:{}]非法，剩余的可读长度为[{}]"
+                    , protocolId, compressedLength, buffer.readableBytes()));
+        }
+
+        // 最大容量固定为压缩前的长度，伪造的压缩数据（如Snappy头部声明的超大长度）在扩容的时候就会失败，不会分配大块内存
+        var raw = buffer.alloc().heapBuffer(PROTOCOL_ID_LENGTH + rawLength, PROTOCOL_ID_LENGTH + rawLength);
+        try {
+            ByteBufUtils.writeShort(raw, protocolId);
+            compressor.decompress(buffer.readSlice(compressedLength), raw, rawLength);
+            return ProtocolManager.read(raw);
+        } finally {
+            raw.release();
+        }
+    }
 }
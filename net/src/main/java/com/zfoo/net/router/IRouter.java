@@ -20,6 +20,9 @@ import com.zfoo.net.session.model.Session;
 import com.zfoo.protocol.IPacket;
 import org.springframework.lang.Nullable;
 
+import java.util.Collection;
+import java.util.List;
+
 
 /**
  * @author jaysunxiao
@@ -34,6 +37,16 @@ public interface IRouter {
      */
     void send(Session session, IPacket packet, @Nullable IAttachment attachment);
 
+    /**
+     * 批量发送，多个消息只write，最后只flush一次，适合推送多条消息的场景，不能用于回复同步或者异步请求
+     */
+    void sendBatch(Session session, List<IPacket> packets);
+
+    /**
+     * 广播，packet只会编码一次，然后把编码好的数据写入所有的session，适合世界聊天，boss血量这种需要推送给大量玩家的消息
+     */
+    void broadcast(Collection<Session> sessions, IPacket packet);
+
     void receive(Session session, IPacket packet, @Nullable IAttachment attachment);
 
     void atReceiver(Session session, IPacket packet, @Nullable IAttachment attachment);
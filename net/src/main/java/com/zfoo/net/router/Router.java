@@ -19,6 +19,8 @@ import com.zfoo.net.core.gateway.model.AuthUidToGatewayCheck;
 import com.zfoo.net.core.gateway.model.AuthUidToGatewayConfirm;
 import com.zfoo.net.core.gateway.model.AuthUidToGatewayEvent;
 import com.zfoo.net.core.tcp.model.ServerExceptionEvent;
+import com.zfoo.net.handler.codec.tcp.TcpCodecHandler;
+import com.zfoo.net.handler.codec.websocket.WebSocketCodecHandler;
 import com.zfoo.net.packet.common.Error;
 import com.zfoo.net.packet.common.Heartbeat;
 import com.zfoo.net.packet.model.EncodedPacketInfo;
@@ -32,21 +34,27 @@ import com.zfoo.net.router.exception.NetTimeOutException;
 import com.zfoo.net.router.exception.UnexpectedProtocolException;
 import com.zfoo.net.router.route.PacketBus;
 import com.zfoo.net.router.route.SignalBridge;
-import com.zfoo.net.session.model.AttributeType;
 import com.zfoo.net.session.model.Session;
 import com.zfoo.net.task.TaskBus;
 import com.zfoo.net.task.model.PacketReceiverTask;
 import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.collection.CollectionUtils;
 import com.zfoo.protocol.exception.ExceptionUtils;
 import com.zfoo.protocol.util.JsonUtils;
 import com.zfoo.protocol.util.StringUtils;
 import com.zfoo.util.math.HashUtils;
 import com.zfoo.util.math.RandomUtils;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.FastThreadLocal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.Nullable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -134,7 +142,7 @@ public class Router implements IRouter {
                                     logger.error("错误的网关授权信息，uid必须大于0");
                                     return;
                                 }
-                                gatewaySession.putAttribute(AttributeType.UID, uid);
+                                gatewaySession.setUid(uid);
                                 EventBus.asyncSubmit(AuthUidToGatewayEvent.valueOf(gatewaySession.getSid(), uid));
 
                                 NetContext.getRouter().send(session, AuthUidToGatewayConfirm.valueOf(uid), new GatewayAttachment(gatewaySession, null));
@@ -156,7 +164,10 @@ public class Router implements IRouter {
 
         // 正常发送消息的接收,把客户端的业务请求包装下到路由策略指定的线程进行业务处理
         // 注意：像客户端以asyncAsk发送请求，在服务器处理完后返回结果，在请求方也是进入这个receive方法，但是attachment不为空，会提前return掉不会走到这
-        TaskBus.submit(new PacketReceiverTask(session, packet, attachment));
+        var task = new PacketReceiverTask(session, packet, attachment);
+        if (!TaskBus.submit(task)) {
+            task.overload();
+        }
     }
 
     @Override
@@ -179,6 +190,77 @@ public class Router implements IRouter {
         channel.writeAndFlush(packetInfo);
     }
 
+    @Override
+    public void sendBatch(Session session, List<IPacket> packets) {
+        if (session == null) {
+            logger.error("session is null and can not be sent.");
+            return;
+        }
+        if (CollectionUtils.isEmpty(packets)) {
+            return;
+        }
+
+        var channel = session.getChannel();
+        if (!channel.isActive() || !channel.isWritable()) {
+            logger.warn("send batch msg error, size=[{}] isActive=[{}] isWritable=[{}]", packets.size(), channel.isActive(), channel.isWritable());
+        }
+
+        // 只write不flush，最后统一flush一次，多个消息只需要一次系统调用
+        for (var packet : packets) {
+            if (packet == null) {
+                logger.error("packet is null and can not be sent.");
+                continue;
+            }
+            channel.write(EncodedPacketInfo.valueOf(packet, null), channel.voidPromise());
+        }
+        channel.flush();
+    }
+
+    @Override
+    public void broadcast(Collection<Session> sessions, IPacket packet) {
+        if (CollectionUtils.isEmpty(sessions)) {
+            return;
+        }
+        if (packet == null) {
+            logger.error("packet is null and can not be broadcast.");
+            return;
+        }
+
+        // 只编码一次，每个channel写入的是共享内存的retainedDuplicate，写入ByteBuf本身而不是包装对象，这样写失败的时候netty也能释放它
+        var packetService = NetContext.getPacketService();
+        var encodedByteBuf = ByteBufAllocator.DEFAULT.ioBuffer(packetService.estimateSize(packet, null));
+        try {
+            packetService.write(encodedByteBuf, packet, null);
+
+            for (var session : sessions) {
+                if (session == null) {
+                    continue;
+                }
+
+                var channel = session.getChannel();
+                if (!channel.isActive()) {
+                    logger.warn("broadcast msg error, protocolId=[{}] channel is not active", packet.protocolId());
+                    continue;
+                }
+                if (!channel.isWritable()) {
+                    logger.warn("broadcast msg error, protocolId=[{}] isWritable=[{}]", packet.protocolId(), channel.isWritable());
+                }
+
+                // 只有zfoo自己的tcp和websocket编码器的包格式和PacketService一致，可以直接写入编码好的字节，其它的编码器还是逐个编码
+                var pipeline = channel.pipeline();
+                if (pipeline.get(TcpCodecHandler.class) != null) {
+                    channel.writeAndFlush(encodedByteBuf.retainedDuplicate());
+                } else if (pipeline.get(WebSocketCodecHandler.class) != null) {
+                    channel.writeAndFlush(new BinaryWebSocketFrame(encodedByteBuf.retainedDuplicate()));
+                } else {
+                    send(session, packet, null);
+                }
+            }
+        } finally {
+            ReferenceCountUtil.release(encodedByteBuf);
+        }
+    }
+
     @Override
     public void send(Session session, IPacket packet) {
         // 服务器异步返回的消息的发送会有signalAttachment，验证返回的消息是否满足
@@ -212,6 +294,11 @@ public class Router implements IRouter {
 
             IPacket responsePacket = clientSignalAttachment.getResponseFuture().get(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
 
+            // SignalBridge的时间轮超时会以null完成
+            if (responsePacket == null) {
+                throw new TimeoutException();
+            }
+
             if (responsePacket.protocolId() == Error.errorProtocolId()) {
                 throw new ErrorResponseException((Error) responsePacket);
             }
@@ -259,8 +346,7 @@ public class Router implements IRouter {
             asyncAnswer.setSignalAttachment(clientSignalAttachment);
 
             clientSignalAttachment.getResponseFuture()
-                    // 因此超时的情况，返回的是null
-                    .completeOnTimeout(null, DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS)
+                    // 超时由SignalBridge的时间轮处理，超时的情况返回的是null
                     .thenApply(answer -> {
                         if (answer == null) {
                             throw new NetTimeOutException(StringUtils.format("async ask [{}] timeout exception", packet.getClass().getSimpleName()));
@@ -347,9 +433,9 @@ public class Router implements IRouter {
             PacketBus.submit(session, packet, attachment);
         } catch (Exception e) {
             EventBus.syncSubmit(ServerExceptionEvent.valueOf(session, packet, attachment, e));
-            logger.error(StringUtils.format("e[uid:{}][sid:{}]未知exception异常", session.getAttribute(AttributeType.UID), session.getSid(), e.getMessage()), e);
+            logger.error(StringUtils.format("e[uid:{}][sid:{}]未知exception异常", session.getUid(), session.getSid(), e.getMessage()), e);
         } catch (Throwable t) {
-            logger.error(StringUtils.format("e[uid:{}][sid:{}]未知error错误", session.getAttribute(AttributeType.UID), session.getSid(), t.getMessage()), t);
+            logger.error(StringUtils.format("e[uid:{}][sid:{}]未知error错误", session.getUid(), session.getSid(), t.getMessage()), t);
         } finally {
             // 如果有服务器在处理同步或者异步消息的时候由于错误没有返回给客户端消息，则可能会残留serverAttachment，所以先移除
             if (attachment != null) {
@@ -361,6 +447,14 @@ public class Router implements IRouter {
                         break;
                 }
             }
+
+            // @Protocol(pooled = true)的协议在接收者处理完之后回收，其它协议直接忽略
+            try {
+                ProtocolManager.recycle(packet);
+            } catch (Throwable t) {
+                // paranoid级别发现重复回收的时候会抛出异常，不能影响task线程继续处理后面的消息
+                logger.error(StringUtils.format("e[uid:{}][sid:{}]回收协议[{}]异常", session.getUid(), session.getSid(), packet.protocolId()), t);
+            }
         }
     }
 
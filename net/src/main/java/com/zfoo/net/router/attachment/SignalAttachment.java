@@ -32,8 +32,10 @@ public class SignalAttachment implements IAttachment {
 
     /**
      * 唯一标识一个packet， 唯一表示一个Attachment，hashcode() and equals() 也通过signalId计算
+     * <p>
+     * 在SignalBridge.addSignalAttachment的时候分配，保证signalId的顺序和请求发出的顺序一致
      */
-    private int signalId = ATOMIC_ID.incrementAndGet();
+    private int signalId;
 
     /**
      * 用来在TaskBus中计算一致性hash的参数
@@ -50,6 +52,12 @@ public class SignalAttachment implements IAttachment {
      */
     private transient long timestamp = TimeUtils.now();
 
+    /**
+     * 负载均衡器在beforeLoadBalancer中记录的slot和单调递增的纳秒时间，-1表示请求没有经过beforeLoadBalancer，afterLoadBalancer不统计
+     */
+    private transient int loadBalancerSlot = -1;
+    private transient long loadBalancerNanoTime;
+
     /**
      * 客户端收到服务器回复的时候回调的方法
      */
@@ -58,6 +66,14 @@ public class SignalAttachment implements IAttachment {
     public SignalAttachment() {
     }
 
+    public static int nextSignalId() {
+        return ATOMIC_ID.incrementAndGet();
+    }
+
+    public static int currentSignalId() {
+        return ATOMIC_ID.get();
+    }
+
 
     @Override
     public AttachmentType packetType() {
@@ -125,6 +141,22 @@ public class SignalAttachment implements IAttachment {
     }
 
 
+    public int getLoadBalancerSlot() {
+        return loadBalancerSlot;
+    }
+
+    public void setLoadBalancerSlot(int loadBalancerSlot) {
+        this.loadBalancerSlot = loadBalancerSlot;
+    }
+
+    public long getLoadBalancerNanoTime() {
+        return loadBalancerNanoTime;
+    }
+
+    public void setLoadBalancerNanoTime(long loadBalancerNanoTime) {
+        this.loadBalancerNanoTime = loadBalancerNanoTime;
+    }
+
     public CompletableFuture<IPacket> getResponseFuture() {
         return responseFuture;
     }
@@ -33,10 +33,17 @@ import com.zfoo.protocol.registration.ProtocolAnalysis;
 import com.zfoo.protocol.util.AssertionUtils;
 import com.zfoo.protocol.util.ReflectionUtils;
 import com.zfoo.protocol.util.StringUtils;
+import com.zfoo.util.metrics.ExecutorMetrics;
+import com.zfoo.util.metrics.ExecutorMetricsMBean;
+import com.zfoo.util.metrics.ExecutorMetricsVO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 包的接收路线，服务器收到packet调用对应的Receiver
@@ -48,6 +55,17 @@ public abstract class PacketBus {
 
     private static final Logger logger = LoggerFactory.getLogger(PacketBus.class);
 
+    /**
+     * 每个协议号的接收方法的运行指标，下标为protocolId，没有接收方法的协议为null
+     */
+    private static final ExecutorMetrics[] protocolMetrics = new ExecutorMetrics[ProtocolManager.MAX_PROTOCOL_NUM];
+
+    static {
+        if (ExecutorMetrics.ENABLE) {
+            ExecutorMetricsMBean.register("packet", () -> Arrays.stream(protocolMetrics).filter(Objects::nonNull).collect(Collectors.toList()));
+        }
+    }
+
     /**
      * 正常消息的接收
      * <p>
@@ -61,8 +79,36 @@ public abstract class PacketBus {
             throw new RuntimeException(StringUtils.format("no any packetReceiverDefinition found for this [packet:{}]", packet.getClass().getName()));
         }
 
-        // 调用PacketReceiver
-        packetReceiver.invoke(session, packet, attachment);
+        // 调用PacketReceiver，同时统计这个协议的执行时间
+        var metrics = protocolMetrics[packet.protocolId()];
+        if (metrics == null) {
+            packetReceiver.invoke(session, packet, attachment);
+            return;
+        }
+        metrics.recordSubmit();
+        var startNanoTime = System.nanoTime();
+        try {
+            packetReceiver.invoke(session, packet, attachment);
+        } finally {
+            metrics.recordExecute(System.nanoTime() - startNanoTime);
+        }
+    }
+
+    /**
+     * PacketReceiverTask开始执行的时候调用，记录这个协议从提交到TaskBus到开始执行的等待时间
+     */
+    public static void recordWait(int protocolId, long waitNanos) {
+        var metrics = protocolMetrics[protocolId];
+        if (metrics != null) {
+            metrics.recordWait(waitNanos);
+        }
+    }
+
+    /**
+     * 每个协议号的接收方法正在执行的数量，在TaskBus中的等待时间，执行时间和每秒执行的次数
+     */
+    public static List<ExecutorMetricsVO> protocolMetrics() {
+        return Arrays.stream(protocolMetrics).filter(Objects::nonNull).map(it -> it.snapshot()).collect(Collectors.toList());
     }
 
 
@@ -135,6 +181,10 @@ public abstract class PacketBus {
                 var receiverField = ReflectionUtils.getFieldByNameInPOJOClass(protocolRegistration.getClass(), "receiver");
                 ReflectionUtils.makeAccessible(receiverField);
                 ReflectionUtils.setField(receiverField, protocolRegistration, enhanceReceiverDefinition);
+
+                if (ExecutorMetrics.ENABLE) {
+                    protocolMetrics[protocolId] = ExecutorMetrics.valueOf(StringUtils.format("{}-{}", protocolId, packetClazz.getSimpleName()));
+                }
             } catch (Throwable t) {
                 throw new RunException(t, "解析协议类[class:{}]未知异常", packetClazz.getSimpleName());
             }
@@ -12,17 +12,30 @@
 
 package com.zfoo.net.router.route;
 
+import com.zfoo.net.router.Router;
 import com.zfoo.net.router.attachment.SignalAttachment;
 import com.zfoo.protocol.util.JsonUtils;
+import com.zfoo.util.ThreadUtils;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 同步或异步的调用控制器，同步和异步调用的信号沟通桥梁
+ * <p>
+ * add的时候才分配signalId，signalId是自增的，所以直接用signalId和SIGNAL_MASK取与作为数组索引，
+ * 只有一个请求在之后的SIGNAL_MASK个请求都发出后还没有返回才会发生碰撞，碰撞的请求放在按signalId分段加锁的IntObjectHashMap中，key是原始类型int，没有装箱
+ * <p>
+ * 超时使用时间轮处理，时间轮的每个格子只记录这个tick的signalId水位，因为所有请求的超时时间都是Router.DEFAULT_TIMEOUT，
+ * 所以小于等于DEFAULT_TIMEOUT之前水位的signalId都已经超时，每个tick只需要扫描新超时的这一段signalId，不需要为每个请求创建定时任务
  *
  * @author jaysunxiao
  * @version 3.0
@@ -31,8 +44,24 @@ public class SignalBridge {
 
     private static final Logger logger = LoggerFactory.getLogger(SignalBridge.class);
 
-    // equal with 32767
-    private static final int SIGNAL_MASK = 0B00000000_00000000_01111111_11111111;
+    // equal with 262143
+    private static final int SIGNAL_MASK = 0B00000000_00000011_11111111_11111111;
+
+    // equal with 63
+    private static final int STRIPE_MASK = 0B00000000_00000000_00000000_00111111;
+
+    /**
+     * 时间轮一个tick的毫秒数
+     */
+    private static final long TICK_MILLIS = 100;
+
+    /**
+     * 超时需要经过的tick数量
+     */
+    private static final int TIMEOUT_TICKS = (int) (Router.DEFAULT_TIMEOUT / TICK_MILLIS);
+
+    // 时间轮的格子数量，必须是2的幂并且大于TIMEOUT_TICKS
+    private static final int WHEEL_MASK = Integer.highestOneBit(TIMEOUT_TICKS) * 2 - 1;
 
     /**
      * 用来保存同步或异步请求的SignalAttachment附加包，signalId和SIGNAL_MASK取与的结果hash作为数组索引，使用AtomicReferenceArray只是为了提升性能
@@ -40,20 +69,64 @@ public class SignalBridge {
     private static final AtomicReferenceArray<SignalAttachment> signalAttachmentArray = new AtomicReferenceArray<>(SIGNAL_MASK + 1);
 
     /**
-     * 用来保存同步或异步请求的SignalAttachment附加包，key：signalId
+     * 数组中发生碰撞的SignalAttachment，signalId和STRIPE_MASK取与选择分段，每个分段使用自己的锁
+     */
+    @SuppressWarnings("unchecked")
+    private static final IntObjectHashMap<SignalAttachment>[] signalAttachmentStripes = new IntObjectHashMap[STRIPE_MASK + 1];
+
+    /**
+     * 时间轮，每个格子保存对应tick时已经分配的最大signalId，只在timeoutExecutor线程中读写
+     */
+    private static final int[] signalIdWheel = new int[WHEEL_MASK + 1];
+
+    private static final ArrayList<SignalAttachment> timeoutList = new ArrayList<>();
+
+    private static long tick = 0;
+
+    /**
+     * 已经扫描过超时的最大signalId
      */
-    private static final Map<Integer, SignalAttachment> signalAttachmentMap = new ConcurrentHashMap<>(1000);
+    private static int sweptSignalId = 0;
+
+    private static final LongAdder inFlightCount = new LongAdder();
+    private static final LongAdder collisionCount = new LongAdder();
+    private static final LongAdder timeoutCount = new LongAdder();
+
+    private static final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("signal-timeout", true));
+
+    static {
+        for (var i = 0; i < signalAttachmentStripes.length; i++) {
+            signalAttachmentStripes[i] = new IntObjectHashMap<>();
+        }
+
+        sweptSignalId = SignalAttachment.currentSignalId();
+        timeoutExecutor.scheduleAtFixedRate(() -> {
+            try {
+                sweep();
+            } catch (Throwable t) {
+                logger.error("SignalBridge sweep timeout error", t);
+            }
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
 
     public static void addSignalAttachment(SignalAttachment signalAttachment) {
-        var signalId = signalAttachment.getSignalId();
+        // 在add的时候才分配signalId，保证signalId的顺序就是add的顺序，时间轮依赖这个顺序
+        var signalId = SignalAttachment.nextSignalId();
+        signalAttachment.setSignalId(signalId);
         var hash = signalId & SIGNAL_MASK;
 
-        // 使用AtomicReferenceArray只是为了提升性能，仅使用ConcurrentHashMap依然可以运行
+        inFlightCount.increment();
+
+        // 使用AtomicReferenceArray只是为了提升性能，仅使用分段的map依然可以运行
         if (signalAttachmentArray.compareAndSet(hash, null, signalAttachment)) {
             return;
         }
 
-        signalAttachmentMap.put(signalId, signalAttachment);
+        collisionCount.increment();
+        var stripe = signalAttachmentStripes[signalId & STRIPE_MASK];
+        synchronized (stripe) {
+            stripe.put(signalId, signalAttachment);
+        }
     }
 
     public static SignalAttachment removeSignalAttachment(SignalAttachment signalAttachment) {
@@ -65,12 +138,141 @@ public class SignalBridge {
 
         var attachment = signalAttachmentArray.get(hash);
         if (attachment != null && attachment.getSignalId() == signalId && signalAttachmentArray.compareAndSet(hash, attachment, null)) {
+            inFlightCount.decrement();
             return attachment;
         }
-        return signalAttachmentMap.remove(signalId);
+
+        var stripe = signalAttachmentStripes[signalId & STRIPE_MASK];
+        synchronized (stripe) {
+            if (stripe.isEmpty()) {
+                return null;
+            }
+            attachment = stripe.remove(signalId);
+        }
+        if (attachment != null) {
+            inFlightCount.decrement();
+        }
+        return attachment;
+    }
+
+    /**
+     * 每个tick在timeoutExecutor线程中调用一次，移除已经超时的请求，并且以null完成，同步和异步调用会把null当作超时处理
+     */
+    private static void sweep() {
+        tick++;
+        signalIdWheel[(int) (tick & WHEEL_MASK)] = SignalAttachment.currentSignalId();
+        if (tick <= TIMEOUT_TICKS) {
+            return;
+        }
+
+        // TIMEOUT_TICKS之前的水位，小于等于这个水位的signalId都已经超时，signalId溢出之后依然可以用差值比较
+        var timeoutSignalId = signalIdWheel[(int) ((tick - TIMEOUT_TICKS) & WHEEL_MASK)];
+        var count = timeoutSignalId - sweptSignalId;
+        if (count <= 0) {
+            return;
+        }
+
+        if (count > SIGNAL_MASK) {
+            // 一个tick内的请求超过数组的大小，直接扫描整个数组
+            for (var i = 0; i <= SIGNAL_MASK; i++) {
+                var attachment = signalAttachmentArray.get(i);
+                if (attachment != null && attachment.getSignalId() - timeoutSignalId <= 0) {
+                    timeout(attachment);
+                }
+            }
+        } else {
+            for (var signalId = sweptSignalId + 1; signalId - timeoutSignalId <= 0; signalId++) {
+                var attachment = signalAttachmentArray.get(signalId & SIGNAL_MASK);
+                if (attachment != null && attachment.getSignalId() == signalId) {
+                    timeout(attachment);
+                }
+            }
+        }
+        sweptSignalId = timeoutSignalId;
+
+        // 碰撞的请求很少，直接遍历分段
+        for (var stripe : signalAttachmentStripes) {
+            synchronized (stripe) {
+                if (stripe.isEmpty()) {
+                    continue;
+                }
+                for (var attachment : stripe.values()) {
+                    if (attachment.getSignalId() - timeoutSignalId <= 0) {
+                        timeoutList.add(attachment);
+                    }
+                }
+            }
+        }
+        for (var attachment : timeoutList) {
+            timeout(attachment);
+        }
+        timeoutList.clear();
+    }
+
+    private static void timeout(SignalAttachment signalAttachment) {
+        // 移除成功才算超时，如果已经被收到的回复移除了，则什么也不做
+        if (removeSignalAttachment(signalAttachment.getSignalId()) != signalAttachment) {
+            return;
+        }
+        timeoutCount.increment();
+        signalAttachment.getResponseFuture().complete(null);
+    }
+
+    /**
+     * 关闭超时扫描的线程，还没有返回的请求以null完成，不然异步请求的回调永远不会被执行
+     */
+    public static void shutdown() {
+        ThreadUtils.shutdown(timeoutExecutor);
+
+        for (var i = 0; i <= SIGNAL_MASK; i++) {
+            var attachment = signalAttachmentArray.get(i);
+            if (attachment != null) {
+                timeout(attachment);
+            }
+        }
+        for (var stripe : signalAttachmentStripes) {
+            synchronized (stripe) {
+                timeoutList.addAll(stripe.values());
+            }
+        }
+        for (var attachment : timeoutList) {
+            timeout(attachment);
+        }
+        timeoutList.clear();
+    }
+
+    /**
+     * 还没有返回的请求数量
+     */
+    public static long inFlightCount() {
+        return inFlightCount.sum();
+    }
+
+    /**
+     * 放不进数组而放进分段map的次数
+     */
+    public static long collisionCount() {
+        return collisionCount.sum();
+    }
+
+    /**
+     * 碰撞率，碰撞次数/总的请求次数，signalId只在add的时候分配，所以当前的signalId就是总的请求次数
+     */
+    public static double collisionRate() {
+        var count = Integer.toUnsignedLong(SignalAttachment.currentSignalId());
+        return count == 0 ? 0D : (double) collisionCount.sum() / count;
+    }
+
+    /**
+     * 被时间轮判定为超时的请求数量
+     */
+    public static long timeoutCount() {
+        return timeoutCount.sum();
     }
 
     public static void status() {
+        logger.info("SignalBridge [inFlight:{}][collision:{}][collisionRate:{}][timeout:{}]", inFlightCount(), collisionCount(), collisionRate(), timeoutCount());
+
         var count = 0;
         for (int i = 0; i < SIGNAL_MASK + 1; i++) {
             var value = signalAttachmentArray.get(i);
@@ -79,9 +281,13 @@ public class SignalBridge {
             }
         }
 
-        signalAttachmentMap.forEach((key, value) -> {
-            logger.info("signalAttachmentMap has attachment [key:{}][value:{}]", key, JsonUtils.object2String(value));
-        });
+        for (var stripe : signalAttachmentStripes) {
+            synchronized (stripe) {
+                stripe.forEach((key, value) -> {
+                    logger.info("signalAttachmentMap has attachment [key:{}][value:{}]", key, JsonUtils.object2String(value));
+                });
+            }
+        }
     }
 
 }
@@ -119,6 +119,20 @@ public class NetDefinitionParser implements BeanDefinitionParser {
 
         resolvePlaceholder("protocol-param", "protocolParam", builder, element, parserContext);
 
+        // 合并flush
+        resolvePlaceholder("flush-consolidation", "flushConsolidation", builder, element, parserContext);
+
+        // 大包分片和包的最大长度
+        resolvePlaceholder("chunk-size", "chunkSize", builder, element, parserContext);
+        resolvePlaceholder("max-frame-length", "maxFrameLength", builder, element, parserContext);
+
+        // -----传输层解析-----
+        var transportElement = DomUtils.getFirstChildElementByTagName(element, "transport");
+        if (transportElement != null) {
+            parseTransportConfig(transportElement, parserContext);
+            builder.addPropertyReference("transport", TransportConfig.class.getCanonicalName());
+        }
+
         // -----注册中心解析-----
         // 上面解析的都是config标签的属性，这里开始解析registry元素
         var registryElement = DomUtils.getFirstChildElementByTagName(element, "registry");
@@ -151,6 +165,25 @@ public class NetDefinitionParser implements BeanDefinitionParser {
         parserContext.getRegistry().registerBeanDefinition(clazz.getCanonicalName(), builder.getBeanDefinition());
     }
 
+    private void parseTransportConfig(Element element, ParserContext parserContext) {
+        var clazz = TransportConfig.class;
+        var builder = BeanDefinitionBuilder.rootBeanDefinition(clazz);
+
+        resolvePlaceholder("io-uring", "ioUring", builder, element, parserContext);
+        resolvePlaceholder("reuse-port", "reusePort", builder, element, parserContext);
+        resolvePlaceholder("tcp-nodelay", "tcpNodelay", builder, element, parserContext);
+        resolvePlaceholder("tcp-quickack", "tcpQuickack", builder, element, parserContext);
+        resolvePlaceholder("so-rcvbuf", "soRcvbuf", builder, element, parserContext);
+        resolvePlaceholder("so-sndbuf", "soSndbuf", builder, element, parserContext);
+        resolvePlaceholder("so-backlog", "soBacklog", builder, element, parserContext);
+        resolvePlaceholder("write-buffer-low-water-mark", "writeBufferLowWaterMark", builder, element, parserContext);
+        resolvePlaceholder("write-buffer-high-water-mark", "writeBufferHighWaterMark", builder, element, parserContext);
+        resolvePlaceholder("boss-thread", "bossThread", builder, element, parserContext);
+        resolvePlaceholder("worker-thread", "workerThread", builder, element, parserContext);
+        resolvePlaceholder("client-thread", "clientThread", builder, element, parserContext);
+        parserContext.getRegistry().registerBeanDefinition(clazz.getCanonicalName(), builder.getBeanDefinition());
+    }
+
     private void parseRegistryConfig(Element element, ParserContext parserContext) {
         var clazz = RegistryConfig.class;
         var builder = BeanDefinitionBuilder.rootBeanDefinition(clazz);
@@ -180,7 +213,10 @@ public class NetDefinitionParser implements BeanDefinitionParser {
         var builder = BeanDefinitionBuilder.rootBeanDefinition(clazz);
 
         resolvePlaceholder("task-dispatch", "taskDispatch", builder, element, parserContext);
+        resolvePlaceholder("idle-strategy", "idleStrategy", builder, element, parserContext);
         resolvePlaceholder("thread", "thread", builder, element, parserContext);
+        resolvePlaceholder("queue-capacity", "queueCapacity", builder, element, parserContext);
+        resolvePlaceholder("overload-policy", "overloadPolicy", builder, element, parserContext);
         resolvePlaceholder("address", "address", builder, element, parserContext);
 
         var providerModules = parseProviderModules("providers", element, parserContext);
@@ -14,6 +14,7 @@
 package com.zfoo.net.session.manager;
 
 import com.zfoo.net.session.model.Session;
+import com.zfoo.net.session.model.SessionTable;
 
 import java.util.Map;
 
@@ -27,8 +28,20 @@ public interface ISessionManager {
 
     void removeServerSession(Session session);
 
-    Session getServerSession(Long id);
+    Session getServerSession(long sid);
 
+    Session getServerSessionByUid(long uid);
+
+    SessionTable getServerSessionTable();
+
+    /**
+     * 拷贝一份所有serverSession的不可修改的Map，每次调用都是O(n)的拷贝
+     * <p>
+     * 以前返回的是实时变化的ConcurrentHashMap，现在只是调用时刻的快照，之后加入和断开的session不会反映到返回的Map中，也不能修改
+     *
+     * @deprecated 使用getServerSessionTable遍历和广播，使用getServerSession和getServerSessionByUid查找
+     */
+    @Deprecated
     Map<Long, Session> getServerSessionMap();
 
 
@@ -36,8 +49,16 @@ public interface ISessionManager {
 
     void removeClientSession(Session session);
 
-    Session getClientSession(Long id);
+    Session getClientSession(long sid);
+
+    SessionTable getClientSessionTable();
 
+    /**
+     * 拷贝一份所有clientSession的不可修改的Map，每次调用都是O(n)的拷贝，和getServerSessionMap一样只是调用时刻的快照
+     *
+     * @deprecated 使用getClientSessionTable遍历，使用getClientSession查找
+     */
+    @Deprecated
     Map<Long, Session> getClientSessionMap();
 
     int getClientSessionChangeId();
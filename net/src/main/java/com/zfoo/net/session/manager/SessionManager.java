@@ -14,14 +14,15 @@
 package com.zfoo.net.session.manager;
 
 import com.zfoo.net.session.model.Session;
+import com.zfoo.net.session.model.SessionTable;
 import com.zfoo.net.util.SessionUtils;
 import com.zfoo.util.security.IdUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author jaysunxiao
@@ -34,78 +35,96 @@ public class SessionManager implements ISessionManager {
     /**
      * 作为服务器，被别的客户端连接的Session
      * 如：自己作为网关，那肯定有一大堆客户端连接，他们连接上来后，就会保存下来这些信息。
-     * 因此：要全局消息广播，其实要用这个Map
+     * 因此：要全局消息广播，其实要用这个SessionTable
      */
-    private final Map<Long, Session> serverSessionMap = new ConcurrentHashMap<>();
+    private final SessionTable serverSessionTable = new SessionTable();
 
 
     /**
      * 作为客户端，连接别的服务器上后，保存下来的Session
-     * 如：自己配置了Consumer，说明自己作为消费者将要消费远程接口，就会创建一个TcpClient去连接Provider，那么连接上后，就会保存下来到这个Map中
+     * 如：自己配置了Consumer，说明自己作为消费者将要消费远程接口，就会创建一个TcpClient去连接Provider，那么连接上后，就会保存下来到这个SessionTable中
      */
-    private final Map<Long, Session> clientSessionMap = new ConcurrentHashMap<>();
+    private final SessionTable clientSessionTable = new SessionTable();
 
     private volatile int clientSessionChangeId = IdUtils.getLocalIntId();
 
 
     @Override
     public void addServerSession(Session session) {
-        if (serverSessionMap.containsKey(session.getSid())) {
+        if (!serverSessionTable.add(session)) {
             logger.error("server收到重复的[session:{}]", SessionUtils.sessionInfo(session));
-            return;
         }
-        serverSessionMap.put(session.getSid(), session);
     }
 
     @Override
     public void removeServerSession(Session session) {
-        if (!serverSessionMap.containsKey(session.getSid())) {
+        if (!serverSessionTable.remove(session)) {
             logger.error("SessionManager中的serverSession没有包含[session:{}]，所以无法移除", SessionUtils.sessionInfo(session));
             return;
         }
-        serverSessionMap.remove(session.getSid());
         session.close();
     }
 
     @Override
-    public Session getServerSession(Long id) {
-        return serverSessionMap.get(id);
+    public Session getServerSession(long sid) {
+        return serverSessionTable.get(sid);
+    }
+
+    @Override
+    public Session getServerSessionByUid(long uid) {
+        return serverSessionTable.getByUid(uid);
+    }
+
+    @Override
+    public SessionTable getServerSessionTable() {
+        return serverSessionTable;
     }
 
+    @Deprecated
     @Override
     public Map<Long, Session> getServerSessionMap() {
-        return Collections.unmodifiableMap(serverSessionMap);
+        return toMap(serverSessionTable);
     }
 
     @Override
     public void addClientSession(Session session) {
-        if (clientSessionMap.containsKey(session.getSid())) {
+        if (!clientSessionTable.add(session)) {
             logger.error("client收到重复的[session:{}]", SessionUtils.sessionInfo(session));
             return;
         }
-        clientSessionMap.put(session.getSid(), session);
         clientSessionChangeId = IdUtils.getLocalIntId();
     }
 
     @Override
     public void removeClientSession(Session session) {
-        if (!clientSessionMap.containsKey(session.getSid())) {
+        if (!clientSessionTable.remove(session)) {
             logger.error("SessionManager中的clientSession没有包含[session:{}]，所以无法移除", SessionUtils.sessionInfo(session));
             return;
         }
-        clientSessionMap.remove(session.getSid());
         session.close();
         clientSessionChangeId = IdUtils.getLocalIntId();
     }
 
     @Override
-    public Session getClientSession(Long id) {
-        return clientSessionMap.get(id);
+    public Session getClientSession(long sid) {
+        return clientSessionTable.get(sid);
+    }
+
+    @Override
+    public SessionTable getClientSessionTable() {
+        return clientSessionTable;
     }
 
+    @Deprecated
     @Override
     public Map<Long, Session> getClientSessionMap() {
-        return Collections.unmodifiableMap(clientSessionMap);
+        return toMap(clientSessionTable);
+    }
+
+    private Map<Long, Session> toMap(SessionTable sessionTable) {
+        var map = new HashMap<Long, Session>();
+        sessionTable.forEach(session -> map.put(session.getSid(), session));
+        return Collections.unmodifiableMap(map);
     }
 
     @Override
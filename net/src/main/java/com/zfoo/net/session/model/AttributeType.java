@@ -30,6 +30,11 @@ public enum AttributeType {
 
     RESPONSE_TIME,
 
+    /**
+     * 最小延迟负载均衡器给服务提供者的session分配的统计数据下标
+     */
+    LOAD_BALANCER_SLOT,
+
     /**
      * session的uid
      */
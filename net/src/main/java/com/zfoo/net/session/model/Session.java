@@ -13,14 +13,15 @@
 
 package com.zfoo.net.session.model;
 
+import com.zfoo.net.consumer.registry.RegisterVO;
 import com.zfoo.protocol.util.StringUtils;
 import io.netty.channel.Channel;
 
 import java.io.Closeable;
 import java.util.EnumMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * @author jaysunxiao
@@ -30,6 +31,8 @@ public class Session implements Closeable {
 
     private static final AtomicLong ATOMIC_LONG = new AtomicLong(0);
 
+    private static final AttributeType[] ATTRIBUTE_TYPES = AttributeType.values();
+
     /**
      * session的id
      */
@@ -38,9 +41,21 @@ public class Session implements Closeable {
     private Channel channel;
 
     /**
-     * Session附带的属性参数
+     * Session附带的属性参数，下标为AttributeType.ordinal()
+     * <p>
+     * 读属性是网关和任务分发最热的路径，直接volatile读槽位，不加锁；写属性很少，仍然在session上同步，保证SessionTable的二级索引和属性值一致
+     */
+    private final AtomicReferenceArray<Object> attributes = new AtomicReferenceArray<>(ATTRIBUTE_TYPES.length);
+
+    /**
+     * UID属性的原始类型副本，0表示还没有登录，避免热点路径上的拆箱和类型转换
+     */
+    private volatile long uid;
+
+    /**
+     * 加入SessionManager之后，修改属性的时候需要更新SessionTable的二级索引
      */
-    private Map<AttributeType, Object> attributes = new EnumMap<>(AttributeType.class);
+    private SessionTable sessionTable;
 
 
     public Session(Channel channel) {
@@ -54,7 +69,14 @@ public class Session implements Closeable {
 
     @Override
     public String toString() {
-        return StringUtils.format("[sid:{}] [channel:{}] [attributes:{}]", sid, channel, attributes);
+        var attributeMap = new EnumMap<AttributeType, Object>(AttributeType.class);
+        for (var attributeType : ATTRIBUTE_TYPES) {
+            var value = attributes.get(attributeType.ordinal());
+            if (value != null) {
+                attributeMap.put(attributeType, value);
+            }
+        }
+        return StringUtils.format("[sid:{}] [channel:{}] [attributes:{}]", sid, channel, attributeMap);
     }
 
     @Override
@@ -87,21 +109,62 @@ public class Session implements Closeable {
         this.sid = sid;
     }
 
+    /**
+     * UID属性只能是整数，统一保存为Long，和setUid(long)一致
+     */
     public synchronized void putAttribute(AttributeType key, Object value) {
-        attributes.put(key, value);
+        if (key == AttributeType.UID) {
+            if (value != null && !(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+                throw new IllegalArgumentException(StringUtils.format("[sid:{}]的uid属性必须是整数，不能是[{}]类型的[{}]", sid, value.getClass().getName(), value));
+            }
+            value = value == null ? null : ((Number) value).longValue();
+            uid = value == null ? 0 : (long) value;
+        }
+        var oldValue = attributes.getAndSet(key.ordinal(), value);
+        if (sessionTable != null) {
+            sessionTable.indexAttribute(this, key, oldValue, value);
+        }
     }
 
     public synchronized void removeAttribute(AttributeType key) {
-        attributes.remove(key);
+        if (key == AttributeType.UID) {
+            uid = 0;
+        }
+        var oldValue = attributes.getAndSet(key.ordinal(), null);
+        if (sessionTable != null && oldValue != null) {
+            sessionTable.indexAttribute(this, key, oldValue, null);
+        }
     }
 
 
     public <T> T getAttribute(AttributeType key) {
-        return (T) attributes.get(key);
+        return (T) attributes.get(key.ordinal());
+    }
+
+    /**
+     * @return 登录后的uid，没有登录返回0
+     */
+    public long getUid() {
+        return uid;
+    }
+
+    public void setUid(long uid) {
+        putAttribute(AttributeType.UID, uid);
+    }
+
+    /**
+     * @return 作为消费者连接的服务提供者信息，不是消费者的session返回null
+     */
+    public RegisterVO getConsumer() {
+        return (RegisterVO) attributes.get(AttributeType.CONSUMER.ordinal());
     }
 
     public Channel getChannel() {
         return channel;
     }
 
+    void setSessionTable(SessionTable sessionTable) {
+        this.sessionTable = sessionTable;
+    }
+
 }
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.session.model;
+
+import io.netty.util.collection.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * 分段的Session表，sid直接作为long的key，查找的时候没有装箱
+ * <p>
+ * 同时维护两个二级索引：uid -> Session，以及每一种AttributeType -> 拥有这个属性的Session，Session修改属性的时候自动更新索引
+ * <p>
+ * 遍历的时候每个分段先在读锁中拷贝出Session数组，再在锁外执行，广播的时候不会阻塞连接的建立和断开；parallelForEach把不同的分段交给不同的线程执行
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class SessionTable {
+
+    private static final int DEFAULT_SHARDS = 64;
+    private static final int MAX_SHARDS = 1 << 16;
+
+    private static final AttributeType[] ATTRIBUTE_TYPES = AttributeType.values();
+
+    private final ShardedMap sessions;
+
+    private final ShardedMap uidIndex;
+
+    private final Map<AttributeType, ShardedMap> attributeIndexes = new EnumMap<>(AttributeType.class);
+
+    public SessionTable() {
+        this(DEFAULT_SHARDS);
+    }
+
+    /**
+     * @param shards 分段的数量，会向上取整为2的幂，最多MAX_SHARDS
+     */
+    public SessionTable(int shards) {
+        shards = Math.min(shards, MAX_SHARDS);
+        var shardSize = shards <= 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+        this.sessions = new ShardedMap(shardSize);
+        this.uidIndex = new ShardedMap(shardSize);
+        for (var attributeType : ATTRIBUTE_TYPES) {
+            attributeIndexes.put(attributeType, new ShardedMap(shardSize));
+        }
+    }
+
+    /**
+     * 一个long作为key的分段Map，每个分段一个LongObjectHashMap和一把读写锁
+     */
+    private static class ShardedMap {
+        private final LongObjectHashMap<Session>[] maps;
+        private final StampedLock[] locks;
+        private final int mask;
+
+        @SuppressWarnings("unchecked")
+        private ShardedMap(int shards) {
+            this.maps = new LongObjectHashMap[shards];
+            this.locks = new StampedLock[shards];
+            this.mask = shards - 1;
+            for (var i = 0; i < shards; i++) {
+                maps[i] = new LongObjectHashMap<>();
+                locks[i] = new StampedLock();
+            }
+        }
+
+        /**
+         * LongObjectHashMap直接用key的低位作为下标，没有再次hash；递增的sid和低位都是0的uid都会聚集在一起，
+         * 所以保存的是乘以黄金分割数之后的key，乘以奇数是一一映射，不会冲突
+         */
+        private static long mix(long key) {
+            return key * 0x9E3779B97F4A7C15L;
+        }
+
+        private int shardIndex(long mixedKey) {
+            // 分段使用高位，分段内的LongObjectHashMap使用低位
+            return (int) (mixedKey >>> 48) & mask;
+        }
+
+        private Session get(long key) {
+            var mixedKey = mix(key);
+            var index = shardIndex(mixedKey);
+            var lock = locks[index];
+            // 先乐观读，没有并发写入的时候不需要CAS；并发写入的时候LongObjectHashMap可能处于不一致的状态，读到的结果和异常都丢弃，再加读锁重新读取
+            var stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    var session = maps[index].get(mixedKey);
+                    if (lock.validate(stamp)) {
+                        return session;
+                    }
+                } catch (RuntimeException e) {
+                    // 乐观读失败，下面加读锁重新读取
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                return maps[index].get(mixedKey);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private Session putIfAbsent(long key, Session session) {
+            var mixedKey = mix(key);
+            var index = shardIndex(mixedKey);
+            var lock = locks[index];
+            var stamp = lock.writeLock();
+            try {
+                var map = maps[index];
+                var previous = map.get(mixedKey);
+                if (previous == null) {
+                    map.put(mixedKey, session);
+                }
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void put(long key, Session session) {
+            var mixedKey = mix(key);
+            var index = shardIndex(mixedKey);
+            var lock = locks[index];
+            var stamp = lock.writeLock();
+            try {
+                maps[index].put(mixedKey, session);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * 只有key对应的是这个session的时候才删除，防止删除了同一个key后来加入的session
+         */
+        private boolean remove(long key, Session session) {
+            var mixedKey = mix(key);
+            var index = shardIndex(mixedKey);
+            var lock = locks[index];
+            var stamp = lock.writeLock();
+            try {
+                var map = maps[index];
+                if (map.get(mixedKey) != session) {
+                    return false;
+                }
+                map.remove(mixedKey);
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int size() {
+            var size = 0;
+            for (var i = 0; i < maps.length; i++) {
+                var lock = locks[i];
+                var stamp = lock.readLock();
+                try {
+                    size += maps[i].size();
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return size;
+        }
+
+        private Session[] snapshot(int index) {
+            var lock = locks[index];
+            var stamp = lock.readLock();
+            try {
+                return maps[index].values().toArray(new Session[0]);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void forEachShard(int index, Consumer<Session> action) {
+            for (var session : snapshot(index)) {
+                action.accept(session);
+            }
+        }
+
+        private void forEach(Consumer<Session> action) {
+            for (var i = 0; i < maps.length; i++) {
+                forEachShard(i, action);
+            }
+        }
+    }
+
+    /**
+     * @return 如果sid已经存在返回false，不会覆盖
+     */
+    public boolean add(Session session) {
+        synchronized (session) {
+            if (sessions.putIfAbsent(session.getSid(), session) != null) {
+                return false;
+            }
+            session.setSessionTable(this);
+            for (var attributeType : ATTRIBUTE_TYPES) {
+                var value = session.getAttribute(attributeType);
+                if (value != null) {
+                    indexAttribute(session, attributeType, null, value);
+                }
+            }
+            return true;
+        }
+    }
+
+    public boolean remove(Session session) {
+        synchronized (session) {
+            if (!sessions.remove(session.getSid(), session)) {
+                return false;
+            }
+            session.setSessionTable(null);
+            for (var attributeType : ATTRIBUTE_TYPES) {
+                var value = session.getAttribute(attributeType);
+                if (value != null) {
+                    indexAttribute(session, attributeType, value, null);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Session修改属性的时候调用，调用的时候持有session的锁
+     */
+    void indexAttribute(Session session, AttributeType attributeType, Object oldValue, Object newValue) {
+        if (attributeType == AttributeType.UID) {
+            if (oldValue instanceof Number) {
+                uidIndex.remove(((Number) oldValue).longValue(), session);
+            }
+            if (newValue instanceof Number) {
+                // 同一个uid重复登录的时候，后登录的session覆盖之前的session
+                uidIndex.put(((Number) newValue).longValue(), session);
+            }
+        }
+
+        if (oldValue == null && newValue != null) {
+            attributeIndexes.get(attributeType).put(session.getSid(), session);
+        } else if (oldValue != null && newValue == null) {
+            attributeIndexes.get(attributeType).remove(session.getSid(), session);
+        }
+    }
+
+    public Session get(long sid) {
+        return sessions.get(sid);
+    }
+
+    /**
+     * 通过AttributeType.UID查找session，没有找到返回null
+     */
+    public Session getByUid(long uid) {
+        return uidIndex.get(uid);
+    }
+
+    public boolean contains(long sid) {
+        return sessions.get(sid) != null;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public int shards() {
+        return sessions.maps.length;
+    }
+
+    public void forEach(Consumer<Session> action) {
+        sessions.forEach(action);
+    }
+
+    /**
+     * 只遍历一个分段，可以把不同的分段交给不同的线程处理
+     */
+    public void forEachShard(int shardIndex, Consumer<Session> action) {
+        sessions.forEachShard(shardIndex, action);
+    }
+
+    /**
+     * 每个分段作为一个并行任务在ForkJoinPool.commonPool()中执行，action需要是线程安全的，适合给所有连接广播消息
+     */
+    public void parallelForEach(Consumer<Session> action) {
+        IntStream.range(0, shards()).parallel().forEach(it -> forEachShard(it, action));
+    }
+
+    /**
+     * 遍历拥有attributeType属性的session
+     */
+    public void forEach(AttributeType attributeType, Consumer<Session> action) {
+        attributeIndexes.get(attributeType).forEach(action);
+    }
+
+    public List<Session> toList() {
+        var list = new ArrayList<Session>();
+        forEach(list::add);
+        return list;
+    }
+
+    public List<Session> toList(AttributeType attributeType) {
+        var list = new ArrayList<Session>();
+        forEach(attributeType, list::add);
+        return list;
+    }
+
+}
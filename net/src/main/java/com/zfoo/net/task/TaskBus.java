@@ -13,24 +13,40 @@
 
 package com.zfoo.net.task;
 
+import com.zfoo.event.executor.IdleStrategy;
+import com.zfoo.event.executor.MpscSingleThreadExecutor;
 import com.zfoo.event.manager.EventBus;
 import com.zfoo.net.NetContext;
+import com.zfoo.net.session.model.Session;
 import com.zfoo.net.task.dispatcher.AbstractTaskDispatch;
 import com.zfoo.net.task.dispatcher.ITaskDispatch;
+import com.zfoo.net.task.dispatcher.WorkStealingTaskDispatch;
+import com.zfoo.net.task.executor.MailboxExecutor;
 import com.zfoo.net.task.model.PacketReceiverTask;
+import com.zfoo.net.task.overload.OverloadPolicy;
 import com.zfoo.protocol.util.AssertionUtils;
 import com.zfoo.protocol.util.StringUtils;
 import com.zfoo.scheduler.manager.SchedulerBus;
 import com.zfoo.util.SafeRunnable;
 import com.zfoo.util.ThreadUtils;
 import com.zfoo.util.math.RandomUtils;
+import com.zfoo.util.metrics.ExecutorMetrics;
+import com.zfoo.util.metrics.ExecutorMetricsMBean;
+import com.zfoo.util.metrics.ExecutorMetricsVO;
 import io.netty.util.concurrent.FastThreadLocalThread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * Task线程池一半是用来接收客户都安的请求做一些cpu密集型任务，尽量避免做一些阻塞操作，IO密集型任务可以放在Event线程池去做
@@ -55,6 +71,50 @@ public final class TaskBus {
 
     private static final Map<Long, ExecutorService> threadMap = new ConcurrentHashMap<>();
 
+    /**
+     * 每个线程池（work-stealing模式下是每个邮箱）的运行指标，下标和executors一一对应
+     */
+    private static final ExecutorMetrics[] executorMetrics;
+
+    /**
+     * work-stealing模式下每条线程对应的邮箱数量，邮箱越多，一个慢的Actor影响到的其它Actor越少
+     */
+    private static final int MAILBOX_PER_THREAD = 64;
+
+    /**
+     * work-stealing模式下所有邮箱共享的线程池，其它模式为null
+     */
+    private static final ForkJoinPool workStealingPool;
+
+    /**
+     * 每个线程池（work-stealing模式下是每个邮箱）最多排队的任务数量，0为不限制
+     */
+    private static final int QUEUE_CAPACITY;
+
+    private static final OverloadPolicy overloadPolicy;
+
+    /**
+     * 线程池在executors中的下标，初始化之后只读
+     */
+    private static final Map<Executor, Integer> executorIndexMap = new IdentityHashMap<>();
+
+    /**
+     * drop-oldest策略下每个线程池需要丢弃的消息数量，由线程池中最早执行到的消息丢弃自己
+     */
+    private static final AtomicInteger[] pendingDrops;
+
+    /**
+     * 每个线程池中排队的PacketReceiverTask数量，不包括回调和定时任务等其它任务，过载策略只根据消息的排队数量判断
+     */
+    private static final AtomicInteger[] queuedPackets;
+
+    /**
+     * pause-read策略下每个线程池暂停读取的连接
+     */
+    private static final List<Queue<Session>> pausedSessions;
+
+    private static final LongAdder overloadCount = new LongAdder();
+
     static {
         var localConfig = NetContext.getConfigManager().getLocalConfig();
         var providerConfig = localConfig.getProvider();
@@ -65,11 +125,66 @@ public final class TaskBus {
                 ? (Runtime.getRuntime().availableProcessors() + 1)
                 : Integer.parseInt(providerConfig.getThread());
 
-        executors = new ExecutorService[EXECUTOR_SIZE];
+        if (taskDispatch instanceof WorkStealingTaskDispatch) {
+            // 所有的邮箱共享一个ForkJoinPool，asyncMode为true，任务按照先进先出的顺序执行
+            workStealingPool = new ForkJoinPool(EXECUTOR_SIZE, new WorkStealingThreadFactory(), (t, e) -> logger.error(t.toString(), e), true);
+            executors = new ExecutorService[EXECUTOR_SIZE * MAILBOX_PER_THREAD];
+            executorMetrics = new ExecutorMetrics[executors.length];
+            for (int i = 0; i < executors.length; i++) {
+                executorMetrics[i] = ExecutorMetrics.valueOf(StringUtils.format("task-m{}", i + 1));
+                executors[i] = new MailboxExecutor(workStealingPool, ExecutorMetrics.ENABLE ? executorMetrics[i] : null);
+            }
+        } else {
+            workStealingPool = null;
+            var idleStrategy = (providerConfig == null || StringUtils.isBlank(providerConfig.getIdleStrategy()))
+                    ? IdleStrategy.PARK
+                    : IdleStrategy.getIdleStrategy(providerConfig.getIdleStrategy());
+            executors = new ExecutorService[EXECUTOR_SIZE];
+            executorMetrics = new ExecutorMetrics[executors.length];
+            for (int i = 0; i < executors.length; i++) {
+                var namedThreadFactory = new TaskThreadFactory(i);
+                executorMetrics[i] = ExecutorMetrics.valueOf(StringUtils.format("task-p{}", i + 1));
+                var executor = new MpscSingleThreadExecutor(namedThreadFactory, 0, idleStrategy, ExecutorMetrics.ENABLE ? executorMetrics[i] : null);
+                executors[i] = executor;
+            }
+        }
+        if (ExecutorMetrics.ENABLE) {
+            ExecutorMetricsMBean.register("task", () -> List.of(executorMetrics));
+        }
+
+        QUEUE_CAPACITY = (providerConfig == null || StringUtils.isBlank(providerConfig.getQueueCapacity()))
+                ? 0
+                : Integer.parseInt(providerConfig.getQueueCapacity());
+        overloadPolicy = (providerConfig == null || StringUtils.isBlank(providerConfig.getOverloadPolicy()))
+                ? OverloadPolicy.ERROR
+                : OverloadPolicy.getOverloadPolicy(providerConfig.getOverloadPolicy());
+        pendingDrops = new AtomicInteger[executors.length];
+        queuedPackets = new AtomicInteger[executors.length];
+        pausedSessions = new ArrayList<>(executors.length);
         for (int i = 0; i < executors.length; i++) {
-            var namedThreadFactory = new TaskThreadFactory(i);
-            var executor = Executors.newSingleThreadExecutor(namedThreadFactory);
-            executors[i] = executor;
+            executorIndexMap.put(executors[i], i);
+            pendingDrops[i] = new AtomicInteger(0);
+            queuedPackets[i] = new AtomicInteger(0);
+            pausedSessions.add(new ConcurrentLinkedQueue<>());
+        }
+        if (QUEUE_CAPACITY > 0 && overloadPolicy == OverloadPolicy.PAUSE_READ) {
+            // 兜底，消息执行完和连接暂停读取并发的时候可能错过恢复读取
+            SchedulerBus.scheduleAtFixedRate(() -> {
+                for (int i = 0; i < executors.length; i++) {
+                    tryResumeRead(i);
+                }
+            }, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class WorkStealingThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(StringUtils.format("task-ws-t{}", threadNumber.getAndIncrement()));
+            return thread;
         }
     }
 
@@ -115,13 +230,97 @@ public final class TaskBus {
      * GatewayAttachment：默认是executorConsistentHash等于用户活玩家的uid，也可以通过IGatewayLoadBalancer接口指定
      * SignalAttachment：executorConsistentHash通过IRouter和IConsumer的argument参数指定
      */
-    public static void submit(PacketReceiverTask task) {
+    public static boolean submit(PacketReceiverTask task) {
         // 里面会看到是：其中一致性hash是根据附加包记录的hashId进行选择哪个线程进行业务处理
-        taskDispatch.getExecutor(executors, task).execute(task);
+        var executor = taskDispatch.getExecutor(executors, task);
+        if (ExecutorMetrics.ENABLE) {
+            task.setSubmitNanoTime(System.nanoTime());
+        }
+
+        if (QUEUE_CAPACITY > 0) {
+            var index = executorIndexMap.get(executor);
+            if (queuedPackets[index].get() >= QUEUE_CAPACITY) {
+                overloadCount.increment();
+                switch (overloadPolicy) {
+                    case DROP_OLDEST:
+                        pendingDrops[index].incrementAndGet();
+                        break;
+                    case PAUSE_READ:
+                        var channel = task.getSession().getChannel();
+                        if (channel.config().isAutoRead()) {
+                            channel.config().setAutoRead(false);
+                            pausedSessions.get(index).offer(task.getSession());
+                            logger.warn("task线程[index:{}]过载，暂停读取[sid:{}]的消息", index, task.getSession().getSid());
+                        }
+                        break;
+                    case ERROR:
+                    default:
+                        return false;
+                }
+            }
+            task.setExecutorIndex(index);
+            queuedPackets[index].incrementAndGet();
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                queuedPackets[index].decrementAndGet();
+                throw e;
+            }
+            return true;
+        }
+
+        executor.execute(task);
+        return true;
+    }
+
+    /**
+     * PacketReceiverTask开始执行的时候调用，不再计入线程池排队的消息数量
+     */
+    public static void dequeue(int executorIndex) {
+        queuedPackets[executorIndex].decrementAndGet();
+    }
+
+    /**
+     * PacketReceiverTask执行之前调用，drop-oldest策略下有需要丢弃的消息的时候，丢弃当前这个最早排队的消息，调用者需要回收被丢弃的消息
+     *
+     * @return true表示这个消息被丢弃，不需要执行
+     */
+    public static boolean tryDrop(int executorIndex) {
+        var drops = pendingDrops[executorIndex];
+        while (true) {
+            var count = drops.get();
+            if (count <= 0) {
+                return false;
+            }
+            if (drops.compareAndSet(count, count - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * PacketReceiverTask执行之后调用，pause-read策略下排队的任务数量降到queueCapacity的一半的时候恢复读取
+     */
+    public static void tryResumeRead(int executorIndex) {
+        var sessions = pausedSessions.get(executorIndex);
+        if (sessions.isEmpty() || queuedPackets[executorIndex].get() > QUEUE_CAPACITY / 2) {
+            return;
+        }
+        Session session;
+        while ((session = sessions.poll()) != null) {
+            session.getChannel().config().setAutoRead(true);
+        }
+    }
+
+    /**
+     * 因为排队的消息数量超过queueCapacity而触发过载策略的次数
+     */
+    public static long overloadCount() {
+        return overloadCount.sum();
     }
 
     public static int executorIndex(int executorConsistentHash) {
-        return Math.abs(executorConsistentHash % EXECUTOR_SIZE);
+        return Math.abs(executorConsistentHash % executors.length);
     }
 
     public static void execute(int executorConsistentHash, Runnable runnable) {
@@ -130,6 +329,12 @@ public final class TaskBus {
 
     // 在task，event，scheduler线程执行的异步请求，请求成功过后依然在相同的线程执行回调任务
     public static Executor currentThreadExecutor() {
+        // work-stealing模式下线程是共享的，回调需要回到当前的邮箱，而不是当前的线程
+        var mailbox = MailboxExecutor.currentMailbox();
+        if (mailbox != null) {
+            return mailbox;
+        }
+
         var threadId = Thread.currentThread().getId();
         var taskExecutor = threadMap.get(threadId);
         if (taskExecutor != null) {
@@ -149,4 +354,23 @@ public final class TaskBus {
         return executors[executorIndex(RandomUtils.randomInt())];
     }
 
+    /**
+     * 关闭所有的task线程池，work-stealing模式下邮箱中的任务执行完之后再关闭共享的线程池
+     */
+    public static void shutdown() {
+        for (var executor : executors) {
+            ThreadUtils.shutdown(executor);
+        }
+        if (workStealingPool != null) {
+            ThreadUtils.shutdown(workStealingPool);
+        }
+    }
+
+    /**
+     * 每个task线程的队列深度，等待时间，执行时间和每秒执行的任务数量，work-stealing模式下是每个邮箱的指标
+     */
+    public static List<ExecutorMetricsVO> executorMetrics() {
+        return Arrays.stream(executorMetrics).map(it -> it.snapshot()).collect(Collectors.toList());
+    }
+
 }
@@ -13,7 +13,6 @@
 
 package com.zfoo.net.task.dispatcher;
 
-import com.zfoo.net.session.model.AttributeType;
 import com.zfoo.net.task.TaskBus;
 import com.zfoo.net.task.model.PacketReceiverTask;
 import com.zfoo.util.math.HashUtils;
@@ -39,9 +38,9 @@ public class ConsistentHashTaskDispatch extends AbstractTaskDispatch {
 
         if (attachment == null) {
             var session = packetReceiverTask.getSession();
-            var uid = session.getAttribute(AttributeType.UID);
+            var uid = session.getUid();
 
-            if (uid == null) {
+            if (uid == 0) {
                 return SessionIdTaskDispatch.getInstance().getExecutor(executors, packetReceiverTask);
             } else {
                 return executors[TaskBus.executorIndex(HashUtils.fnvHash(uid))];
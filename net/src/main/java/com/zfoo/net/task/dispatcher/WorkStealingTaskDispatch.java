@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.task.dispatcher;
+
+/**
+ * 派发的规则和ConsistentHashTaskDispatch相同，但是TaskBus不再为每个executor创建一个单线程的线程池，
+ * 而是创建更多的MailboxExecutor邮箱，所有的邮箱共享一个ForkJoinPool执行，同一个executorConsistentHash的任务依然串行执行
+ * <p>
+ * 只适用于不会阻塞的receiver：一个阻塞的receiver会一直占住ForkJoinPool的一条线程，ForkJoinPool不会为普通的阻塞调用补充线程，
+ * 阻塞的receiver一多，所有邮箱都会被拖慢。syncAsk通过CompletableFuture等待，内部已经使用了ForkJoinPool.managedBlock，不受影响；
+ * 数据库、文件等其它阻塞IO需要放到EventBus中异步执行，或者用ForkJoinPool.managedBlock包装
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class WorkStealingTaskDispatch extends ConsistentHashTaskDispatch {
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.task.executor;
+
+import com.zfoo.util.ThreadUtils;
+import com.zfoo.util.metrics.ExecutorMetrics;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 邮箱执行器，提交的任务按照提交的顺序串行执行，但是不独占线程，而是在共享的线程池中执行
+ * <p>
+ * 同一个MailboxExecutor中的任务永远不会被两条线程同时执行，所以和单线程的线程池一样可以作为Actor使用；
+ * 一个邮箱的任务执行得很慢，只会占用共享线程池中的一条线程，其它邮箱的任务可以被其它空闲的线程窃取执行
+ * <p>
+ * 共享的是ForkJoinPool，提交的任务不能阻塞线程，阻塞的调用需要用ForkJoinPool.managedBlock包装，让线程池补充线程，
+ * 否则阻塞的任务会占满共享线程池，所有邮箱都无法执行
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class MailboxExecutor extends AbstractExecutorService implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailboxExecutor.class);
+
+    /**
+     * 一次最多连续执行的任务数量，执行完之后重新提交到共享线程池的队尾，避免一个繁忙的邮箱一直占用线程
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * 当前线程正在执行的邮箱
+     */
+    private static final FastThreadLocal<MailboxExecutor> currentMailboxThreadLocal = new FastThreadLocal<>();
+
+    private final Executor executor;
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 是否已经提交到共享线程池中，保证同一时间只有一条线程在执行这个邮箱
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * 运行指标，为null的时候不统计
+     */
+    private final ExecutorMetrics metrics;
+
+    private volatile boolean shutdown = false;
+
+    public MailboxExecutor(Executor executor, ExecutorMetrics metrics) {
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    public MailboxExecutor(Executor executor) {
+        this(executor, null);
+    }
+
+    /**
+     * 如果当前线程正在执行某个邮箱中的任务，返回这个邮箱，否则返回null
+     */
+    public static MailboxExecutor currentMailbox() {
+        return currentMailboxThreadLocal.getIfExists();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("MailboxExecutor has been shutdown");
+        }
+        mailbox.offer(metrics == null ? task : metrics.wrap(task));
+        trySchedule();
+    }
+
+    private void trySchedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        currentMailboxThreadLocal.set(this);
+        try {
+            for (var i = 0; i < BATCH_SIZE; i++) {
+                var task = mailbox.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    logger.error("MailboxExecutor unknown error", t);
+                }
+            }
+        } finally {
+            currentMailboxThreadLocal.remove();
+            scheduled.set(false);
+            // 释放之后可能又有新的任务进来，或者还没有执行完，需要再次提交
+            if (!mailbox.isEmpty()) {
+                trySchedule();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        var tasks = new ArrayList<Runnable>();
+        Runnable task;
+        while ((task = mailbox.poll()) != null) {
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && mailbox.isEmpty() && !scheduled.get();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            ThreadUtils.sleep(1);
+        }
+        return true;
+    }
+
+}
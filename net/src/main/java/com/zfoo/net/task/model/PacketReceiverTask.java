@@ -14,9 +14,16 @@
 package com.zfoo.net.task.model;
 
 import com.zfoo.net.NetContext;
+import com.zfoo.net.packet.common.Error;
+import com.zfoo.net.router.attachment.AttachmentType;
 import com.zfoo.net.router.attachment.IAttachment;
+import com.zfoo.net.router.route.PacketBus;
 import com.zfoo.net.session.model.Session;
+import com.zfoo.net.task.TaskBus;
 import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.ProtocolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author jaysunxiao
@@ -24,10 +31,22 @@ import com.zfoo.protocol.IPacket;
  */
 public final class PacketReceiverTask implements Runnable {
 
+    private static final Logger logger = LoggerFactory.getLogger(PacketReceiverTask.class);
+
     private Session session;
     private IPacket packet;
     private IAttachment attachment;
 
+    /**
+     * 开启了queueCapacity的时候为所在线程池的下标，否则为-1
+     */
+    private int executorIndex = -1;
+
+    /**
+     * 提交到TaskBus的时间，用来统计每个协议的等待时间，关闭了运行指标的时候为0
+     */
+    private long submitNanoTime;
+
     public PacketReceiverTask(Session session, IPacket packet, IAttachment attachment) {
         this.session = session;
         this.packet = packet;
@@ -36,7 +55,43 @@ public final class PacketReceiverTask implements Runnable {
 
     @Override
     public void run() {
-        NetContext.getRouter().atReceiver(session, packet, attachment);
+        if (submitNanoTime != 0) {
+            PacketBus.recordWait(packet.protocolId(), System.nanoTime() - submitNanoTime);
+        }
+
+        if (executorIndex < 0) {
+            NetContext.getRouter().atReceiver(session, packet, attachment);
+            return;
+        }
+
+        TaskBus.dequeue(executorIndex);
+        try {
+            if (TaskBus.tryDrop(executorIndex)) {
+                overload();
+                return;
+            }
+            NetContext.getRouter().atReceiver(session, packet, attachment);
+        } finally {
+            TaskBus.tryResumeRead(executorIndex);
+        }
+    }
+
+    /**
+     * task线程过载，消息被拒绝或者被丢弃的时候调用，直接告诉发送者，请求方的asyncAsk不需要等到超时，最后回收池化的消息
+     */
+    public void overload() {
+        try {
+            var responseAttachment = (attachment != null && (attachment.packetType() == AttachmentType.SIGNAL_PACKET || attachment.packetType() == AttachmentType.GATEWAY_PACKET))
+                    ? attachment
+                    : null;
+            NetContext.getRouter().send(session, Error.valueOf(packet, "server overload"), responseAttachment);
+        } finally {
+            try {
+                ProtocolManager.recycle(packet);
+            } catch (Throwable t) {
+                logger.error("回收过载丢弃的协议[{}]异常", packet.protocolId(), t);
+            }
+        }
     }
 
     public Session getSession() {
@@ -55,6 +110,22 @@ public final class PacketReceiverTask implements Runnable {
         this.packet = packet;
     }
 
+    public int getExecutorIndex() {
+        return executorIndex;
+    }
+
+    public void setExecutorIndex(int executorIndex) {
+        this.executorIndex = executorIndex;
+    }
+
+    public long getSubmitNanoTime() {
+        return submitNanoTime;
+    }
+
+    public void setSubmitNanoTime(long submitNanoTime) {
+        this.submitNanoTime = submitNanoTime;
+    }
+
     public IAttachment getAttachment() {
         return attachment;
     }
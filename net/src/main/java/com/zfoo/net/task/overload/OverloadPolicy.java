@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.task.overload;
+
+import com.zfoo.protocol.util.StringUtils;
+
+/**
+ * task线程排队的消息数量超过queueCapacity的时候的处理策略，只对收到的消息生效，内部提交的任务和异步回调永远不会被丢弃
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public enum OverloadPolicy {
+
+    /**
+     * 不处理新收到的消息，直接给发送者返回一个Error
+     */
+    ERROR("error"),
+
+    /**
+     * 新收到的消息依然排队，同时丢弃这个线程中最早排队的一个消息
+     */
+    DROP_OLDEST("drop-oldest"),
+
+    /**
+     * 新收到的消息依然排队，同时暂停读取这个消息所在的连接，等到排队的消息数量降到queueCapacity的一半再恢复读取
+     */
+    PAUSE_READ("pause-read");
+
+    private final String policy;
+
+    OverloadPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public static OverloadPolicy getOverloadPolicy(String policy) {
+        for (var overloadPolicy : values()) {
+            if (overloadPolicy.policy.equals(policy)) {
+                return overloadPolicy;
+            }
+        }
+        throw new IllegalArgumentException(StringUtils.format("无效的过载策略[overloadPolicy:{}]", policy));
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+}
@@ -56,7 +56,7 @@ public abstract class SessionUtils {
             return CHANNEL_INFO_TEMPLATE;
         }
         var remoteAddress = session.getAttribute(AttributeType.CHANNEL_REMOTE_ADDRESS);
-        return StringUtils.format(CHANNEL_INFO_TEMPLATE, remoteAddress, session.getSid(), session.getAttribute(AttributeType.UID));
+        return StringUtils.format(CHANNEL_INFO_TEMPLATE, remoteAddress, session.getSid(), session.getUid());
     }
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.net.config;
+
+import com.zfoo.net.NetContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class TransportConfigTest {
+
+    @Test
+    public void transportParserTest() {
+        var context = new ClassPathXmlApplicationContext("transport_config.xml");
+        var transport = NetContext.getConfigManager().getLocalConfig().getTransport();
+
+        Assert.assertTrue(transport.isIoUring());
+        Assert.assertEquals(4, transport.getReusePort());
+        Assert.assertFalse(transport.isTcpNodelay());
+        Assert.assertTrue(transport.isTcpQuickack());
+        Assert.assertEquals(262144, transport.getSoRcvbuf());
+        Assert.assertEquals(131072, transport.getSoSndbuf());
+        Assert.assertEquals(1024, transport.getSoBacklog());
+        Assert.assertEquals(32768, transport.getWriteBufferLowWaterMark());
+        Assert.assertEquals(65536, transport.getWriteBufferHighWaterMark());
+        Assert.assertEquals(2, transport.getBossThread());
+        Assert.assertEquals(8, transport.getWorkerThread());
+        Assert.assertEquals(3, transport.getClientThread());
+
+        // 每一个SO_REUSEPORT的监听channel都需要一个独立的boss线程
+        Assert.assertEquals(4, transport.bossThreadOrDefault());
+        Assert.assertEquals(8, transport.workerThreadOrDefault());
+        Assert.assertEquals(3, transport.clientThreadOrDefault());
+        context.close();
+    }
+
+}
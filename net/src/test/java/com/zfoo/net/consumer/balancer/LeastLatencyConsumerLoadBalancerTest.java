@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.net.consumer.balancer;
+
+import com.zfoo.net.packet.common.Heartbeat;
+import com.zfoo.net.router.attachment.SignalAttachment;
+import com.zfoo.net.session.model.AttributeType;
+import com.zfoo.net.session.model.Session;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class LeastLatencyConsumerLoadBalancerTest {
+
+    private static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void ewmaTest() {
+        var stats = new LeastLatencyConsumerLoadBalancer.Stats(4);
+        var nanoTime = TimeUnit.HOURS.toNanos(1);
+
+        // 第一次统计直接使用这次的延迟
+        stats.update(0, 1000, nanoTime);
+        Assert.assertEquals(1000, stats.ewma(0), DELTA);
+        Assert.assertEquals(1000, stats.cost(0, nanoTime), DELTA);
+
+        // 同一时刻的统计，之前的延迟权重为1
+        stats.update(0, 5000, nanoTime);
+        Assert.assertEquals(1000, stats.ewma(0), DELTA);
+
+        // 经过一个衰减时间常数，之前的延迟权重衰减到1/e
+        stats.update(0, 5000, nanoTime + DECAY_NANOS);
+        var weight = Math.exp(-1);
+        Assert.assertEquals(1000 * weight + 5000 * (1 - weight), stats.ewma(0), DELTA);
+
+        // 长时间没有被调用的服务提供者，代价随时间衰减，慢的服务提供者也会重新被选中
+        var ewma = stats.ewma(0);
+        Assert.assertEquals(ewma * weight, stats.cost(0, nanoTime + 2 * DECAY_NANOS), DELTA);
+        Assert.assertEquals(ewma, stats.cost(0, nanoTime), DELTA);
+    }
+
+    @Test
+    public void costTest() {
+        var stats = new LeastLatencyConsumerLoadBalancer.Stats(4);
+        var nanoTime = TimeUnit.HOURS.toNanos(1);
+
+        // 没有统计过的服务提供者优先试探一个请求，拿到延迟之前不再分配
+        Assert.assertEquals(0, stats.cost(0, nanoTime), DELTA);
+        stats.inFlights.incrementAndGet(0);
+        Assert.assertEquals(Double.MAX_VALUE, stats.cost(0, nanoTime), DELTA);
+
+        // 快的服务提供者等待应答的请求太多之后，选择慢的服务提供者
+        stats.update(1, TimeUnit.MILLISECONDS.toNanos(1), nanoTime);
+        stats.update(2, TimeUnit.MILLISECONDS.toNanos(10), nanoTime);
+        Assert.assertTrue(stats.cost(1, nanoTime) < stats.cost(2, nanoTime));
+        for (var i = 0; i < 10; i++) {
+            stats.inFlights.incrementAndGet(1);
+        }
+        Assert.assertTrue(stats.cost(1, nanoTime) > stats.cost(2, nanoTime));
+    }
+
+    @Test
+    public void beforeAfterTest() {
+        var balancer = LeastLatencyConsumerLoadBalancer.getInstance();
+        var session = new Session(new EmbeddedChannel());
+        var slot = 3;
+        session.putAttribute(AttributeType.LOAD_BALANCER_SLOT, slot);
+        var packet = new Heartbeat();
+
+        // 没有经过beforeLoadBalancer的请求不会统计，也不会减少等待应答的数量
+        balancer.afterLoadBalancer(session, packet, new SignalAttachment());
+        Assert.assertEquals(0, balancer.stats.inFlights.get(slot));
+        Assert.assertEquals(0, balancer.stats.ewma(slot), DELTA);
+
+        var attachment = new SignalAttachment();
+        var timestamp = attachment.getTimestamp();
+        balancer.beforeLoadBalancer(session, packet, attachment);
+        Assert.assertEquals(1, balancer.stats.inFlights.get(slot));
+        Assert.assertEquals(slot, attachment.getLoadBalancerSlot());
+        // 附加包原来的发送时间不会被修改
+        Assert.assertEquals(timestamp, attachment.getTimestamp());
+
+        balancer.afterLoadBalancer(session, packet, attachment);
+        Assert.assertEquals(0, balancer.stats.inFlights.get(slot));
+        var ewma = balancer.stats.ewma(slot);
+        Assert.assertTrue(ewma >= 0 && ewma < TimeUnit.SECONDS.toNanos(10));
+
+        // 同一个请求重复调用afterLoadBalancer只统计一次
+        var other = new SignalAttachment();
+        balancer.beforeLoadBalancer(session, packet, other);
+        balancer.afterLoadBalancer(session, packet, attachment);
+        Assert.assertEquals(1, balancer.stats.inFlights.get(slot));
+        balancer.afterLoadBalancer(session, packet, other);
+        Assert.assertEquals(0, balancer.stats.inFlights.get(slot));
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.net.handler.codec.tcp;
+
+import com.zfoo.net.NetContext;
+import com.zfoo.net.packet.common.Message;
+import com.zfoo.net.packet.compress.SnappyCompressor;
+import com.zfoo.net.packet.model.DecodedPacketInfo;
+import com.zfoo.net.packet.model.EncodedPacketInfo;
+import com.zfoo.net.packet.service.PacketService;
+import com.zfoo.net.router.attachment.GatewayAttachment;
+import com.zfoo.net.router.attachment.IAttachment;
+import com.zfoo.net.router.attachment.SignalAttachment;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * 网关透传：客户端的包 -> GatewayTcpCodecHandler只解码附加包 -> 原始包体加上GatewayAttachment -> 服务提供者正常解码
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class GatewayTcpCodecHandlerTest {
+
+    private static final ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("config.xml");
+
+    @Test
+    public void passThroughTest() {
+        var signalAttachment = new SignalAttachment();
+        signalAttachment.setSignalId(SignalAttachment.nextSignalId());
+        passThrough(Message.valueSuccess("hello"), signalAttachment);
+        passThrough(Message.valueSuccess("hello"), null);
+    }
+
+    @Test
+    public void compressedPassThroughTest() {
+        NetContext.getPacketService().registerCompressor(Message.PROTOCOL_ID, 64, SnappyCompressor.INSTANCE);
+        var signalAttachment = new SignalAttachment();
+        signalAttachment.setSignalId(SignalAttachment.nextSignalId());
+        passThrough(Message.valueSuccess("zfoo".repeat(200)), signalAttachment);
+    }
+
+    private void passThrough(Message message, SignalAttachment signalAttachment) {
+        // 客户端发到网关
+        var clientBytes = encode(EncodedPacketInfo.valueOf(message, signalAttachment));
+        var gatewayChannel = new EmbeddedChannel(new GatewayTcpCodecHandler(0, 0));
+        gatewayChannel.writeInbound(clientBytes);
+        DecodedPacketInfo gatewayPacketInfo = gatewayChannel.readInbound();
+        gatewayChannel.finishAndReleaseAll();
+
+        // 网关不反序列化包体
+        Assert.assertNull(gatewayPacketInfo.getPacket());
+        Assert.assertEquals(Message.PROTOCOL_ID, gatewayPacketInfo.getProtocolId());
+        var packetByteBuf = gatewayPacketInfo.getPacketByteBuf();
+        assertSignalAttachment(signalAttachment, gatewayPacketInfo.getAttachment());
+
+        // 网关转发给服务提供者，和GatewayRouteHandler一样直接把编码好的ByteBuf写入channel
+        var gatewayAttachment = new GatewayAttachment(1, 2);
+        gatewayAttachment.setClient(true);
+        gatewayAttachment.setSignalAttachment((SignalAttachment) gatewayPacketInfo.getAttachment());
+        var buffer = Unpooled.buffer();
+        try {
+            NetContext.getPacketService().writePassThrough(buffer, packetByteBuf, gatewayAttachment);
+        } finally {
+            packetByteBuf.release();
+        }
+        var providerBytes = encode(buffer);
+
+        // 服务提供者正常解码
+        var providerChannel = new EmbeddedChannel(new TcpCodecHandler());
+        providerChannel.writeInbound(providerBytes);
+        DecodedPacketInfo providerPacketInfo = providerChannel.readInbound();
+        providerChannel.finishAndReleaseAll();
+
+        var providerMessage = (Message) providerPacketInfo.getPacket();
+        Assert.assertEquals(message.getCode(), providerMessage.getCode());
+        Assert.assertEquals(message.getMessage(), providerMessage.getMessage());
+        var providerAttachment = (GatewayAttachment) providerPacketInfo.getAttachment();
+        Assert.assertEquals(1, providerAttachment.getSid());
+        Assert.assertEquals(2, providerAttachment.getUid());
+        assertSignalAttachment(signalAttachment, providerAttachment.getSignalAttachment());
+    }
+
+    private ByteBuf encode(Object msg) {
+        var channel = new EmbeddedChannel(new TcpCodecHandler());
+        channel.writeOutbound(msg);
+        var bytes = Unpooled.buffer();
+        ByteBuf frame;
+        while ((frame = channel.readOutbound()) != null) {
+            bytes.writeBytes(frame);
+            frame.release();
+        }
+        channel.finishAndReleaseAll();
+        Assert.assertEquals(bytes.readableBytes() - PacketService.PACKET_HEAD_LENGTH, bytes.getInt(0));
+        return bytes;
+    }
+
+    private void assertSignalAttachment(SignalAttachment expected, IAttachment actual) {
+        if (expected == null) {
+            Assert.assertNull(actual);
+            return;
+        }
+        Assert.assertEquals(expected.getSignalId(), ((SignalAttachment) actual).getSignalId());
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.net.handler.codec.tcp;
+
+import com.zfoo.net.packet.common.Message;
+import com.zfoo.net.packet.model.DecodedPacketInfo;
+import com.zfoo.net.packet.model.EncodedPacketInfo;
+import com.zfoo.net.packet.service.PacketService;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class TcpCodecHandlerTest {
+
+    private static final ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("config.xml");
+
+    private static final int CHUNK_SIZE = 64;
+
+    @Test
+    public void packetTest() {
+        var message = Message.valueSuccess("hello");
+        var bytes = encode(new TcpCodecHandler(), message);
+        // 不分片的包只有一个包头
+        Assert.assertEquals(bytes.readableBytes() - PacketService.PACKET_HEAD_LENGTH, bytes.getInt(0));
+        assertMessage(message, decodeInPieces(new TcpCodecHandler(), bytes, 3));
+    }
+
+    @Test
+    public void chunkTest() {
+        var message = Message.valueSuccess("zfoo".repeat(200));
+        var bytes = encode(new TcpCodecHandler(CHUNK_SIZE, 0), message);
+        // 第一个分片的包头有分片的标志，长度为chunkSize加上chunkIndex
+        var header = bytes.getInt(0);
+        Assert.assertNotEquals(0, header & TcpCodecHandler.CHUNK_FLAG);
+        Assert.assertEquals(0, header & TcpCodecHandler.LAST_CHUNK_FLAG);
+        Assert.assertEquals(CHUNK_SIZE + TcpCodecHandler.CHUNK_INDEX_LENGTH, header & TcpCodecHandler.CHUNK_LENGTH_MASK);
+        Assert.assertEquals(0, bytes.getInt(PacketService.PACKET_HEAD_LENGTH));
+
+        // 分片被tcp任意的拆开之后也能重组
+        assertMessage(message, decodeInPieces(new TcpCodecHandler(CHUNK_SIZE, 0), bytes.copy(), 1));
+        assertMessage(message, decodeInPieces(new TcpCodecHandler(CHUNK_SIZE, 0), bytes.copy(), 7));
+        assertMessage(message, decodeInPieces(new TcpCodecHandler(CHUNK_SIZE, 0), bytes, bytes.readableBytes()));
+    }
+
+    @Test
+    public void rawChunkTest() {
+        // 广播和网关透传直接写入已经编码好的ByteBuf，超过分片长度的时候也要分片
+        var message = Message.valueSuccess("zfoo".repeat(200));
+        var raw = encode(new TcpCodecHandler(), message);
+        var bytes = encode(new TcpCodecHandler(CHUNK_SIZE, 0), raw.retainedDuplicate());
+        Assert.assertNotEquals(0, bytes.getInt(0) & TcpCodecHandler.CHUNK_FLAG);
+        assertMessage(message, decodeInPieces(new TcpCodecHandler(CHUNK_SIZE, 0), bytes, 7));
+
+        // 写入的是共享内存的duplicate，原来的ByteBuf的读指针不受影响
+        Assert.assertEquals(0, raw.readerIndex());
+        Assert.assertEquals(1, raw.refCnt());
+        raw.release();
+
+        // 没有超过分片长度的原样写入
+        message = Message.valueSuccess("hello");
+        raw = encode(new TcpCodecHandler(), message);
+        bytes = encode(new TcpCodecHandler(CHUNK_SIZE, 0), raw.retainedDuplicate());
+        Assert.assertEquals(raw, bytes);
+        raw.release();
+        assertMessage(message, decodeInPieces(new TcpCodecHandler(CHUNK_SIZE, 0), bytes, 3));
+    }
+
+    @Test
+    public void chunkDisabledTest() {
+        var bytes = encode(new TcpCodecHandler(CHUNK_SIZE, 0), Message.valueSuccess("zfoo".repeat(200)));
+        assertDecodeError(new TcpCodecHandler(), bytes);
+    }
+
+    @Test
+    public void oversizeChunkTest() {
+        // 只收到包头，分片的数据还没有到达，就能发现重组之后的长度超过了上限
+        var bytes = Unpooled.buffer();
+        bytes.writeInt(TcpCodecHandler.CHUNK_FLAG | (1000 + TcpCodecHandler.CHUNK_INDEX_LENGTH));
+        bytes.writeInt(0);
+        assertDecodeError(new TcpCodecHandler(CHUNK_SIZE, 512), bytes);
+
+        // 每个分片都不超过上限，加起来超过上限
+        var message = Message.valueSuccess("zfoo".repeat(200));
+        assertDecodeError(new TcpCodecHandler(CHUNK_SIZE, 512), encode(new TcpCodecHandler(CHUNK_SIZE, 0), message));
+
+        // 没有配置最大长度的时候，分片重组也有默认的上限
+        bytes = Unpooled.buffer();
+        bytes.writeInt(TcpCodecHandler.CHUNK_FLAG | TcpCodecHandler.CHUNK_LENGTH_MASK);
+        bytes.writeInt(0);
+        assertDecodeError(new TcpCodecHandler(CHUNK_SIZE, 0), bytes);
+    }
+
+    @Test
+    public void malformedChunkTest() {
+        // 第一个分片的序号不是0
+        var bytes = Unpooled.buffer();
+        bytes.writeInt(TcpCodecHandler.CHUNK_FLAG | (1 + TcpCodecHandler.CHUNK_INDEX_LENGTH));
+        bytes.writeInt(1);
+        bytes.writeByte(0);
+        assertDecodeError(new TcpCodecHandler(CHUNK_SIZE, 0), bytes);
+
+        // 分片的长度不够chunkIndex
+        bytes = Unpooled.buffer();
+        bytes.writeInt(TcpCodecHandler.CHUNK_FLAG | TcpCodecHandler.CHUNK_INDEX_LENGTH);
+        bytes.writeInt(0);
+        assertDecodeError(new TcpCodecHandler(CHUNK_SIZE, 0), bytes);
+
+        // 分片还没有接收完，又收到了一个不分片的包
+        var chunked = encode(new TcpCodecHandler(CHUNK_SIZE, 0), Message.valueSuccess("zfoo".repeat(200)));
+        var firstChunkLength = PacketService.PACKET_HEAD_LENGTH + (chunked.getInt(0) & TcpCodecHandler.CHUNK_LENGTH_MASK);
+        bytes = Unpooled.buffer();
+        bytes.writeBytes(chunked, firstChunkLength);
+        bytes.writeBytes(encode(new TcpCodecHandler(), Message.valueSuccess("hello")));
+        chunked.release();
+        assertDecodeError(new TcpCodecHandler(CHUNK_SIZE, 0), bytes);
+    }
+
+    @Test
+    public void oversizePacketTest() {
+        var bytes = encode(new TcpCodecHandler(), Message.valueSuccess("zfoo".repeat(200)));
+        assertDecodeError(new TcpCodecHandler(0, 128), bytes);
+    }
+
+    private ByteBuf encode(TcpCodecHandler handler, Message message) {
+        return encode(handler, EncodedPacketInfo.valueOf(message, null));
+    }
+
+    private ByteBuf encode(TcpCodecHandler handler, Object msg) {
+        var channel = new EmbeddedChannel(handler);
+        channel.writeOutbound(msg);
+        var bytes = Unpooled.buffer();
+        ByteBuf frame;
+        while ((frame = channel.readOutbound()) != null) {
+            bytes.writeBytes(frame);
+            frame.release();
+        }
+        channel.finishAndReleaseAll();
+        return bytes;
+    }
+
+    private Message decodeInPieces(TcpCodecHandler handler, ByteBuf bytes, int pieceLength) {
+        var channel = new EmbeddedChannel(handler);
+        try {
+            while (bytes.isReadable()) {
+                Assert.assertNull(channel.readInbound());
+                channel.writeInbound(bytes.readRetainedSlice(Math.min(pieceLength, bytes.readableBytes())));
+            }
+            DecodedPacketInfo packetInfo = channel.readInbound();
+            Assert.assertNotNull(packetInfo);
+            Assert.assertNull(channel.readInbound());
+            return (Message) packetInfo.getPacket();
+        } finally {
+            bytes.release();
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private void assertDecodeError(TcpCodecHandler handler, ByteBuf bytes) {
+        var channel = new EmbeddedChannel(handler);
+        try {
+            channel.writeInbound(bytes);
+            Assert.fail();
+        } catch (DecoderException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        } finally {
+            // 解码异常之后连接会被关闭，剩下的数据不再解码
+            channel.releaseInbound();
+            channel.close();
+        }
+    }
+
+    private void assertMessage(Message expected, Message actual) {
+        Assert.assertEquals(expected.getCode(), actual.getCode());
+        Assert.assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+}
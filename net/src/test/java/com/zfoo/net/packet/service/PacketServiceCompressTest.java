@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.net.packet.service;
+
+import com.zfoo.net.NetContext;
+import com.zfoo.net.packet.common.Message;
+import com.zfoo.net.packet.compress.DeflateCompressor;
+import com.zfoo.net.packet.compress.DictionaryTrainer;
+import com.zfoo.net.packet.compress.ICompressor;
+import com.zfoo.net.packet.compress.SnappyCompressor;
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.exception.RunException;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.util.ArrayList;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class PacketServiceCompressTest {
+
+    private static final ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("config.xml");
+
+    private static final int THRESHOLD = 64;
+
+    @Test
+    public void deflateTest() {
+        roundTrip(DeflateCompressor.valueOf(null));
+    }
+
+    @Test
+    public void deflateDictionaryTest() {
+        var samples = new ArrayList<Message>();
+        for (var i = 0; i < 100; i++) {
+            samples.add(Message.valueSuccess("zfoo player " + i + " enter the scene"));
+        }
+        var dictionary = DictionaryTrainer.trainPackets(samples, 1024);
+        Assert.assertTrue(dictionary.length > 0);
+        roundTrip(DeflateCompressor.valueOf(dictionary));
+
+        // 发送方和接收方的字典不一样，不能解压
+        var bytes = write(Message.valueSuccess("zfoo".repeat(200)));
+        NetContext.getPacketService().registerCompressor(Message.PROTOCOL_ID, THRESHOLD, DeflateCompressor.valueOf(null));
+        try {
+            NetContext.getPacketService().read(bytes);
+            Assert.fail();
+        } catch (RunException e) {
+            // 解压失败
+        } finally {
+            bytes.release();
+        }
+    }
+
+    @Test
+    public void snappyTest() {
+        roundTrip(SnappyCompressor.INSTANCE);
+    }
+
+    @Test
+    public void corruptHeaderTest() {
+        NetContext.getPacketService().registerCompressor(Message.PROTOCOL_ID, THRESHOLD, SnappyCompressor.INSTANCE);
+
+        // 压缩前的长度为0或者负数
+        assertReadError(compressedHeader(0, 1, 1));
+        assertReadError(compressedHeader(-1, 1, 1));
+        // 压缩前的长度超过了上限，包本身很小
+        assertReadError(compressedHeader(PacketService.DEFAULT_MAX_RAW_LENGTH + 1, 1, 1));
+        assertReadError(compressedHeader(Integer.MAX_VALUE, 1, 1));
+        // 压缩后的长度超过了剩余的可读字节
+        assertReadError(compressedHeader(100, 10, 5));
+        assertReadError(compressedHeader(100, 0, 5));
+        assertReadError(compressedHeader(100, -1, 5));
+
+        // 包头合法，Snappy的头部声明解压后的长度为0x0FFFFFFF，不能按照这个长度分配内存
+        var bytes = compressedHeader(100, 4, 0);
+        bytes.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x7F});
+        try {
+            NetContext.getPacketService().read(bytes);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // 解压的时候超过了压缩前的长度
+        } finally {
+            bytes.release();
+        }
+    }
+
+    private void roundTrip(ICompressor compressor) {
+        var packetService = NetContext.getPacketService();
+        packetService.registerCompressor(Message.PROTOCOL_ID, THRESHOLD, compressor);
+
+        // 超过阈值的包会被压缩，协议号为负数
+        var message = Message.valueSuccess("zfoo".repeat(200));
+        var bytes = write(message);
+        try {
+            Assert.assertTrue(bytes.getShort(bytes.readerIndex()) < 0);
+            Assert.assertTrue(bytes.readableBytes() < 800);
+            assertMessage(message, (Message) packetService.read(bytes).getPacket());
+            Assert.assertFalse(bytes.isReadable());
+        } finally {
+            bytes.release();
+        }
+
+        // 小于阈值的包不压缩
+        message = Message.valueSuccess("hello");
+        bytes = write(message);
+        try {
+            Assert.assertEquals(Message.PROTOCOL_ID, bytes.getShort(bytes.readerIndex()));
+            assertMessage(message, (Message) packetService.read(bytes).getPacket());
+        } finally {
+            bytes.release();
+        }
+    }
+
+    private ByteBuf write(Message message) {
+        var bytes = Unpooled.buffer();
+        NetContext.getPacketService().write(bytes, message, null);
+        // 包的长度由上一层解析
+        bytes.skipBytes(PacketService.PACKET_HEAD_LENGTH);
+        return bytes;
+    }
+
+    private ByteBuf compressedHeader(int rawLength, int compressedLength, int bodyLength) {
+        var bytes = Unpooled.buffer();
+        ByteBufUtils.writeShort(bytes, (short) ~Message.PROTOCOL_ID);
+        ByteBufUtils.writeInt(bytes, rawLength);
+        ByteBufUtils.writeInt(bytes, compressedLength);
+        bytes.writeZero(bodyLength);
+        return bytes;
+    }
+
+    private void assertReadError(ByteBuf bytes) {
+        try {
+            NetContext.getPacketService().read(bytes);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 包头非法
+        } finally {
+            bytes.release();
+        }
+    }
+
+    private void assertMessage(Message expected, Message actual) {
+        Assert.assertEquals(expected.getCode(), actual.getCode());
+        Assert.assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+}
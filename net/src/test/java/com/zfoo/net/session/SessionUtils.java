@@ -30,16 +30,16 @@ public abstract class SessionUtils {
             while (true) {
                 ThreadUtils.sleep(10_000);
                 var builder = new StringBuilder();
-                builder.append(StringUtils.format("clientSession总数：[{}]", NetContext.getSessionManager().getClientSessionMap().size()));
+                builder.append(StringUtils.format("clientSession总数：[{}]", NetContext.getSessionManager().getClientSessionTable().size()));
                 builder.append(FileUtils.LS);
-                for (Session session : NetContext.getSessionManager().getClientSessionMap().values()) {
+                for (Session session : NetContext.getSessionManager().getClientSessionTable().toList()) {
                     builder.append(StringUtils.format("[session:{}]", session.getChannel().remoteAddress()));
                     builder.append(FileUtils.LS);
                 }
 
-                builder.append(StringUtils.format("serverSession总数：[{}]", NetContext.getSessionManager().getServerSessionMap().size()));
+                builder.append(StringUtils.format("serverSession总数：[{}]", NetContext.getSessionManager().getServerSessionTable().size()));
                 builder.append(FileUtils.LS);
-                for (Session session : NetContext.getSessionManager().getServerSessionMap().values()) {
+                for (Session session : NetContext.getSessionManager().getServerSessionTable().toList()) {
                     builder.append(StringUtils.format("[session:{}]", session.getChannel().remoteAddress()));
                     builder.append(FileUtils.LS);
                 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.net.session.model;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class SessionTableTest {
+
+    @Test
+    public void addRemoveTest() {
+        var table = new SessionTable(8);
+        var sessions = new HashSet<Session>();
+        for (var i = 0; i < 1000; i++) {
+            var session = newSession();
+            Assert.assertTrue(table.add(session));
+            sessions.add(session);
+        }
+        Assert.assertEquals(1000, table.size());
+        for (var session : sessions) {
+            Assert.assertSame(session, table.get(session.getSid()));
+            Assert.assertTrue(table.contains(session.getSid()));
+        }
+        Assert.assertEquals(sessions, new HashSet<>(table.toList()));
+
+        // 并行遍历每个session只会遍历一次
+        var visited = ConcurrentHashMap.<Session>newKeySet();
+        table.parallelForEach(session -> Assert.assertTrue(visited.add(session)));
+        Assert.assertEquals(sessions, visited);
+
+        for (var session : sessions) {
+            Assert.assertTrue(table.remove(session));
+            Assert.assertNull(table.get(session.getSid()));
+            // 重复删除
+            Assert.assertFalse(table.remove(session));
+        }
+        Assert.assertEquals(0, table.size());
+        Assert.assertTrue(table.toList().isEmpty());
+    }
+
+    @Test
+    public void duplicateSidTest() {
+        var table = new SessionTable();
+        var session = newSession();
+        session.setUid(1);
+        Assert.assertTrue(table.add(session));
+        Assert.assertFalse(table.add(session));
+
+        // 相同sid的另一个session不会覆盖之前的session，也不会加入索引
+        var duplicate = newSession();
+        duplicate.setSid(session.getSid());
+        duplicate.setUid(2);
+        Assert.assertFalse(table.add(duplicate));
+        Assert.assertSame(session, table.get(session.getSid()));
+        Assert.assertNull(table.getByUid(2));
+        Assert.assertEquals(1, table.toList(AttributeType.UID).size());
+
+        // 没有加入的session不能删除加入的session
+        Assert.assertFalse(table.remove(duplicate));
+        Assert.assertSame(session, table.get(session.getSid()));
+        Assert.assertSame(session, table.getByUid(1));
+
+        // 没有加入的session修改属性不会影响索引
+        duplicate.setUid(3);
+        Assert.assertNull(table.getByUid(3));
+    }
+
+    @Test
+    public void uidReLoginTest() {
+        var table = new SessionTable();
+        var oldSession = newSession();
+        table.add(oldSession);
+        oldSession.setUid(100);
+        Assert.assertSame(oldSession, table.getByUid(100));
+        Assert.assertEquals(100, oldSession.getUid());
+
+        // 同一个uid重复登录，后登录的session覆盖之前的session
+        var newSession = newSession();
+        table.add(newSession);
+        newSession.setUid(100);
+        Assert.assertSame(newSession, table.getByUid(100));
+
+        // 之前的session断开的时候不能删除后登录的session的uid索引
+        Assert.assertTrue(table.remove(oldSession));
+        Assert.assertSame(newSession, table.getByUid(100));
+        oldSession.removeAttribute(AttributeType.UID);
+        Assert.assertSame(newSession, table.getByUid(100));
+
+        // 之前的session修改uid也不能影响后登录的session
+        var otherSession = newSession();
+        table.add(otherSession);
+        otherSession.setUid(100);
+        otherSession.setUid(200);
+        Assert.assertNull(table.getByUid(100));
+        Assert.assertSame(otherSession, table.getByUid(200));
+
+        Assert.assertTrue(table.remove(newSession));
+        Assert.assertNull(table.getByUid(100));
+        Assert.assertSame(otherSession, table.getByUid(200));
+    }
+
+    @Test
+    public void attributeIndexTest() {
+        var table = new SessionTable();
+        // 加入之前已经有的属性也会加入索引
+        var session = newSession();
+        session.putAttribute(AttributeType.GATEWAY_HOST_AND_PORT, "127.0.0.1:9000");
+        table.add(session);
+        Assert.assertEquals(1, table.toList(AttributeType.GATEWAY_HOST_AND_PORT).size());
+        Assert.assertTrue(table.toList(AttributeType.UID).isEmpty());
+
+        // 加入之后修改属性
+        session.setUid(1);
+        Assert.assertEquals(1, table.toList(AttributeType.UID).size());
+        // 修改属性的值，索引不会重复
+        session.setUid(2);
+        Assert.assertEquals(1, table.toList(AttributeType.UID).size());
+        Assert.assertNull(table.getByUid(1));
+        Assert.assertSame(session, table.getByUid(2));
+
+        // 删除属性
+        session.removeAttribute(AttributeType.UID);
+        Assert.assertTrue(table.toList(AttributeType.UID).isEmpty());
+        Assert.assertNull(table.getByUid(2));
+        Assert.assertEquals(0, session.getUid());
+        session.putAttribute(AttributeType.GATEWAY_HOST_AND_PORT, null);
+        Assert.assertTrue(table.toList(AttributeType.GATEWAY_HOST_AND_PORT).isEmpty());
+
+        // 删除session的时候删除所有的属性索引
+        session.setUid(3);
+        session.putAttribute(AttributeType.GATEWAY_HOST_AND_PORT, "127.0.0.1:9000");
+        table.remove(session);
+        Assert.assertTrue(table.toList(AttributeType.UID).isEmpty());
+        Assert.assertTrue(table.toList(AttributeType.GATEWAY_HOST_AND_PORT).isEmpty());
+        Assert.assertNull(table.getByUid(3));
+
+        // 删除之后修改属性不会再加入索引
+        session.setUid(4);
+        Assert.assertNull(table.getByUid(4));
+        Assert.assertTrue(table.toList(AttributeType.UID).isEmpty());
+    }
+
+    @Test
+    public void uidAttributeTest() {
+        var table = new SessionTable();
+        var session = newSession();
+        table.add(session);
+
+        // 其它整数类型的uid统一保存为Long
+        session.putAttribute(AttributeType.UID, 100);
+        Assert.assertEquals(100, session.getUid());
+        Assert.assertEquals(Long.valueOf(100), session.getAttribute(AttributeType.UID));
+        Assert.assertSame(session, table.getByUid(100));
+
+        // 不是整数的uid直接报错，属性和索引都不会改变
+        for (var value : new Object[]{"200", 200.5D}) {
+            try {
+                session.putAttribute(AttributeType.UID, value);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals(100, session.getUid());
+                Assert.assertSame(session, table.getByUid(100));
+            }
+        }
+
+        session.putAttribute(AttributeType.UID, null);
+        Assert.assertEquals(0, session.getUid());
+        Assert.assertNull(table.getByUid(100));
+    }
+
+    private Session newSession() {
+        return new Session(new EmbeddedChannel());
+    }
+
+}
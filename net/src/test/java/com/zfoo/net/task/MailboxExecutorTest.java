@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.net.task;
+
+import com.zfoo.net.task.executor.MailboxExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class MailboxExecutorTest {
+
+    private static final int MAILBOX_SIZE = 16;
+    private static final int TASK_SIZE = 10000;
+
+    @Test
+    public void orderTest() throws InterruptedException {
+        var pool = new ForkJoinPool(4, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        var countDownLatch = new CountDownLatch(MAILBOX_SIZE * TASK_SIZE);
+        var concurrentError = new AtomicBoolean(false);
+
+        var mailboxes = new ArrayList<MailboxExecutor>();
+        var results = new ArrayList<List<Integer>>();
+        var runnings = new ArrayList<AtomicInteger>();
+        for (var i = 0; i < MAILBOX_SIZE; i++) {
+            mailboxes.add(new MailboxExecutor(pool));
+            results.add(new ArrayList<>());
+            runnings.add(new AtomicInteger(0));
+        }
+
+        // 每个邮箱中的任务必须按照提交的顺序执行，并且不能被两条线程同时执行
+        for (var j = 0; j < TASK_SIZE; j++) {
+            for (var i = 0; i < MAILBOX_SIZE; i++) {
+                var mailbox = mailboxes.get(i);
+                var result = results.get(i);
+                var running = runnings.get(i);
+                var value = j;
+                mailbox.execute(() -> {
+                    if (running.incrementAndGet() != 1) {
+                        concurrentError.set(true);
+                    }
+                    if (MailboxExecutor.currentMailbox() != mailbox) {
+                        concurrentError.set(true);
+                    }
+                    result.add(value);
+                    running.decrementAndGet();
+                    countDownLatch.countDown();
+                });
+            }
+        }
+
+        Assert.assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(concurrentError.get());
+        for (var result : results) {
+            Assert.assertEquals(TASK_SIZE, result.size());
+            for (var j = 0; j < TASK_SIZE; j++) {
+                Assert.assertEquals(j, (int) result.get(j));
+            }
+        }
+        Assert.assertNull(MailboxExecutor.currentMailbox());
+
+        mailboxes.forEach(it -> it.shutdown());
+        for (var mailbox : mailboxes) {
+            Assert.assertTrue(mailbox.awaitTermination(1, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+    }
+
+}
@@ -14,9 +14,13 @@ package com.zfoo.protocol;
 
 import com.zfoo.protocol.buffer.ByteBufUtils;
 import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.registration.DeltaBaseline;
+import com.zfoo.protocol.registration.DeltaProtocolRegistration;
 import com.zfoo.protocol.registration.IProtocolRegistration;
+import com.zfoo.protocol.registration.PooledProtocolRegistration;
 import com.zfoo.protocol.registration.ProtocolAnalysis;
 import com.zfoo.protocol.registration.ProtocolModule;
+import com.zfoo.protocol.registration.ProtocolRegistration;
 import com.zfoo.protocol.util.AssertionUtils;
 import com.zfoo.protocol.xml.XmlProtocols;
 import io.netty.buffer.ByteBuf;
@@ -38,6 +42,26 @@ public class ProtocolManager {
      * 索引：协议号protocolId
      */
     public static final IProtocolRegistration[] protocols = new IProtocolRegistration[MAX_PROTOCOL_NUM];
+    /**
+     * 索引：协议号protocolId，只有@Protocol(delta = true)的协议才有
+     */
+    public static final DeltaProtocolRegistration[] deltaProtocols = new DeltaProtocolRegistration[MAX_PROTOCOL_NUM];
+    /**
+     * 索引：协议号protocolId，只有@Protocol(pooled = true)的协议才有
+     */
+    public static final PooledProtocolRegistration[] pooledProtocols = new PooledProtocolRegistration[MAX_PROTOCOL_NUM];
+    /**
+     * 索引：协议号protocolId，增强之前的反射协议，保留了字段信息，用来跳过一个协议
+     */
+    public static final ProtocolRegistration[] reflectProtocols = new ProtocolRegistration[MAX_PROTOCOL_NUM];
+    /**
+     * 索引：协议号protocolId，每个协议自适应的编码大小，0表示还没有编码过
+     */
+    private static final int[] estimateSizes = new int[MAX_PROTOCOL_NUM];
+    /**
+     * 实际编码的大小比估算的小的时候，每次缩小差值的1/8
+     */
+    private static final int ESTIMATE_SIZE_DECAY_SHIFT = 3;
     /**
      * 索引：模块号
      */
@@ -59,14 +83,93 @@ public class ProtocolManager {
      */
     public static void write(ByteBuf buffer, IPacket packet) {
         var protocolId = packet.protocolId();
+        var startIndex = buffer.writerIndex();
         // 写入协议号
         ByteBufUtils.writeShort(buffer, protocolId);
         // 写入包体
         protocols[protocolId].write(buffer, packet);
+        adaptEstimateSize(protocolId, buffer.writerIndex() - startIndex);
+    }
+
+    /**
+     * write大概写入的字节数，用来提前分配buffer
+     * <p>
+     * 第一次编码的时候遍历对象计算出上限，之后使用estimateSizes中根据实际编码大小调整过的值，不会每次编码都遍历整个对象，
+     * 估算得偏小的时候ByteBuf会自动扩容
+     */
+    public static int estimateSize(IPacket packet) {
+        var protocolId = packet.protocolId();
+        var size = estimateSizes[protocolId];
+        if (size > 0) {
+            return size;
+        }
+        size = 2 + protocols[protocolId].estimateSize(packet);
+        estimateSizes[protocolId] = size;
+        return size;
+    }
+
+    /**
+     * 和netty的AdaptiveRecvByteBufAllocator一样，变大的时候马上扩大，变小的时候慢慢缩小，避免大小交替的协议反复扩容
+     * <p>
+     * 多线程同时更新的时候只会丢失一次调整，不需要同步
+     */
+    private static void adaptEstimateSize(short protocolId, int size) {
+        var estimateSize = estimateSizes[protocolId];
+        if (size > estimateSize) {
+            estimateSizes[protocolId] = size;
+        } else if (size < estimateSize) {
+            estimateSizes[protocolId] = estimateSize - ((estimateSize - size) >> ESTIMATE_SIZE_DECAY_SHIFT);
+        }
     }
 
     public static IPacket read(ByteBuf buffer) {
-        return (IPacket) protocols[ByteBufUtils.readShort(buffer)].read(buffer);
+        var protocolId = ByteBufUtils.readShort(buffer);
+        var pooledProtocol = pooledProtocols[protocolId];
+        if (pooledProtocol != null) {
+            return (IPacket) pooledProtocol.read(buffer);
+        }
+        return (IPacket) protocols[protocolId].read(buffer);
+    }
+
+    /**
+     * 跳过buffer中的一个协议，只移动readerIndex，不创建对象，网关透传的时候用来找到包体的结尾
+     */
+    public static void skip(ByteBuf buffer) {
+        var protocolId = ByteBufUtils.readShort(buffer);
+        reflectProtocols[protocolId].skip(buffer);
+    }
+
+    /**
+     * 接收者处理完之后回收池化的packet，没有开启@Protocol(pooled = true)的协议直接忽略
+     */
+    public static void recycle(IPacket packet) {
+        var pooledProtocol = pooledProtocols[packet.protocolId()];
+        if (pooledProtocol != null) {
+            pooledProtocol.recycle(packet);
+        }
+    }
+
+    /**
+     * 增量序列化，只写入和baseline相比变化了的字段，协议需要标注@Protocol(delta = true)
+     */
+    public static void writeDelta(ByteBuf buffer, IPacket packet, DeltaBaseline baseline) {
+        var protocolId = packet.protocolId();
+        var deltaProtocol = deltaProtocols[protocolId];
+        AssertionUtils.notNull(deltaProtocol, "协议[{}]没有开启增量序列化@Protocol(delta = true)", protocolId);
+        ByteBufUtils.writeShort(buffer, protocolId);
+        deltaProtocol.write(buffer, packet, baseline);
+    }
+
+    /**
+     * 增量反序列化，把变化了的字段合并到target中，target一般是上一次读取的对象
+     */
+    public static IPacket readDelta(ByteBuf buffer, IPacket target) {
+        var protocolId = ByteBufUtils.readShort(buffer);
+        AssertionUtils.isTrue(protocolId == target.protocolId(), "增量协议[{}]和合并的对象的协议[{}]不一致", protocolId, target.protocolId());
+        var deltaProtocol = deltaProtocols[protocolId];
+        AssertionUtils.notNull(deltaProtocol, "协议[{}]没有开启增量序列化@Protocol(delta = true)", protocolId);
+        deltaProtocol.read(buffer, target);
+        return target;
     }
 
     public static IProtocolRegistration getProtocol(short protocolId) {
@@ -18,7 +18,7 @@ import com.zfoo.protocol.registration.IProtocolRegistration;
 import com.zfoo.protocol.util.StringUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
-import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.LongObjectHashMap;
 
@@ -341,32 +341,56 @@ public abstract class ByteBufUtils {
             return;
         }
 
-        // 预估需要写入的字节数，并预留位置
+        // UTF-8编码的长度在[字符数, 3倍字符数]之间，按照最大长度预留varint的位置，只遍历一次字符串，写完再回填准确的长度
         var maxLength = ByteBufUtil.utf8MaxBytes(value);
+        var lengthIndex = byteBuf.writerIndex();
         var writeIntCountByte = writeInt(byteBuf, maxLength);
 
         var length = byteBuf.writeCharSequence(value, StringUtils.DEFAULT_CHARSET);
-
         var currentWriteIndex = byteBuf.writerIndex();
 
-        // 因为写入的是可变长的int，如果预留的位置过多，则清除多余的位置
         var padding = writeIntCountByte - writeIntCount(length);
         if (padding == 0) {
-            byteBuf.writerIndex(currentWriteIndex - length - writeIntCountByte);
+            byteBuf.writerIndex(lengthIndex);
             writeInt(byteBuf, length);
             byteBuf.writerIndex(currentWriteIndex);
-        } else {
-            var retainedByteBuf = byteBuf.retainedSlice(currentWriteIndex - length, length);
-            byteBuf.writerIndex(currentWriteIndex - length - writeIntCountByte);
-            writeInt(byteBuf, length);
-            byteBuf.writeBytes(retainedByteBuf);
-            ReferenceCountUtil.release(retainedByteBuf);
+            return;
+        }
+
+        // 预留的位置过多，在同一个buffer内把内容向前移动padding个字节，不需要再创建slice
+        byteBuf.setBytes(lengthIndex + writeIntCountByte - padding, byteBuf, lengthIndex + writeIntCountByte, length);
+        byteBuf.writerIndex(lengthIndex);
+        writeInt(byteBuf, length);
+        byteBuf.writerIndex(currentWriteIndex - padding);
+    }
+
+    /**
+     * writeString最多写入的字节数，varint的长度加上UTF-8编码的最大长度
+     */
+    public static int estimateString(String value) {
+        if (StringUtils.isEmpty(value)) {
+            return 1;
         }
+        var maxLength = ByteBufUtil.utf8MaxBytes(value);
+        return writeIntCount(maxLength) + maxLength;
     }
 
     public static String readString(ByteBuf byteBuf) {
         int length = readInt(byteBuf);
-        return length <= 0 ? StringUtils.EMPTY : (String) byteBuf.readCharSequence(length, StringUtils.DEFAULT_CHARSET);
+        if (length <= 0) {
+            return StringUtils.EMPTY;
+        }
+        if (StringInternTable.isEnable() && length <= StringInternTable.MAX_LENGTH) {
+            return StringInternTable.readString(byteBuf, length);
+        }
+        return (String) byteBuf.readCharSequence(length, StringUtils.DEFAULT_CHARSET);
+    }
+
+    public static void skipString(ByteBuf byteBuf) {
+        int length = readInt(byteBuf);
+        if (length > 0) {
+            byteBuf.skipBytes(length);
+        }
     }
 
 
@@ -392,6 +416,400 @@ public abstract class ByteBufUtils {
         return readChar(byteBuf);
     }
 
+    //---------------------------------tagged--------------------------------------
+    // @Protocol(tagged = true)的协议每个属性前面写入一个key = tag << 3 | wireType，key为0表示协议结束，wireType决定了怎么跳过不认识的属性
+    public static final int WIRE_TYPE_BITS = 3;
+    public static final int WIRE_TYPE_MASK = (1 << WIRE_TYPE_BITS) - 1;
+    public static final int WIRE_TYPE_VARINT = 0;
+    public static final int WIRE_TYPE_FIXED8 = 1;
+    public static final int WIRE_TYPE_FIXED16 = 2;
+    public static final int WIRE_TYPE_FIXED32 = 3;
+    public static final int WIRE_TYPE_FIXED64 = 4;
+    public static final int WIRE_TYPE_STRING = 5;
+    public static final int WIRE_TYPE_LENGTH_DELIMITED = 6;
+
+    /**
+     * 长度前缀预留的字节数，varint最多5个字节
+     */
+    public static final int LENGTH_PLACEHOLDER_BYTES = 5;
+
+    /**
+     * 预留长度前缀的位置，返回预留的位置，写完内容之后调用writeLengthAt回填长度
+     */
+    public static int writeLengthPlaceholder(ByteBuf byteBuf) {
+        var lengthIndex = byteBuf.writerIndex();
+        byteBuf.writeZero(LENGTH_PLACEHOLDER_BYTES);
+        return lengthIndex;
+    }
+
+    public static void writeLengthAt(ByteBuf byteBuf, int lengthIndex) {
+        var contentIndex = lengthIndex + LENGTH_PLACEHOLDER_BYTES;
+        var length = byteBuf.writerIndex() - contentIndex;
+        var padding = LENGTH_PLACEHOLDER_BYTES - writeIntCount(length);
+        // 和writeString一样，预留的位置过多，在同一个buffer内把内容向前移动padding个字节
+        if (padding > 0 && length > 0) {
+            byteBuf.setBytes(contentIndex - padding, byteBuf, contentIndex, length);
+        }
+        byteBuf.writerIndex(lengthIndex);
+        writeInt(byteBuf, length);
+        byteBuf.writerIndex(contentIndex - padding + length);
+    }
+
+    /**
+     * 跳过一个不认识的属性，key已经读取过了
+     */
+    public static void skipTaggedField(ByteBuf byteBuf, int key) {
+        switch (key & WIRE_TYPE_MASK) {
+            case WIRE_TYPE_VARINT:
+                readLong(byteBuf);
+                break;
+            case WIRE_TYPE_FIXED8:
+                byteBuf.skipBytes(1);
+                break;
+            case WIRE_TYPE_FIXED16:
+                byteBuf.skipBytes(2);
+                break;
+            case WIRE_TYPE_FIXED32:
+                byteBuf.skipBytes(4);
+                break;
+            case WIRE_TYPE_FIXED64:
+                byteBuf.skipBytes(8);
+                break;
+            case WIRE_TYPE_STRING:
+                skipString(byteBuf);
+                break;
+            case WIRE_TYPE_LENGTH_DELIMITED:
+                byteBuf.skipBytes(readInt(byteBuf));
+                break;
+            default:
+                throw new IllegalArgumentException(StringUtils.format("未知的wireType[key:{}]", key));
+        }
+    }
+
+    //---------------------------------bulk--------------------------------------
+    // 基础类型数组的批量编解码，每一批只申请一次最坏情况的容量，直接在byte[]上编解码，格式和逐个writeInt/writeLong完全相同
+    private static final int BULK_BATCH_SIZE = 1024;
+    private static final int MAX_VAR_INT_BYTES = 5;
+    private static final int MAX_VAR_LONG_BYTES = 9;
+
+    /**
+     * 堆外的ByteBuf没有backing array，先在线程私有的数组里编解码，再一次性拷贝
+     */
+    private static final FastThreadLocal<byte[]> bulkBytesLocal = new FastThreadLocal<>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BULK_BATCH_SIZE * MAX_VAR_LONG_BYTES];
+        }
+    };
+
+    private static void writeIntBulk(ByteBuf byteBuf, int[] array, int length) {
+        for (var start = 0; start < length; start += BULK_BATCH_SIZE) {
+            var end = Math.min(start + BULK_BATCH_SIZE, length);
+            var writerIndex = byteBuf.writerIndex();
+            byteBuf.ensureWritable((end - start) * MAX_VAR_INT_BYTES);
+            int count;
+            if (byteBuf.hasArray()) {
+                var index = byteBuf.arrayOffset() + writerIndex;
+                count = encodeInts(byteBuf.array(), index, array, start, end) - index;
+            } else {
+                var bytes = bulkBytesLocal.get();
+                count = encodeInts(bytes, 0, array, start, end);
+                byteBuf.setBytes(writerIndex, bytes, 0, count);
+            }
+            byteBuf.writerIndex(writerIndex + count);
+        }
+    }
+
+    private static int encodeInts(byte[] bytes, int index, int[] array, int start, int end) {
+        for (var i = start; i < end; i++) {
+            var value = (array[i] << 1) ^ (array[i] >> 31);
+            if (value >>> 7 == 0) {
+                bytes[index++] = (byte) value;
+                continue;
+            }
+            bytes[index++] = (byte) (value | 0x80);
+            if (value >>> 14 == 0) {
+                bytes[index++] = (byte) (value >>> 7);
+                continue;
+            }
+            bytes[index++] = (byte) (value >>> 7 | 0x80);
+            if (value >>> 21 == 0) {
+                bytes[index++] = (byte) (value >>> 14);
+                continue;
+            }
+            bytes[index++] = (byte) (value >>> 14 | 0x80);
+            if (value >>> 28 == 0) {
+                bytes[index++] = (byte) (value >>> 21);
+                continue;
+            }
+            bytes[index++] = (byte) (value >>> 21 | 0x80);
+            bytes[index++] = (byte) (value >>> 28);
+        }
+        return index;
+    }
+
+    /**
+     * 剩余的可读字节足够最坏情况的时候批量解码，不再逐个字节检查边界，最后不足的几个数字再用readInt读取
+     */
+    private static void readIntBulk(ByteBuf byteBuf, int[] array, int length) {
+        var i = 0;
+        var readerIndex = byteBuf.readerIndex();
+        while (i < length) {
+            var readableBytes = byteBuf.writerIndex() - readerIndex;
+            var count = Math.min(Math.min(length - i, readableBytes / MAX_VAR_INT_BYTES), BULK_BATCH_SIZE);
+            if (count <= 0) {
+                break;
+            }
+            if (byteBuf.hasArray()) {
+                var offset = byteBuf.arrayOffset();
+                readerIndex = decodeInts(byteBuf.array(), offset + readerIndex, array, i, i + count) - offset;
+            } else {
+                var bytes = bulkBytesLocal.get();
+                byteBuf.getBytes(readerIndex, bytes, 0, count * MAX_VAR_INT_BYTES);
+                readerIndex += decodeInts(bytes, 0, array, i, i + count);
+            }
+            i += count;
+        }
+        byteBuf.readerIndex(readerIndex);
+        for (; i < length; i++) {
+            array[i] = readInt(byteBuf);
+        }
+    }
+
+    private static int decodeInts(byte[] bytes, int index, int[] array, int start, int end) {
+        for (var i = start; i < end; i++) {
+            int b = bytes[index++];
+            int value = b;
+            if (b < 0) {
+                b = bytes[index++];
+                value = value & 0x0000007F | b << 7;
+                if (b < 0) {
+                    b = bytes[index++];
+                    value = value & 0x00003FFF | b << 14;
+                    if (b < 0) {
+                        b = bytes[index++];
+                        value = value & 0x001FFFFF | b << 21;
+                        if (b < 0) {
+                            value = value & 0x0FFFFFFF | bytes[index++] << 28;
+                        }
+                    }
+                }
+            }
+            array[i] = (value >>> 1) ^ -(value & 1);
+        }
+        return index;
+    }
+
+    private static void writeLongBulk(ByteBuf byteBuf, long[] array, int length) {
+        for (var start = 0; start < length; start += BULK_BATCH_SIZE) {
+            var end = Math.min(start + BULK_BATCH_SIZE, length);
+            var writerIndex = byteBuf.writerIndex();
+            byteBuf.ensureWritable((end - start) * MAX_VAR_LONG_BYTES);
+            int count;
+            if (byteBuf.hasArray()) {
+                var index = byteBuf.arrayOffset() + writerIndex;
+                count = encodeLongs(byteBuf.array(), index, array, start, end) - index;
+            } else {
+                var bytes = bulkBytesLocal.get();
+                count = encodeLongs(bytes, 0, array, start, end);
+                byteBuf.setBytes(writerIndex, bytes, 0, count);
+            }
+            byteBuf.writerIndex(writerIndex + count);
+        }
+    }
+
+    private static int encodeLongs(byte[] bytes, int index, long[] array, int start, int end) {
+        for (var i = start; i < end; i++) {
+            var value = (array[i] << 1) ^ (array[i] >> 63);
+            // 和writeLong一样，前8个字节每个字节7位，第9个字节用满8位
+            for (var shift = 0; ; shift += 7) {
+                if (shift == 56 || value >>> (shift + 7) == 0) {
+                    bytes[index++] = (byte) (value >>> shift);
+                    break;
+                }
+                bytes[index++] = (byte) (value >>> shift | 0x80);
+            }
+        }
+        return index;
+    }
+
+    private static void readLongBulk(ByteBuf byteBuf, long[] array, int length) {
+        var i = 0;
+        var readerIndex = byteBuf.readerIndex();
+        while (i < length) {
+            var readableBytes = byteBuf.writerIndex() - readerIndex;
+            var count = Math.min(Math.min(length - i, readableBytes / MAX_VAR_LONG_BYTES), BULK_BATCH_SIZE);
+            if (count <= 0) {
+                break;
+            }
+            if (byteBuf.hasArray()) {
+                var offset = byteBuf.arrayOffset();
+                readerIndex = decodeLongs(byteBuf.array(), offset + readerIndex, array, i, i + count) - offset;
+            } else {
+                var bytes = bulkBytesLocal.get();
+                byteBuf.getBytes(readerIndex, bytes, 0, count * MAX_VAR_LONG_BYTES);
+                readerIndex += decodeLongs(bytes, 0, array, i, i + count);
+            }
+            i += count;
+        }
+        byteBuf.readerIndex(readerIndex);
+        for (; i < length; i++) {
+            array[i] = readLong(byteBuf);
+        }
+    }
+
+    private static int decodeLongs(byte[] bytes, int index, long[] array, int start, int end) {
+        for (var i = start; i < end; i++) {
+            long b = bytes[index++];
+            long value = b;
+            if (b < 0) {
+                b = bytes[index++];
+                value = value & 0x00000000_0000007FL | b << 7;
+                if (b < 0) {
+                    b = bytes[index++];
+                    value = value & 0x00000000_00003FFFL | b << 14;
+                    if (b < 0) {
+                        b = bytes[index++];
+                        value = value & 0x00000000_001FFFFFL | b << 21;
+                        if (b < 0) {
+                            b = bytes[index++];
+                            value = value & 0x00000000_0FFFFFFFL | b << 28;
+                            if (b < 0) {
+                                b = bytes[index++];
+                                value = value & 0x00000007_FFFFFFFFL | b << 35;
+                                if (b < 0) {
+                                    b = bytes[index++];
+                                    value = value & 0x000003FF_FFFFFFFFL | b << 42;
+                                    if (b < 0) {
+                                        b = bytes[index++];
+                                        value = value & 0x0001FFFF_FFFFFFFFL | b << 49;
+                                        if (b < 0) {
+                                            b = bytes[index++];
+                                            value = value & 0x00FFFFFF_FFFFFFFFL | b << 56;
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            array[i] = (value >>> 1) ^ -(value & 1);
+        }
+        return index;
+    }
+
+    //---------------------------------packed--------------------------------------
+    // 稠密数组的定长位压缩格式：长度，最小值，每个数字的位宽，然后是每个数字减去最小值之后按位宽紧密排列的字节
+    // 格式和writeIntArray不同，需要读写双方都使用packed方法，适合地图格子，背包这种取值范围很小的大数组
+
+    public static void writePackedIntArray(ByteBuf byteBuf, int[] array) {
+        if (array == null || array.length == 0) {
+            byteBuf.writeByte(0);
+            return;
+        }
+        var min = array[0];
+        var max = array[0];
+        for (var value : array) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        var bitWidth = 32 - Integer.numberOfLeadingZeros(max - min);
+        writeInt(byteBuf, array.length);
+        writeInt(byteBuf, min);
+        byteBuf.writeByte(bitWidth);
+        if (bitWidth == 0) {
+            return;
+        }
+
+        var writerIndex = byteBuf.writerIndex();
+        var byteLength = packedByteLength(array.length, bitWidth);
+        byteBuf.ensureWritable(byteLength);
+        var bytes = byteBuf.hasArray() ? byteBuf.array() : bulkBytesLocal.get();
+        var index = byteBuf.hasArray() ? byteBuf.arrayOffset() + writerIndex : 0;
+        var limit = bytes.length - MAX_VAR_LONG_BYTES;
+        var bits = 0L;
+        var bitCount = 0;
+        for (var value : array) {
+            // 用无符号的差值，int的最大值减最小值也不会溢出
+            bits |= ((value - min) & 0xFFFFFFFFL) << bitCount;
+            bitCount += bitWidth;
+            while (bitCount >= Byte.SIZE) {
+                bytes[index++] = (byte) bits;
+                bits >>>= Byte.SIZE;
+                bitCount -= Byte.SIZE;
+            }
+            if (!byteBuf.hasArray() && index >= limit) {
+                byteBuf.setBytes(writerIndex, bytes, 0, index);
+                writerIndex += index;
+                index = 0;
+            }
+        }
+        if (bitCount > 0) {
+            bytes[index++] = (byte) bits;
+        }
+        if (byteBuf.hasArray()) {
+            writerIndex = index - byteBuf.arrayOffset();
+        } else {
+            byteBuf.setBytes(writerIndex, bytes, 0, index);
+            writerIndex += index;
+        }
+        byteBuf.writerIndex(writerIndex);
+    }
+
+    public static int[] readPackedIntArray(ByteBuf byteBuf) {
+        var length = readInt(byteBuf);
+        var ints = new int[CollectionUtils.comfortableLength(length)];
+        if (length == 0) {
+            return ints;
+        }
+        var min = readInt(byteBuf);
+        var bitWidth = byteBuf.readUnsignedByte();
+        if (bitWidth > Integer.SIZE) {
+            throw new IllegalArgumentException(StringUtils.format("packed数组的位宽[{}]不合法", bitWidth));
+        }
+        if (bitWidth == 0) {
+            Arrays.fill(ints, min);
+            return ints;
+        }
+
+        var byteLength = packedByteLength(length, bitWidth);
+        var readerIndex = byteBuf.readerIndex();
+        // 先检查长度，解码的时候不需要再检查边界
+        byteBuf.skipBytes(byteLength);
+        var mask = (1L << bitWidth) - 1;
+        var bits = 0L;
+        var bitCount = 0;
+        if (byteBuf.hasArray()) {
+            var bytes = byteBuf.array();
+            var index = byteBuf.arrayOffset() + readerIndex;
+            for (var i = 0; i < length; i++) {
+                while (bitCount < bitWidth) {
+                    bits |= (bytes[index++] & 0xFFL) << bitCount;
+                    bitCount += Byte.SIZE;
+                }
+                ints[i] = (int) (bits & mask) + min;
+                bits >>>= bitWidth;
+                bitCount -= bitWidth;
+            }
+        } else {
+            for (var i = 0; i < length; i++) {
+                while (bitCount < bitWidth) {
+                    bits |= (byteBuf.getByte(readerIndex++) & 0xFFL) << bitCount;
+                    bitCount += Byte.SIZE;
+                }
+                ints[i] = (int) (bits & mask) + min;
+                bits >>>= bitWidth;
+                bitCount -= bitWidth;
+            }
+        }
+        return ints;
+    }
+
+    private static int packedByteLength(int length, int bitWidth) {
+        return (int) (((long) length * bitWidth + Byte.SIZE - 1) / Byte.SIZE);
+    }
+
     //-----------------------------------------------------------------------
     //---------------------------------以下方法会被字节码生成的代码调用--------------------------------------
     public static boolean writePacketFlag(ByteBuf byteBuf, IPacket packet) {
@@ -479,6 +897,31 @@ public abstract class ByteBufUtils {
         return map;
     }
 
+    /**
+     * 和writeIntLongMap的格式相同，直接读写基础类型，不会装箱
+     */
+    public static void writeIntLongHashMap(ByteBuf byteBuf, IntLongHashMap map) {
+        if (map == null) {
+            byteBuf.writeByte(0);
+            return;
+        }
+        writeInt(byteBuf, map.size());
+        var cursor = map.cursor();
+        while (cursor.next()) {
+            writeInt(byteBuf, cursor.key());
+            writeLong(byteBuf, cursor.value());
+        }
+    }
+
+    public static IntLongHashMap readIntLongHashMap(ByteBuf byteBuf) {
+        var length = readInt(byteBuf);
+        var map = new IntLongHashMap(CollectionUtils.comfortableCapacity(length));
+        for (var i = 0; i < length; i++) {
+            map.put(readInt(byteBuf), readLong(byteBuf));
+        }
+        return map;
+    }
+
     public static void writeIntStringMap(ByteBuf byteBuf, Map<Integer, String> map) {
         if (map == null) {
             byteBuf.writeByte(0);
@@ -929,17 +1372,13 @@ public abstract class ByteBufUtils {
             return;
         }
         writeInt(byteBuf, array.length);
-        for (var value : array) {
-            writeInt(byteBuf, value);
-        }
+        writeIntBulk(byteBuf, array, array.length);
     }
 
     public static int[] readIntArray(ByteBuf byteBuf) {
         var length = readInt(byteBuf);
         var ints = new int[CollectionUtils.comfortableLength(length)];
-        for (var i = 0; i < length; i++) {
-            ints[i] = readInt(byteBuf);
-        }
+        readIntBulk(byteBuf, ints, length);
         return ints;
     }
 
@@ -995,6 +1434,49 @@ public abstract class ByteBufUtils {
         return set;
     }
 
+    /**
+     * 和writeIntList的格式相同，直接读写基础类型，不会装箱
+     */
+    public static void writeArrayIntList(ByteBuf byteBuf, ArrayIntList list) {
+        if (list == null) {
+            byteBuf.writeByte(0);
+            return;
+        }
+        var size = list.size();
+        writeInt(byteBuf, size);
+        for (var i = 0; i < size; i++) {
+            writeInt(byteBuf, list.getPrimitive(i));
+        }
+    }
+
+    public static ArrayIntList readArrayIntList(ByteBuf byteBuf) {
+        return new ArrayIntList(readIntArray(byteBuf));
+    }
+
+    /**
+     * 和writeIntSet的格式相同，直接读写基础类型，不会装箱
+     */
+    public static void writeHashIntSet(ByteBuf byteBuf, HashIntSet set) {
+        if (set == null) {
+            byteBuf.writeByte(0);
+            return;
+        }
+        writeInt(byteBuf, set.size());
+        var iterator = set.primitiveIterator();
+        while (iterator.hasNext()) {
+            writeInt(byteBuf, iterator.nextInt());
+        }
+    }
+
+    public static HashIntSet readHashIntSet(ByteBuf byteBuf) {
+        var length = readInt(byteBuf);
+        var set = new HashIntSet(CollectionUtils.comfortableCapacity(length));
+        for (var i = 0; i < length; i++) {
+            set.add(readInt(byteBuf));
+        }
+        return set;
+    }
+
 
     //---------------------------------long--------------------------------------
     public static void writeLongArray(ByteBuf byteBuf, long[] array) {
@@ -1003,17 +1485,13 @@ public abstract class ByteBufUtils {
             return;
         }
         writeInt(byteBuf, array.length);
-        for (var value : array) {
-            writeLong(byteBuf, value);
-        }
+        writeLongBulk(byteBuf, array, array.length);
     }
 
     public static long[] readLongArray(ByteBuf byteBuf) {
         var length = readInt(byteBuf);
         var longs = new long[CollectionUtils.comfortableLength(length)];
-        for (var i = 0; i < length; i++) {
-            longs[i] = readLong(byteBuf);
-        }
+        readLongBulk(byteBuf, longs, length);
         return longs;
     }
 
@@ -1069,6 +1547,49 @@ public abstract class ByteBufUtils {
         return set;
     }
 
+    /**
+     * 和writeLongList的格式相同，直接读写基础类型，不会装箱
+     */
+    public static void writeArrayLongList(ByteBuf byteBuf, ArrayLongList list) {
+        if (list == null) {
+            byteBuf.writeByte(0);
+            return;
+        }
+        var size = list.size();
+        writeInt(byteBuf, size);
+        for (var i = 0; i < size; i++) {
+            writeLong(byteBuf, list.getPrimitive(i));
+        }
+    }
+
+    public static ArrayLongList readArrayLongList(ByteBuf byteBuf) {
+        return new ArrayLongList(readLongArray(byteBuf));
+    }
+
+    /**
+     * 和writeLongSet的格式相同，直接读写基础类型，不会装箱
+     */
+    public static void writeHashLongSet(ByteBuf byteBuf, HashLongSet set) {
+        if (set == null) {
+            byteBuf.writeByte(0);
+            return;
+        }
+        writeInt(byteBuf, set.size());
+        var iterator = set.primitiveIterator();
+        while (iterator.hasNext()) {
+            writeLong(byteBuf, iterator.nextLong());
+        }
+    }
+
+    public static HashLongSet readHashLongSet(ByteBuf byteBuf) {
+        var length = readInt(byteBuf);
+        var set = new HashLongSet(CollectionUtils.comfortableCapacity(length));
+        for (var i = 0; i < length; i++) {
+            set.add(readLong(byteBuf));
+        }
+        return set;
+    }
+
     //---------------------------------float--------------------------------------
     public static void writeFloatArray(ByteBuf byteBuf, float[] array) {
         if (array == null) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.buffer;
+
+import com.zfoo.protocol.util.StringUtils;
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+
+/**
+ * 反序列化字符串的驻留表，相同内容的短字符串只创建一次，重复出现的字符串（名字，key，配置的id等）不再重复分配内存
+ * <p>
+ * 通过-Dzfoo.protocol.string.intern=true开启，默认关闭；只改变反序列化的实现，不改变协议格式，所以和其它语言生成的协议是兼容的
+ * <p>
+ * 直接映射的表，哈希冲突的时候直接覆盖旧的值，多线程并发读写的时候只会造成额外的创建，不会读到错误的值
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public abstract class StringInternTable {
+
+    public static final String INTERN_PROPERTY = "zfoo.protocol.string.intern";
+
+    /**
+     * 只驻留UTF-8编码后不超过这个长度的字符串，长字符串重复的概率低，比较的代价也高
+     */
+    public static final int MAX_LENGTH = 64;
+
+    private static final int TABLE_SIZE = 4096;
+
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    private static final boolean ENABLE = Boolean.parseBoolean(System.getProperty(INTERN_PROPERTY, "false"));
+
+    private static final Entry[] table = new Entry[TABLE_SIZE];
+
+    private static class Entry {
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+    }
+
+    public static boolean isEnable() {
+        return ENABLE;
+    }
+
+    /**
+     * 从byteBuf中读取length个字节的UTF-8字符串，表中有相同内容的字符串的时候直接返回表中的字符串
+     */
+    public static String readString(ByteBuf byteBuf, int length) {
+        var readerIndex = byteBuf.readerIndex();
+        var hash = hash(byteBuf, readerIndex, length);
+
+        var index = (hash ^ (hash >>> 16)) & TABLE_MASK;
+        var entry = table[index];
+        if (entry != null && entry.hash == hash && equals(entry.bytes, byteBuf, readerIndex, length)) {
+            byteBuf.skipBytes(length);
+            return entry.value;
+        }
+
+        var bytes = new byte[length];
+        byteBuf.readBytes(bytes);
+        var value = new String(bytes, StringUtils.DEFAULT_CHARSET);
+        table[index] = new Entry(hash, bytes, value);
+        return value;
+    }
+
+    private static int hash(ByteBuf byteBuf, int readerIndex, int length) {
+        var hash = 1;
+        if (byteBuf.hasArray()) {
+            var array = byteBuf.array();
+            var offset = byteBuf.arrayOffset() + readerIndex;
+            for (var i = offset; i < offset + length; i++) {
+                hash = 31 * hash + array[i];
+            }
+        } else {
+            for (var i = readerIndex; i < readerIndex + length; i++) {
+                hash = 31 * hash + byteBuf.getByte(i);
+            }
+        }
+        return hash;
+    }
+
+    private static boolean equals(byte[] bytes, ByteBuf byteBuf, int readerIndex, int length) {
+        if (bytes.length != length) {
+            return false;
+        }
+        if (byteBuf.hasArray()) {
+            var offset = byteBuf.arrayOffset() + readerIndex;
+            return Arrays.equals(bytes, 0, length, byteBuf.array(), offset, offset + length);
+        }
+        for (var i = 0; i < length; i++) {
+            if (bytes[i] != byteBuf.getByte(readerIndex + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -17,6 +17,7 @@ import io.netty.util.collection.IntObjectHashMap;
 import java.util.AbstractSet;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.PrimitiveIterator;
 
 /**
  * @author godotg
@@ -39,6 +40,24 @@ public class HashIntSet extends AbstractSet<Integer> {
         return map.keySet().iterator();
     }
 
+    /**
+     * 不装箱的遍历方式
+     */
+    public PrimitiveIterator.OfInt primitiveIterator() {
+        var iterator = map.entries().iterator();
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return iterator.next().key();
+            }
+        };
+    }
+
     @Override
     public int size() {
         return map.size();
@@ -17,6 +17,7 @@ import io.netty.util.collection.LongObjectHashMap;
 import java.util.AbstractSet;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.PrimitiveIterator;
 
 /**
  * @author godotg
@@ -39,6 +40,24 @@ public class HashLongSet extends AbstractSet<Long> {
         return map.keySet().iterator();
     }
 
+    /**
+     * 不装箱的遍历方式
+     */
+    public PrimitiveIterator.OfLong primitiveIterator() {
+        var iterator = map.entries().iterator();
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return iterator.next().key();
+            }
+        };
+    }
+
     @Override
     public int size() {
         return map.size();
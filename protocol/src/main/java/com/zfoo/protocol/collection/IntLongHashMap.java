@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.collection;
+
+import java.util.*;
+
+/**
+ * key为int，value为long的哈希表，线性探测的开放地址法，key和value都直接保存在基础类型的数组中，put和get不会装箱
+ * <p>
+ * 实现了Map接口，可以直接作为协议的字段；通过Map接口访问的时候仍然会装箱，遍历的时候使用cursor()可以避免装箱
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class IntLongHashMap extends AbstractMap<Integer, Long> {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] keys;
+    private long[] values;
+    private boolean[] filled;
+    private int mask;
+    private int size;
+    private int maxSize;
+
+    public IntLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntLongHashMap(int initialCapacity) {
+        // 负载因子为0.5，容量为2的幂
+        var capacity = Integer.highestOneBit(Math.max(initialCapacity, DEFAULT_CAPACITY / 2) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        filled = new boolean[capacity];
+        mask = capacity - 1;
+        maxSize = capacity >> 1;
+    }
+
+    private int hashIndex(int key) {
+        var hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private int indexOf(int key) {
+        var index = hashIndex(key);
+        while (filled[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * 不存在的时候返回0
+     */
+    public long get(int key) {
+        return getOrDefault(key, 0L);
+    }
+
+    public long getOrDefault(int key, long defaultValue) {
+        var index = indexOf(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    /**
+     * @return 之前的值，不存在的时候返回0
+     */
+    public long put(int key, long value) {
+        var index = hashIndex(key);
+        while (filled[index]) {
+            if (keys[index] == key) {
+                var oldValue = values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        filled[index] = true;
+        if (++size > maxSize) {
+            rehash(keys.length << 1);
+        }
+        return 0L;
+    }
+
+    /**
+     * @return 删除的值，不存在的时候返回0
+     */
+    public long remove(int key) {
+        var index = indexOf(key);
+        if (index < 0) {
+            return 0L;
+        }
+        var value = values[index];
+        removeAt(index);
+        return value;
+    }
+
+    /**
+     * 删除之后把后面探测链上的元素向前移动，不需要删除标记
+     */
+    private void removeAt(int index) {
+        size--;
+        filled[index] = false;
+
+        var next = (index + 1) & mask;
+        while (filled[next]) {
+            var bucket = hashIndex(keys[next]);
+            // bucket不在(index, next]的循环区间内，说明next可以移动到index的位置
+            if ((next < bucket && (bucket <= index || index <= next)) || (bucket <= index && index <= next)) {
+                keys[index] = keys[next];
+                values[index] = values[next];
+                filled[index] = true;
+                filled[next] = false;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        var oldFilled = filled;
+        allocate(newCapacity);
+        for (var i = 0; i < oldKeys.length; i++) {
+            if (!oldFilled[i]) {
+                continue;
+            }
+            var index = hashIndex(oldKeys[i]);
+            while (filled[index]) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+            filled[index] = true;
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(filled, false);
+        size = 0;
+    }
+
+    /**
+     * 不装箱的遍历方式，遍历的过程中不能修改map
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor {
+        private int index = -1;
+
+        public boolean next() {
+            while (++index < keys.length) {
+                if (filled[index]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int key() {
+            return keys[index];
+        }
+
+        public long value() {
+            return values[index];
+        }
+    }
+
+    //-------------------------------------------Map接口，会装箱-------------------------------------------
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (!(value instanceof Long)) {
+            return false;
+        }
+        var longValue = ((Long) value).longValue();
+        for (var i = 0; i < keys.length; i++) {
+            if (filled[i] && values[i] == longValue) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Long get(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+        var index = indexOf((Integer) key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Long put(Integer key, Long value) {
+        var index = indexOf(key);
+        var oldValue = index < 0 ? null : values[index];
+        put(key.intValue(), value.longValue());
+        return oldValue;
+    }
+
+    @Override
+    public Long remove(Object key) {
+        if (!(key instanceof Integer)) {
+            return null;
+        }
+        var index = indexOf((Integer) key);
+        if (index < 0) {
+            return null;
+        }
+        var value = values[index];
+        removeAt(index);
+        return value;
+    }
+
+    /**
+     * 只读的视图，遍历的时候会创建Entry并且装箱
+     */
+    @Override
+    public Set<Entry<Integer, Long>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, Long>> iterator() {
+                var cursor = cursor();
+                return new Iterator<>() {
+                    private boolean hasNext = cursor.next();
+
+                    @Override
+                    public boolean hasNext() {
+                        return hasNext;
+                    }
+
+                    @Override
+                    public Entry<Integer, Long> next() {
+                        if (!hasNext) {
+                            throw new NoSuchElementException();
+                        }
+                        var entry = new SimpleImmutableEntry<>(cursor.key(), cursor.value());
+                        hasNext = cursor.next();
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+}
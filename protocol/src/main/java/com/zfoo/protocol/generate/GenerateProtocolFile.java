@@ -13,12 +13,14 @@
 package com.zfoo.protocol.generate;
 
 import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.exception.RunException;
 import com.zfoo.protocol.registration.IProtocolRegistration;
 import com.zfoo.protocol.registration.ProtocolAnalysis;
 import com.zfoo.protocol.registration.ProtocolRegistration;
 import com.zfoo.protocol.serializer.CodeLanguage;
 import com.zfoo.protocol.serializer.cpp.GenerateCppUtils;
 import com.zfoo.protocol.serializer.csharp.GenerateCsUtils;
+import com.zfoo.protocol.serializer.enhance.GenerateEnhanceUtils;
 import com.zfoo.protocol.serializer.gdscript.GenerateGdUtils;
 import com.zfoo.protocol.serializer.go.GenerateGoUtils;
 import com.zfoo.protocol.serializer.javascript.GenerateJsUtils;
@@ -29,7 +31,9 @@ import com.zfoo.protocol.serializer.typescript.GenerateTsUtils;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -97,6 +101,9 @@ public abstract class GenerateProtocolFile {
                 .sorted((a, b) -> a.protocolId() - b.protocolId())
                 .collect(Collectors.toList());
 
+        // tagged的协议只有Java实现了，其它语言生成的代码还是按照属性顺序读写，对不上tagged的格式
+        checkTaggedProtocols(generateOperation.getGenerateLanguages(), allSortedGenerateProtocols);
+
         // 解析协议的文档注释
         GenerateProtocolNote.initProtocolNote(allSortedGenerateProtocols);
 
@@ -106,8 +113,17 @@ public abstract class GenerateProtocolFile {
             GenerateProtocolPath.initProtocolPath(allSortedGenerateProtocols);
         }
 
-        // 生成C++协议
         var generateLanguages = generateOperation.getGenerateLanguages();
+
+        // 生成Javassist增强类的Java源文件
+        if (generateLanguages.contains(CodeLanguage.Enhance)) {
+            GenerateEnhanceUtils.init(generateOperation);
+            for (var protocolRegistration : allSortedGenerateProtocols) {
+                GenerateEnhanceUtils.createEnhanceProtocolFile((ProtocolRegistration) protocolRegistration);
+            }
+        }
+
+        // 生成C++协议
         if (generateLanguages.contains(CodeLanguage.Cpp)) {
             GenerateCppUtils.init(generateOperation);
             GenerateCppUtils.createProtocolManager(allSortedGenerateProtocols);
@@ -181,4 +197,20 @@ public abstract class GenerateProtocolFile {
         var protocolParam = generateOperation.getProtocolParam();
     }
 
+    private static void checkTaggedProtocols(Set<CodeLanguage> generateLanguages, List<IProtocolRegistration> protocolRegistrations) {
+        var unsupportedLanguages = generateLanguages.stream()
+                .filter(it -> it != CodeLanguage.Enhance && it != CodeLanguage.Protobuf)
+                .collect(Collectors.toList());
+        if (unsupportedLanguages.isEmpty()) {
+            return;
+        }
+        var taggedProtocols = protocolRegistrations.stream()
+                .filter(it -> ((ProtocolRegistration) it).getTaggedFields() != null)
+                .map(it -> it.protocolConstructor().getDeclaringClass().getSimpleName())
+                .collect(Collectors.toList());
+        if (!taggedProtocols.isEmpty()) {
+            throw new RunException("tagged的协议{}只支持Java，不能生成{}的协议文件", taggedProtocols, unsupportedLanguages);
+        }
+    }
+
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import io.netty.util.collection.ShortObjectHashMap;
+
+/**
+ * 增量序列化的基准，记录每个协议上一次发送的每个字段，一般每个session保存一个，和session在同一个线程里使用，不是线程安全的
+ * <p>
+ * 基础类型和字符串保存的是字段的值，集合，数组和子协议这些可变的类型保存的是序列化后的字节
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class DeltaBaseline {
+
+    /**
+     * key:协议号
+     * value:每个字段上一次发送的值
+     */
+    private final ShortObjectHashMap<Object[]> snapshots = new ShortObjectHashMap<>();
+
+    /**
+     * 写入过程中变化了的字段先放在这里，整个协议写入成功之后才更新到snapshots，写入异常的时候基准不会只更新一半
+     */
+    private final Object[] pendings = new Object[DeltaProtocolRegistration.MAX_FIELD_NUM];
+
+    Object[] snapshot(short protocolId) {
+        return snapshots.get(protocolId);
+    }
+
+    void putSnapshot(short protocolId, Object[] snapshot) {
+        snapshots.put(protocolId, snapshot);
+    }
+
+    Object[] pendings() {
+        return pendings;
+    }
+
+    /**
+     * 清除基准，下一次会发送全部的字段，比如断线重连之后对方的状态已经丢失了
+     */
+    public void reset() {
+        snapshots.clear();
+    }
+
+    public void reset(short protocolId) {
+        snapshots.remove(protocolId);
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.exception.RunException;
+import com.zfoo.protocol.registration.field.BaseField;
+import com.zfoo.protocol.registration.field.IFieldRegistration;
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 增量序列化，格式：字段的位图 + 变化了的字段，位图的长度固定为(字段数量 + 7) / 8个字节，第i位表示第i个字段是否写入
+ * <p>
+ * 基础类型和字符串直接和基准的值比较，集合等可变的类型先写入buffer，和基准序列化后的字节相同的时候再回退，所以只需要序列化一次
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class DeltaProtocolRegistration {
+
+    /**
+     * 位图用long表示，所以最多支持64个字段
+     */
+    public static final int MAX_FIELD_NUM = Long.SIZE;
+
+    private short id;
+
+    /**
+     * 和MethodHandleProtocolRegistration一样通过LambdaMetafactory生成的get和set方法，每次写入都要读取所有的字段，不能使用反射
+     */
+    private Function<Object, Object>[] getters;
+
+    private BiConsumer<Object, Object>[] setters;
+
+    private IFieldRegistration[] fieldRegistrations;
+
+    /**
+     * 字段的值是不是不可变的，不可变的字段直接保存值，可变的字段保存序列化后的字节
+     */
+    private boolean[] immutables;
+
+    private int bitmapLength;
+
+    public static DeltaProtocolRegistration valueOf(ProtocolRegistration registration) {
+        var fields = registration.getFields();
+        if (fields.length > MAX_FIELD_NUM) {
+            throw new RunException("增量序列化的协议[{}]的字段数量[{}]不能超过[{}]", registration.protocolId(), fields.length, MAX_FIELD_NUM);
+        }
+
+        var fieldRegistrations = registration.getFieldRegistrations();
+        var immutables = new boolean[fields.length];
+        for (var i = 0; i < fields.length; i++) {
+            immutables[i] = fieldRegistrations[i] instanceof BaseField;
+        }
+
+        MethodHandleProtocolRegistration methodHandleRegistration;
+        try {
+            methodHandleRegistration = MethodHandleProtocolRegistration.valueOf(registration);
+        } catch (Throwable t) {
+            throw new RunException(t, "增量序列化的协议[{}]生成get和set方法异常", registration.protocolId());
+        }
+
+        var deltaRegistration = new DeltaProtocolRegistration();
+        deltaRegistration.id = registration.protocolId();
+        deltaRegistration.getters = methodHandleRegistration.getGetters();
+        deltaRegistration.setters = methodHandleRegistration.getSetters();
+        deltaRegistration.fieldRegistrations = fieldRegistrations;
+        deltaRegistration.immutables = immutables;
+        deltaRegistration.bitmapLength = (fields.length + 7) / 8;
+        return deltaRegistration;
+    }
+
+    public short protocolId() {
+        return id;
+    }
+
+    /**
+     * 只写入和baseline相比变化了的字段，全部写入成功之后再更新baseline
+     */
+    public void write(ByteBuf buffer, IPacket packet, DeltaBaseline baseline) {
+        var snapshot = baseline.snapshot(id);
+        var full = snapshot == null;
+        var pendings = baseline.pendings();
+
+        // 先预留位图的位置，写完字段之后再回填
+        var bitmapIndex = buffer.writerIndex();
+        buffer.writeZero(bitmapLength);
+
+        var bitmap = 0L;
+        for (int i = 0, length = getters.length; i < length; i++) {
+            var fieldRegistration = fieldRegistrations[i];
+            var value = getters[i].apply(packet);
+
+            if (immutables[i]) {
+                if (!full && Objects.equals(value, snapshot[i])) {
+                    continue;
+                }
+                fieldRegistration.serializer().writeObject(buffer, value, fieldRegistration);
+                pendings[i] = value;
+                bitmap |= 1L << i;
+                continue;
+            }
+
+            var startIndex = buffer.writerIndex();
+            fieldRegistration.serializer().writeObject(buffer, value, fieldRegistration);
+            var writeLength = buffer.writerIndex() - startIndex;
+            if (!full && equals((byte[]) snapshot[i], buffer, startIndex, writeLength)) {
+                buffer.writerIndex(startIndex);
+                continue;
+            }
+            var bytes = new byte[writeLength];
+            buffer.getBytes(startIndex, bytes);
+            pendings[i] = bytes;
+            bitmap |= 1L << i;
+        }
+
+        for (var i = 0; i < bitmapLength; i++) {
+            buffer.setByte(bitmapIndex + i, (int) (bitmap >>> (i * 8)));
+        }
+
+        if (full) {
+            snapshot = new Object[getters.length];
+            baseline.putSnapshot(id, snapshot);
+        }
+        for (int i = 0, length = getters.length; i < length; i++) {
+            if ((bitmap & (1L << i)) != 0) {
+                snapshot[i] = pendings[i];
+                pendings[i] = null;
+            }
+        }
+    }
+
+    /**
+     * 把位图中标记了的字段读取到target中，其它字段保持target原来的值
+     */
+    public void read(ByteBuf buffer, Object target) {
+        var bitmap = 0L;
+        for (var i = 0; i < bitmapLength; i++) {
+            bitmap |= (buffer.readByte() & 0xFFL) << (i * 8);
+        }
+
+        for (int i = 0, length = setters.length; i < length; i++) {
+            if ((bitmap & (1L << i)) == 0) {
+                continue;
+            }
+            var fieldRegistration = fieldRegistrations[i];
+            var value = fieldRegistration.serializer().readObject(buffer, fieldRegistration);
+            setters[i].accept(target, value);
+        }
+    }
+
+    private static boolean equals(byte[] bytes, ByteBuf buffer, int index, int length) {
+        if (bytes.length != length) {
+            return false;
+        }
+        if (buffer.hasArray()) {
+            var offset = buffer.arrayOffset() + index;
+            return Arrays.equals(bytes, 0, length, buffer.array(), offset, offset + length);
+        }
+        for (var i = 0; i < length; i++) {
+            if (bytes[i] != buffer.getByte(index + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -17,19 +17,29 @@ import com.zfoo.protocol.IPacket;
 import com.zfoo.protocol.buffer.ByteBufUtils;
 import com.zfoo.protocol.collection.ArrayUtils;
 import com.zfoo.protocol.collection.CollectionUtils;
+import com.zfoo.protocol.exception.RunException;
 import com.zfoo.protocol.generate.GenerateProtocolFile;
 import com.zfoo.protocol.registration.anno.Compatible;
+import com.zfoo.protocol.registration.field.BaseField;
 import com.zfoo.protocol.registration.field.IFieldRegistration;
+import com.zfoo.protocol.registration.field.ObjectProtocolField;
 import com.zfoo.protocol.serializer.enhance.*;
 import com.zfoo.protocol.serializer.reflect.*;
 import com.zfoo.protocol.util.ReflectionUtils;
 import com.zfoo.protocol.util.StringUtils;
 import io.netty.buffer.ByteBuf;
 import javassist.*;
+import javassist.bytecode.ClassFile;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -44,6 +54,16 @@ public abstract class EnhanceUtils {
     // 临时变量，是一个基本类型序列化器对应的增强类型序列化器
     private static Map<ISerializer, IEnhanceSerializer> tempEnhanceSerializerMap = new HashMap<>();
 
+    /**
+     * 提前生成的类中记录方法体摘要的静态变量，协议类修改过后摘要会不一致，不一致的时候不使用提前生成的类
+     */
+    public static final String ENHANCE_SIGNATURE_FIELD = "ENHANCE_SIGNATURE";
+
+    /**
+     * 增强类中保存协议字段的成员变量，估算集合类型字段的大小的时候使用，和子协议成员变量一样在增强过后注入
+     */
+    public static final String ESTIMATE_FIELD_REGISTRATIONS_FIELD = "fieldRegistrations";
+
     public static String byteBufUtils = ByteBufUtils.class.getSimpleName();
     public static String byteBufUtilsWriteBooleanFalse = byteBufUtils + ".writeBoolean($1, false);";
     public static String byteBufUtilsWriteBooleanTrue = byteBufUtils + ".writeBoolean($1, true);";
@@ -57,6 +77,7 @@ public abstract class EnhanceUtils {
 
         // 导入需要的包
         classPool.importPackage(IPacket.class.getCanonicalName());
+        classPool.importPackage(IFieldRegistration.class.getCanonicalName());
         classPool.importPackage(ByteBufUtils.class.getCanonicalName());
         classPool.importPackage(CollectionUtils.class.getCanonicalName());
         classPool.importPackage(ArrayUtils.class.getCanonicalName());
@@ -116,7 +137,7 @@ public abstract class EnhanceUtils {
         var packetFields = registration.getFieldRegistrations();
 
         // 定义类名称
-        CtClass enhanceClazz = classPool.makeClass(ProtocolRegistration.class.getCanonicalName() + protocolId);
+        CtClass enhanceClazz = classPool.makeClass(getEnhanceClassName(protocolId));
         enhanceClazz.addInterface(classPool.get(IProtocolRegistration.class.getCanonicalName()));
 
         // 定义类中的一个成员
@@ -128,6 +149,10 @@ public abstract class EnhanceUtils {
         receiverFiled.setModifiers(Modifier.PRIVATE);
         enhanceClazz.addField(receiverFiled);
 
+        CtField fieldRegistrationsFiled = new CtField(classPool.get(IFieldRegistration[].class.getCanonicalName()), ESTIMATE_FIELD_REGISTRATIONS_FIELD, enhanceClazz);
+        fieldRegistrationsFiled.setModifiers(Modifier.PRIVATE);
+        enhanceClazz.addField(fieldRegistrationsFiled);
+
         // 定义类所包含的所有子协议成员
         var allSubProtocolIds = ProtocolAnalysis.getAllSubProtocolIds(protocolId)
                 .stream()
@@ -172,6 +197,11 @@ public abstract class EnhanceUtils {
         writeMethod.setBody(writeMethodBody(registration));
         enhanceClazz.addMethod(writeMethod);
 
+        CtMethod estimateSizeMethod = new CtMethod(classPool.get(int.class.getCanonicalName()), "estimateSize", classPool.get(new String[]{IPacket.class.getCanonicalName()}), enhanceClazz);
+        estimateSizeMethod.setModifiers(Modifier.PUBLIC + Modifier.FINAL);
+        estimateSizeMethod.setBody(estimateSizeMethodBody(registration));
+        enhanceClazz.addMethod(estimateSizeMethod);
+
         CtMethod readMethod = new CtMethod(classPool.get(Object.class.getCanonicalName()), "read", classPool.get(new String[]{ByteBuf.class.getCanonicalName()}), enhanceClazz);
         readMethod.setModifiers(Modifier.PUBLIC + Modifier.FINAL);
         readMethod.setBody(readMethodBody(registration));
@@ -186,6 +216,176 @@ public abstract class EnhanceUtils {
         return (IProtocolRegistration) resultConstructor.newInstance(registration.protocolConstructor());
     }
 
+    /**
+     * 生成通过下标读写协议字段的IPacketAccessor，池化的协议回收和复用对象的时候使用
+     *
+     * @return 返回类的名称格式：ProtocolRegistration1Accessor
+     */
+    public static IPacketAccessor createPacketAccessor(ProtocolRegistration registration) throws NotFoundException, CannotCompileException, NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        var classPool = ClassPool.getDefault();
+        var fields = registration.getFields();
+        var packetClazz = registration.getConstructor().getDeclaringClass();
+        var packetClazzName = packetClazz.getCanonicalName();
+
+        CtClass accessorClazz = classPool.makeClass(getEnhanceClassName(registration.getId()) + "Accessor");
+        accessorClazz.addInterface(classPool.get(IPacketAccessor.class.getCanonicalName()));
+        accessorClazz.addConstructor(CtNewConstructor.defaultConstructor(accessorClazz));
+
+        var getBuilder = new StringBuilder(StringUtils.format("{{} packet=({})$1;switch($2){", packetClazzName, packetClazzName));
+        var setBuilder = new StringBuilder(StringUtils.format("{{} packet=({})$1;switch($2){", packetClazzName, packetClazzName));
+        for (var i = 0; i < fields.length; i++) {
+            var field = fields[i];
+            var fieldType = field.getType();
+            // Javassist不支持自动装箱和拆箱，get通过($w)装箱，set手动拆箱
+            var value = fieldType.isPrimitive()
+                    ? StringUtils.format("(({})$3).{}Value()", MethodType.methodType(fieldType).wrap().returnType().getCanonicalName(), fieldType.getName())
+                    : StringUtils.format("({})$3", fieldType.getCanonicalName());
+            if (Modifier.isPublic(field.getModifiers())) {
+                getBuilder.append(StringUtils.format("case {}:return ($w)packet.{};", i, field.getName()));
+                setBuilder.append(StringUtils.format("case {}:packet.{}={};return;", i, field.getName(), value));
+            } else {
+                getBuilder.append(StringUtils.format("case {}:return ($w)packet.{}();", i, ReflectionUtils.fieldToGetMethod(packetClazz, field)));
+                setBuilder.append(StringUtils.format("case {}:packet.{}({});return;", i, ReflectionUtils.fieldToSetMethod(packetClazz, field), value));
+            }
+        }
+        getBuilder.append("default:return null;}}");
+        setBuilder.append("default:return;}}");
+
+        CtMethod getMethod = new CtMethod(classPool.get(Object.class.getCanonicalName()), "get", classPool.get(new String[]{Object.class.getCanonicalName(), int.class.getCanonicalName()}), accessorClazz);
+        getMethod.setModifiers(Modifier.PUBLIC + Modifier.FINAL);
+        getMethod.setBody(getBuilder.toString());
+        accessorClazz.addMethod(getMethod);
+
+        CtMethod setMethod = new CtMethod(classPool.get(void.class.getCanonicalName()), "set", classPool.get(new String[]{Object.class.getCanonicalName(), int.class.getCanonicalName(), Object.class.getCanonicalName()}), accessorClazz);
+        setMethod.setModifiers(Modifier.PUBLIC + Modifier.FINAL);
+        setMethod.setBody(setBuilder.toString());
+        accessorClazz.addMethod(setMethod);
+
+        // 释放缓存
+        accessorClazz.detach();
+
+        Class<?> resultClazz = accessorClazz.toClass(IProtocolRegistration.class);
+        return (IPacketAccessor) resultClazz.getConstructor().newInstance();
+    }
+
+    /**
+     * 生成和createProtocolRegistration完全相同的Java源文件，可以在构建的时候提前编译，启动的时候就不需要Javassist
+     * <p>
+     * Javassist的方法体中使用$1和$2表示方法参数，$1和$2也是合法的Java标识符，所以方法体可以直接复用
+     */
+    public static String createProtocolRegistrationSource(ProtocolRegistration registration) {
+        var protocolId = registration.getId();
+        var packetClazz = registration.getConstructor().getDeclaringClass();
+
+        GenerateProtocolFile.index.set(0);
+        var writeBody = writeMethodBody(registration);
+        var readBody = readMethodBody(registration);
+        var estimateSizeBody = estimateSizeMethodBody(registration);
+
+        var allSubProtocolIds = ProtocolAnalysis.getAllSubProtocolIds(protocolId)
+                .stream()
+                .sorted((a, b) -> Short.compare(a, b))
+                .collect(Collectors.toList());
+
+        var builder = new StringBuilder();
+        builder.append("package ").append(ProtocolRegistration.class.getPackageName()).append(";\n\n");
+        for (var clazz : List.of(IPacket.class, IFieldRegistration.class, ByteBufUtils.class, ArrayUtils.class, CollectionUtils.class, ByteBuf.class
+                , Constructor.class, Iterator.class, List.class, Map.class, Set.class)) {
+            builder.append("import ").append(clazz.getCanonicalName()).append(";\n");
+        }
+        builder.append("\n/**\n * 协议[").append(packetClazz.getCanonicalName()).append("]的序列化，构建的时候自动生成，不要手动修改\n */\n");
+        builder.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        builder.append(StringUtils.format("public class {} implements IProtocolRegistration {\n\n", getEnhanceClassSimpleName(protocolId)));
+        builder.append(StringUtils.format("    public static final String {} = \"{}\";\n\n", ENHANCE_SIGNATURE_FIELD, enhanceSignature(writeBody, readBody, estimateSizeBody)));
+        builder.append("    private Constructor constructor;\n\n");
+        builder.append("    private Object receiver;\n\n");
+        builder.append(StringUtils.format("    private IFieldRegistration[] {};\n\n", ESTIMATE_FIELD_REGISTRATIONS_FIELD));
+        for (var subProtocolId : allSubProtocolIds) {
+            builder.append(StringUtils.format("    private IProtocolRegistration {};\n\n", getProtocolRegistrationFieldNameByProtocolId(subProtocolId)));
+        }
+        builder.append(StringUtils.format("    public {}(Constructor constructor) {\n        this.constructor = constructor;\n    }\n\n", getEnhanceClassSimpleName(protocolId)));
+        builder.append(StringUtils.format("    public final short protocolId() {\n        return {};\n    }\n\n", protocolId));
+        builder.append("    public final Constructor protocolConstructor() {\n        return this.constructor;\n    }\n\n");
+        builder.append("    public final Object receiver() {\n        return this.receiver;\n    }\n\n");
+        builder.append(StringUtils.format("    public final byte module() {\n        return {};\n    }\n\n", registration.module()));
+        builder.append(StringUtils.format("    public final void write(ByteBuf $1, IPacket $2) {}\n\n", writeBody));
+        builder.append(StringUtils.format("    public final int estimateSize(IPacket $1) {}\n\n", estimateSizeBody));
+        builder.append(StringUtils.format("    public final Object read(ByteBuf $1) {}\n\n", readBody));
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    /**
+     * 加载构建的时候通过createProtocolRegistrationSource生成并且编译好的类，没有的时候返回null，和协议类不一致的时候抛出异常
+     * <p>
+     * 先读取class文件中的签名常量，一致之后才加载这个类；不一致的类一旦被定义，Javassist就不能再定义同名的类，只能退回到MethodHandle
+     */
+    public static IProtocolRegistration loadProtocolRegistration(ProtocolRegistration registration) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException, ClassNotFoundException, IOException {
+        var className = getEnhanceClassName(registration.getId());
+        var classLoader = registration.getConstructor().getDeclaringClass().getClassLoader();
+        var precompiledSignature = precompiledSignature(classLoader, className);
+        if (precompiledSignature == null) {
+            return null;
+        }
+
+        GenerateProtocolFile.index.set(0);
+        var signature = enhanceSignature(writeMethodBody(registration), readMethodBody(registration), estimateSizeMethodBody(registration));
+        if (!signature.equals(precompiledSignature)) {
+            throw new RunException("协议[{}]提前生成的类[{}]和协议类不一致，需要重新生成", registration.protocolId(), className);
+        }
+        var clazz = Class.forName(className, true, classLoader);
+        return (IProtocolRegistration) clazz.getConstructor(Constructor.class).newInstance(registration.protocolConstructor());
+    }
+
+    /**
+     * 不定义类，直接从class文件的常量池中读取签名，没有这个class文件的时候返回null
+     */
+    private static String precompiledSignature(ClassLoader classLoader, String className) throws IOException {
+        var resourceName = className.replace(StringUtils.PERIOD, StringUtils.SLASH) + ".class";
+        try (var inputStream = classLoader.getResourceAsStream(resourceName)) {
+            if (inputStream == null) {
+                return null;
+            }
+            var classFile = new ClassFile(new DataInputStream(inputStream));
+            for (var fieldInfo : classFile.getFields()) {
+                if (ENHANCE_SIGNATURE_FIELD.equals(fieldInfo.getName()) && fieldInfo.getConstantValue() != 0) {
+                    return classFile.getConstPool().getStringInfo(fieldInfo.getConstantValue());
+                }
+            }
+            throw new RunException("提前生成的类[{}]没有签名[{}]，需要重新生成", className, ENHANCE_SIGNATURE_FIELD);
+        }
+    }
+
+    /**
+     * 方法体的SHA-1摘要，String.hashCode()只有32位，协议类修改过后摘要碰撞的概率太高
+     */
+    private static String enhanceSignature(String writeBody, String readBody, String estimateSizeBody) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RunException(e, "当前jdk不支持SHA-1摘要算法");
+        }
+        for (var body : List.of(writeBody, readBody, estimateSizeBody)) {
+            messageDigest.update(body.getBytes(StandardCharsets.UTF_8));
+            // 方法体之间加上分隔符，避免内容在方法之间移动的时候摘要相同
+            messageDigest.update((byte) 0);
+        }
+        var builder = new StringBuilder();
+        for (var b : messageDigest.digest()) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    public static String getEnhanceClassName(short protocolId) {
+        return ProtocolRegistration.class.getCanonicalName() + protocolId;
+    }
+
+    public static String getEnhanceClassSimpleName(short protocolId) {
+        return ProtocolRegistration.class.getSimpleName() + protocolId;
+    }
+
     // see: ProtocolRegistration.write()
     private static String writeMethodBody(ProtocolRegistration registration) {
         var constructor = registration.getConstructor();
@@ -194,6 +394,8 @@ public abstract class EnhanceUtils {
 
         var packetClazz = constructor.getDeclaringClass();
 
+        var taggedFields = registration.getTaggedFields();
+
         var builder = new StringBuilder();
         builder.append("{").append(packetClazz.getCanonicalName() + " packet = (" + packetClazz.getCanonicalName() + ")$2;");
         builder.append("if(ByteBufUtils.writePacketFlag($1, packet)){").append("return;}");
@@ -201,6 +403,14 @@ public abstract class EnhanceUtils {
             var field = fields[i];
             var fieldRegistration = fieldRegistrations[i];
 
+            // 带标签的协议先写入key，集合和子协议预留长度前缀的位置
+            if (taggedFields != null) {
+                builder.append(StringUtils.format("{}.writeInt($1, {});", byteBufUtils, taggedFields.key(i)));
+                if (taggedFields.isLengthDelimited(i)) {
+                    builder.append(StringUtils.format("int lengthIndex{}={}.writeLengthPlaceholder($1);", i, byteBufUtils));
+                }
+            }
+
             if (Modifier.isPublic(field.getModifiers())) {
                 enhanceSerializer(fieldRegistration.serializer())
                         .writeObject(builder, StringUtils.format("packet.{}", field.getName()), field, fieldRegistration);
@@ -208,6 +418,13 @@ public abstract class EnhanceUtils {
                 enhanceSerializer(fieldRegistration.serializer())
                         .writeObject(builder, StringUtils.format("packet.{}()", ReflectionUtils.fieldToGetMethod(packetClazz, field)), field, fieldRegistration);
             }
+
+            if (taggedFields != null && taggedFields.isLengthDelimited(i)) {
+                builder.append(StringUtils.format("{}.writeLengthAt($1, lengthIndex{});", byteBufUtils, i));
+            }
+        }
+        if (taggedFields != null) {
+            builder.append(byteBufUtilsWriteInt0);
         }
         builder.append("}");
         return builder.toString();
@@ -224,6 +441,12 @@ public abstract class EnhanceUtils {
         var packetClazz = constructor.getDeclaringClass();
         builder.append(packetClazz.getCanonicalName() + " packet=new " + packetClazz.getCanonicalName() + "();");
 
+        if (registration.getTaggedFields() != null) {
+            readTaggedFields(builder, registration);
+            builder.append("return packet;}");
+            return builder.toString();
+        }
+
         for (var i = 0; i < fields.length; i++) {
             var field = fields[i];
             var fieldRegistration = fieldRegistrations[i];
@@ -244,6 +467,77 @@ public abstract class EnhanceUtils {
         return builder.toString();
     }
 
+    /**
+     * 带标签的协议循环读取key，通过switch跳转到对应的属性，连续的key会被编译成tableswitch跳转表，稀疏的key编译成lookupswitch，
+     * 不认识的key或者类型改变过的属性走default跳过
+     */
+    private static void readTaggedFields(StringBuilder builder, ProtocolRegistration registration) {
+        var fields = registration.getFields();
+        var fieldRegistrations = registration.getFieldRegistrations();
+        var taggedFields = registration.getTaggedFields();
+        var packetClazz = registration.getConstructor().getDeclaringClass();
+
+        builder.append(StringUtils.format("int key={}.readInt($1);", byteBufUtils));
+        builder.append("while(key!=0){switch(key){");
+        for (var i = 0; i < fields.length; i++) {
+            var field = fields[i];
+            var fieldRegistration = fieldRegistrations[i];
+            builder.append(StringUtils.format("case {}:{", taggedFields.key(i)));
+            if (taggedFields.isLengthDelimited(i)) {
+                builder.append(StringUtils.format("int endIndex{}={}.readInt($1)+$1.readerIndex();", i, byteBufUtils));
+            }
+            var readObject = enhanceSerializer(fieldRegistration.serializer()).readObject(builder, field, fieldRegistration);
+            if (Modifier.isPublic(field.getModifiers())) {
+                builder.append(StringUtils.format("packet.{}={};", field.getName(), readObject));
+            } else {
+                builder.append(StringUtils.format("packet.{}({});", ReflectionUtils.fieldToSetMethod(packetClazz, field), readObject));
+            }
+            if (taggedFields.isLengthDelimited(i)) {
+                builder.append(StringUtils.format("$1.readerIndex(endIndex{});", i));
+            }
+            builder.append("break;}");
+        }
+        builder.append(StringUtils.format("default:{}.skipTaggedField($1, key);", byteBufUtils));
+        builder.append(StringUtils.format("}key={}.readInt($1);}", byteBufUtils));
+    }
+
+    // see: ProtocolRegistration.estimateSize()
+    private static String estimateSizeMethodBody(ProtocolRegistration registration) {
+        var constructor = registration.getConstructor();
+        var fields = registration.getFields();
+        var fieldRegistrations = registration.getFieldRegistrations();
+
+        var packetClazz = constructor.getDeclaringClass();
+
+        // 基础类型的大小是固定的，在生成代码的时候直接累加成一个常量
+        var fixedSize = registration.getTaggedFields() == null ? 1 : 1 + registration.getTaggedFields().estimateSize();
+        var builder = new StringBuilder();
+        for (var i = 0; i < fields.length; i++) {
+            var field = fields[i];
+            var fieldRegistration = fieldRegistrations[i];
+            var serializer = fieldRegistration.serializer();
+
+            var objectStr = Modifier.isPublic(field.getModifiers())
+                    ? StringUtils.format("packet.{}", field.getName())
+                    : StringUtils.format("packet.{}()", ReflectionUtils.fieldToGetMethod(packetClazz, field));
+
+            if (serializer == StringSerializer.INSTANCE) {
+                builder.append(StringUtils.format("size+={}.estimateString({});", byteBufUtils, objectStr));
+            } else if (serializer == ObjectProtocolSerializer.INSTANCE) {
+                var protocolRegistrationField = getProtocolRegistrationFieldNameByProtocolId(((ObjectProtocolField) fieldRegistration).getProtocolId());
+                builder.append(StringUtils.format("size+={}.estimateSize((IPacket){});", protocolRegistrationField, objectStr));
+            } else if (fieldRegistration instanceof BaseField) {
+                fixedSize += serializer.estimateSize(null, fieldRegistration);
+            } else {
+                builder.append(StringUtils.format("size+={}[{}].serializer().estimateSize({}, {}[{}]);"
+                        , ESTIMATE_FIELD_REGISTRATIONS_FIELD, i, objectStr, ESTIMATE_FIELD_REGISTRATIONS_FIELD, i));
+            }
+        }
+
+        return StringUtils.format("{if($1==null){return 1;}{} packet=({})$1;int size={};{}return size;}"
+                , packetClazz.getCanonicalName(), packetClazz.getCanonicalName(), fixedSize, builder.toString());
+    }
+
     public static String getProtocolRegistrationFieldNameByProtocolId(short id) {
         return StringUtils.format("{}{}", StringUtils.uncapitalize(ProtocolRegistration.class.getSimpleName()), id);
     }
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+/**
+ * 通过字段的下标读写协议对象的字段，下标和ProtocolRegistration中的fields一致，由EnhanceUtils生成，避免反射
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public interface IPacketAccessor {
+
+    /**
+     * 基础类型的字段返回装箱后的值
+     */
+    Object get(Object packet, int index);
+
+    void set(Object packet, int index, Object value);
+
+}
@@ -24,6 +24,8 @@ import java.lang.reflect.Constructor;
  */
 public interface IProtocolRegistration {
 
+    int DEFAULT_ESTIMATE_SIZE = 128;
+
     short protocolId();
 
     byte module();
@@ -40,6 +42,15 @@ public interface IProtocolRegistration {
      */
     void write(ByteBuf buffer, IPacket packet);
 
+    /**
+     * 序列化需要的字节数，只在协议第一次编码的时候调用，之后ProtocolManager根据实际编码的大小自适应调整
+     * <p>
+     * 默认返回一个固定的估计值，估算得偏小的时候ByteBuf会自动扩容，自定义的协议注册类不需要实现
+     */
+    default int estimateSize(IPacket packet) {
+        return DEFAULT_ESTIMATE_SIZE;
+    }
+
     /**
      * 反序列化
      */
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.registration.anno.Compatible;
+import com.zfoo.protocol.registration.field.IFieldRegistration;
+import com.zfoo.protocol.util.ReflectionUtils;
+import io.netty.buffer.ByteBuf;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 不依赖Javassist的协议序列化实现，不能通过Javassist定义新类的环境（如开启了强封装的JDK）使用这个实现代替反射
+ * <p>
+ * 通过MethodHandles.privateLookupIn获取协议类的Lookup，再通过LambdaMetafactory把构造器，get方法和set方法转换成
+ * Supplier，Function和BiConsumer，lambda的实现类由JDK自己定义，调用的时候可以被JIT内联，没有反射的权限检查；
+ * public的属性没有get和set方法，使用VarHandle访问
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class MethodHandleProtocolRegistration implements IProtocolRegistration {
+
+    private short id;
+    private byte module;
+    private Constructor<?> constructor;
+
+    private Object receiver;
+
+    private Supplier<Object> instanceSupplier;
+
+    private Function<Object, Object>[] getters;
+
+    private BiConsumer<Object, Object>[] setters;
+
+    /**
+     * 属性是否被@Compatible标注，提前计算好，避免每次反序列化都查找注解
+     */
+    private boolean[] compatibles;
+
+    private IFieldRegistration[] fieldRegistrations;
+
+    private TaggedFields taggedFields;
+
+    public static MethodHandleProtocolRegistration valueOf(ProtocolRegistration registration) throws Throwable {
+        var constructor = registration.getConstructor();
+        var fields = registration.getFields();
+        var packetClazz = constructor.getDeclaringClass();
+        var lookup = MethodHandles.privateLookupIn(packetClazz, MethodHandles.lookup());
+
+        var getters = new Function[fields.length];
+        var setters = new BiConsumer[fields.length];
+        var compatibles = new boolean[fields.length];
+        for (var i = 0; i < fields.length; i++) {
+            var field = fields[i];
+            if (Modifier.isPublic(field.getModifiers())) {
+                var varHandle = lookup.unreflectVarHandle(field);
+                getters[i] = varHandleGetter(varHandle);
+                setters[i] = varHandleSetter(varHandle);
+            } else {
+                getters[i] = createGetter(lookup, packetClazz, field);
+                setters[i] = createSetter(lookup, packetClazz, field);
+            }
+            compatibles[i] = field.isAnnotationPresent(Compatible.class);
+        }
+
+        var constructorHandle = lookup.findConstructor(packetClazz, MethodType.methodType(void.class));
+        var callSite = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class)
+                , MethodType.methodType(Object.class), constructorHandle, MethodType.methodType(packetClazz));
+
+        var methodHandleRegistration = new MethodHandleProtocolRegistration();
+        methodHandleRegistration.id = registration.getId();
+        methodHandleRegistration.module = registration.getModule();
+        methodHandleRegistration.constructor = constructor;
+        methodHandleRegistration.instanceSupplier = (Supplier<Object>) callSite.getTarget().invoke();
+        methodHandleRegistration.getters = getters;
+        methodHandleRegistration.setters = setters;
+        methodHandleRegistration.compatibles = compatibles;
+        methodHandleRegistration.fieldRegistrations = registration.getFieldRegistrations();
+        methodHandleRegistration.taggedFields = registration.getTaggedFields();
+        return methodHandleRegistration;
+    }
+
+    private static Function<Object, Object> createGetter(MethodHandles.Lookup lookup, Class<?> packetClazz, Field field) throws Throwable {
+        var getMethod = packetClazz.getDeclaredMethod(ReflectionUtils.fieldToGetMethod(packetClazz, field));
+        var getHandle = lookup.unreflect(getMethod);
+        var callSite = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class)
+                , MethodType.methodType(Object.class, Object.class), getHandle
+                , MethodType.methodType(boxedType(field.getType()), packetClazz));
+        return (Function<Object, Object>) callSite.getTarget().invoke();
+    }
+
+    private static BiConsumer<Object, Object> createSetter(MethodHandles.Lookup lookup, Class<?> packetClazz, Field field) throws Throwable {
+        var setMethod = packetClazz.getDeclaredMethod(ReflectionUtils.fieldToSetMethod(packetClazz, field), field.getType());
+        var setHandle = lookup.unreflect(setMethod);
+        var callSite = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class)
+                , MethodType.methodType(void.class, Object.class, Object.class), setHandle
+                , MethodType.methodType(void.class, packetClazz, boxedType(field.getType())));
+        return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+    }
+
+    private static Function<Object, Object> varHandleGetter(VarHandle varHandle) {
+        return packet -> varHandle.get(packet);
+    }
+
+    private static BiConsumer<Object, Object> varHandleSetter(VarHandle varHandle) {
+        return (packet, value) -> varHandle.set(packet, value);
+    }
+
+    private static Class<?> boxedType(Class<?> clazz) {
+        return clazz.isPrimitive() ? MethodType.methodType(clazz).wrap().returnType() : clazz;
+    }
+
+    Function<Object, Object>[] getGetters() {
+        return getters;
+    }
+
+    /**
+     * 不能通过Javassist定义新类的时候，代替EnhanceUtils.createPacketAccessor
+     */
+    IPacketAccessor packetAccessor() {
+        return new IPacketAccessor() {
+            @Override
+            public Object get(Object packet, int index) {
+                return getters[index].apply(packet);
+            }
+
+            @Override
+            public void set(Object packet, int index, Object value) {
+                setters[index].accept(packet, value);
+            }
+        };
+    }
+
+    BiConsumer<Object, Object>[] getSetters() {
+        return setters;
+    }
+
+    @Override
+    public short protocolId() {
+        return id;
+    }
+
+    @Override
+    public byte module() {
+        return module;
+    }
+
+    @Override
+    public Constructor<?> protocolConstructor() {
+        return constructor;
+    }
+
+    @Override
+    public Object receiver() {
+        return receiver;
+    }
+
+    @Override
+    public void write(ByteBuf buffer, IPacket packet) {
+        if (ByteBufUtils.writePacketFlag(buffer, packet)) {
+            return;
+        }
+
+        if (taggedFields != null) {
+            for (int i = 0, length = getters.length; i < length; i++) {
+                taggedFields.writeField(buffer, i, getters[i].apply(packet));
+            }
+            ByteBufUtils.writeInt(buffer, 0);
+            return;
+        }
+
+        for (int i = 0, length = getters.length; i < length; i++) {
+            var fieldRegistration = fieldRegistrations[i];
+            fieldRegistration.serializer().writeObject(buffer, getters[i].apply(packet), fieldRegistration);
+        }
+    }
+
+    @Override
+    public int estimateSize(IPacket packet) {
+        if (packet == null) {
+            return 1;
+        }
+
+        var size = taggedFields == null ? 1 : 1 + taggedFields.estimateSize();
+        for (int i = 0, length = getters.length; i < length; i++) {
+            var fieldRegistration = fieldRegistrations[i];
+            size += fieldRegistration.serializer().estimateSize(getters[i].apply(packet), fieldRegistration);
+        }
+        return size;
+    }
+
+    @Override
+    public Object read(ByteBuf buffer) {
+        if (!ByteBufUtils.readBoolean(buffer)) {
+            return null;
+        }
+        var packet = instanceSupplier.get();
+
+        if (taggedFields != null) {
+            for (var key = ByteBufUtils.readInt(buffer); key != 0; key = ByteBufUtils.readInt(buffer)) {
+                var index = taggedFields.indexOf(key);
+                if (index < 0) {
+                    ByteBufUtils.skipTaggedField(buffer, key);
+                    continue;
+                }
+                setters[index].accept(packet, taggedFields.readField(buffer, index));
+            }
+            return packet;
+        }
+
+        for (int i = 0, length = setters.length; i < length; i++) {
+            // 协议向后兼容
+            if (compatibles[i] && !buffer.isReadable()) {
+                break;
+            }
+            var fieldRegistration = fieldRegistrations[i];
+            setters[i].accept(packet, fieldRegistration.serializer().readObject(buffer, fieldRegistration));
+        }
+        return packet;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界的多生产者多消费者的对象池，解码在IO线程取出对象，回收在task线程放回对象，所以需要支持多线程同时存取
+ * <p>
+ * 环形数组实现，每个槽位有一个序号表示槽位当前可以被哪一轮的存或者取使用，存取都不会分配新的对象
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class PacketPool {
+
+    private final int mask;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicReferenceArray<Object> slots;
+
+    private final AtomicLong putIndex = new AtomicLong();
+
+    private final AtomicLong takeIndex = new AtomicLong();
+
+    /**
+     * @param capacity 池的容量，会向上取整为2的幂
+     */
+    public PacketPool(int capacity) {
+        var size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.slots = new AtomicReferenceArray<>(size);
+        for (var i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 放回对象，池满了或者槽位上一轮的取出还没有完成的时候返回false，对象直接丢弃交给GC
+     */
+    public boolean offer(Object object) {
+        while (true) {
+            var index = putIndex.get();
+            var slot = (int) (index & mask);
+            var diff = sequences.get(slot) - index;
+            if (diff == 0) {
+                if (putIndex.compareAndSet(index, index + 1)) {
+                    slots.lazySet(slot, object);
+                    sequences.set(slot, index + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 取出对象，池空了的时候返回null
+     */
+    public Object poll() {
+        while (true) {
+            var index = takeIndex.get();
+            var slot = (int) (index & mask);
+            var diff = sequences.get(slot) - (index + 1);
+            if (diff == 0) {
+                if (takeIndex.compareAndSet(index, index + 1)) {
+                    var object = slots.get(slot);
+                    slots.lazySet(slot, null);
+                    sequences.set(slot, index + mask + 1);
+                    return object;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+}
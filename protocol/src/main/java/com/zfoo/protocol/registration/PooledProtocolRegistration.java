@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.collection.CollectionUtils;
+import com.zfoo.protocol.exception.RunException;
+import com.zfoo.protocol.registration.anno.Compatible;
+import com.zfoo.protocol.registration.field.*;
+import com.zfoo.protocol.util.ReflectionUtils;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.util.*;
+
+/**
+ * 池化的反序列化，协议格式和ProtocolRegistration完全一样，只是读取的时候从池中取出回收过的对象，集合字段清空之后原地填充，不再重新创建
+ * <p>
+ * 接收者处理完之后由ProtocolManager.recycle放回池中，回收的时候基础类型的字段重置为构造方法的默认值，反序列化创建的List，Set，Map清空之后保留，
+ * 数组，子协议和其它的集合置为null；取出的时候检查对象是否仍然是重置后的状态，
+ * 如果不是，说明接收者在回收之后仍然持有并修改了这个packet，这个对象会被丢弃并打印错误日志
+ * <p>
+ * 字段通过EnhanceUtils生成的IPacketAccessor读写，不能定义新类的时候使用MethodHandle
+ * <p>
+ * 通过-Dzfoo.protocol.pool.check设置检查的级别：
+ * none不做检查；simple（默认）检查回收之后的修改；paranoid额外检查重复回收，代价是每次存取都要加锁
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class PooledProtocolRegistration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledProtocolRegistration.class);
+
+    public static final String CAPACITY_PROPERTY = "zfoo.protocol.pool.capacity";
+    public static final String CHECK_PROPERTY = "zfoo.protocol.pool.check";
+
+    public static final String CHECK_NONE = "none";
+    public static final String CHECK_SIMPLE = "simple";
+    public static final String CHECK_PARANOID = "paranoid";
+
+    private static final int CAPACITY = Integer.parseInt(System.getProperty(CAPACITY_PROPERTY, "1024"));
+    private static final String CHECK = System.getProperty(CHECK_PROPERTY, CHECK_SIMPLE);
+    private static final boolean CHECK_MODIFIED = !CHECK_NONE.equals(CHECK);
+    private static final boolean CHECK_RECYCLED = CHECK_PARANOID.equals(CHECK);
+
+    private static final byte BASE = 0;
+    private static final byte LIST = 1;
+    private static final byte SET = 2;
+    private static final byte MAP = 3;
+    private static final byte OTHER = 4;
+
+    private short id;
+
+    private Constructor<?> constructor;
+
+    private IPacketAccessor accessor;
+
+    private IFieldRegistration[] fieldRegistrations;
+
+    private byte[] kinds;
+
+    private boolean[] compatibles;
+
+    /**
+     * 构造方法创建的对象的基础类型字段的值，回收的时候重置为这些值
+     */
+    private Object[] defaultValues;
+
+    private PacketPool pool;
+
+    /**
+     * 当前在池中的对象，只有paranoid级别才使用，用来发现重复回收
+     */
+    private Set<Object> pooledSet;
+
+    public static PooledProtocolRegistration valueOf(ProtocolRegistration registration) {
+        var fields = registration.getFields();
+        var fieldRegistrations = registration.getFieldRegistrations();
+        var accessor = createPacketAccessor(registration);
+        var template = ReflectionUtils.newInstance(registration.getConstructor());
+
+        var kinds = new byte[fields.length];
+        var compatibles = new boolean[fields.length];
+        var defaultValues = new Object[fields.length];
+        for (var i = 0; i < fields.length; i++) {
+            var fieldRegistration = fieldRegistrations[i];
+            if (fieldRegistration instanceof BaseField) {
+                kinds[i] = BASE;
+                defaultValues[i] = accessor.get(template, i);
+            } else if (fieldRegistration instanceof ListField) {
+                kinds[i] = LIST;
+            } else if (fieldRegistration instanceof SetField) {
+                kinds[i] = SET;
+            } else if (fieldRegistration instanceof MapField) {
+                kinds[i] = MAP;
+            } else {
+                kinds[i] = OTHER;
+            }
+            compatibles[i] = fields[i].isAnnotationPresent(Compatible.class);
+        }
+
+        var pooledRegistration = new PooledProtocolRegistration();
+        pooledRegistration.id = registration.protocolId();
+        pooledRegistration.constructor = registration.getConstructor();
+        pooledRegistration.accessor = accessor;
+        pooledRegistration.fieldRegistrations = fieldRegistrations;
+        pooledRegistration.kinds = kinds;
+        pooledRegistration.compatibles = compatibles;
+        pooledRegistration.defaultValues = defaultValues;
+        pooledRegistration.pool = new PacketPool(CAPACITY);
+        pooledRegistration.pooledSet = CHECK_RECYCLED ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+        return pooledRegistration;
+    }
+
+    private static IPacketAccessor createPacketAccessor(ProtocolRegistration registration) {
+        var enhanceType = System.getProperty(ProtocolAnalysis.ENHANCE_PROPERTY, ProtocolAnalysis.ENHANCE_AUTO);
+        if (ProtocolAnalysis.ENHANCE_AUTO.equals(enhanceType) || ProtocolAnalysis.ENHANCE_JAVASSIST.equals(enhanceType)) {
+            try {
+                return EnhanceUtils.createPacketAccessor(registration);
+            } catch (Throwable t) {
+                logger.warn("池化协议[{}]使用Javassist字节码增强失败，尝试使用MethodHandle", registration.protocolId(), t);
+            }
+        }
+        try {
+            return MethodHandleProtocolRegistration.valueOf(registration).packetAccessor();
+        } catch (Throwable t) {
+            throw new RunException(t, "池化协议[{}]创建字段的访问器失败", registration.protocolId());
+        }
+    }
+
+    public short protocolId() {
+        return id;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Object read(ByteBuf buffer) {
+        if (!ByteBufUtils.readBoolean(buffer)) {
+            return null;
+        }
+        var object = borrow();
+
+        for (int i = 0, length = fieldRegistrations.length; i < length; i++) {
+            // 协议向后兼容，没有读取的字段已经是重置后的值
+            if (compatibles[i] && !buffer.isReadable()) {
+                break;
+            }
+            var fieldRegistration = fieldRegistrations[i];
+            var value = kinds[i] == BASE || kinds[i] == OTHER ? null : accessor.get(object, i);
+            if (!isReusable(value)) {
+                accessor.set(object, i, fieldRegistration.serializer().readObject(buffer, fieldRegistration));
+                continue;
+            }
+
+            switch (kinds[i]) {
+                case LIST:
+                    readList(buffer, (List<Object>) value, (ListField) fieldRegistration);
+                    break;
+                case SET:
+                    readSet(buffer, (Set<Object>) value, (SetField) fieldRegistration);
+                    break;
+                default:
+                    readMap(buffer, (Map<Object, Object>) value, (MapField) fieldRegistration);
+                    break;
+            }
+        }
+        return object;
+    }
+
+    /**
+     * 把接收者处理完的packet重置之后放回池中，放回之后接收者不能再持有这个packet
+     */
+    public void recycle(IPacket packet) {
+        if (CHECK_RECYCLED) {
+            synchronized (pooledSet) {
+                if (!pooledSet.add(packet)) {
+                    throw new RunException("协议[{}]的对象被重复回收", id);
+                }
+            }
+        }
+
+        reset(packet);
+
+        if (!pool.offer(packet) && CHECK_RECYCLED) {
+            synchronized (pooledSet) {
+                pooledSet.remove(packet);
+            }
+        }
+    }
+
+    private Object borrow() {
+        var object = pool.poll();
+        if (object == null) {
+            return ReflectionUtils.newInstance(constructor);
+        }
+
+        if (CHECK_RECYCLED) {
+            synchronized (pooledSet) {
+                pooledSet.remove(object);
+            }
+        }
+
+        if (CHECK_MODIFIED && !isReset(object)) {
+            logger.error("协议[{}][{}]回收之后又被修改，接收者在处理完之后仍然持有这个packet，丢弃这个对象", id, object.getClass().getSimpleName());
+            return ReflectionUtils.newInstance(constructor);
+        }
+        return object;
+    }
+
+    private void reset(Object object) {
+        for (int i = 0, length = fieldRegistrations.length; i < length; i++) {
+            switch (kinds[i]) {
+                case BASE:
+                    accessor.set(object, i, defaultValues[i]);
+                    break;
+                case LIST:
+                case SET:
+                case MAP:
+                    var value = accessor.get(object, i);
+                    if (isReusable(value)) {
+                        if (value instanceof Map) {
+                            ((Map<?, ?>) value).clear();
+                        } else {
+                            ((Collection<?>) value).clear();
+                        }
+                    } else if (value != null) {
+                        accessor.set(object, i, null);
+                    }
+                    break;
+                default:
+                    accessor.set(object, i, null);
+                    break;
+            }
+        }
+    }
+
+    private boolean isReset(Object object) {
+        for (int i = 0, length = fieldRegistrations.length; i < length; i++) {
+            var value = accessor.get(object, i);
+            switch (kinds[i]) {
+                case BASE:
+                    if (!Objects.equals(value, defaultValues[i])) {
+                        return false;
+                    }
+                    break;
+                case LIST:
+                case SET:
+                    if (value != null && !((Collection<?>) value).isEmpty()) {
+                        return false;
+                    }
+                    break;
+                case MAP:
+                    if (value != null && !((Map<?, ?>) value).isEmpty()) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (value != null) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 只复用反序列化创建的集合类型，接收者替换成的不可变集合等直接丢弃
+     */
+    private static boolean isReusable(Object value) {
+        if (value == null) {
+            return false;
+        }
+        var clazz = value.getClass();
+        return clazz == ArrayList.class || clazz == HashSet.class || clazz == HashMap.class;
+    }
+
+    private static void readList(ByteBuf buffer, List<Object> list, ListField listField) {
+        var size = ByteBufUtils.readInt(buffer);
+        var elementRegistration = listField.getListElementRegistration();
+        ((ArrayList<Object>) list).ensureCapacity(CollectionUtils.comfortableLength(size));
+        for (int i = 0; i < size; i++) {
+            list.add(elementRegistration.serializer().readObject(buffer, elementRegistration));
+        }
+    }
+
+    private static void readSet(ByteBuf buffer, Set<Object> set, SetField setField) {
+        var size = ByteBufUtils.readInt(buffer);
+        var elementRegistration = setField.getSetElementRegistration();
+        for (int i = 0; i < size; i++) {
+            set.add(elementRegistration.serializer().readObject(buffer, elementRegistration));
+        }
+    }
+
+    private static void readMap(ByteBuf buffer, Map<Object, Object> map, MapField mapField) {
+        var size = ByteBufUtils.readInt(buffer);
+        var keyRegistration = mapField.getMapKeyRegistration();
+        var valueRegistration = mapField.getMapValueRegistration();
+        for (int i = 0; i < size; i++) {
+            var key = keyRegistration.serializer().readObject(buffer, keyRegistration);
+            var value = valueRegistration.serializer().readObject(buffer, valueRegistration);
+            map.put(key, value);
+        }
+    }
+
+}
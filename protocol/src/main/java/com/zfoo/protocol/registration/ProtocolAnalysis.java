@@ -14,8 +14,7 @@ package com.zfoo.protocol.registration;
 
 import com.zfoo.protocol.IPacket;
 import com.zfoo.protocol.ProtocolManager;
-import com.zfoo.protocol.collection.ArrayUtils;
-import com.zfoo.protocol.collection.CollectionUtils;
+import com.zfoo.protocol.collection.*;
 import com.zfoo.protocol.exception.RunException;
 import com.zfoo.protocol.exception.UnknownException;
 import com.zfoo.protocol.generate.GenerateOperation;
@@ -24,9 +23,11 @@ import com.zfoo.protocol.generate.GenerateProtocolNote;
 import com.zfoo.protocol.generate.GenerateProtocolPath;
 import com.zfoo.protocol.registration.anno.Compatible;
 import com.zfoo.protocol.registration.anno.Protocol;
+import com.zfoo.protocol.registration.anno.Tag;
 import com.zfoo.protocol.registration.field.*;
 import com.zfoo.protocol.serializer.cpp.GenerateCppUtils;
 import com.zfoo.protocol.serializer.csharp.GenerateCsUtils;
+import com.zfoo.protocol.serializer.enhance.GenerateEnhanceUtils;
 import com.zfoo.protocol.serializer.gdscript.GenerateGdUtils;
 import com.zfoo.protocol.serializer.go.GenerateGoUtils;
 import com.zfoo.protocol.serializer.javascript.GenerateJsUtils;
@@ -40,6 +41,8 @@ import com.zfoo.protocol.util.StringUtils;
 import com.zfoo.protocol.xml.XmlProtocols;
 import javassist.CannotCompileException;
 import javassist.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.lang.reflect.*;
@@ -54,6 +57,20 @@ import static com.zfoo.protocol.ProtocolManager.*;
  */
 public class ProtocolAnalysis {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProtocolAnalysis.class);
+
+    /**
+     * 协议序列化的实现方式，通过-Dzfoo.protocol.enhance指定，默认为auto
+     * <p>
+     * auto：优先使用构建的时候提前生成的类（GenerateEnhanceUtils），没有的时候使用Javassist，失败的时候使用MethodHandle，再失败使用反射
+     * javassist，method-handle，reflect：强制使用对应的实现，主要用来做基准测试
+     */
+    public static final String ENHANCE_PROPERTY = "zfoo.protocol.enhance";
+    public static final String ENHANCE_AUTO = "auto";
+    public static final String ENHANCE_JAVASSIST = "javassist";
+    public static final String ENHANCE_METHOD_HANDLE = "method-handle";
+    public static final String ENHANCE_REFLECT = "reflect";
+
     // 临时变量，启动完成就会销毁，协议Id对应的Class类
     private static final Map<Short, Class<?>> protocolClassMap = new HashMap<>(MAX_PROTOCOL_NUM);
 
@@ -70,6 +87,9 @@ public class ProtocolAnalysis {
     // 临时变量，启动完成就会销毁，是一个基本类型序列化器
     private static Map<Class<?>, ISerializer> baseSerializerMap = new HashMap<>(128);
 
+    // 临时变量，启动完成就会销毁，可以直接作为协议字段的基础类型集合，如ArrayIntList，value为对应的泛型类型，如List<Integer>
+    private static Map<Class<?>, Type> primitiveCollectionTypeMap = new HashMap<>();
+
     static {
         // 初始化基础类型序列化器
         baseSerializerMap.put(boolean.class, BooleanSerializer.INSTANCE);
@@ -89,6 +109,28 @@ public class ProtocolAnalysis {
         baseSerializerMap.put(char.class, CharSerializer.INSTANCE);
         baseSerializerMap.put(Character.class, CharSerializer.INSTANCE);
         baseSerializerMap.put(String.class, StringSerializer.INSTANCE);
+
+        // 初始化基础类型集合对应的泛型类型
+        try {
+            primitiveCollectionTypeMap.put(ArrayIntList.class, PrimitiveCollectionTypes.class.getDeclaredField("intList").getGenericType());
+            primitiveCollectionTypeMap.put(ArrayLongList.class, PrimitiveCollectionTypes.class.getDeclaredField("longList").getGenericType());
+            primitiveCollectionTypeMap.put(HashIntSet.class, PrimitiveCollectionTypes.class.getDeclaredField("intSet").getGenericType());
+            primitiveCollectionTypeMap.put(HashLongSet.class, PrimitiveCollectionTypes.class.getDeclaredField("longSet").getGenericType());
+            primitiveCollectionTypeMap.put(IntLongHashMap.class, PrimitiveCollectionTypes.class.getDeclaredField("intLongMap").getGenericType());
+        } catch (NoSuchFieldException e) {
+            throw new UnknownException(e);
+        }
+    }
+
+    /**
+     * 基础类型集合的字段和对应的List，Set，Map的协议格式完全一样，其它语言也按照对应的泛型类型生成
+     */
+    private static class PrimitiveCollectionTypes {
+        private List<Integer> intList;
+        private List<Long> longList;
+        private Set<Integer> intSet;
+        private Set<Long> longSet;
+        private Map<Integer, Long> intLongMap;
     }
 
     /**
@@ -187,14 +229,23 @@ public class ProtocolAnalysis {
     }
 
     private static void enhanceProtocolRegistration(List<IProtocolRegistration> enhanceList) throws NoSuchMethodException, IllegalAccessException, InstantiationException, CannotCompileException, NotFoundException, InvocationTargetException, NoSuchFieldException {
+        var enhanceType = System.getProperty(ENHANCE_PROPERTY, ENHANCE_AUTO);
+
         // 字节码增强
         for (var registration : enhanceList) {
-            protocols[registration.protocolId()] = EnhanceUtils.createProtocolRegistration((ProtocolRegistration) registration);
+            protocols[registration.protocolId()] = enhanceProtocolRegistration((ProtocolRegistration) registration, enhanceType);
         }
 
-        // 字节码增强过后，初始化各个子协议成员变量
+        // 字节码增强过后，初始化各个子协议成员变量和协议字段，只有Javassist生成的类才有这些成员变量
         for (var registration : enhanceList) {
             var enhanceProtocolRegistration = protocols[registration.protocolId()];
+            if (enhanceProtocolRegistration instanceof ProtocolRegistration || enhanceProtocolRegistration instanceof MethodHandleProtocolRegistration) {
+                continue;
+            }
+            var fieldRegistrationsField = enhanceProtocolRegistration.getClass().getDeclaredField(EnhanceUtils.ESTIMATE_FIELD_REGISTRATIONS_FIELD);
+            ReflectionUtils.makeAccessible(fieldRegistrationsField);
+            ReflectionUtils.setField(fieldRegistrationsField, enhanceProtocolRegistration, ((ProtocolRegistration) registration).getFieldRegistrations());
+
             var subProtocolIds = getAllSubProtocolIds(registration.protocolId());
             for (var subProtocolId : subProtocolIds) {
                 var protocolRegistrationField = enhanceProtocolRegistration.getClass().getDeclaredField(EnhanceUtils.getProtocolRegistrationFieldNameByProtocolId(subProtocolId));
@@ -204,10 +255,54 @@ public class ProtocolAnalysis {
         }
     }
 
+    /**
+     * 自动选择的时候优先使用提前生成的类，其次使用Javassist，不能定义新类的时候使用MethodHandle，都失败的时候保留反射
+     */
+    private static IProtocolRegistration enhanceProtocolRegistration(ProtocolRegistration registration, String enhanceType) throws NoSuchMethodException, IllegalAccessException, InstantiationException, CannotCompileException, NotFoundException, InvocationTargetException {
+        switch (enhanceType) {
+            case ENHANCE_JAVASSIST:
+                return EnhanceUtils.createProtocolRegistration(registration);
+            case ENHANCE_METHOD_HANDLE:
+                try {
+                    return MethodHandleProtocolRegistration.valueOf(registration);
+                } catch (Throwable t) {
+                    throw new RunException(t, "协议[{}]创建MethodHandle序列化失败", registration.protocolId());
+                }
+            case ENHANCE_REFLECT:
+                return registration;
+            case ENHANCE_AUTO:
+            default:
+                break;
+        }
+
+        try {
+            var precompiledRegistration = EnhanceUtils.loadProtocolRegistration(registration);
+            if (precompiledRegistration != null) {
+                return precompiledRegistration;
+            }
+        } catch (Throwable t) {
+            logger.warn("协议[{}]加载提前生成的类失败，尝试使用Javassist", registration.protocolId(), t);
+        }
+
+        try {
+            return EnhanceUtils.createProtocolRegistration(registration);
+        } catch (Throwable t) {
+            logger.warn("协议[{}]使用Javassist字节码增强失败，尝试使用MethodHandle", registration.protocolId(), t);
+        }
+
+        try {
+            return MethodHandleProtocolRegistration.valueOf(registration);
+        } catch (Throwable t) {
+            logger.warn("协议[{}]使用MethodHandle失败，使用反射", registration.protocolId(), t);
+        }
+        return registration;
+    }
+
     private static void enhanceProtocolAfter(GenerateOperation generateOperation) {
         subProtocolIdMap = null;
         protocolReserved = null;
         baseSerializerMap = null;
+        primitiveCollectionTypeMap = null;
 
         EnhanceUtils.clear();
 
@@ -218,6 +313,7 @@ public class ProtocolAnalysis {
         GenerateProtocolNote.clear();
         GenerateProtocolPath.clear();
         GenerateProtocolFile.clear();
+        GenerateEnhanceUtils.clear();
         GenerateCppUtils.clear();
         GenerateGoUtils.clear();
         GenerateCsUtils.clear();
@@ -288,6 +384,25 @@ public class ProtocolAnalysis {
             protocol.setFields(ArrayUtils.listToArray(fields, Field.class));
             protocol.setFieldRegistrations(ArrayUtils.listToArray(registrationList, IFieldRegistration.class));
             protocol.setModule(module.getId());
+
+            var protocolAnno = clazz.getDeclaredAnnotation(Protocol.class);
+            if (protocolAnno != null && protocolAnno.tagged()) {
+                AssertionUtils.isTrue(!protocolAnno.pooled(), "[{}]协议的tagged和pooled不能同时开启", clazz.getCanonicalName());
+                protocol.setTaggedFields(TaggedFields.valueOf(clazz, protocol.getFields(), protocol.getFieldRegistrations()));
+            } else {
+                for (var field : fields) {
+                    AssertionUtils.isTrue(!field.isAnnotationPresent(Tag.class), "[{}]协议没有开启tagged，[field:{}]不能使用@Tag", clazz.getCanonicalName(), field.getName());
+                }
+            }
+
+            // 增量序列化，池化和跳过协议使用原始的协议字段，和协议使用哪种增强方式无关
+            reflectProtocols[protocolId] = protocol;
+            if (protocolAnno != null && protocolAnno.delta()) {
+                deltaProtocols[protocolId] = DeltaProtocolRegistration.valueOf(protocol);
+            }
+            if (protocolAnno != null && protocolAnno.pooled()) {
+                pooledProtocols[protocolId] = PooledProtocolRegistration.valueOf(protocol);
+            }
             return protocol;
         } catch (Exception e) {
             throw new RuntimeException(StringUtils.format("解析协议[class:{}]异常", clazz), e);
@@ -308,6 +423,17 @@ public class ProtocolAnalysis {
 
             IFieldRegistration registration = typeToRegistration(clazz, arrayClazz);
             return ArrayField.valueOf(registration, field.getType().getComponentType());
+        } else if (primitiveCollectionTypeMap.containsKey(fieldTypeClazz)) {
+            // 基础类型的集合，如ArrayIntList，HashIntSet，IntLongHashMap
+            var type = (ParameterizedType) primitiveCollectionTypeMap.get(fieldTypeClazz);
+            var types = type.getActualTypeArguments();
+            var rawType = type.getRawType();
+            if (List.class.equals(rawType)) {
+                return ListField.valueOf(typeToRegistration(clazz, types[0]), type, fieldTypeClazz);
+            } else if (Set.class.equals(rawType)) {
+                return SetField.valueOf(typeToRegistration(clazz, types[0]), type, fieldTypeClazz);
+            }
+            return MapField.valueOf(typeToRegistration(clazz, types[0]), typeToRegistration(clazz, types[1]), type, fieldTypeClazz);
         } else if (Set.class.isAssignableFrom(fieldTypeClazz)) {
             if (!fieldTypeClazz.equals(Set.class)) {
                 throw new RunException("[class:{}]类型声明不正确，必须是Set接口类型", clazz.getCanonicalName());
@@ -48,6 +48,11 @@ public class ProtocolRegistration implements IProtocolRegistration {
      */
     private IFieldRegistration[] fieldRegistrations;
 
+    /**
+     * @Protocol(tagged = true)的协议才有，其它的协议为null
+     */
+    private TaggedFields taggedFields;
+
     public ProtocolRegistration() {
 
     }
@@ -82,6 +87,14 @@ public class ProtocolRegistration implements IProtocolRegistration {
 
         ByteBufUtils.writeBoolean(buffer, true);
 
+        if (taggedFields != null) {
+            for (int i = 0, length = fields.length; i < length; i++) {
+                taggedFields.writeField(buffer, i, ReflectionUtils.getField(fields[i], packet));
+            }
+            ByteBufUtils.writeInt(buffer, 0);
+            return;
+        }
+
         for (int i = 0, length = fields.length; i < length; i++) {
             Field field = fields[i];
             IFieldRegistration packetFieldRegistration = fieldRegistrations[i];
@@ -91,6 +104,23 @@ public class ProtocolRegistration implements IProtocolRegistration {
         }
     }
 
+    @Override
+    public int estimateSize(IPacket packet) {
+        if (packet == null) {
+            return 1;
+        }
+
+        var size = taggedFields == null ? 1 : 1 + taggedFields.estimateSize();
+        for (int i = 0, length = fields.length; i < length; i++) {
+            Field field = fields[i];
+            IFieldRegistration packetFieldRegistration = fieldRegistrations[i];
+            ISerializer serializer = packetFieldRegistration.serializer();
+            Object fieldValue = ReflectionUtils.getField(field, packet);
+            size += serializer.estimateSize(fieldValue, packetFieldRegistration);
+        }
+        return size;
+    }
+
     @Override
     public Object read(ByteBuf buffer) {
         if (!ByteBufUtils.readBoolean(buffer)) {
@@ -98,6 +128,18 @@ public class ProtocolRegistration implements IProtocolRegistration {
         }
         Object object = ReflectionUtils.newInstance(constructor);
 
+        if (taggedFields != null) {
+            for (var key = ByteBufUtils.readInt(buffer); key != 0; key = ByteBufUtils.readInt(buffer)) {
+                var index = taggedFields.indexOf(key);
+                if (index < 0) {
+                    ByteBufUtils.skipTaggedField(buffer, key);
+                    continue;
+                }
+                ReflectionUtils.setField(fields[index], object, taggedFields.readField(buffer, index));
+            }
+            return object;
+        }
+
         for (int i = 0, length = fields.length; i < length; i++) {
             Field field = fields[i];
             // 协议向后兼容
@@ -112,6 +154,29 @@ public class ProtocolRegistration implements IProtocolRegistration {
         return object;
     }
 
+    /**
+     * 跳过buffer中的这个协议，和read的格式一致，但是不创建对象
+     */
+    public void skip(ByteBuf buffer) {
+        if (!ByteBufUtils.readBoolean(buffer)) {
+            return;
+        }
+        if (taggedFields != null) {
+            for (var key = ByteBufUtils.readInt(buffer); key != 0; key = ByteBufUtils.readInt(buffer)) {
+                ByteBufUtils.skipTaggedField(buffer, key);
+            }
+            return;
+        }
+        for (int i = 0, length = fields.length; i < length; i++) {
+            // 协议向后兼容
+            if (fields[i].isAnnotationPresent(Compatible.class) && !buffer.isReadable()) {
+                break;
+            }
+            IFieldRegistration packetFieldRegistration = fieldRegistrations[i];
+            packetFieldRegistration.serializer().skip(buffer, packetFieldRegistration);
+        }
+    }
+
 
     public short getId() {
         return id;
@@ -145,6 +210,14 @@ public class ProtocolRegistration implements IProtocolRegistration {
         this.fieldRegistrations = fieldRegistrations;
     }
 
+    public TaggedFields getTaggedFields() {
+        return taggedFields;
+    }
+
+    public void setTaggedFields(TaggedFields taggedFields) {
+        this.taggedFields = taggedFields;
+    }
+
     public Constructor<?> getConstructor() {
         return constructor;
     }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.exception.RunException;
+import com.zfoo.protocol.registration.anno.Tag;
+import com.zfoo.protocol.registration.field.BaseField;
+import com.zfoo.protocol.registration.field.IFieldRegistration;
+import com.zfoo.protocol.serializer.reflect.*;
+import io.netty.buffer.ByteBuf;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * @Protocol(tagged = true)的协议的属性标签，下标和ProtocolRegistration中的fields一致
+ * <p>
+ * 集合，数组和子协议写入长度前缀，新版本的子协议多出来的内容也可以直接跳过
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class TaggedFields {
+
+    /**
+     * tag左移3位之后还需要是正数
+     */
+    public static final int MAX_TAG = (Integer.MAX_VALUE >> ByteBufUtils.WIRE_TYPE_BITS);
+
+    private IFieldRegistration[] fieldRegistrations;
+
+    /**
+     * 每个属性的key = tag << 3 | wireType
+     */
+    private int[] keys;
+
+    private boolean[] lengthDelimiteds;
+
+    /**
+     * 按照key排序，反序列化的时候二分查找属性的下标
+     */
+    private int[] sortedKeys;
+    private int[] sortedIndexes;
+
+    /**
+     * key，长度前缀和结束标志最多需要的字节数
+     */
+    private int estimateSize;
+
+    public static TaggedFields valueOf(Class<?> clazz, Field[] fields, IFieldRegistration[] fieldRegistrations) {
+        var length = fields.length;
+        var keys = new int[length];
+        var lengthDelimiteds = new boolean[length];
+        var estimateSize = 1;
+        for (var i = 0; i < length; i++) {
+            var field = fields[i];
+            var tag = field.getAnnotation(Tag.class);
+            if (tag == null) {
+                throw new RunException("[{}]协议开启了tagged，[field:{}]必须使用@Tag标注", clazz.getCanonicalName(), field.getName());
+            }
+            if (tag.value() <= 0 || tag.value() > MAX_TAG) {
+                throw new RunException("[{}]协议中的[field:{}]的[tag:{}]必须在[1, {}]之间", clazz.getCanonicalName(), field.getName(), tag.value(), MAX_TAG);
+            }
+            for (var j = 0; j < i; j++) {
+                if (keys[j] >> ByteBufUtils.WIRE_TYPE_BITS == tag.value()) {
+                    throw new RunException("[{}]协议中的[field:{}]和[field:{}]不能有相同的[tag:{}]", clazz.getCanonicalName(), fields[j].getName(), field.getName(), tag.value());
+                }
+            }
+            var wireType = wireType(fieldRegistrations[i]);
+            keys[i] = tag.value() << ByteBufUtils.WIRE_TYPE_BITS | wireType;
+            lengthDelimiteds[i] = wireType == ByteBufUtils.WIRE_TYPE_LENGTH_DELIMITED;
+            estimateSize += lengthDelimiteds[i] ? 5 + ByteBufUtils.LENGTH_PLACEHOLDER_BYTES : 5;
+        }
+
+        var sortedIndexes = new Integer[length];
+        for (var i = 0; i < length; i++) {
+            sortedIndexes[i] = i;
+        }
+        Arrays.sort(sortedIndexes, (a, b) -> Integer.compare(keys[a], keys[b]));
+
+        var taggedFields = new TaggedFields();
+        taggedFields.fieldRegistrations = fieldRegistrations;
+        taggedFields.keys = keys;
+        taggedFields.lengthDelimiteds = lengthDelimiteds;
+        taggedFields.sortedKeys = Arrays.stream(sortedIndexes).mapToInt(it -> keys[it]).toArray();
+        taggedFields.sortedIndexes = Arrays.stream(sortedIndexes).mapToInt(it -> it).toArray();
+        taggedFields.estimateSize = estimateSize;
+        return taggedFields;
+    }
+
+    public static int wireType(IFieldRegistration fieldRegistration) {
+        if (!(fieldRegistration instanceof BaseField)) {
+            return ByteBufUtils.WIRE_TYPE_LENGTH_DELIMITED;
+        }
+        var serializer = fieldRegistration.serializer();
+        if (serializer == IntSerializer.INSTANCE || serializer == LongSerializer.INSTANCE) {
+            return ByteBufUtils.WIRE_TYPE_VARINT;
+        } else if (serializer == BooleanSerializer.INSTANCE || serializer == ByteSerializer.INSTANCE) {
+            return ByteBufUtils.WIRE_TYPE_FIXED8;
+        } else if (serializer == ShortSerializer.INSTANCE) {
+            return ByteBufUtils.WIRE_TYPE_FIXED16;
+        } else if (serializer == FloatSerializer.INSTANCE) {
+            return ByteBufUtils.WIRE_TYPE_FIXED32;
+        } else if (serializer == DoubleSerializer.INSTANCE) {
+            return ByteBufUtils.WIRE_TYPE_FIXED64;
+        } else if (serializer == StringSerializer.INSTANCE || serializer == CharSerializer.INSTANCE) {
+            return ByteBufUtils.WIRE_TYPE_STRING;
+        }
+        throw new RunException("未知的基础类型序列化器[{}]", serializer.getClass().getSimpleName());
+    }
+
+    public void writeField(ByteBuf buffer, int index, Object value) {
+        var fieldRegistration = fieldRegistrations[index];
+        ByteBufUtils.writeInt(buffer, keys[index]);
+        if (!lengthDelimiteds[index]) {
+            fieldRegistration.serializer().writeObject(buffer, value, fieldRegistration);
+            return;
+        }
+        var lengthIndex = ByteBufUtils.writeLengthPlaceholder(buffer);
+        fieldRegistration.serializer().writeObject(buffer, value, fieldRegistration);
+        ByteBufUtils.writeLengthAt(buffer, lengthIndex);
+    }
+
+    public Object readField(ByteBuf buffer, int index) {
+        var fieldRegistration = fieldRegistrations[index];
+        if (!lengthDelimiteds[index]) {
+            return fieldRegistration.serializer().readObject(buffer, fieldRegistration);
+        }
+        var endIndex = ByteBufUtils.readInt(buffer) + buffer.readerIndex();
+        var value = fieldRegistration.serializer().readObject(buffer, fieldRegistration);
+        buffer.readerIndex(endIndex);
+        return value;
+    }
+
+    /**
+     * 通过key查找属性的下标，不认识的key或者属性的类型改变了返回-1
+     */
+    public int indexOf(int key) {
+        var i = Arrays.binarySearch(sortedKeys, key);
+        return i < 0 ? -1 : sortedIndexes[i];
+    }
+
+    public int key(int index) {
+        return keys[index];
+    }
+
+    public boolean isLengthDelimited(int index) {
+        return lengthDelimiteds[index];
+    }
+
+    public int estimateSize() {
+        return estimateSize;
+    }
+
+}
@@ -15,4 +15,24 @@ public @interface Protocol {
 
     String note() default "";
 
+    /**
+     * 是否支持增量序列化，开启之后可以通过ProtocolManager.writeDelta只发送和上一次相比变化了的字段，适合高频同步的位置，属性等协议
+     */
+    boolean delta() default false;
+
+    /**
+     * 是否池化反序列化，开启之后ProtocolManager.read会复用回收过的对象和集合，适合高频接收的协议
+     * <p>
+     * 接收者在PacketBus.submit返回之后就会被回收，所以不能保存这个packet，也不能在其它线程中异步的使用它
+     */
+    boolean pooled() default false;
+
+    /**
+     * 是否使用带标签的编码，开启之后每个属性都需要@Tag标注，序列化的时候每个属性前面写入tag和wireType，
+     * 不认识的tag会被跳过，所以可以任意的增加，删除和调整属性的顺序，滚动升级的时候新旧版本可以互相通信
+     * <p>
+     * 只有java的序列化支持，生成其它语言的协议文件的时候会直接失败，不能和pooled同时开启
+     */
+    boolean tagged() default false;
+
 }
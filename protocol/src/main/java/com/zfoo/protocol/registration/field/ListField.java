@@ -27,6 +27,11 @@ public class ListField implements IFieldRegistration {
     private IFieldRegistration listElementRegistration;
     private Type type;
 
+    /**
+     * 字段声明为ArrayIntList这样的基础类型集合时为对应的集合类，直接读写基础类型不装箱；普通的集合接口为null
+     */
+    private Class<?> primitiveCollectionClass;
+
     public static ListField valueOf(IFieldRegistration listElementRegistration, Type type) {
         ListField listField = new ListField();
         listField.listElementRegistration = listElementRegistration;
@@ -34,6 +39,12 @@ public class ListField implements IFieldRegistration {
         return listField;
     }
 
+    public static ListField valueOf(IFieldRegistration listElementRegistration, Type type, Class<?> primitiveCollectionClass) {
+        var listField = valueOf(listElementRegistration, type);
+        listField.primitiveCollectionClass = primitiveCollectionClass;
+        return listField;
+    }
+
     @Override
     public ISerializer serializer() {
         return ListSerializer.INSTANCE;
@@ -47,4 +58,7 @@ public class ListField implements IFieldRegistration {
         return this.type;
     }
 
+    public Class<?> getPrimitiveCollectionClass() {
+        return primitiveCollectionClass;
+    }
 }
@@ -29,6 +29,11 @@ public class MapField implements IFieldRegistration {
 
     private Type type;
 
+    /**
+     * 字段声明为IntLongHashMap这样的基础类型集合时为对应的集合类，直接读写基础类型不装箱；普通的集合接口为null
+     */
+    private Class<?> primitiveCollectionClass;
+
     public static MapField valueOf(IFieldRegistration mapKeyRegistration, IFieldRegistration mapValueRegistration, Type type) {
         MapField mapField = new MapField();
         mapField.mapKeyRegistration = mapKeyRegistration;
@@ -37,6 +42,12 @@ public class MapField implements IFieldRegistration {
         return mapField;
     }
 
+    public static MapField valueOf(IFieldRegistration mapKeyRegistration, IFieldRegistration mapValueRegistration, Type type, Class<?> primitiveCollectionClass) {
+        var mapField = valueOf(mapKeyRegistration, mapValueRegistration, type);
+        mapField.primitiveCollectionClass = primitiveCollectionClass;
+        return mapField;
+    }
+
 
     @Override
     public ISerializer serializer() {
@@ -54,4 +65,8 @@ public class MapField implements IFieldRegistration {
     public Type getType() {
         return type;
     }
+
+    public Class<?> getPrimitiveCollectionClass() {
+        return primitiveCollectionClass;
+    }
 }
@@ -27,6 +27,11 @@ public class SetField implements IFieldRegistration {
     private IFieldRegistration setElementRegistration;
     private Type type;
 
+    /**
+     * 字段声明为HashIntSet这样的基础类型集合时为对应的集合类，直接读写基础类型不装箱；普通的集合接口为null
+     */
+    private Class<?> primitiveCollectionClass;
+
     public static SetField valueOf(IFieldRegistration listElementRegistration, Type type) {
         SetField setField = new SetField();
         setField.setElementRegistration = listElementRegistration;
@@ -34,6 +39,12 @@ public class SetField implements IFieldRegistration {
         return setField;
     }
 
+    public static SetField valueOf(IFieldRegistration setElementRegistration, Type type, Class<?> primitiveCollectionClass) {
+        var setField = valueOf(setElementRegistration, type);
+        setField.primitiveCollectionClass = primitiveCollectionClass;
+        return setField;
+    }
+
     @Override
     public ISerializer serializer() {
         return SetSerializer.INSTANCE;
@@ -47,4 +58,7 @@ public class SetField implements IFieldRegistration {
         return type;
     }
 
+    public Class<?> getPrimitiveCollectionClass() {
+        return primitiveCollectionClass;
+    }
 }
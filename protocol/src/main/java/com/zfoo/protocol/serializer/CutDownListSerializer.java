@@ -43,6 +43,13 @@ public class CutDownListSerializer implements ICutDownSerializer {
         var listField = (ListField) fieldRegistration;
         var flag = true;
 
+        // 基础类型的集合直接调用不装箱的方法，如ByteBufUtils.writeArrayIntList
+        var primitiveCollectionClass = listField.getPrimitiveCollectionClass();
+        if (language == CodeLanguage.Enhance && primitiveCollectionClass != null) {
+            builder.append(StringUtils.format("{}.write{}($1, ({}){});", EnhanceUtils.byteBufUtils, primitiveCollectionClass.getSimpleName(), primitiveCollectionClass.getCanonicalName(), objectStr));
+            return true;
+        }
+
         var listName = getListClassName(listField);
         switch (listName) {
             case "Boolean":
@@ -297,6 +304,12 @@ public class CutDownListSerializer implements ICutDownSerializer {
         var list = "list" + GenerateProtocolFile.index.getAndIncrement();
         var flag = true;
 
+        var primitiveCollectionClass = listField.getPrimitiveCollectionClass();
+        if (language == CodeLanguage.Enhance && primitiveCollectionClass != null) {
+            builder.append(StringUtils.format("{} {} = {}.read{}($1);", primitiveCollectionClass.getCanonicalName(), list, EnhanceUtils.byteBufUtils, primitiveCollectionClass.getSimpleName()));
+            return list;
+        }
+
         var listName = getListClassName(listField);
         switch (listName) {
             case "Boolean":
@@ -49,6 +49,13 @@ public class CutDownMapSerializer implements ICutDownSerializer {
         var keySerializer = keyRegistration.serializer();
         var valueSerializer = valueRegistration.serializer();
 
+        // 基础类型的集合直接调用不装箱的方法，如ByteBufUtils.writeArrayIntList
+        var primitiveCollectionClass = mapField.getPrimitiveCollectionClass();
+        if (language == CodeLanguage.Enhance && primitiveCollectionClass != null) {
+            builder.append(StringUtils.format("{}.write{}($1, ({}){});", EnhanceUtils.byteBufUtils, primitiveCollectionClass.getSimpleName(), primitiveCollectionClass.getCanonicalName(), objectStr));
+            return true;
+        }
+
         // 直接在字节码里调用方法是为了减小生成字节码的体积，下面的代码去掉也不会有任何影响
         if (keyRegistration instanceof BaseField) {
             if (keySerializer == IntSerializer.INSTANCE) {
@@ -348,6 +355,12 @@ public class CutDownMapSerializer implements ICutDownSerializer {
 
         var map = "map" + GenerateProtocolFile.index.getAndIncrement();
 
+        var primitiveCollectionClass = mapField.getPrimitiveCollectionClass();
+        if (language == CodeLanguage.Enhance && primitiveCollectionClass != null) {
+            builder.append(StringUtils.format("{} {} = {}.read{}($1);", primitiveCollectionClass.getCanonicalName(), map, EnhanceUtils.byteBufUtils, primitiveCollectionClass.getSimpleName()));
+            return map;
+        }
+
         if (keyRegistration instanceof BaseField) {
             if (keySerializer == IntSerializer.INSTANCE) {
                 if (valueSerializer == IntSerializer.INSTANCE) {
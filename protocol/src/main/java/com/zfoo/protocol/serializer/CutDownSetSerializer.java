@@ -44,6 +44,13 @@ public class CutDownSetSerializer implements ICutDownSerializer {
         var flag = true;
         var setName = getSetClassName(setField);
 
+        // 基础类型的集合直接调用不装箱的方法，如ByteBufUtils.writeArrayIntList
+        var primitiveCollectionClass = setField.getPrimitiveCollectionClass();
+        if (language == CodeLanguage.Enhance && primitiveCollectionClass != null) {
+            builder.append(StringUtils.format("{}.write{}($1, ({}){});", EnhanceUtils.byteBufUtils, primitiveCollectionClass.getSimpleName(), primitiveCollectionClass.getCanonicalName(), objectStr));
+            return true;
+        }
+
         // 直接在字节码里调用方法是为了减小生成字节码的体积，下面的代码去掉也不会有任何影响
         switch (setName) {
             case "Boolean":
@@ -296,6 +303,12 @@ public class CutDownSetSerializer implements ICutDownSerializer {
         var flag = true;
         var setName = getSetClassName(setField);
 
+        var primitiveCollectionClass = setField.getPrimitiveCollectionClass();
+        if (language == CodeLanguage.Enhance && primitiveCollectionClass != null) {
+            builder.append(StringUtils.format("{} {} = {}.read{}($1);", primitiveCollectionClass.getCanonicalName(), set, EnhanceUtils.byteBufUtils, primitiveCollectionClass.getSimpleName()));
+            return set;
+        }
+
         switch (setName) {
             case "Boolean":
                 switch (language) {
@@ -34,7 +34,7 @@ public class CppMapSerializer implements ICppSerializer {
 
     @Override
     public Pair<String, String> field(Field field, IFieldRegistration fieldRegistration) {
-        var type = GenerateCppUtils.toCppClassName(field.getGenericType().toString());
+        var type = GenerateCppUtils.toCppClassName(((MapField) fieldRegistration).getType().toString());
         return new Pair<>(type, field.getName());
     }
 
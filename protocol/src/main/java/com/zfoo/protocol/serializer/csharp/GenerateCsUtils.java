@@ -20,6 +20,10 @@ import com.zfoo.protocol.generate.GenerateProtocolPath;
 import com.zfoo.protocol.model.Pair;
 import com.zfoo.protocol.registration.ProtocolRegistration;
 import com.zfoo.protocol.registration.anno.Compatible;
+import com.zfoo.protocol.registration.field.IFieldRegistration;
+import com.zfoo.protocol.registration.field.ListField;
+import com.zfoo.protocol.registration.field.MapField;
+import com.zfoo.protocol.registration.field.SetField;
 import com.zfoo.protocol.serializer.CodeLanguage;
 import com.zfoo.protocol.serializer.reflect.*;
 import com.zfoo.protocol.util.ClassUtils;
@@ -29,6 +33,7 @@ import com.zfoo.protocol.util.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -130,11 +135,13 @@ public abstract class GenerateCsUtils {
     private static String fieldDefinition(ProtocolRegistration registration) {
         var protocolId = registration.protocolId();
         var fields = registration.getFields();
+        var fieldRegistrations = registration.getFieldRegistrations();
         var csBuilder = new StringBuilder();
         // 协议的属性生成
-        for (var field : fields) {
+        for (var i = 0; i < fields.length; i++) {
+            var field = fields[i];
             var fieldName = field.getName();
-            var propertyType = toCsClassName(field.getGenericType().getTypeName());
+            var propertyType = toCsClassName(fieldTypeName(field, fieldRegistrations[i]));
             var propertyFullName = StringUtils.format("public {} {};", propertyType, fieldName);
             // 生成注释
             var fieldNote = GenerateProtocolNote.fieldNote(protocolId, fieldName, CodeLanguage.CSharp);
@@ -148,9 +155,11 @@ public abstract class GenerateCsUtils {
 
     private static Pair<String, String> valueOfMethod(ProtocolRegistration registration) {
         var fields = registration.getFields();
+        var fieldRegistrations = registration.getFieldRegistrations();
         var filedList = new ArrayList<Pair<String, String>>();
-        for (var field : fields) {
-            var propertyType = toCsClassName(field.getGenericType().getTypeName());
+        for (var i = 0; i < fields.length; i++) {
+            var field = fields[i];
+            var propertyType = toCsClassName(fieldTypeName(field, fieldRegistrations[i]));
             var propertyName = field.getName();
             filedList.add(new Pair<>(propertyType, propertyName));
         }
@@ -196,6 +205,20 @@ public abstract class GenerateCsUtils {
         return csBuilder.toString();
     }
 
+    /**
+     * 基础类型集合的字段，如ArrayIntList，按照对应的泛型类型List<Integer>生成
+     */
+    private static String fieldTypeName(Field field, IFieldRegistration fieldRegistration) {
+        if (fieldRegistration instanceof ListField) {
+            return ((ListField) fieldRegistration).getType().getTypeName();
+        } else if (fieldRegistration instanceof SetField) {
+            return ((SetField) fieldRegistration).getType().getTypeName();
+        } else if (fieldRegistration instanceof MapField) {
+            return ((MapField) fieldRegistration).getType().getTypeName();
+        }
+        return field.getGenericType().getTypeName();
+    }
+
     public static String toCsClassName(String typeName) {
         typeName = typeName.replaceAll("java.util.|java.lang.", StringUtils.EMPTY);
         typeName = typeName.replaceAll("com\\.[a-zA-Z0-9_.]*\\.", StringUtils.EMPTY);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.serializer.enhance;
+
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.registration.EnhanceUtils;
+import com.zfoo.protocol.registration.ProtocolRegistration;
+import com.zfoo.protocol.util.FileUtils;
+import com.zfoo.protocol.util.StringUtils;
+
+import java.io.File;
+
+/**
+ * 构建的时候提前生成Javassist增强类的Java源文件，把生成的源文件加入编译过后，启动的时候直接加载，不需要再通过Javassist生成
+ * <p>
+ * 使用方式：GenerateOperation加上CodeLanguage.Enhance，在构建的时候执行一次initProtocol（如exec-maven-plugin），
+ * 再把EnhanceProtocol目录加入源码目录（如build-helper-maven-plugin）编译打包；
+ * 协议类修改过后生成的类会因为签名不一致而被忽略，重新使用Javassist增强
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public abstract class GenerateEnhanceUtils {
+
+    private static final String DEFAULT_PROTOCOL_OUTPUT_ROOT_PATH = "EnhanceProtocol/";
+
+    private static String protocolOutputRootPath = DEFAULT_PROTOCOL_OUTPUT_ROOT_PATH;
+
+    public static void init(GenerateOperation generateOperation) {
+        protocolOutputRootPath = FileUtils.joinPath(generateOperation.getProtocolPath(), DEFAULT_PROTOCOL_OUTPUT_ROOT_PATH);
+
+        FileUtils.deleteFile(new File(protocolOutputRootPath));
+        FileUtils.createDirectory(protocolOutputRootPath);
+    }
+
+    /**
+     * 恢复成默认的输出目录，同一个进程中可以再次生成
+     */
+    public static void clear() {
+        protocolOutputRootPath = DEFAULT_PROTOCOL_OUTPUT_ROOT_PATH;
+    }
+
+    public static void createEnhanceProtocolFile(ProtocolRegistration registration) {
+        var packagePath = ProtocolRegistration.class.getPackageName().replace(StringUtils.PERIOD, File.separator);
+        var protocolOutputPath = StringUtils.format("{}/{}/{}.java", protocolOutputRootPath, packagePath, EnhanceUtils.getEnhanceClassSimpleName(registration.protocolId()));
+        FileUtils.writeStringToFile(new File(protocolOutputPath), EnhanceUtils.createProtocolRegistrationSource(registration), true);
+    }
+
+}
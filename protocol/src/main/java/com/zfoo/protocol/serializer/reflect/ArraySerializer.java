@@ -69,4 +69,34 @@ public class ArraySerializer implements ISerializer {
         return array;
     }
 
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        if (object == null) {
+            return 1;
+        }
+
+        ArrayField arrayField = (ArrayField) fieldRegistration;
+        int length = Array.getLength(object);
+        var elementRegistration = arrayField.getArrayElementRegistration();
+        // 基础类型的数组每个元素的最大长度都是一样的
+        if (object.getClass().getComponentType().isPrimitive()) {
+            return 5 + length * elementRegistration.serializer().estimateSize(null, elementRegistration);
+        }
+
+        var size = 5;
+        for (int i = 0; i < length; i++) {
+            size += elementRegistration.serializer().estimateSize(Array.get(object, i), elementRegistration);
+        }
+        return size;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        var length = ByteBufUtils.readInt(buffer);
+        var arrayField = (ArrayField) fieldRegistration;
+        for (var i = 0; i < length; i++) {
+            arrayField.getArrayElementRegistration().serializer().skip(buffer, arrayField.getArrayElementRegistration());
+        }
+    }
+
 }
@@ -34,4 +34,15 @@ public class BooleanSerializer implements ISerializer {
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
         return ByteBufUtils.readBooleanBox(buffer);
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        return 1;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        buffer.skipBytes(1);
+    }
+
 }
@@ -35,4 +35,14 @@ public class ByteSerializer implements ISerializer {
         return ByteBufUtils.readByteBox(buffer);
     }
 
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        return 1;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        buffer.skipBytes(1);
+    }
+
 }
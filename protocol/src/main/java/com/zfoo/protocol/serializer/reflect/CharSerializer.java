@@ -34,4 +34,15 @@ public class CharSerializer implements ISerializer {
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
         return ByteBufUtils.readCharBox(buffer);
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        return 4;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        ByteBufUtils.skipString(buffer);
+    }
+
 }
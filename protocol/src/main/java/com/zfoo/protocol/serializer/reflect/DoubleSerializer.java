@@ -34,4 +34,15 @@ public class DoubleSerializer implements ISerializer {
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
         return ByteBufUtils.readDoubleBox(buffer);
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        return 8;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        buffer.skipBytes(8);
+    }
+
 }
@@ -34,4 +34,15 @@ public class FloatSerializer implements ISerializer {
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
         return ByteBufUtils.readFloatBox(buffer);
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        return 4;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        buffer.skipBytes(4);
+    }
+
 }
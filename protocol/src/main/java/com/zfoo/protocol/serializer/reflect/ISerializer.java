@@ -33,4 +33,14 @@ public interface ISerializer {
 
     Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration);
 
+    /**
+     * 写入这个值最多需要的字节数，可以大于实际写入的字节数，但是不能小于；基础类型返回的值和object无关，object可以传null
+     */
+    int estimateSize(Object object, IFieldRegistration fieldRegistration);
+
+    /**
+     * 跳过buffer中的这个值，只移动readerIndex，不创建对象
+     */
+    void skip(ByteBuf buffer, IFieldRegistration fieldRegistration);
+
 }
@@ -34,4 +34,15 @@ public class IntSerializer implements ISerializer {
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
         return ByteBufUtils.readIntBox(buffer);
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        return 5;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        ByteBufUtils.readInt(buffer);
+    }
+
 }
@@ -14,6 +14,8 @@
 package com.zfoo.protocol.serializer.reflect;
 
 import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.collection.ArrayIntList;
+import com.zfoo.protocol.collection.ArrayLongList;
 import com.zfoo.protocol.collection.CollectionUtils;
 import com.zfoo.protocol.registration.field.IFieldRegistration;
 import com.zfoo.protocol.registration.field.ListField;
@@ -31,6 +33,15 @@ public class ListSerializer implements ISerializer {
 
     @Override
     public void writeObject(ByteBuf buffer, Object object, IFieldRegistration fieldRegistration) {
+        var primitiveCollectionClass = ((ListField) fieldRegistration).getPrimitiveCollectionClass();
+        if (primitiveCollectionClass == ArrayIntList.class) {
+            ByteBufUtils.writeArrayIntList(buffer, (ArrayIntList) object);
+            return;
+        } else if (primitiveCollectionClass == ArrayLongList.class) {
+            ByteBufUtils.writeArrayLongList(buffer, (ArrayLongList) object);
+            return;
+        }
+
         if (object == null) {
             ByteBufUtils.writeInt(buffer, 0);
             return;
@@ -53,8 +64,14 @@ public class ListSerializer implements ISerializer {
 
     @Override
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
-        var size = ByteBufUtils.readInt(buffer);
         var listField = (ListField) fieldRegistration;
+        if (listField.getPrimitiveCollectionClass() == ArrayIntList.class) {
+            return ByteBufUtils.readArrayIntList(buffer);
+        } else if (listField.getPrimitiveCollectionClass() == ArrayLongList.class) {
+            return ByteBufUtils.readArrayLongList(buffer);
+        }
+
+        var size = ByteBufUtils.readInt(buffer);
         List<Object> list = CollectionUtils.newList(size);
         for (int i = 0; i < size; i++) {
             Object value = listField.getListElementRegistration().serializer().readObject(buffer, listField.getListElementRegistration());
@@ -63,4 +80,34 @@ public class ListSerializer implements ISerializer {
 
         return list;
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        if (object == null) {
+            return 1;
+        }
+
+        List<?> list = (List<?>) object;
+        var listField = (ListField) fieldRegistration;
+        var elementRegistration = listField.getListElementRegistration();
+        // 基础类型集合的元素大小是固定的，不需要遍历装箱
+        if (listField.getPrimitiveCollectionClass() != null) {
+            return 5 + list.size() * elementRegistration.serializer().estimateSize(null, elementRegistration);
+        }
+        var size = 5;
+        for (Object element : list) {
+            size += elementRegistration.serializer().estimateSize(element, elementRegistration);
+        }
+        return size;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        var size = ByteBufUtils.readInt(buffer);
+        var listField = (ListField) fieldRegistration;
+        for (var i = 0; i < size; i++) {
+            listField.getListElementRegistration().serializer().skip(buffer, listField.getListElementRegistration());
+        }
+    }
+
 }
@@ -15,6 +15,7 @@ package com.zfoo.protocol.serializer.reflect;
 
 import com.zfoo.protocol.buffer.ByteBufUtils;
 import com.zfoo.protocol.collection.CollectionUtils;
+import com.zfoo.protocol.collection.IntLongHashMap;
 import com.zfoo.protocol.registration.field.IFieldRegistration;
 import com.zfoo.protocol.registration.field.MapField;
 import io.netty.buffer.ByteBuf;
@@ -31,6 +32,11 @@ public class MapSerializer implements ISerializer {
 
     @Override
     public void writeObject(ByteBuf buffer, Object object, IFieldRegistration fieldRegistration) {
+        if (((MapField) fieldRegistration).getPrimitiveCollectionClass() == IntLongHashMap.class) {
+            ByteBufUtils.writeIntLongHashMap(buffer, (IntLongHashMap) object);
+            return;
+        }
+
         if (object == null) {
             ByteBufUtils.writeInt(buffer, 0);
             return;
@@ -57,8 +63,12 @@ public class MapSerializer implements ISerializer {
 
     @Override
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
-        var size = ByteBufUtils.readInt(buffer);
         var mapField = (MapField) fieldRegistration;
+        if (mapField.getPrimitiveCollectionClass() == IntLongHashMap.class) {
+            return ByteBufUtils.readIntLongHashMap(buffer);
+        }
+
+        var size = ByteBufUtils.readInt(buffer);
         Map<Object, Object> map = CollectionUtils.newMap(size);
 
         for (int i = 0; i < size; i++) {
@@ -70,4 +80,37 @@ public class MapSerializer implements ISerializer {
         }
         return map;
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        if (object == null) {
+            return 1;
+        }
+
+        Map<?, ?> map = (Map<?, ?>) object;
+        MapField mapField = (MapField) fieldRegistration;
+        var keyRegistration = mapField.getMapKeyRegistration();
+        var valueRegistration = mapField.getMapValueRegistration();
+        // 基础类型集合的元素大小是固定的，不需要遍历装箱
+        if (mapField.getPrimitiveCollectionClass() != null) {
+            return 5 + map.size() * (keyRegistration.serializer().estimateSize(null, keyRegistration) + valueRegistration.serializer().estimateSize(null, valueRegistration));
+        }
+        var size = 5;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            size += keyRegistration.serializer().estimateSize(entry.getKey(), keyRegistration);
+            size += valueRegistration.serializer().estimateSize(entry.getValue(), valueRegistration);
+        }
+        return size;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        var size = ByteBufUtils.readInt(buffer);
+        var mapField = (MapField) fieldRegistration;
+        for (var i = 0; i < size; i++) {
+            mapField.getMapKeyRegistration().serializer().skip(buffer, mapField.getMapKeyRegistration());
+            mapField.getMapValueRegistration().serializer().skip(buffer, mapField.getMapValueRegistration());
+        }
+    }
+
 }
@@ -47,4 +47,18 @@ public class ObjectProtocolSerializer implements ISerializer {
         IProtocolRegistration protocol = ProtocolManager.getProtocol(objectProtocolField.getProtocolId());
         return protocol.read(buffer);
     }
+
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        ObjectProtocolField objectProtocolField = (ObjectProtocolField) fieldRegistration;
+        IProtocolRegistration protocol = ProtocolManager.getProtocol(objectProtocolField.getProtocolId());
+        return protocol.estimateSize((IPacket) object);
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        ObjectProtocolField objectProtocolField = (ObjectProtocolField) fieldRegistration;
+        ProtocolManager.reflectProtocols[objectProtocolField.getProtocolId()].skip(buffer);
+    }
+
 }
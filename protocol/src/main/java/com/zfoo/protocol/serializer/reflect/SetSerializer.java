@@ -15,6 +15,8 @@ package com.zfoo.protocol.serializer.reflect;
 
 import com.zfoo.protocol.buffer.ByteBufUtils;
 import com.zfoo.protocol.collection.CollectionUtils;
+import com.zfoo.protocol.collection.HashIntSet;
+import com.zfoo.protocol.collection.HashLongSet;
 import com.zfoo.protocol.registration.field.IFieldRegistration;
 import com.zfoo.protocol.registration.field.SetField;
 import io.netty.buffer.ByteBuf;
@@ -31,6 +33,15 @@ public class SetSerializer implements ISerializer {
 
     @Override
     public void writeObject(ByteBuf buffer, Object object, IFieldRegistration fieldRegistration) {
+        var primitiveCollectionClass = ((SetField) fieldRegistration).getPrimitiveCollectionClass();
+        if (primitiveCollectionClass == HashIntSet.class) {
+            ByteBufUtils.writeHashIntSet(buffer, (HashIntSet) object);
+            return;
+        } else if (primitiveCollectionClass == HashLongSet.class) {
+            ByteBufUtils.writeHashLongSet(buffer, (HashLongSet) object);
+            return;
+        }
+
         if (object == null) {
             ByteBufUtils.writeInt(buffer, 0);
             return;
@@ -53,8 +64,14 @@ public class SetSerializer implements ISerializer {
 
     @Override
     public Object readObject(ByteBuf buffer, IFieldRegistration fieldRegistration) {
-        var size = ByteBufUtils.readInt(buffer);
         var setField = (SetField) fieldRegistration;
+        if (setField.getPrimitiveCollectionClass() == HashIntSet.class) {
+            return ByteBufUtils.readHashIntSet(buffer);
+        } else if (setField.getPrimitiveCollectionClass() == HashLongSet.class) {
+            return ByteBufUtils.readHashLongSet(buffer);
+        }
+
+        var size = ByteBufUtils.readInt(buffer);
         Set<Object> set = CollectionUtils.newSet(size);
 
         for (int i = 0; i < size; i++) {
@@ -65,4 +82,33 @@ public class SetSerializer implements ISerializer {
         return set;
     }
 
+    @Override
+    public int estimateSize(Object object, IFieldRegistration fieldRegistration) {
+        if (object == null) {
+            return 1;
+        }
+
+        Set<?> set = (Set<?>) object;
+        var setField = (SetField) fieldRegistration;
+        var elementRegistration = setField.getSetElementRegistration();
+        // 基础类型集合的元素大小是固定的，不需要遍历装箱
+        if (setField.getPrimitiveCollectionClass() != null) {
+            return 5 + set.size() * elementRegistration.serializer().estimateSize(null, elementRegistration);
+        }
+        var size = 5;
+        for (Object element : set) {
+            size += elementRegistration.serializer().estimateSize(element, elementRegistration);
+        }
+        return size;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer, IFieldRegistration fieldRegistration) {
+        var size = ByteBufUtils.readInt(buffer);
+        var setField = (SetField) fieldRegistration;
+        for (var i = 0; i < size; i++) {
+            setField.getSetElementRegistration().serializer().skip(buffer, setField.getSetElementRegistration());
+        }
+    }
+
 }
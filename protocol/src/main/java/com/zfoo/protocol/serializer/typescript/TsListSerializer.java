@@ -33,7 +33,7 @@ public class TsListSerializer implements ITsSerializer {
 
     @Override
     public Triple<String, String, String> field(Field field, IFieldRegistration fieldRegistration) {
-        var type = StringUtils.format(": {} | null", GenerateTsUtils.toTsClassName(field.getGenericType().toString()));
+        var type = StringUtils.format(": {} | null", GenerateTsUtils.toTsClassName(((ListField) fieldRegistration).getType().toString()));
         return new Triple<>(type, field.getName(), "null");
     }
 
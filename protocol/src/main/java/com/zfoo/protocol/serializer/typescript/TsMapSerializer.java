@@ -33,7 +33,7 @@ public class TsMapSerializer implements ITsSerializer {
 
     @Override
     public Triple<String, String, String> field(Field field, IFieldRegistration fieldRegistration) {
-        var type = StringUtils.format(": {} | null", GenerateTsUtils.toTsClassName(field.getGenericType().toString()));
+        var type = StringUtils.format(": {} | null", GenerateTsUtils.toTsClassName(((MapField) fieldRegistration).getType().toString()));
         return new Triple<>(type, field.getName(), "null");
     }
 
@@ -33,7 +33,7 @@ public class TsSetSerializer implements ITsSerializer {
 
     @Override
     public Triple<String, String, String> field(Field field, IFieldRegistration fieldRegistration) {
-        var type = StringUtils.format(": {} | null", GenerateTsUtils.toTsClassName(field.getGenericType().toString()));
+        var type = StringUtils.format(": {} | null", GenerateTsUtils.toTsClassName(((SetField) fieldRegistration).getType().toString()));
         return new Triple<>(type, field.getName(), "null");
     }
 
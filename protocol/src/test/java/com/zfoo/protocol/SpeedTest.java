@@ -308,6 +308,9 @@ public class SpeedTest {
     static {
         var op = GenerateOperation.NO_OPERATION;
 
+        // Enhance会生成Javassist增强类的Java源文件，编译进classpath后启动的时候就不需要再字节码增强
+//        op.getGenerateLanguages().add(CodeLanguage.Enhance);
+
         // 这行加上，会在protocol目录下，生成jsProtocol文件夹及其对应的js协议文件
 //        op.getGenerateLanguages().add(CodeLanguage.Cpp);
 //        op.getGenerateLanguages().add(CodeLanguage.JavaScript);
@@ -21,6 +21,11 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * @author godotg
  * @version 3.0
@@ -102,6 +107,30 @@ public class ByteBufUtilsTest {
         ByteBufUtils.writeString(byteBuf, str);
         String result = ByteBufUtils.readString(byteBuf);
         Assert.assertEquals(result, str);
+
+        // ASCII，中文，emoji代理对，以及长度的varint跨越1个字节和2个字节的字符串
+        var values = new String[]{"", "a", "中文", "hello 世界 \uD83D\uDE00", "a".repeat(63), "a".repeat(64), "中".repeat(21), "中".repeat(22), "中".repeat(10000)};
+        for (var value : values) {
+            ByteBufUtils.writeString(byteBuf, value);
+            Assert.assertTrue(ByteBufUtils.estimateString(value) >= byteBuf.readableBytes());
+            Assert.assertEquals(value.getBytes(StandardCharsets.UTF_8).length, ByteBufUtils.readInt(byteBuf.duplicate()));
+            Assert.assertEquals(value, ByteBufUtils.readString(byteBuf));
+        }
+
+        for (var value : values) {
+            if (value.isEmpty()) {
+                continue;
+            }
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > StringInternTable.MAX_LENGTH) {
+                continue;
+            }
+            byteBuf.writeBytes(bytes).writeBytes(bytes);
+            var first = StringInternTable.readString(byteBuf, bytes.length);
+            var second = StringInternTable.readString(byteBuf, bytes.length);
+            Assert.assertEquals(value, first);
+            Assert.assertSame(first, second);
+        }
     }
 
     @Test
@@ -117,6 +146,210 @@ public class ByteBufUtilsTest {
         Assert.assertEquals(ByteBufUtils.readCharBox(byteBuf), Character.valueOf(Character.MIN_VALUE));
     }
 
+    /**
+     * 数组的长度跨越批量编解码的边界，堆内和堆外的ByteBuf都需要和逐个writeInt的格式完全相同
+     */
+    private static final int[] ARRAY_LENGTHS = new int[]{0, 1, 5, 1023, 1024, 1025, 3000};
+
+    @Test
+    public void intArrayTest() {
+        var random = new Random(1);
+        for (var length : ARRAY_LENGTHS) {
+            var array = new int[length];
+            for (var i = 0; i < length; i++) {
+                array[i] = i % 3 == 0 ? random.nextInt() : random.nextInt(200) - 100;
+            }
+            if (length > 1) {
+                array[0] = Integer.MIN_VALUE;
+                array[length - 1] = Integer.MAX_VALUE;
+            }
+
+            var expected = Unpooled.buffer();
+            ByteBufUtils.writeInt(expected, length);
+            for (var value : array) {
+                ByteBufUtils.writeInt(expected, value);
+            }
+
+            for (var byteBuf : new ByteBuf[]{Unpooled.buffer(), Unpooled.directBuffer(), ByteBufAllocator.DEFAULT.heapBuffer(), ByteBufAllocator.DEFAULT.directBuffer()}) {
+                ByteBufUtils.writeIntArray(byteBuf, array);
+                Assert.assertEquals(expected, byteBuf);
+                Assert.assertArrayEquals(array, ByteBufUtils.readIntArray(byteBuf));
+                Assert.assertFalse(byteBuf.isReadable());
+                byteBuf.release();
+            }
+            expected.release();
+        }
+    }
+
+    @Test
+    public void longArrayTest() {
+        var random = new Random(1);
+        for (var length : ARRAY_LENGTHS) {
+            var array = new long[length];
+            for (var i = 0; i < length; i++) {
+                array[i] = i % 3 == 0 ? random.nextLong() : random.nextInt(200) - 100;
+            }
+            if (length > 1) {
+                array[0] = Long.MIN_VALUE;
+                array[length - 1] = Long.MAX_VALUE;
+            }
+
+            var expected = Unpooled.buffer();
+            ByteBufUtils.writeInt(expected, length);
+            for (var value : array) {
+                ByteBufUtils.writeLong(expected, value);
+            }
+
+            for (var byteBuf : new ByteBuf[]{Unpooled.buffer(), Unpooled.directBuffer(), ByteBufAllocator.DEFAULT.heapBuffer(), ByteBufAllocator.DEFAULT.directBuffer()}) {
+                ByteBufUtils.writeLongArray(byteBuf, array);
+                Assert.assertEquals(expected, byteBuf);
+                Assert.assertArrayEquals(array, ByteBufUtils.readLongArray(byteBuf));
+                Assert.assertFalse(byteBuf.isReadable());
+                byteBuf.release();
+            }
+            expected.release();
+        }
+    }
+
+    @Test
+    public void truncatedArrayTest() {
+        var ints = new int[2000];
+        Arrays.fill(ints, Integer.MAX_VALUE);
+        var longs = new long[2000];
+        Arrays.fill(longs, Long.MAX_VALUE);
+        for (var direct : new boolean[]{false, true}) {
+            var byteBuf = direct ? Unpooled.directBuffer() : Unpooled.buffer();
+            ByteBufUtils.writeIntArray(byteBuf, ints);
+            // 截断在批量解码的部分和最后逐个解码的部分
+            for (var truncated : new int[]{1, 4, byteBuf.readableBytes() / 2}) {
+                var slice = byteBuf.slice(0, byteBuf.readableBytes() - truncated);
+                assertThrows(IndexOutOfBoundsException.class, () -> ByteBufUtils.readIntArray(slice));
+            }
+            byteBuf.clear();
+            ByteBufUtils.writeLongArray(byteBuf, longs);
+            for (var truncated : new int[]{1, 8, byteBuf.readableBytes() / 2}) {
+                var slice = byteBuf.slice(0, byteBuf.readableBytes() - truncated);
+                assertThrows(IndexOutOfBoundsException.class, () -> ByteBufUtils.readLongArray(slice));
+            }
+            byteBuf.release();
+        }
+    }
+
+    /**
+     * 不合法的varint，批量解码和逐个readInt/readLong的结果也要一样，每个数字读取的字节数不会超过上限
+     */
+    @Test
+    public void malformedArrayTest() {
+        var random = new Random(1);
+        var length = 1500;
+        var bytes = new byte[length * 9];
+        for (var i = 0; i < 100; i++) {
+            random.nextBytes(bytes);
+            // 高位都是1的字节，每个数字都是最长的varint
+            if (i % 2 == 0) {
+                for (var j = 0; j < bytes.length; j++) {
+                    bytes[j] |= 0x80;
+                }
+            }
+            for (var direct : new boolean[]{false, true}) {
+                var byteBuf = direct ? Unpooled.directBuffer() : Unpooled.buffer();
+                ByteBufUtils.writeInt(byteBuf, length);
+                byteBuf.writeBytes(bytes);
+
+                var expectedBuf = byteBuf.duplicate();
+                ByteBufUtils.readInt(expectedBuf);
+                var expectedInts = new int[length];
+                for (var j = 0; j < length; j++) {
+                    expectedInts[j] = ByteBufUtils.readInt(expectedBuf);
+                }
+                Assert.assertArrayEquals(expectedInts, ByteBufUtils.readIntArray(byteBuf.duplicate()));
+
+                expectedBuf = byteBuf.duplicate();
+                ByteBufUtils.readInt(expectedBuf);
+                var expectedLongs = new long[length];
+                for (var j = 0; j < length; j++) {
+                    expectedLongs[j] = ByteBufUtils.readLong(expectedBuf);
+                }
+                var readBuf = byteBuf.duplicate();
+                Assert.assertArrayEquals(expectedLongs, ByteBufUtils.readLongArray(readBuf));
+                Assert.assertEquals(expectedBuf.readerIndex(), readBuf.readerIndex());
+                byteBuf.release();
+            }
+        }
+
+        // 长度超过安全范围或者是负数
+        var byteBuf = Unpooled.buffer();
+        ByteBufUtils.writeInt(byteBuf, Integer.MAX_VALUE);
+        assertThrows(ArrayStoreException.class, () -> ByteBufUtils.readIntArray(byteBuf.duplicate()));
+        assertThrows(ArrayStoreException.class, () -> ByteBufUtils.readLongArray(byteBuf.duplicate()));
+        assertThrows(ArrayStoreException.class, () -> ByteBufUtils.readPackedIntArray(byteBuf.duplicate()));
+        byteBuf.clear();
+        ByteBufUtils.writeInt(byteBuf, -1);
+        assertThrows(NegativeArraySizeException.class, () -> ByteBufUtils.readIntArray(byteBuf.duplicate()));
+        assertThrows(NegativeArraySizeException.class, () -> ByteBufUtils.readPackedIntArray(byteBuf.duplicate()));
+    }
+
+    @Test
+    public void packedIntArrayTest() {
+        var random = new Random(1);
+        var arrays = new ArrayList<int[]>();
+        arrays.add(new int[0]);
+        arrays.add(new int[]{7});
+        // 所有的数字都一样，位宽为0
+        arrays.add(new int[]{-3, -3, -3});
+        // 最大值减最小值溢出，位宽为32
+        arrays.add(new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE});
+        for (var bitWidth : new int[]{1, 3, 7, 8, 13, 30}) {
+            // 堆外的ByteBuf超过线程私有数组的长度会分段拷贝
+            var array = new int[10000];
+            for (var i = 0; i < array.length; i++) {
+                array[i] = random.nextInt(1 << bitWidth) - 100;
+            }
+            arrays.add(array);
+        }
+
+        for (var array : arrays) {
+            for (var byteBuf : new ByteBuf[]{Unpooled.buffer(), Unpooled.directBuffer(), ByteBufAllocator.DEFAULT.heapBuffer(), ByteBufAllocator.DEFAULT.directBuffer()}) {
+                byteBuf.writeByte(1);
+                byteBuf.readByte();
+                ByteBufUtils.writePackedIntArray(byteBuf, array);
+                Assert.assertArrayEquals(array, ByteBufUtils.readPackedIntArray(byteBuf));
+                Assert.assertFalse(byteBuf.isReadable());
+                byteBuf.release();
+            }
+        }
+        Assert.assertArrayEquals(new int[0], ByteBufUtils.readPackedIntArray(writePacked(null)));
+
+        // 截断的包体
+        var byteBuf = writePacked(arrays.get(arrays.size() - 1));
+        var truncated = byteBuf.slice(0, byteBuf.readableBytes() - 1);
+        assertThrows(IndexOutOfBoundsException.class, () -> ByteBufUtils.readPackedIntArray(truncated));
+
+        // 不合法的位宽
+        byteBuf = Unpooled.buffer();
+        ByteBufUtils.writeInt(byteBuf, 10);
+        ByteBufUtils.writeInt(byteBuf, 0);
+        byteBuf.writeByte(Integer.SIZE + 1);
+        byteBuf.writeZero(64);
+        var illegal = byteBuf;
+        assertThrows(IllegalArgumentException.class, () -> ByteBufUtils.readPackedIntArray(illegal));
+    }
+
+    private void assertThrows(Class<? extends Throwable> expected, Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail();
+        } catch (Throwable t) {
+            Assert.assertEquals(expected, t.getClass());
+        }
+    }
+
+    private ByteBuf writePacked(int[] array) {
+        var byteBuf = Unpooled.buffer();
+        ByteBufUtils.writePackedIntArray(byteBuf, array);
+        return byteBuf;
+    }
+
     @Ignore
     @Test
     public void readLongSpeedTest() {
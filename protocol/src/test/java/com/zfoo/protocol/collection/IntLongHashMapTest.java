@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class IntLongHashMapTest {
+
+    @Test
+    public void putGetRemoveTest() {
+        var map = new IntLongHashMap();
+        var expected = new HashMap<Integer, Long>();
+        var random = new Random(1);
+        for (var i = 0; i < 100000; i++) {
+            var key = random.nextInt(2000) - 1000;
+            var value = random.nextLong();
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove((Object) key));
+            } else {
+                Assert.assertEquals(expected.put(key, value), map.put((Integer) key, (Long) value));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+
+        for (var entry : expected.entrySet()) {
+            Assert.assertTrue(map.containsKey(entry.getKey().intValue()));
+            Assert.assertEquals(entry.getValue().longValue(), map.get(entry.getKey().intValue()));
+        }
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(map, expected);
+
+        var count = 0;
+        var cursor = map.cursor();
+        while (cursor.next()) {
+            Assert.assertEquals(expected.get(cursor.key()).longValue(), cursor.value());
+            count++;
+        }
+        Assert.assertEquals(expected.size(), count);
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey(0));
+        Assert.assertEquals(-1L, map.getOrDefault(0, -1L));
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.packet;
+
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.registration.anno.Protocol;
+
+import java.util.List;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+@Protocol(id = 110, delta = true)
+public class DeltaObject implements IPacket {
+
+    private int x;
+
+    private int y;
+
+    private String name;
+
+    private List<Integer> buffs;
+
+    public static DeltaObject valueOf(int x, int y, String name, List<Integer> buffs) {
+        var packet = new DeltaObject();
+        packet.x = x;
+        packet.y = y;
+        packet.name = name;
+        packet.buffs = buffs;
+        return packet;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        this.y = y;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Integer> getBuffs() {
+        return buffs;
+    }
+
+    public void setBuffs(List<Integer> buffs) {
+        this.buffs = buffs;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.packet;
+
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.collection.ArrayIntList;
+import com.zfoo.protocol.collection.ArrayLongList;
+import com.zfoo.protocol.collection.HashIntSet;
+import com.zfoo.protocol.collection.HashLongSet;
+import com.zfoo.protocol.collection.IntLongHashMap;
+import com.zfoo.protocol.registration.anno.Protocol;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+@Protocol(id = 113)
+public class FastCollectionObject implements IPacket {
+
+    private ArrayIntList intList;
+
+    private ArrayLongList longList;
+
+    private HashIntSet intSet;
+
+    private HashLongSet longSet;
+
+    private IntLongHashMap intLongMap;
+
+    public static FastCollectionObject valueOf(ArrayIntList intList, ArrayLongList longList, HashIntSet intSet, HashLongSet longSet, IntLongHashMap intLongMap) {
+        var packet = new FastCollectionObject();
+        packet.intList = intList;
+        packet.longList = longList;
+        packet.intSet = intSet;
+        packet.longSet = longSet;
+        packet.intLongMap = intLongMap;
+        return packet;
+    }
+
+    public ArrayIntList getIntList() {
+        return intList;
+    }
+
+    public void setIntList(ArrayIntList intList) {
+        this.intList = intList;
+    }
+
+    public ArrayLongList getLongList() {
+        return longList;
+    }
+
+    public void setLongList(ArrayLongList longList) {
+        this.longList = longList;
+    }
+
+    public HashIntSet getIntSet() {
+        return intSet;
+    }
+
+    public void setIntSet(HashIntSet intSet) {
+        this.intSet = intSet;
+    }
+
+    public HashLongSet getLongSet() {
+        return longSet;
+    }
+
+    public void setLongSet(HashLongSet longSet) {
+        this.longSet = longSet;
+    }
+
+    public IntLongHashMap getIntLongMap() {
+        return intLongMap;
+    }
+
+    public void setIntLongMap(IntLongHashMap intLongMap) {
+        this.intLongMap = intLongMap;
+    }
+}
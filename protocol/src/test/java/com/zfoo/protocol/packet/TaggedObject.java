@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.packet;
+
+import com.zfoo.protocol.IPacket;
+import com.zfoo.protocol.registration.anno.Protocol;
+import com.zfoo.protocol.registration.anno.Tag;
+
+import java.util.List;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+@Protocol(id = 112, tagged = true)
+public class TaggedObject implements IPacket {
+
+    @Tag(1)
+    private int id;
+
+    @Tag(2)
+    private String name;
+
+    @Tag(3)
+    private List<Integer> buffs;
+
+    @Tag(5)
+    private long exp;
+
+    public static TaggedObject valueOf(int id, String name, List<Integer> buffs, long exp) {
+        var packet = new TaggedObject();
+        packet.id = id;
+        packet.name = name;
+        packet.buffs = buffs;
+        packet.exp = exp;
+        return packet;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Integer> getBuffs() {
+        return buffs;
+    }
+
+    public void setBuffs(List<Integer> buffs) {
+        this.buffs = buffs;
+    }
+
+    public long getExp() {
+        return exp;
+    }
+
+    public void setExp(long exp) {
+        this.exp = exp;
+    }
+}
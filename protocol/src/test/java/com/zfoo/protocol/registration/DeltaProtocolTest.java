@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.exception.AssertException;
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.packet.DeltaObject;
+import com.zfoo.protocol.packet.SimpleObject;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class DeltaProtocolTest {
+
+    static {
+        ProtocolManager.initProtocol(Set.of(DeltaObject.class, SimpleObject.class), GenerateOperation.NO_OPERATION);
+    }
+
+    @Test
+    public void deltaTest() {
+        var baseline = new DeltaBaseline();
+        var target = new DeltaObject();
+
+        // 第一次发送全部的字段
+        var packet = DeltaObject.valueOf(1, 2, "zfoo", List.of(1, 2, 3));
+        var fullLength = writeAndMerge(packet, baseline, target);
+        assertDeltaObject(packet, target);
+
+        // 只变化了一个字段
+        packet.setX(100);
+        var deltaLength = writeAndMerge(packet, baseline, target);
+        Assert.assertTrue(deltaLength < fullLength);
+        assertDeltaObject(packet, target);
+
+        // 集合的内容变化了，引用没有变化
+        packet.setBuffs(List.of(1, 2, 4));
+        writeAndMerge(packet, baseline, target);
+        assertDeltaObject(packet, target);
+
+        // 没有变化的时候只有协议号和位图
+        var emptyLength = writeAndMerge(packet, baseline, target);
+        Assert.assertTrue(emptyLength < deltaLength);
+        assertDeltaObject(packet, target);
+
+        // 重置之后再次发送全部的字段
+        baseline.reset();
+        Assert.assertEquals(fullLength, writeAndMerge(DeltaObject.valueOf(1, 2, "zfoo", List.of(1, 2, 3)), baseline, target));
+    }
+
+    @Test
+    public void failedWriteTest() {
+        var baseline = new DeltaBaseline();
+        var target = new DeltaObject();
+        writeAndMerge(DeltaObject.valueOf(1, 2, "zfoo", List.of(1, 2, 3)), baseline, target);
+
+        // 所有的字段都变化了，写入的长度和全量写入一样
+        var packet = DeltaObject.valueOf(3, 4, "hello", List.of(5, 6));
+        var fullBuffer = Unpooled.buffer();
+        ProtocolManager.writeDelta(fullBuffer, packet, new DeltaBaseline());
+        var fullLength = fullBuffer.readableBytes();
+        fullBuffer.release();
+
+        // 最后一个字段写入失败，前面写入成功的字段也不能更新到基准中
+        var smallBuffer = Unpooled.buffer(fullLength - 1, fullLength - 1);
+        try {
+            ProtocolManager.writeDelta(smallBuffer, packet, baseline);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        } finally {
+            smallBuffer.release();
+        }
+
+        Assert.assertEquals(fullLength, writeAndMerge(packet, baseline, target));
+        assertDeltaObject(packet, target);
+    }
+
+    @Test
+    public void notDeltaTest() {
+        // 没有开启增量序列化的协议，读写都给出明确的错误，而不是空指针
+        var packet = new SimpleObject();
+        var buffer = Unpooled.buffer();
+        try {
+            ProtocolManager.writeDelta(buffer, packet, new DeltaBaseline());
+            Assert.fail();
+        } catch (AssertException e) {
+            // expected
+        }
+
+        ByteBufUtils.writeShort(buffer, packet.protocolId());
+        try {
+            ProtocolManager.readDelta(buffer, packet);
+            Assert.fail();
+        } catch (AssertException e) {
+            // expected
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private int writeAndMerge(DeltaObject packet, DeltaBaseline baseline, DeltaObject target) {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            ProtocolManager.writeDelta(buffer, packet, baseline);
+            var length = buffer.readableBytes();
+            ProtocolManager.readDelta(buffer, target);
+            Assert.assertFalse(buffer.isReadable());
+            return length;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private void assertDeltaObject(DeltaObject expected, DeltaObject actual) {
+        Assert.assertEquals(expected.getX(), actual.getX());
+        Assert.assertEquals(expected.getY(), actual.getY());
+        Assert.assertEquals(expected.getName(), actual.getName());
+        Assert.assertEquals(expected.getBuffs(), actual.getBuffs());
+    }
+
+}
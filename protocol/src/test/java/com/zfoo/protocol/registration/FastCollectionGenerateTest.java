@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.packet.FastCollectionObject;
+import com.zfoo.protocol.serializer.CodeLanguage;
+import com.zfoo.protocol.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 基础类型集合的字段，如ArrayIntList，其它语言按照对应的泛型类型List<Integer>生成普通的集合
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class FastCollectionGenerateTest {
+
+    @Test
+    public void generateTest() throws Exception {
+        var protocolPath = Files.createTempDirectory("zfoo-protocol");
+        try {
+            var generateOperation = new GenerateOperation();
+            generateOperation.setProtocolPath(protocolPath.toString());
+            generateOperation.getGenerateLanguages().add(CodeLanguage.CSharp);
+            generateOperation.getGenerateLanguages().add(CodeLanguage.TypeScript);
+            generateOperation.getGenerateLanguages().add(CodeLanguage.Cpp);
+            ProtocolManager.initProtocol(Set.of(FastCollectionObject.class), generateOperation);
+
+            assertFields(protocolPath.resolve("CsProtocol/FastCollectionObject.cs"), List.of(
+                    "public List<int> intList;", "public List<long> longList;", "public HashSet<int> intSet;"
+                    , "public HashSet<long> longSet;", "public Dictionary<int, long> intLongMap;"));
+            assertFields(protocolPath.resolve("tsProtocol/FastCollectionObject.ts"), List.of(
+                    "intList: Array<number>", "longList: Array<number>", "intSet: Set<number>"
+                    , "longSet: Set<number>", "intLongMap: Map<number, number>"));
+            assertFields(protocolPath.resolve("cppProtocol/FastCollectionObject.h"), List.of(
+                    "list<int32_t> intList;", "list<int64_t> longList;", "set<int32_t> intSet;"
+                    , "set<int64_t> longSet;", "map<int32_t, int64_t> intLongMap;"));
+            Assert.assertTrue(Files.exists(protocolPath.resolve("cppProtocol/ProtocolManager.h")));
+        } finally {
+            FileUtils.deleteFile(protocolPath.toFile());
+        }
+    }
+
+    private void assertFields(Path file, List<String> fields) throws Exception {
+        var content = Files.readString(file);
+        for (var field : fields) {
+            Assert.assertTrue(file + " " + field, content.contains(field));
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.collection.ArrayIntList;
+import com.zfoo.protocol.collection.ArrayLongList;
+import com.zfoo.protocol.collection.HashIntSet;
+import com.zfoo.protocol.collection.HashLongSet;
+import com.zfoo.protocol.collection.IntLongHashMap;
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.packet.FastCollectionObject;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ * 基础类型集合的字段在不同的序列化实现下的读写，每种实现一个子类，forkMode为always，每个子类在单独的JVM中初始化协议
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public abstract class FastCollectionProtocolTest {
+
+    protected static final short PROTOCOL_ID = 113;
+
+    protected static void initProtocol(String enhanceType) {
+        System.setProperty(ProtocolAnalysis.ENHANCE_PROPERTY, enhanceType);
+        ProtocolManager.initProtocol(Set.of(FastCollectionObject.class), GenerateOperation.NO_OPERATION);
+    }
+
+    /**
+     * 期望使用的序列化类的名称，确认确实走的是这种实现，而不是失败之后退回的其它实现
+     */
+    protected abstract String registrationClassName();
+
+    @Test
+    public void registrationTest() {
+        Assert.assertEquals(registrationClassName(), ProtocolManager.getProtocol(PROTOCOL_ID).getClass().getName());
+    }
+
+    @Test
+    public void fastCollectionTest() {
+        var intSet = new HashIntSet();
+        intSet.add(0);
+        intSet.add(-1);
+        intSet.add(Integer.MAX_VALUE);
+        var longSet = new HashLongSet();
+        longSet.add(0L);
+        longSet.add(Long.MIN_VALUE);
+        longSet.add(Long.MAX_VALUE);
+        var intLongMap = new IntLongHashMap();
+        intLongMap.put(0, 0L);
+        intLongMap.put(-1, Long.MIN_VALUE);
+        intLongMap.put(Integer.MAX_VALUE, Long.MAX_VALUE);
+        var packet = FastCollectionObject.valueOf(new ArrayIntList(new int[]{0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE})
+                , new ArrayLongList(new long[]{0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE}), intSet, longSet, intLongMap);
+
+        var result = writeAndRead(packet);
+        Assert.assertArrayEquals(packet.getIntList().toArrayPrimitive(), result.getIntList().toArrayPrimitive());
+        Assert.assertArrayEquals(packet.getLongList().toArrayPrimitive(), result.getLongList().toArrayPrimitive());
+        Assert.assertEquals(intSet, result.getIntSet());
+        Assert.assertEquals(longSet, result.getLongSet());
+        Assert.assertEquals(intLongMap, result.getIntLongMap());
+    }
+
+    @Test
+    public void nullFieldTest() {
+        // null的集合和空的集合写入的格式一样，读出来都是空的集合
+        var result = writeAndRead(new FastCollectionObject());
+        Assert.assertTrue(result.getIntList().isEmpty());
+        Assert.assertTrue(result.getLongList().isEmpty());
+        Assert.assertTrue(result.getIntSet().isEmpty());
+        Assert.assertTrue(result.getLongSet().isEmpty());
+        Assert.assertTrue(result.getIntLongMap().isEmpty());
+    }
+
+    private FastCollectionObject writeAndRead(FastCollectionObject packet) {
+        var buffer = Unpooled.buffer();
+        try {
+            ProtocolManager.write(buffer, packet);
+            var result = (FastCollectionObject) ProtocolManager.read(buffer);
+            Assert.assertFalse(buffer.isReadable());
+            return result;
+        } finally {
+            buffer.release();
+        }
+    }
+
+}
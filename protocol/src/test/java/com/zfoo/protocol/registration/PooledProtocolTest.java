@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.exception.RunException;
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.packet.PooledObject;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class PooledProtocolTest {
+
+    static {
+        // paranoid级别才会检查重复回收，需要在协议初始化之前设置
+        System.setProperty(PooledProtocolRegistration.CHECK_PROPERTY, PooledProtocolRegistration.CHECK_PARANOID);
+        ProtocolManager.initProtocol(Set.of(PooledObject.class), GenerateOperation.NO_OPERATION);
+    }
+
+    @Test
+    public void reuseTest() {
+        var first = writeAndRead(PooledObject.valueOf(10, "zfoo", List.of(1, 2, 3), new int[]{1, 2}));
+        var items = first.getItems();
+        ProtocolManager.recycle(first);
+
+        // 回收之后再读取，复用同一个对象和同一个List
+        var second = writeAndRead(PooledObject.valueOf(20, "hello", List.of(4, 5), new int[]{3}));
+        Assert.assertSame(first, second);
+        Assert.assertSame(items, second.getItems());
+        Assert.assertEquals(20, second.getLevel());
+        Assert.assertEquals("hello", second.getName());
+        Assert.assertEquals(List.of(4, 5), second.getItems());
+        Assert.assertArrayEquals(new int[]{3}, second.getScores());
+        ProtocolManager.recycle(second);
+    }
+
+    @Test
+    public void resetTest() {
+        var packet = writeAndRead(PooledObject.valueOf(10, "zfoo", List.of(1, 2, 3), new int[]{1, 2}));
+        var items = packet.getItems();
+        ProtocolManager.recycle(packet);
+
+        // 基础类型恢复成构造方法的默认值，反序列化创建的List清空之后保留，其它字段置为null
+        Assert.assertEquals(1, packet.getLevel());
+        Assert.assertNull(packet.getName());
+        Assert.assertSame(items, packet.getItems());
+        Assert.assertTrue(packet.getItems().isEmpty());
+        Assert.assertNull(packet.getScores());
+
+        // 回收之后被修改过的对象不会再被复用
+        packet.setLevel(100);
+        var next = writeAndRead(PooledObject.valueOf(10, "zfoo", List.of(1), null));
+        Assert.assertNotSame(packet, next);
+        Assert.assertEquals(10, next.getLevel());
+        ProtocolManager.recycle(next);
+    }
+
+    @Test(expected = RunException.class)
+    public void doubleRecycleTest() {
+        var packet = writeAndRead(PooledObject.valueOf(10, "zfoo", List.of(1, 2, 3), new int[]{1, 2}));
+        ProtocolManager.recycle(packet);
+        ProtocolManager.recycle(packet);
+    }
+
+    private PooledObject writeAndRead(PooledObject packet) {
+        var buffer = Unpooled.buffer();
+        try {
+            ProtocolManager.write(buffer, packet);
+            var result = (PooledObject) ProtocolManager.read(buffer);
+            Assert.assertFalse(buffer.isReadable());
+            return result;
+        } finally {
+            buffer.release();
+        }
+    }
+
+}
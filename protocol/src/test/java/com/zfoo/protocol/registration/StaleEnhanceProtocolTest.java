@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.packet.SimpleObject;
+import io.netty.buffer.Unpooled;
+import javassist.ClassPool;
+import javassist.CtField;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class StaleEnhanceProtocolTest {
+
+    private static final short PROTOCOL_ID = 104;
+
+    @Test
+    public void staleEnhanceTest() throws Exception {
+        // 模拟协议类修改之前提前生成的类，放在classpath中，签名和现在的协议类不一致
+        var className = EnhanceUtils.getEnhanceClassName(PROTOCOL_ID);
+        var classPool = ClassPool.getDefault();
+        var staleClazz = classPool.makeClass(className);
+        var signatureField = new CtField(classPool.get(String.class.getCanonicalName()), EnhanceUtils.ENHANCE_SIGNATURE_FIELD, staleClazz);
+        signatureField.setModifiers(Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL);
+        staleClazz.addField(signatureField, CtField.Initializer.constant("stale"));
+
+        var classesPath = Paths.get(SimpleObject.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        var staleClassFile = classesPath.resolve(className.replace('.', '/') + ".class");
+        staleClazz.writeFile(classesPath.toString());
+        staleClazz.detach();
+        try {
+            ProtocolManager.initProtocol(Set.of(SimpleObject.class), GenerateOperation.NO_OPERATION);
+        } finally {
+            Files.deleteIfExists(staleClassFile);
+        }
+
+        // 不一致的类没有被定义，Javassist可以用同样的类名增强，不会退回到MethodHandle
+        var registration = ProtocolManager.getProtocol(PROTOCOL_ID);
+        Assert.assertEquals(className, registration.getClass().getName());
+        Assert.assertTrue(Arrays.stream(registration.getClass().getFields()).noneMatch(it -> it.getName().equals(EnhanceUtils.ENHANCE_SIGNATURE_FIELD)));
+
+        var packet = new SimpleObject();
+        packet.setC(Integer.MAX_VALUE);
+        packet.setG(true);
+        var buffer = Unpooled.buffer();
+        ProtocolManager.write(buffer, packet);
+        var result = (SimpleObject) ProtocolManager.read(buffer);
+        Assert.assertEquals(packet.getC(), result.getC());
+        Assert.assertEquals(packet.isG(), result.isG());
+        Assert.assertFalse(buffer.isReadable());
+        buffer.release();
+    }
+
+}
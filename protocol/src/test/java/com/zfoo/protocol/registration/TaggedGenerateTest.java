@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.exception.RunException;
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.packet.TaggedObject;
+import com.zfoo.protocol.serializer.CodeLanguage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ * tagged的格式只有Java实现了，生成其它语言的协议文件的时候直接失败，不会生成一份对不上格式的代码
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class TaggedGenerateTest {
+
+    @Test
+    public void generateTest() {
+        var generateOperation = new GenerateOperation();
+        generateOperation.setProtocolPath("tmpgen");
+        generateOperation.getGenerateLanguages().add(CodeLanguage.CSharp);
+        try {
+            ProtocolManager.initProtocol(Set.of(TaggedObject.class), generateOperation);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Throwable cause = e;
+            while (!(cause instanceof RunException && cause.getMessage().contains("TaggedObject"))) {
+                Assert.assertNotNull(cause.getCause());
+                cause = cause.getCause();
+            }
+        }
+    }
+
+}
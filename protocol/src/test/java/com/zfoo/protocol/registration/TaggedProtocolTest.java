@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.protocol.registration;
+
+import com.zfoo.protocol.ProtocolManager;
+import com.zfoo.protocol.buffer.ByteBufUtils;
+import com.zfoo.protocol.generate.GenerateOperation;
+import com.zfoo.protocol.packet.TaggedObject;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class TaggedProtocolTest {
+
+    static {
+        ProtocolManager.initProtocol(Set.of(TaggedObject.class), GenerateOperation.NO_OPERATION);
+    }
+
+    private static final short PROTOCOL_ID = 112;
+
+    @Test
+    public void taggedTest() {
+        var packet = TaggedObject.valueOf(1, "zfoo", List.of(1, 2, 3), Long.MAX_VALUE);
+        var buffer = Unpooled.buffer();
+        ProtocolManager.write(buffer, packet);
+        assertTaggedObject(packet, (TaggedObject) ProtocolManager.read(buffer));
+        Assert.assertFalse(buffer.isReadable());
+
+        // 空的集合和null的字符串
+        packet = TaggedObject.valueOf(0, null, List.of(), 0);
+        buffer.clear();
+        ProtocolManager.write(buffer, packet);
+        var result = (TaggedObject) ProtocolManager.read(buffer);
+        Assert.assertEquals("", result.getName());
+        Assert.assertTrue(result.getBuffs().isEmpty());
+        buffer.release();
+    }
+
+    @Test
+    public void unknownTagTest() {
+        // 模拟新版本的协议：在已有的属性中间和后面增加了各种类型的新属性，旧版本的协议读取的时候跳过不认识的tag
+        var packet = TaggedObject.valueOf(1, "zfoo", List.of(1, 2, 3), 100);
+        var buffer = Unpooled.buffer();
+        ProtocolManager.write(buffer, packet);
+        // 去掉结束标志，0的varint只有一个字节
+        buffer.writerIndex(buffer.writerIndex() - 1);
+        writeUnknownFields(buffer);
+        ByteBufUtils.writeInt(buffer, 0);
+        assertTaggedObject(packet, (TaggedObject) ProtocolManager.read(buffer));
+        Assert.assertFalse(buffer.isReadable());
+
+        // 已有的属性的类型改变了，wireType不一样，也会被当成不认识的tag跳过
+        buffer.clear();
+        buffer.writeShort(PROTOCOL_ID);
+        ByteBufUtils.writeBoolean(buffer, true);
+        writeUnknownFields(buffer);
+        ByteBufUtils.writeInt(buffer, key(1, ByteBufUtils.WIRE_TYPE_STRING));
+        ByteBufUtils.writeString(buffer, "1");
+        ByteBufUtils.writeInt(buffer, key(5, ByteBufUtils.WIRE_TYPE_VARINT));
+        ByteBufUtils.writeLong(buffer, 200);
+        ByteBufUtils.writeInt(buffer, 0);
+        var result = (TaggedObject) ProtocolManager.read(buffer);
+        // 模拟旧版本的协议：缺少的属性使用默认值
+        Assert.assertEquals(0, result.getId());
+        Assert.assertNull(result.getName());
+        Assert.assertNull(result.getBuffs());
+        Assert.assertEquals(200, result.getExp());
+        Assert.assertFalse(buffer.isReadable());
+        buffer.release();
+    }
+
+    private void writeUnknownFields(ByteBuf buffer) {
+        ByteBufUtils.writeInt(buffer, key(4, ByteBufUtils.WIRE_TYPE_VARINT));
+        ByteBufUtils.writeLong(buffer, Long.MIN_VALUE);
+        ByteBufUtils.writeInt(buffer, key(6, ByteBufUtils.WIRE_TYPE_FIXED8));
+        ByteBufUtils.writeByte(buffer, (byte) 1);
+        ByteBufUtils.writeInt(buffer, key(7, ByteBufUtils.WIRE_TYPE_FIXED16));
+        ByteBufUtils.writeShort(buffer, (short) 1);
+        ByteBufUtils.writeInt(buffer, key(8, ByteBufUtils.WIRE_TYPE_FIXED32));
+        ByteBufUtils.writeFloat(buffer, 1.0F);
+        ByteBufUtils.writeInt(buffer, key(9, ByteBufUtils.WIRE_TYPE_FIXED64));
+        ByteBufUtils.writeDouble(buffer, 1.0D);
+        ByteBufUtils.writeInt(buffer, key(10, ByteBufUtils.WIRE_TYPE_STRING));
+        ByteBufUtils.writeString(buffer, "unknown");
+        // 新版本的子协议或者集合，不管里面是什么内容，都可以按照长度前缀一次跳过
+        ByteBufUtils.writeInt(buffer, key(11, ByteBufUtils.WIRE_TYPE_LENGTH_DELIMITED));
+        var lengthIndex = ByteBufUtils.writeLengthPlaceholder(buffer);
+        buffer.writeBytes(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        ByteBufUtils.writeLengthAt(buffer, lengthIndex);
+    }
+
+    private int key(int tag, int wireType) {
+        return tag << ByteBufUtils.WIRE_TYPE_BITS | wireType;
+    }
+
+    private void assertTaggedObject(TaggedObject expected, TaggedObject actual) {
+        Assert.assertEquals(expected.getId(), actual.getId());
+        Assert.assertEquals(expected.getName(), actual.getName());
+        Assert.assertEquals(expected.getBuffs(), actual.getBuffs());
+        Assert.assertEquals(expected.getExp(), actual.getExp());
+    }
+
+}
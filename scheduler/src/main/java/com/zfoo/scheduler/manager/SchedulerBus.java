@@ -20,6 +20,9 @@ import com.zfoo.scheduler.model.vo.SchedulerDefinition;
 import com.zfoo.scheduler.util.TimeUtils;
 import com.zfoo.util.SafeRunnable;
 import com.zfoo.util.ThreadUtils;
+import com.zfoo.util.metrics.ExecutorMetrics;
+import com.zfoo.util.metrics.ExecutorMetricsMBean;
+import com.zfoo.util.metrics.ExecutorMetricsVO;
 import io.netty.util.concurrent.FastThreadLocalThread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,7 +45,12 @@ public abstract class SchedulerBus {
     /**
      * scheduler默认只有一个单线程的线程池
      */
-    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new SchedulerThreadFactory(1));
+    private static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new SchedulerThreadFactory(1));
+
+    /**
+     * scheduler线程的运行指标，等待时间是任务实际执行的时间比预定的触发时间延后了多久
+     */
+    private static final ExecutorMetrics executorMetrics = ExecutorMetrics.valueOf("scheduler-p1", () -> executor.getQueue().size());
 
     /**
      * executor创建的线程id号
@@ -69,6 +77,7 @@ public abstract class SchedulerBus {
                 logger.error("scheduler triggers an error.", e);
             }
         }, 0, TRIGGER_MILLIS_INTERVAL, TimeUnit.MILLISECONDS);
+        ExecutorMetricsMBean.register("scheduler", () -> List.of(executorMetrics));
     }
 
     public static class SchedulerThreadFactory implements ThreadFactory {
@@ -141,11 +150,13 @@ public abstract class SchedulerBus {
             var triggerTimestamp = scheduler.getTriggerTimestamp();
             if (triggerTimestamp <= currentTimeMillis) {
                 // 到达触发时间，则执行runnable方法
+                var startNanoTime = System.nanoTime();
                 try {
                     scheduler.getScheduler().invoke();
                 } catch (Throwable t) {
                     logger.error("scheduler任务调度未知异常", t);
                 }
+                executorMetrics.recordComplete(TimeUnit.MILLISECONDS.toNanos(currentTimeMillis - triggerTimestamp), System.nanoTime() - startNanoTime);
                 // 重新设置下一次的触发时间戳
                 triggerTimestamp = TimeUtils.nextTimestampByCronExpression(scheduler.getCronExpression(), timestampZonedDataTime);
                 scheduler.setTriggerTimestamp(triggerTimestamp);
@@ -171,7 +182,7 @@ public abstract class SchedulerBus {
             return;
         }
 
-        executor.scheduleAtFixedRate(SafeRunnable.valueOf(runnable), 0, period, unit);
+        executor.scheduleAtFixedRate(meter(runnable, 0), 0, period, unit);
     }
 
 
@@ -183,7 +194,7 @@ public abstract class SchedulerBus {
             return;
         }
 
-        executor.schedule(SafeRunnable.valueOf(runnable), delay, unit);
+        executor.schedule(meter(runnable, System.nanoTime() + unit.toNanos(delay)), delay, unit);
     }
 
     /**
@@ -200,4 +211,28 @@ public abstract class SchedulerBus {
     public static Executor threadExecutor(long currentThreadId) {
         return threadId == currentThreadId ? executor : null;
     }
+
+    /**
+     * scheduler线程的队列深度，延迟触发的时间，执行时间和每秒执行的任务数量
+     */
+    public static ExecutorMetricsVO executorMetrics() {
+        return executorMetrics.snapshot();
+    }
+
+    /**
+     * @param expectedNanoTime 预定的触发时间，周期任务为0，不统计等待时间
+     */
+    private static Runnable meter(Runnable runnable, long expectedNanoTime) {
+        var safeRunnable = SafeRunnable.valueOf(runnable);
+        return () -> {
+            var startNanoTime = System.nanoTime();
+            safeRunnable.run();
+            var executeNanoTime = System.nanoTime() - startNanoTime;
+            if (expectedNanoTime == 0) {
+                executorMetrics.recordExecute(executeNanoTime);
+            } else {
+                executorMetrics.recordComplete(startNanoTime - expectedNanoTime, executeNanoTime);
+            }
+        };
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.util.math;
+
+import com.zfoo.protocol.model.Pair;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 不可变的一致性hash环，虚拟节点的hash值保存在有序的int[]中，通过二分查找定位，查找的时候没有装箱和TreeMap的节点跳转
+ * <p>
+ * 虚拟节点的hash算法和ConsistentHash完全相同，同样的真实节点得到同样的路由结果；hash冲突的时候和ConsistentHash一样，key较大的节点胜出
+ * <p>
+ * addNode和removeNode只计算变化的真实节点的虚拟节点，再和原来的有序数组归并，返回一个新的环，原来的环不变，可以直接通过volatile发布给读线程
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class ConsistentHashRing<K, V> {
+
+    private final int virtualNodes;
+
+    private final List<Pair<K, V>> realNodes;
+
+    /**
+     * 按照(hash, key)排序，hash相同的虚拟节点相邻，最后一个是胜出的节点
+     */
+    private final int[] hashes;
+    private final Object[] keys;
+    private final Object[] values;
+
+    private ConsistentHashRing(int virtualNodes, List<Pair<K, V>> realNodes, int[] hashes, Object[] keys, Object[] values) {
+        this.virtualNodes = virtualNodes;
+        this.realNodes = realNodes;
+        this.hashes = hashes;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public static <K, V> ConsistentHashRing<K, V> valueOf(List<Pair<K, V>> realNodes, int virtualNodes) {
+        var ring = new ConsistentHashRing<K, V>(virtualNodes, Collections.emptyList(), new int[0], new Object[0], new Object[0]);
+        for (var realNode : realNodes) {
+            ring = ring.addNode(realNode.getKey(), realNode.getValue());
+        }
+        return ring;
+    }
+
+    /**
+     * 增加一个真实节点，如果key已经存在则替换它的value，时间复杂度O(n + v log v)，n为环上的虚拟节点数量，v为每个真实节点的虚拟节点数量
+     */
+    public ConsistentHashRing<K, V> addNode(K key, V value) {
+        var ring = containsNode(key) ? removeNode(key) : this;
+
+        // 新节点的虚拟节点，先排序再和原来的环归并
+        var nodeHashes = new int[virtualNodes];
+        for (var i = 0; i < virtualNodes; i++) {
+            nodeHashes[i] = HashUtils.fnvHash(key.toString() + "&&VN" + i);
+        }
+        Arrays.sort(nodeHashes);
+
+        var oldHashes = ring.hashes;
+        var length = oldHashes.length + virtualNodes;
+        var newHashes = new int[length];
+        var newKeys = new Object[length];
+        var newValues = new Object[length];
+        var keyString = key.toString();
+        int i = 0, j = 0, k = 0;
+        while (i < oldHashes.length || j < virtualNodes) {
+            boolean takeOld;
+            if (j >= virtualNodes) {
+                takeOld = true;
+            } else if (i >= oldHashes.length) {
+                takeOld = false;
+            } else if (oldHashes[i] != nodeHashes[j]) {
+                takeOld = oldHashes[i] < nodeHashes[j];
+            } else {
+                takeOld = ring.keys[i].toString().compareTo(keyString) <= 0;
+            }
+            if (takeOld) {
+                newHashes[k] = oldHashes[i];
+                newKeys[k] = ring.keys[i];
+                newValues[k++] = ring.values[i++];
+            } else {
+                newHashes[k] = nodeHashes[j++];
+                newKeys[k] = key;
+                newValues[k++] = value;
+            }
+        }
+
+        var newRealNodes = new ArrayList<>(ring.realNodes);
+        newRealNodes.add(new Pair<>(key, value));
+        return new ConsistentHashRing<>(virtualNodes, Collections.unmodifiableList(newRealNodes), newHashes, newKeys, newValues);
+    }
+
+    /**
+     * 删除一个真实节点和它所有的虚拟节点，时间复杂度O(n)
+     */
+    public ConsistentHashRing<K, V> removeNode(K key) {
+        if (!containsNode(key)) {
+            return this;
+        }
+
+        var length = hashes.length - virtualNodes;
+        var newHashes = new int[length];
+        var newKeys = new Object[length];
+        var newValues = new Object[length];
+        var k = 0;
+        for (var i = 0; i < hashes.length; i++) {
+            if (Objects.equals(keys[i], key)) {
+                continue;
+            }
+            newHashes[k] = hashes[i];
+            newKeys[k] = keys[i];
+            newValues[k++] = values[i];
+        }
+
+        var newRealNodes = new ArrayList<Pair<K, V>>(realNodes.size());
+        for (var realNode : realNodes) {
+            if (!Objects.equals(realNode.getKey(), key)) {
+                newRealNodes.add(realNode);
+            }
+        }
+        return new ConsistentHashRing<>(virtualNodes, Collections.unmodifiableList(newRealNodes), newHashes, newKeys, newValues);
+    }
+
+    public boolean containsNode(K key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * 真实节点的value，没有这个节点返回null
+     */
+    @Nullable
+    public V getNode(K key) {
+        for (var realNode : realNodes) {
+            if (Objects.equals(realNode.getKey(), key)) {
+                return realNode.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 得到应当路由到的结点的value，顺时针第一个hash值大于等于key的hash值的虚拟节点
+     */
+    public V getRealNode(Object key) {
+        return getRealNodeByHash(HashUtils.fnvHash(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getRealNodeByHash(int hash) {
+        var length = hashes.length;
+        if (length == 0) {
+            return null;
+        }
+
+        // 二分查找第一个大于等于hash的位置
+        int low = 0, high = length;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (hashes[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // 如果没有比该key的hash值大的，则从第一个node开始
+        if (low == length) {
+            low = 0;
+        }
+        // hash冲突的虚拟节点，最后一个胜出
+        while (low + 1 < length && hashes[low + 1] == hashes[low]) {
+            low++;
+        }
+        return (V) values[low];
+    }
+
+    public List<Pair<K, V>> getRealNodes() {
+        return realNodes;
+    }
+
+    public boolean isEmpty() {
+        return realNodes.isEmpty();
+    }
+
+}
@@ -36,12 +36,7 @@ public abstract class HashUtils {
         for (byte b : data) {
             hash = (hash ^ b) * P;
         }
-        hash += hash << 13;
-        hash ^= hash >> 7;
-        hash += hash << 3;
-        hash ^= hash >> 17;
-        hash += hash << 5;
-        return Math.abs(hash);
+        return finalHash(hash);
     }
 
     /**
@@ -51,7 +46,42 @@ public abstract class HashUtils {
      * @return hash结果
      */
     public static int fnvHash(Object object) {
-        var hash = object.toString().chars().reduce(INIT_HASH, (left, right) -> (left ^ right) * P);
+        // 一致性hash每次路由都会调用，直接遍历字符，不使用chars()的stream
+        var str = object.toString();
+        var hash = INIT_HASH;
+        for (var i = 0; i < str.length(); i++) {
+            hash = (hash ^ str.charAt(i)) * P;
+        }
+        return finalHash(hash);
+    }
+
+    /**
+     * 改进的32位FNV算法1，结果和fnvHash(Long.valueOf(value))相同，直接按照十进制的每一位字符计算，不装箱也不创建字符串
+     *
+     * @param value 计算hash的long，uid和sid的一致性hash每个包都会调用
+     * @return hash结果
+     */
+    public static int fnvHash(long value) {
+        var hash = INIT_HASH;
+        // 和Long.toString一样用负数计算，Long.MIN_VALUE取反会溢出
+        if (value < 0) {
+            hash = (hash ^ '-') * P;
+        } else {
+            value = -value;
+        }
+        var divisor = 1L;
+        while (divisor <= Long.MAX_VALUE / 10 && value <= -divisor * 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            var digit = (int) -(value / divisor);
+            value %= divisor;
+            hash = (hash ^ ('0' + digit)) * P;
+        }
+        return finalHash(hash);
+    }
+
+    private static int finalHash(int hash) {
         hash += hash << 13;
         hash ^= hash >> 7;
         hash += hash << 3;
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 一个执行器（或者一个协议号）的运行指标：队列深度，从提交到开始执行的等待时间，执行时间，每秒执行的任务数量
+ * <p>
+ * 执行器统计等待时间需要为每个任务包装一个对象，通过-Dzfoo.metrics.executor=false关闭执行器和协议号的运行指标，关闭之后不会再包装任务
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class ExecutorMetrics {
+
+    public static final String ENABLE_PROPERTY = "zfoo.metrics.executor";
+
+    /**
+     * 是否统计执行器和协议号的运行指标，默认开启
+     */
+    public static final boolean ENABLE = Boolean.parseBoolean(System.getProperty(ENABLE_PROPERTY, "true"));
+
+    /**
+     * 计算每秒执行的任务数量的时间窗口，和读取快照的频率无关
+     */
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private String name;
+
+    private final LongAdder submittedCount = new LongAdder();
+
+    private final LongAdder completedCount = new LongAdder();
+
+    /**
+     * 从提交到开始执行的等待时间，单位纳秒
+     */
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+
+    /**
+     * 执行时间，单位纳秒
+     */
+    private final LatencyHistogram executeHistogram = new LatencyHistogram();
+
+    /**
+     * 队列深度，为null的时候使用提交数量减去完成数量
+     */
+    private LongSupplier queueDepthSupplier;
+
+    /**
+     * 当前时间窗口开始时的完成数量和时间，窗口满了之后才会前进，多个读取者（如JMX和日志）共用同一个窗口，互不影响
+     */
+    private long windowCompletedCount;
+
+    private long windowStartNanoTime = System.nanoTime();
+
+    /**
+     * 上一个完整的时间窗口的每秒执行的任务数量，小于0表示还没有完整的窗口
+     */
+    private double tasksPerSecond = -1D;
+
+    public static ExecutorMetrics valueOf(String name) {
+        var metrics = new ExecutorMetrics();
+        metrics.name = name;
+        return metrics;
+    }
+
+    public static ExecutorMetrics valueOf(String name, LongSupplier queueDepthSupplier) {
+        var metrics = valueOf(name);
+        metrics.queueDepthSupplier = queueDepthSupplier;
+        return metrics;
+    }
+
+    /**
+     * 包装任务，执行的时候记录等待时间和执行时间
+     */
+    public Runnable wrap(Runnable task) {
+        submittedCount.increment();
+        return new MeteredRunnable(this, task, System.nanoTime());
+    }
+
+    public void recordSubmit() {
+        submittedCount.increment();
+    }
+
+    /**
+     * 包装过的任务没有成功提交到队列中
+     */
+    public void recordReject() {
+        submittedCount.decrement();
+    }
+
+    public void recordComplete(long waitNanos, long executeNanos) {
+        completedCount.increment();
+        waitHistogram.record(waitNanos);
+        executeHistogram.record(executeNanos);
+    }
+
+    /**
+     * 只记录等待时间，用在自己记录了提交时间的任务上，如PacketReceiverTask，等待时间是从提交到线程池到开始执行
+     */
+    public void recordWait(long waitNanos) {
+        waitHistogram.record(waitNanos);
+    }
+
+    /**
+     * 只记录执行时间，用在没有排队的调用上，如PacketBus.submit
+     */
+    public void recordExecute(long executeNanos) {
+        completedCount.increment();
+        executeHistogram.record(executeNanos);
+    }
+
+    public long queueDepth() {
+        if (queueDepthSupplier != null) {
+            return queueDepthSupplier.getAsLong();
+        }
+        return Math.max(0, submittedCount.sum() - completedCount.sum());
+    }
+
+    /**
+     * 生成当前指标的快照，每秒执行的任务数量是最近一个完整的时间窗口的平均值
+     */
+    public ExecutorMetricsVO snapshot() {
+        var completed = completedCount.sum();
+        return ExecutorMetricsVO.valueOf(name, queueDepth(), completed, tasksPerSecond(System.nanoTime(), completed)
+                , toMicros(waitHistogram.getMean()), toMicros(waitHistogram.getPercentile(99D)), toMicros(waitHistogram.getMax())
+                , toMicros(executeHistogram.getMean()), toMicros(executeHistogram.getPercentile(99D)), toMicros(executeHistogram.getMax()));
+    }
+
+    /**
+     * 距离窗口开始超过RATE_WINDOW_NANOS才会计算新的速率并且开始下一个窗口，第一个窗口还没有满的时候返回到现在的平均值
+     */
+    synchronized double tasksPerSecond(long nanoTime, long completed) {
+        var elapsedNanos = nanoTime - windowStartNanoTime;
+        if (elapsedNanos >= RATE_WINDOW_NANOS) {
+            tasksPerSecond = (completed - windowCompletedCount) * 1D * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+            windowCompletedCount = completed;
+            windowStartNanoTime = nanoTime;
+            return tasksPerSecond;
+        }
+        if (tasksPerSecond >= 0) {
+            return tasksPerSecond;
+        }
+        return elapsedNanos <= 0 ? 0D : (completed - windowCompletedCount) * 1D * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public void reset() {
+        waitHistogram.reset();
+        executeHistogram.reset();
+        resetRateWindow(System.nanoTime());
+    }
+
+    synchronized void resetRateWindow(long nanoTime) {
+        windowCompletedCount = completedCount.sum();
+        windowStartNanoTime = nanoTime;
+        tasksPerSecond = -1D;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    public LatencyHistogram getExecuteHistogram() {
+        return executeHistogram;
+    }
+
+
+    private static final class MeteredRunnable implements Runnable {
+
+        private final ExecutorMetrics metrics;
+
+        private final Runnable task;
+
+        private final long submitNanoTime;
+
+        private MeteredRunnable(ExecutorMetrics metrics, Runnable task, long submitNanoTime) {
+            this.metrics = metrics;
+            this.task = task;
+            this.submitNanoTime = submitNanoTime;
+        }
+
+        @Override
+        public void run() {
+            var startNanoTime = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                metrics.recordComplete(startNanoTime - submitNanoTime, System.nanoTime() - startNanoTime);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.util.metrics;
+
+import com.zfoo.protocol.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 一组执行器的JMX监控，注册的名称为com.zfoo.util.metrics:type=ExecutorMetrics,name=group
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class ExecutorMetricsMBean implements IExecutorMetricsMBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorMetricsMBean.class);
+
+    private Supplier<List<ExecutorMetrics>> metricsSupplier;
+
+    /**
+     * @param group           分组名称，如task，event，scheduler，packet
+     * @param metricsSupplier 每次查询的时候调用，可以返回动态变化的执行器列表
+     */
+    public static ExecutorMetricsMBean register(String group, Supplier<List<ExecutorMetrics>> metricsSupplier) {
+        var mbean = new ExecutorMetricsMBean();
+        mbean.metricsSupplier = metricsSupplier;
+        try {
+            var mbs = ManagementFactory.getPlatformMBeanServer();
+            var objectName = new ObjectName(StringUtils.format("{}:type=ExecutorMetrics,name={}", ExecutorMetricsMBean.class.getPackage().getName(), group));
+            if (mbs.isRegistered(objectName)) {
+                mbs.unregisterMBean(objectName);
+            }
+            mbs.registerMBean(mbean, objectName);
+        } catch (Exception e) {
+            logger.error("ExecutorMetrics MBean [group:{}] register error", group, e);
+        }
+        return mbean;
+    }
+
+    @Override
+    public List<ExecutorMetricsVO> getMetrics() {
+        var list = new ArrayList<ExecutorMetricsVO>();
+        for (var metrics : metricsSupplier.get()) {
+            list.add(metrics.snapshot());
+        }
+        return list;
+    }
+
+    @Override
+    public List<ExecutorMetricsVO> topByQueueDepth(int size) {
+        return getMetrics().stream()
+                .sorted(Comparator.comparingLong(ExecutorMetricsVO::getQueueDepth).reversed())
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ExecutorMetricsVO> topByExecuteTime(int size) {
+        return getMetrics().stream()
+                .sorted(Comparator.comparingLong(ExecutorMetricsVO::getExecuteP99Micros).reversed())
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void reset() {
+        metricsSupplier.get().forEach(it -> it.reset());
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.util.metrics;
+
+import com.zfoo.protocol.util.StringUtils;
+
+/**
+ * ExecutorMetrics的快照，耗时的单位都是微秒
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class ExecutorMetricsVO {
+
+    /**
+     * 执行器或者协议的名称
+     */
+    private String name;
+
+    /**
+     * 等待执行和正在执行的任务数量
+     */
+    private long queueDepth;
+
+    /**
+     * 已经执行完成的任务数量
+     */
+    private long completedCount;
+
+    /**
+     * 每秒执行的任务数量
+     */
+    private double tasksPerSecond;
+
+    /**
+     * 从提交到开始执行的平均等待时间，单位微秒
+     */
+    private long waitMeanMicros;
+
+    private long waitP99Micros;
+
+    private long waitMaxMicros;
+
+    /**
+     * 平均执行时间，单位微秒
+     */
+    private long executeMeanMicros;
+
+    private long executeP99Micros;
+
+    private long executeMaxMicros;
+
+    public static ExecutorMetricsVO valueOf(String name, long queueDepth, long completedCount, double tasksPerSecond, long waitMeanMicros, long waitP99Micros, long waitMaxMicros, long executeMeanMicros, long executeP99Micros, long executeMaxMicros) {
+        var vo = new ExecutorMetricsVO();
+        vo.name = name;
+        vo.queueDepth = queueDepth;
+        vo.completedCount = completedCount;
+        vo.tasksPerSecond = tasksPerSecond;
+        vo.waitMeanMicros = waitMeanMicros;
+        vo.waitP99Micros = waitP99Micros;
+        vo.waitMaxMicros = waitMaxMicros;
+        vo.executeMeanMicros = executeMeanMicros;
+        vo.executeP99Micros = executeP99Micros;
+        vo.executeMaxMicros = executeMaxMicros;
+        return vo;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtils.format("[{}][queueDepth:{}][completed:{}][tps:{}][wait mean:{}us p99:{}us max:{}us][execute mean:{}us p99:{}us max:{}us]"
+                , name, queueDepth, completedCount, String.format("%.1f", tasksPerSecond)
+                , waitMeanMicros, waitP99Micros, waitMaxMicros, executeMeanMicros, executeP99Micros, executeMaxMicros);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(long queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public double getTasksPerSecond() {
+        return tasksPerSecond;
+    }
+
+    public void setTasksPerSecond(double tasksPerSecond) {
+        this.tasksPerSecond = tasksPerSecond;
+    }
+
+    public long getWaitMeanMicros() {
+        return waitMeanMicros;
+    }
+
+    public void setWaitMeanMicros(long waitMeanMicros) {
+        this.waitMeanMicros = waitMeanMicros;
+    }
+
+    public long getWaitP99Micros() {
+        return waitP99Micros;
+    }
+
+    public void setWaitP99Micros(long waitP99Micros) {
+        this.waitP99Micros = waitP99Micros;
+    }
+
+    public long getWaitMaxMicros() {
+        return waitMaxMicros;
+    }
+
+    public void setWaitMaxMicros(long waitMaxMicros) {
+        this.waitMaxMicros = waitMaxMicros;
+    }
+
+    public long getExecuteMeanMicros() {
+        return executeMeanMicros;
+    }
+
+    public void setExecuteMeanMicros(long executeMeanMicros) {
+        this.executeMeanMicros = executeMeanMicros;
+    }
+
+    public long getExecuteP99Micros() {
+        return executeP99Micros;
+    }
+
+    public void setExecuteP99Micros(long executeP99Micros) {
+        this.executeP99Micros = executeP99Micros;
+    }
+
+    public long getExecuteMaxMicros() {
+        return executeMaxMicros;
+    }
+
+    public void setExecuteMaxMicros(long executeMaxMicros) {
+        this.executeMaxMicros = executeMaxMicros;
+    }
+}
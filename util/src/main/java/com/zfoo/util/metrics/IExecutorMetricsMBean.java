@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.util.metrics;
+
+import javax.management.MXBean;
+import java.util.List;
+
+/**
+ * 执行器运行指标的JMX接口，可以通过jconsole或者jmc查看，不需要挂上profiler就可以找出繁忙的线程和缓慢的消息
+ *
+ * @author godotg
+ * @version 3.0
+ */
+@MXBean
+public interface IExecutorMetricsMBean {
+
+    /**
+     * 所有执行器的指标快照
+     */
+    List<ExecutorMetricsVO> getMetrics();
+
+    /**
+     * 队列深度最大的几个执行器
+     */
+    List<ExecutorMetricsVO> topByQueueDepth(int size);
+
+    /**
+     * p99执行时间最长的几个执行器
+     */
+    List<ExecutorMetricsVO> topByExecuteTime(int size);
+
+    /**
+     * 清空等待时间和执行时间的统计
+     */
+    void reset();
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的耗时直方图，和HdrHistogram一样使用指数分桶，每个2的幂次区间再细分为4个子桶，误差不超过25%
+ * <p>
+ * 记录的时候只有一次原子自增，不会创建任何对象，可以在生产环境一直开启
+ *
+ * @author godotg
+ * @version 3.0
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    /**
+     * 超过2^36纳秒（大约68秒）的值都记录在最后一个桶里
+     */
+    private static final int MAX_VALUE_BITS = 36;
+
+    private static final long MAX_TRACKABLE_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong(0);
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(Math.min(value, MAX_TRACKABLE_VALUE)));
+        count.increment();
+        sum.add(value);
+
+        var currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        var totalCount = count.sum();
+        return totalCount == 0 ? 0 : sum.sum() / totalCount;
+    }
+
+    /**
+     * @param percentile 百分位，如99.9
+     * @return 对应百分位所在桶的上界，没有记录的时候返回0
+     */
+    public long getPercentile(double percentile) {
+        var totalCount = 0L;
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            totalCount += buckets.get(i);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        var targetCount = Math.max(1L, (long) Math.ceil(totalCount * Math.min(percentile, 100D) / 100D));
+        var accumulatedCount = 0L;
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            accumulatedCount += buckets.get(i);
+            if (accumulatedCount >= targetCount) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        var shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = (index >>> SUB_BUCKET_BITS) - 1;
+        var subBucket = index & SUB_BUCKET_MASK;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.util.math;
+
+import com.zfoo.protocol.model.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 300;
+
+    private static final int KEY_COUNT = 100000;
+
+    private static final List<Pair<String, String>> servers = List.of(new Pair<>("192.168.0.0:111", "192.168.0.0:111")
+            , new Pair<>("192.168.0.1:111", "192.168.0.1:111"), new Pair<>("192.168.0.2:111", "192.168.0.2:111"));
+
+    @Test
+    public void valueOfTest() {
+        var ring = ConsistentHashRing.valueOf(servers, VIRTUAL_NODES);
+        Assert.assertEquals(servers, ring.getRealNodes());
+        assertSameRoute(servers, ring);
+    }
+
+    @Test
+    public void addNodeTest() {
+        var ring = ConsistentHashRing.valueOf(servers, VIRTUAL_NODES);
+        var newRing = ring.addNode("192.168.0.3:111", "192.168.0.3:111");
+
+        var nodes = new ArrayList<>(servers);
+        nodes.add(new Pair<>("192.168.0.3:111", "192.168.0.3:111"));
+        assertSameRoute(nodes, newRing);
+        Assert.assertTrue(newRing.containsNode("192.168.0.3:111"));
+
+        // 原来的环不变
+        Assert.assertFalse(ring.containsNode("192.168.0.3:111"));
+        assertSameRoute(servers, ring);
+    }
+
+    @Test
+    public void removeNodeTest() {
+        var ring = ConsistentHashRing.valueOf(servers, VIRTUAL_NODES);
+        var newRing = ring.removeNode("192.168.0.1:111");
+
+        var nodes = new ArrayList<>(servers);
+        nodes.removeIf(it -> it.getKey().equals("192.168.0.1:111"));
+        assertSameRoute(nodes, newRing);
+        Assert.assertFalse(newRing.containsNode("192.168.0.1:111"));
+        Assert.assertTrue(ring.containsNode("192.168.0.1:111"));
+
+        // 删除不存在的节点返回原来的环
+        Assert.assertSame(newRing, newRing.removeNode("192.168.0.1:111"));
+
+        // 删除所有的节点
+        var emptyRing = newRing.removeNode("192.168.0.0:111").removeNode("192.168.0.2:111");
+        Assert.assertTrue(emptyRing.isEmpty());
+        Assert.assertNull(emptyRing.getRealNode("1"));
+    }
+
+    @Test
+    public void replaceValueTest() {
+        var ring = ConsistentHashRing.valueOf(servers, VIRTUAL_NODES);
+        var newRing = ring.addNode("192.168.0.1:111", "replaced");
+
+        // key相同的节点替换value，虚拟节点的位置不变，原来路由到这个节点的key路由到新的value
+        Assert.assertEquals(servers.size(), newRing.getRealNodes().size());
+        Assert.assertEquals("replaced", newRing.getNode("192.168.0.1:111"));
+        Assert.assertEquals("192.168.0.1:111", ring.getNode("192.168.0.1:111"));
+        for (int i = 0; i < KEY_COUNT; i++) {
+            var key = String.valueOf(i);
+            var expected = ring.getRealNode(key);
+            Assert.assertEquals(expected.equals("192.168.0.1:111") ? "replaced" : expected, newRing.getRealNode(key));
+        }
+    }
+
+    @Test
+    public void addAndRemoveTest() {
+        var ring = ConsistentHashRing.valueOf(servers, VIRTUAL_NODES);
+        ring = ring.addNode("192.168.0.3:111", "192.168.0.3:111").removeNode("192.168.0.1:111");
+
+        var nodes = new ArrayList<>(servers);
+        nodes.add(new Pair<>("192.168.0.3:111", "192.168.0.3:111"));
+        nodes.removeIf(it -> it.getKey().equals("192.168.0.1:111"));
+        assertSameRoute(nodes, ring);
+    }
+
+    /**
+     * 增量修改的环和用同样的节点重新构建的ConsistentHash，路由结果相同
+     */
+    private void assertSameRoute(List<Pair<String, String>> nodes, ConsistentHashRing<String, String> ring) {
+        var consistentHash = new ConsistentHash<>(nodes, VIRTUAL_NODES);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            var key = String.valueOf(i);
+            Assert.assertEquals(consistentHash.getRealNode(key).getValue(), ring.getRealNode(key));
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package com.zfoo.util.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class HashUtilsTest {
+
+    @Test
+    public void fnvHashLongTest() {
+        var values = new long[]{Long.MIN_VALUE, Long.MIN_VALUE + 1, -1000000000000000000L, -999999999999999999L, -10, -9, -1
+                , 0, 1, 9, 10, 99, 100, 999999999999999999L, 1000000000000000000L, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        for (var value : values) {
+            Assert.assertEquals(HashUtils.fnvHash((Object) value), HashUtils.fnvHash(value));
+        }
+
+        var random = new Random(1);
+        for (var i = 0; i < 10000; i++) {
+            var value = random.nextLong() >> random.nextInt(64);
+            Assert.assertEquals(HashUtils.fnvHash((Object) value), HashUtils.fnvHash(value));
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2020 The zfoo Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package com.zfoo.util.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author godotg
+ * @version 3.0
+ */
+public class ExecutorMetricsTest {
+
+    @Test
+    public void histogramTest() {
+        var histogram = new LatencyHistogram();
+        for (var i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000_000, histogram.getMax());
+        Assert.assertEquals(500_500, histogram.getMean());
+
+        // 分桶的误差不超过25%
+        var p50 = histogram.getPercentile(50);
+        Assert.assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.25);
+        var p99 = histogram.getPercentile(99);
+        Assert.assertTrue(p99 >= 990_000 && p99 <= 1000_000);
+        Assert.assertEquals(1000_000, histogram.getPercentile(100));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void tasksPerSecondTest() {
+        var metrics = ExecutorMetrics.valueOf("test-rate");
+        var start = System.nanoTime();
+        metrics.resetRateWindow(start);
+
+        // 一个完整的窗口执行了100个任务
+        Assert.assertEquals(100D, metrics.tasksPerSecond(start + TimeUnit.SECONDS.toNanos(1), 100), 0.001D);
+
+        // 窗口内多次读取，每次都是上一个完整窗口的值，不会互相干扰
+        Assert.assertEquals(100D, metrics.tasksPerSecond(start + TimeUnit.MILLISECONDS.toNanos(1100), 150), 0.001D);
+        Assert.assertEquals(100D, metrics.tasksPerSecond(start + TimeUnit.MILLISECONDS.toNanos(1200), 160), 0.001D);
+
+        Assert.assertEquals(200D, metrics.tasksPerSecond(start + TimeUnit.SECONDS.toNanos(2), 300), 0.001D);
+
+        // reset之后重新开始计算
+        metrics.resetRateWindow(start + TimeUnit.SECONDS.toNanos(3));
+        Assert.assertEquals(0D, metrics.tasksPerSecond(start + TimeUnit.SECONDS.toNanos(3), 0), 0.001D);
+    }
+
+    @Test
+    public void recordWaitTest() {
+        // PacketBus的协议指标，等待时间和执行时间分开记录，不需要包装任务
+        var metrics = ExecutorMetrics.valueOf("test-protocol");
+        metrics.recordSubmit();
+        metrics.recordWait(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordExecute(TimeUnit.MILLISECONDS.toNanos(1));
+
+        Assert.assertEquals(1, metrics.getWaitHistogram().getCount());
+        Assert.assertEquals(1, metrics.getExecuteHistogram().getCount());
+
+        var vo = metrics.snapshot();
+        Assert.assertEquals(1, vo.getCompletedCount());
+        Assert.assertEquals(0, vo.getQueueDepth());
+        Assert.assertEquals(3000, vo.getWaitMaxMicros());
+        Assert.assertEquals(1000, vo.getExecuteMaxMicros());
+    }
+
+    @Test
+    public void mbeanTest() throws Exception {
+        var metrics = ExecutorMetrics.valueOf("test-p1");
+        metrics.wrap(() -> {
+        }).run();
+        metrics.wrap(() -> {
+        });
+
+        ExecutorMetricsMBean.register("test", () -> List.of(metrics));
+
+        var objectName = new ObjectName("com.zfoo.util.metrics:type=ExecutorMetrics,name=test");
+        var attribute = ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Metrics");
+        Assert.assertNotNull(attribute);
+
+        var vo = metrics.snapshot();
+        Assert.assertEquals(1, vo.getCompletedCount());
+        Assert.assertEquals(1, vo.getQueueDepth());
+    }
+
+}